@@ -0,0 +1,67 @@
+package com.sergeysav.bignum;
+
+import java.util.Random;
+
+/**
+ * Compares the branch free CommonUtils.add against the old compare-and-branch carry loop
+ *
+ * @author sergeys
+ */
+public class CarryTiming {
+
+    private static final int[] LENGTHS = {2, 4, 8, 16, 32};
+    private static final int   ROUNDS  = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(0);
+
+        System.out.println("Longs\tCompare\tBranch free");
+        for (int n : LENGTHS) {
+            long[] a = new long[n];
+            long[] b = new long[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = random.nextLong();
+                b[i] = random.nextLong();
+            }
+            int times = 100_000_000 / n;
+
+            long compare = Long.MAX_VALUE;
+            long branchFree = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long before = System.nanoTime();
+                for (int i = 0; i < times; i++) {
+                    addCompare(a, b);
+                }
+                long middle = System.nanoTime();
+                for (int i = 0; i < times; i++) {
+                    CommonUtils.add(a, b, a, 0);
+                }
+                long after = System.nanoTime();
+                compare = Math.min(compare, middle - before);
+                branchFree = Math.min(branchFree, after - middle);
+            }
+
+            System.out.printf("%d\t%.2f\t%.2f%n", n, compare / (double) times, branchFree / (double) times);
+        }
+        System.out.println("(ns per addition)");
+    }
+
+    /**
+     * The carry loop that the IntN and FloatN adders used before CommonUtils.add
+     */
+    private static void addCompare(long[] a, long[] b) {
+        long carry = 0;
+
+        for (int i = a.length - 1; i >= 0; i--) {
+            long temp = a[i] + b[i] + carry;
+
+            if (carry == 1) {
+                carry = (Long.compareUnsigned(temp, a[i]) <= 0 && Long.compareUnsigned(temp, b[i]) <= 0) ? 1 : 0;
+            } else {
+                carry = (Long.compareUnsigned(temp, a[i]) < 0 && Long.compareUnsigned(temp, b[i]) < 0) ? 1 : 0;
+            }
+
+            a[i] = temp;
+        }
+    }
+}
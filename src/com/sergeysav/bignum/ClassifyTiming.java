@@ -0,0 +1,83 @@
+package com.sergeysav.bignum;
+
+import java.util.Random;
+
+/**
+ * Times the Float128 operations that classify their operands on a mix of special and normal values
+ *
+ * @author sergeys
+ */
+public class ClassifyTiming {
+
+    private static final int VALUES = 1024;
+    private static final int TIMES  = 2_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(0);
+
+        //Half normal numbers, the rest split between zeros, subnormals, infinities and NaNs
+        Float128[] values = new Float128[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                    values[i] = new Float128(Float128.ZERO);
+                    break;
+                case 1:
+                    values[i] = Float128.bytesOf(random.nextLong() & 0x8000FFFFFFFFFFFFL, random.nextLong());
+                    break;
+                case 2:
+                    values[i] = new Float128(random.nextBoolean() ? Float128.POSITIVE_INFINITY : Float128.NEGATIVE_INFINITY);
+                    break;
+                case 3:
+                    values[i] = new Float128(Float128.NAN);
+                    break;
+                default:
+                    values[i] = Float128.from(random.nextGaussian() * 1000);
+                    break;
+            }
+        }
+
+        long classify = Long.MAX_VALUE;
+        long equality = Long.MAX_VALUE;
+        long addition = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = System.nanoTime();
+            for (int t = 0; t < TIMES; t++) {
+                for (Float128 value : values) {
+                    if (value.isFinite()) {
+                        sink++;
+                    }
+                    if (value.isNaN() || value.isInfinite()) {
+                        sink--;
+                    }
+                }
+            }
+            long middle = System.nanoTime();
+            for (int t = 0; t < TIMES; t++) {
+                for (int i = 1; i < VALUES; i++) {
+                    if (values[i].equals(values[i - 1])) {
+                        sink++;
+                    }
+                    sink += values[i].hashCode();
+                }
+            }
+            long later = System.nanoTime();
+            for (int t = 0; t < TIMES / 10; t++) {
+                for (int i = 1; i < VALUES; i++) {
+                    sink += Float128.add(values[i], values[i - 1]).hashCode();
+                }
+            }
+            long after = System.nanoTime();
+            classify = Math.min(classify, middle - before);
+            equality = Math.min(equality, later - middle);
+            addition = Math.min(addition, after - later);
+        }
+
+        System.out.printf("isFinite + isNaN + isInfinite\t%.2f%n", classify / (double) (TIMES * VALUES));
+        System.out.printf("equals + hashCode\t%.2f%n", equality / (double) (TIMES * (VALUES - 1)));
+        System.out.printf("add\t%.2f%n", addition / (double) (TIMES / 10 * (VALUES - 1)));
+        System.out.println("(ns per value, " + sink + ")");
+    }
+}
@@ -1,7 +1,7 @@
 package com.sergeysav.bignum;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author sergeys
@@ -16,68 +16,130 @@ public class CommonUtils {
             return original;
         }
         long[] result = new long[original.length];
+        shiftLeft(original, bits, result);
+        return result;
+    }
+
+    public static long[] shiftRightUnsigned(long[] original, int bits) {
+        if (bits < 0) {
+            throw new IllegalArgumentException("Cannot shift by negative amount");
+        }
+        if (bits == 0) {
+            return original;
+        }
+        long[] result = new long[original.length];
+        shiftRightUnsigned(original, bits, result);
+        return result;
+    }
+
+    public static long[] shiftRightSigned(long[] original, int bits) {
+        if (bits < 0) {
+            throw new IllegalArgumentException("Cannot shift by negative amount");
+        }
+        if (bits == 0) {
+            return original;
+        }
+        long[] result = new long[original.length];
+        shiftRightSigned(original, bits, result);
+        return result;
+    }
+
+    /**
+     * Shift a big endian array left into a destination array
+     *
+     * The destination may be the original array to shift in place
+     *
+     * @param original the longs to shift
+     * @param bits the number of bits to shift by
+     * @param result the array to store the result in (must be the same length as the original)
+     */
+    public static void shiftLeft(long[] original, int bits, long[] result) {
+        shiftLeft(original, 0, bits, result);
+    }
+
+    /**
+     * Shift the end of a big endian array left into a destination array
+     *
+     * The destination may be the original array to shift in place
+     *
+     * @param original the longs to shift
+     * @param from the index of the first long to shift (the longs before it are not read or written)
+     * @param bits the number of bits to shift by
+     * @param result the array to store the result in (must be the same length as the original)
+     */
+    public static void shiftLeft(long[] original, int from, int bits, long[] result) {
+        if (bits < 0) {
+            throw new IllegalArgumentException("Cannot shift by negative amount");
+        }
         int longs = bits / 64;
         int singleBits = bits % 64;
 
-        long mask = ~(-1L << singleBits);
-
-        for (int i = original.length - 1; i >= 0; i--) {
+        //Each long only reads from itself and the longs after it so this is safe in place
+        for (int i = from; i < original.length; i++) {
             if (i + longs >= original.length) {
                 result[i] = 0;
-            } else if (i + longs + 1 >= original.length) {
+            } else if (singleBits == 0 || i + longs + 1 >= original.length) {
                 result[i] = (original[i + longs] << singleBits);
             } else {
                 result[i] = ((original[i + longs] << singleBits) |
-                             ((original[i + longs + 1] >> (64 - singleBits)) & mask));
+                             (original[i + longs + 1] >>> (64 - singleBits)));
             }
         }
-
-        return result;
     }
 
-    public static long[] shiftRightUnsigned(long[] original, int bits) {
+    /**
+     * Shift a big endian array right into a destination array filling with 0s
+     *
+     * The destination may be the original array to shift in place
+     *
+     * @param original the longs to shift
+     * @param bits the number of bits to shift by
+     * @param result the array to store the result in (must be the same length as the original)
+     */
+    public static void shiftRightUnsigned(long[] original, int bits, long[] result) {
         if (bits < 0) {
             throw new IllegalArgumentException("Cannot shift by negative amount");
         }
-        if (bits == 0) {
-            return original;
-        }
-
-        long[] result = new long[original.length];
         int longs = bits / 64;
         int singleBits = bits % 64;
 
+        //Each long only reads from itself and the longs before it so this is safe in place
         for (int i = original.length - 1; i >= 0; i--) {
             if (i - longs < 0) {
                 result[i] = 0;
-            } else if (i - longs < 1) { //i - bytes == 0
+            } else if (singleBits == 0 || i - longs < 1) { //i - bytes == 0
                 result[i] = (original[i - longs] >>> singleBits);
             } else {
                 result[i] = ((original[i - longs] >>> singleBits) |
                              (original[i - longs - 1] << (64 - singleBits)));
             }
         }
-
-        return result;
     }
 
-    public static long[] shiftRightSigned(long[] original, int bits) {
+    /**
+     * Shift a big endian array right into a destination array filling with the sign bit
+     *
+     * The destination may be the original array to shift in place
+     *
+     * @param original the longs to shift
+     * @param bits the number of bits to shift by
+     * @param result the array to store the result in (must be the same length as the original)
+     */
+    public static void shiftRightSigned(long[] original, int bits, long[] result) {
         if (bits < 0) {
             throw new IllegalArgumentException("Cannot shift by negative amount");
         }
-        if (bits == 0) {
-            return original;
-        }
-
-        long[] result = new long[original.length];
         int longs = bits / 64;
         int singleBits = bits % 64;
 
         long signLong = original[0] < 0 ? -1L : 0;
 
+        //Each long only reads from itself and the longs before it so this is safe in place
         for (int i = original.length - 1; i >= 0; i--) {
             if (i - longs < 0) {
                 result[i] = signLong;
+            } else if (singleBits == 0) {
+                result[i] = original[i - longs];
             } else if (i - longs < 1) { //i - bytes == 0
                 result[i] = ((original[i - longs] >>> singleBits) |
                              (signLong << (64 - singleBits)));
@@ -86,8 +148,682 @@ public class CommonUtils {
                              (original[i - longs - 1] << (64 - singleBits)));
             }
         }
+    }
 
-        return result;
+    /**
+     * Shift a big endian array left in place
+     *
+     * @param longs the longs to shift
+     * @param bits the number of bits to shift by
+     */
+    public static void shiftLeftInPlace(long[] longs, int bits) {
+        shiftLeft(longs, bits, longs);
+    }
+
+    /**
+     * Shift a big endian array right in place filling with 0s
+     *
+     * @param longs the longs to shift
+     * @param bits the number of bits to shift by
+     */
+    public static void shiftRightUnsignedInPlace(long[] longs, int bits) {
+        shiftRightUnsigned(longs, bits, longs);
+    }
+
+    /**
+     * Shift a big endian array right in place filling with the sign bit
+     *
+     * @param longs the longs to shift
+     * @param bits the number of bits to shift by
+     */
+    public static void shiftRightSignedInPlace(long[] longs, int bits) {
+        shiftRightSigned(longs, bits, longs);
+    }
+
+    /**
+     * Get the upper 64 bits of the 128 bit product of two longs treated as unsigned values
+     *
+     * @param a the first long
+     * @param b the second long
+     * @return the high long of the unsigned product (the low long is simply a * b)
+     */
+    public static long multiplyHighUnsigned(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    /**
+     * Divide an unsigned 128 bit number by an unsigned 64 bit number
+     *
+     * The divisor must be normalized (its top bit set) and the high long must be less than the divisor
+     * so that the quotient fits into a long. The remainder is low - quotient * divisor.
+     *
+     * @param high the high long of the dividend
+     * @param low the low long of the dividend
+     * @param divisor the normalized divisor
+     * @return the unsigned quotient
+     */
+    public static long divideUnsigned128(long high, long low, long divisor) {
+        long divisorHigh = divisor >>> 32;
+        long divisorLow = divisor & 0xFFFFFFFFL;
+        long lowHigh = low >>> 32;
+        long lowLow = low & 0xFFFFFFFFL;
+
+        //First 32 bits of the quotient
+        long q1 = Long.divideUnsigned(high, divisorHigh);
+        long rhat = high - q1 * divisorHigh;
+        while (q1 > 0xFFFFFFFFL || Long.compareUnsigned(q1 * divisorLow, (rhat << 32) | lowHigh) > 0) {
+            q1--;
+            rhat += divisorHigh;
+            if (rhat > 0xFFFFFFFFL) {
+                break;
+            }
+        }
+
+        //Last 32 bits of the quotient
+        long middle = ((high << 32) | lowHigh) - q1 * divisor;
+        long q0 = Long.divideUnsigned(middle, divisorHigh);
+        rhat = middle - q0 * divisorHigh;
+        while (q0 > 0xFFFFFFFFL || Long.compareUnsigned(q0 * divisorLow, (rhat << 32) | lowLow) > 0) {
+            q0--;
+            rhat += divisorHigh;
+            if (rhat > 0xFFFFFFFFL) {
+                break;
+            }
+        }
+
+        return (q1 << 32) | q0;
+    }
+
+    /**
+     * Divide an unsigned number by a single long in place
+     *
+     * @param longs the dividend (most significant long first), replaced by the quotient
+     * @param from the index of the first long to divide (the longs before it must be zero)
+     * @param divisor the unsigned divisor (must not be zero)
+     * @return the unsigned remainder
+     */
+    public static long divideInPlace(long[] longs, int from, long divisor) {
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long normalized = divisor << shift;
+        long remainder = 0;
+        for (int i = from; i < longs.length; i++) {
+            //remainder:longs[i] shifted so that the divisor is normalized, the top long stays below the divisor
+            long high = shift == 0 ? remainder : (remainder << shift) | (longs[i] >>> (64 - shift));
+            long low = longs[i] << shift;
+            long quotient = divideUnsigned128(high, low, normalized);
+            remainder = (low - quotient * normalized) >>> shift;
+            longs[i] = quotient;
+        }
+        return remainder;
+    }
+
+    /**
+     * Divide two unsigned numbers using normalized long division (Knuth's Algorithm D)
+     *
+     * All numbers are big endian. The quotient may be stored in the dividend's array and the remainder in the
+     * divisor's. The normalization buffers are only used as scratch space so they can be shared between calls.
+     *
+     * @param u the dividend
+     * @param v the divisor (must not be zero)
+     * @param q the array to store the quotient in (the same length as the dividend)
+     * @param r the array to store the remainder in (the same length as the divisor) or null if it is not needed
+     * @param un the buffer to normalize the dividend in (at least one long longer than the dividend's significant longs)
+     * @param vn the buffer to normalize the divisor in (at least as long as the divisor's significant longs)
+     * @return whether the remainder is nonzero
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public static boolean divideUnsigned(long[] u, long[] v, long[] q, long[] r, long[] un, long[] vn) {
+        //Significant limbs of the divisor and dividend
+        int vStart = 0;
+        while (vStart < v.length && v[vStart] == 0) {
+            vStart++;
+        }
+        if (vStart == v.length) {
+            throw new ArithmeticException("Division by zero");
+        }
+        int uStart = 0;
+        while (uStart < u.length && u[uStart] == 0) {
+            uStart++;
+        }
+        int n = v.length - vStart;
+        int m = u.length - uStart;
+
+        if (m < n) {
+            if (r != null) {
+                Arrays.fill(r, 0, r.length - m, 0);
+                System.arraycopy(u, uStart, r, r.length - m, m);
+            }
+            Arrays.fill(q, 0);
+            return m > 0;
+        }
+
+        int shift = Long.numberOfLeadingZeros(v[vStart]);
+
+        if (n == 1) {
+            //Fast path for divisors that fit in one long: stream the shifted dividend through one divisor
+            long divisor = v[v.length - 1] << shift;
+            long remainder = shift == 0 ? 0 : u[uStart] >>> (64 - shift);
+            Arrays.fill(q, 0, uStart, 0);
+            for (int i = uStart; i < u.length; i++) {
+                long limb = u[i] << shift;
+                if (shift != 0 && i + 1 < u.length) {
+                    limb |= u[i + 1] >>> (64 - shift);
+                }
+                long quotient = divideUnsigned128(remainder, limb, divisor);
+                q[i] = quotient;
+                remainder = limb - quotient * divisor;
+            }
+            if (r != null) {
+                Arrays.fill(r, 0);
+                r[r.length - 1] = remainder >>> shift;
+            }
+            return remainder != 0;
+        }
+
+        //Normalized copies stored least significant limb first
+        for (int i = 0; i < n; i++) {
+            vn[i] = v[v.length - 1 - i] << shift;
+            if (shift != 0 && i > 0) {
+                vn[i] |= v[v.length - i] >>> (64 - shift);
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            un[i] = u[u.length - 1 - i] << shift;
+            if (shift != 0 && i > 0) {
+                un[i] |= u[u.length - i] >>> (64 - shift);
+            }
+        }
+        un[m] = shift == 0 ? 0 : u[uStart] >>> (64 - shift);
+        Arrays.fill(q, 0);
+
+        long top = vn[n - 1];
+        long next = vn[n - 2];
+
+        for (int j = m - n; j >= 0; j--) {
+            //Estimate the quotient limb from the top two limbs
+            long qhat;
+            long rhat;
+            boolean rhatOverflow = false;
+            if (un[j + n] == top) {
+                qhat = -1L;
+                rhat = un[j + n - 1] + top;
+                rhatOverflow = Long.compareUnsigned(rhat, top) < 0;
+            } else {
+                qhat = divideUnsigned128(un[j + n], un[j + n - 1], top);
+                rhat = un[j + n - 1] - qhat * top;
+            }
+            while (!rhatOverflow) {
+                long productHigh = multiplyHighUnsigned(qhat, next);
+                long productLow = qhat * next;
+                int compare = Long.compareUnsigned(productHigh, rhat);
+                if (compare < 0 || (compare == 0 && Long.compareUnsigned(productLow, un[j + n - 2]) <= 0)) {
+                    break;
+                }
+                qhat--;
+                rhat += top;
+                rhatOverflow = Long.compareUnsigned(rhat, top) < 0;
+            }
+
+            //Multiply and subtract
+            long carry = 0;
+            for (int i = 0; i < n; i++) {
+                long productLow = qhat * vn[i];
+                long productHigh = multiplyHighUnsigned(qhat, vn[i]);
+                long sum = productLow + carry;
+                productHigh += carryOut(productLow, carry, sum);
+                long difference = un[i + j] - sum;
+                productHigh += borrowOut(un[i + j], sum, difference);
+                un[i + j] = difference;
+                carry = productHigh;
+            }
+            long difference = un[j + n] - carry;
+            boolean negative = borrowOut(un[j + n], carry, difference) != 0;
+            un[j + n] = difference;
+
+            //The estimate was one too large: add the divisor back
+            if (negative) {
+                qhat--;
+                carry = 0;
+                for (int i = 0; i < n; i++) {
+                    long sum = un[i + j] + vn[i] + carry;
+                    carry = carryOut(un[i + j], vn[i], sum);
+                    un[i + j] = sum;
+                }
+                un[j + n] += carry;
+            }
+
+            q[q.length - 1 - j] = qhat;
+        }
+
+        //Unnormalize the remainder
+        boolean nonzero = false;
+        if (r != null) {
+            Arrays.fill(r, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            nonzero |= un[i] != 0;
+            if (r != null) {
+                r[r.length - 1 - i] = un[i] >>> shift;
+                if (shift != 0) {
+                    r[r.length - 1 - i] |= un[i + 1] << (64 - shift);
+                }
+            }
+        }
+        return nonzero;
+    }
+
+    /**
+     * Multiply an unsigned number by a single long and add a single long to it in place
+     *
+     * @param longs the number (most significant long first), replaced by the result
+     * @param multiplier the unsigned multiplier
+     * @param addend the unsigned value to add
+     * @return the unsigned long carried out of the most significant long (zero if the result fit)
+     */
+    public static long multiplyAddInPlace(long[] longs, long multiplier, long addend) {
+        return multiplyAddInPlace(longs, 0, multiplier, addend);
+    }
+
+    /**
+     * Multiply the end of an unsigned number by a single long and add a single long to it in place
+     *
+     * @param longs the number (most significant long first), replaced by the result
+     * @param from the index of the first long of the number (the longs before it are not read or written)
+     * @param multiplier the unsigned multiplier
+     * @param addend the unsigned value to add
+     * @return the unsigned long carried out of the long at from (zero if the result fit)
+     */
+    public static long multiplyAddInPlace(long[] longs, int from, long multiplier, long addend) {
+        long carry = addend;
+        for (int i = longs.length - 1; i >= from; i--) {
+            long low = longs[i] * multiplier;
+            long high = multiplyHighUnsigned(longs[i], multiplier);
+            long sum = low + carry;
+            //The high long is at most 2^64 - 2 so adding the carry cannot overflow it
+            carry = high + carryOut(low, carry, sum);
+            longs[i] = sum;
+        }
+        return carry;
+    }
+
+    /**
+     * For each radix, the most digits that always fit into an unsigned long and the radix raised to that many digits
+     */
+    private static final int[] RADIX_CHUNK_DIGITS = new int[Character.MAX_RADIX + 1];
+    private static final long[] RADIX_CHUNK = new long[Character.MAX_RADIX + 1];
+
+    static {
+        for (int radix = Character.MIN_RADIX; radix <= Character.MAX_RADIX; radix++) {
+            long power = 1;
+            int digits = 0;
+            while (multiplyHighUnsigned(power, radix) == 0) {
+                power *= radix;
+                digits++;
+            }
+            RADIX_CHUNK_DIGITS[radix] = digits;
+            RADIX_CHUNK[radix] = power;
+        }
+    }
+
+    /**
+     * Get the number of digits in the given radix that can be accumulated into an unsigned long at once
+     *
+     * @param radix the radix (between Character.MIN_RADIX and Character.MAX_RADIX)
+     * @return the number of digits (19 for decimal)
+     */
+    public static int radixChunkDigits(int radix) {
+        return RADIX_CHUNK_DIGITS[radix];
+    }
+
+    /**
+     * Get the radix raised to radixChunkDigits(radix)
+     *
+     * @param radix the radix (between Character.MIN_RADIX and Character.MAX_RADIX)
+     * @return the unsigned multiplier for a full chunk of digits
+     */
+    public static long radixChunk(int radix) {
+        return RADIX_CHUNK[radix];
+    }
+
+    /**
+     * The number of limbs at or below which the Karatsuba routines fall back to schoolbook multiplication
+     *
+     * Can be tuned with the bignum.karatsubaThreshold system property (see KaratsubaTiming)
+     * The default is the measured crossover: Karatsuba only starts to win somewhere above 32 limbs, so with it every
+     * generated width (Int2048 is the widest at 32 limbs) multiplies with schoolbook
+     */
+    public static final int KARATSUBA_THRESHOLD = Integer.getInteger("bignum.karatsubaThreshold", 32);
+
+    /**
+     * Get the number of scratch longs needed by the Karatsuba routines for a given operand length
+     *
+     * @param n the number of limbs in each operand
+     * @return the minimum length of the scratch region
+     */
+    public static int karatsubaScratchSize(int n) {
+        return 4 * n + 32;
+    }
+
+    /**
+     * Compute the full 2n limb product of two n limb numbers using schoolbook multiplication
+     *
+     * All numbers are big endian ranges of their arrays and the output must not overlap either input
+     *
+     * @param a the array holding the first number
+     * @param aOff the index of the most significant limb of the first number
+     * @param b the array holding the second number
+     * @param bOff the index of the most significant limb of the second number
+     * @param n the number of limbs in each number
+     * @param out the array to write the product to
+     * @param outOff the index of the most significant limb of the product
+     */
+    public static void multiplySchoolbook(long[] a, int aOff, long[] b, int bOff, int n, long[] out, int outOff) {
+        for (int i = outOff; i < outOff + 2 * n; i++) {
+            out[i] = 0;
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            long multiplier = a[aOff + i];
+            if (multiplier == 0) {
+                continue;
+            }
+
+            long carry = 0;
+            int k = outOff + n + i;
+            for (int j = n - 1; j >= 0; j--, k--) {
+                long low = multiplier * b[bOff + j];
+                long high = multiplyHighUnsigned(multiplier, b[bOff + j]);
+
+                long sum = low + carry;
+                high += carryOut(low, carry, sum);
+                long total = out[k] + sum;
+                high += carryOut(out[k], sum, total);
+                out[k] = total;
+
+                carry = high;
+            }
+            out[k] = carry;
+        }
+    }
+
+    /**
+     * Compute the low n limbs of the product of two n limb numbers using schoolbook multiplication
+     *
+     * All numbers are big endian ranges of their arrays and the output must not overlap either input
+     *
+     * @param a the array holding the first number
+     * @param aOff the index of the most significant limb of the first number
+     * @param b the array holding the second number
+     * @param bOff the index of the most significant limb of the second number
+     * @param n the number of limbs in each number and in the product
+     * @param out the array to write the product to
+     * @param outOff the index of the most significant limb of the product
+     */
+    public static void multiplyLowSchoolbook(long[] a, int aOff, long[] b, int bOff, int n, long[] out, int outOff) {
+        for (int i = outOff; i < outOff + n; i++) {
+            out[i] = 0;
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            long multiplier = a[aOff + i];
+            if (multiplier == 0) {
+                continue;
+            }
+
+            long carry = 0;
+            for (int j = n - 1, k = outOff + i - (n - 1 - j); k >= outOff; j--, k--) {
+                long low = multiplier * b[bOff + j];
+                long high = multiplyHighUnsigned(multiplier, b[bOff + j]);
+
+                long sum = low + carry;
+                high += carryOut(low, carry, sum);
+                long total = out[k] + sum;
+                high += carryOut(out[k], sum, total);
+                out[k] = total;
+
+                carry = high;
+            }
+        }
+    }
+
+    /**
+     * Compute the full 2n limb product of two n limb numbers using Karatsuba multiplication
+     *
+     * All numbers are big endian ranges of their arrays and the output must not overlap either input
+     * The scratch region is only used as temporary storage so the recursion never allocates
+     *
+     * @param a the array holding the first number
+     * @param aOff the index of the most significant limb of the first number
+     * @param b the array holding the second number
+     * @param bOff the index of the most significant limb of the second number
+     * @param n the number of limbs in each number
+     * @param out the array to write the product to
+     * @param outOff the index of the most significant limb of the product
+     * @param scratch the scratch array (see karatsubaScratchSize)
+     * @param scratchOff the first index of the scratch array that may be used
+     * @param threshold the operand length at or below which schoolbook multiplication is used
+     */
+    public static void multiplyKaratsuba(long[] a, int aOff, long[] b, int bOff, int n, long[] out, int outOff,
+                                         long[] scratch, int scratchOff, int threshold) {
+        if (n <= threshold || n % 2 != 0) {
+            multiplySchoolbook(a, aOff, b, bOff, n, out, outOff);
+            return;
+        }
+        int h = n / 2;
+
+        //x = x1 * 2^(64h) + x0 where x1 is the more significant (first) half
+        //z2 = a1 * b1 goes in the top half of the output and z0 = a0 * b0 in the bottom half
+        multiplyKaratsuba(a, aOff, b, bOff, h, out, outOff, scratch, scratchOff, threshold);
+        multiplyKaratsuba(a, aOff + h, b, bOff + h, h, out, outOff + n, scratch, scratchOff, threshold);
+
+        //Sums of the halves (each has a carry out)
+        int sumA = scratchOff;
+        int sumB = scratchOff + h;
+        long carryA = addTo(scratch, sumA, a, aOff, a, aOff + h, h);
+        long carryB = addTo(scratch, sumB, b, bOff, b, bOff + h, h);
+
+        //z1 = (a0 + a1)(b0 + b1) - z0 - z2 with an extra limb on top for the carries
+        int z1 = scratchOff + 2 * h;
+        scratch[z1] = 0;
+        multiplyKaratsuba(scratch, sumA, scratch, sumB, h, scratch, z1 + 1, scratch, z1 + n + 1, threshold);
+        if (carryA != 0) {
+            scratch[z1] += addTo(scratch, z1 + 1, scratch, z1 + 1, scratch, sumB, h);
+        }
+        if (carryB != 0) {
+            scratch[z1] += addTo(scratch, z1 + 1, scratch, z1 + 1, scratch, sumA, h);
+        }
+        scratch[z1] += carryA & carryB;
+        scratch[z1] -= subtractFrom(scratch, z1 + 1, out, outOff, n);
+        scratch[z1] -= subtractFrom(scratch, z1 + 1, out, outOff + n, n);
+
+        //Add z1 * 2^(64h) into the output
+        long carry = addTo(out, outOff + h - 1, out, outOff + h - 1, scratch, z1, n + 1);
+        for (int i = outOff + h - 2; i >= outOff && carry != 0; i--) {
+            out[i]++;
+            carry = out[i] == 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * Compute the low n limbs of the product of two n limb numbers using Karatsuba multiplication
+     *
+     * This is the product modulo 2^(64n), which is what fixed width integers need
+     * All numbers are big endian ranges of their arrays and the output must not overlap either input
+     *
+     * @param a the array holding the first number
+     * @param aOff the index of the most significant limb of the first number
+     * @param b the array holding the second number
+     * @param bOff the index of the most significant limb of the second number
+     * @param n the number of limbs in each number and in the product
+     * @param out the array to write the product to
+     * @param outOff the index of the most significant limb of the product
+     * @param scratch the scratch array (see karatsubaScratchSize)
+     * @param scratchOff the first index of the scratch array that may be used
+     * @param threshold the operand length at or below which schoolbook multiplication is used
+     */
+    public static void multiplyLowKaratsuba(long[] a, int aOff, long[] b, int bOff, int n, long[] out, int outOff,
+                                            long[] scratch, int scratchOff, int threshold) {
+        if (n <= threshold || n % 2 != 0) {
+            multiplyLowSchoolbook(a, aOff, b, bOff, n, out, outOff);
+            return;
+        }
+        int h = n / 2;
+
+        //Only a0 * b0 needs its full product, the cross terms only affect the top half
+        multiplyKaratsuba(a, aOff + h, b, bOff + h, h, out, outOff, scratch, scratchOff, threshold);
+
+        multiplyLowKaratsuba(a, aOff, b, bOff + h, h, scratch, scratchOff, scratch, scratchOff + h, threshold);
+        addTo(out, outOff, out, outOff, scratch, scratchOff, h);
+        multiplyLowKaratsuba(a, aOff + h, b, bOff, h, scratch, scratchOff, scratch, scratchOff + h, threshold);
+        addTo(out, outOff, out, outOff, scratch, scratchOff, h);
+    }
+
+    private static long addTo(long[] dst, int dstOff, long[] a, int aOff, long[] b, int bOff, int len) {
+        long carry = 0;
+        for (int i = len - 1; i >= 0; i--) {
+            long x = a[aOff + i];
+            long y = b[bOff + i];
+            long temp = x + y + carry;
+            carry = carryOut(x, y, temp);
+            dst[dstOff + i] = temp;
+        }
+        return carry;
+    }
+
+    private static long subtractFrom(long[] dst, int dstOff, long[] b, int bOff, int len) {
+        long borrow = 0;
+        for (int i = len - 1; i >= 0; i--) {
+            long x = dst[dstOff + i];
+            long y = b[bOff + i];
+            long temp = x - y - borrow;
+            borrow = borrowOut(x, y, temp);
+            dst[dstOff + i] = temp;
+        }
+        return borrow;
+    }
+
+    /**
+     * Get the carry out of an unsigned addition of two longs
+     *
+     * This is branch free: the carry is the majority of the top bits of a, b and the inverted sum
+     *
+     * @param a the first long that was added
+     * @param b the second long that was added
+     * @param sum the result of a + b + (carry in)
+     * @return 1 if the addition carried out of the long, 0 otherwise
+     */
+    public static long carryOut(long a, long b, long sum) {
+        return ((a & b) | ((a | b) & ~sum)) >>> 63;
+    }
+
+    /**
+     * Get the borrow out of an unsigned subtraction of two longs
+     *
+     * This is branch free in the same way as carryOut
+     *
+     * @param a the long that was subtracted from
+     * @param b the long that was subtracted
+     * @param difference the result of a - b - (borrow in)
+     * @return 1 if the subtraction borrowed past the top of the long, 0 otherwise
+     */
+    public static long borrowOut(long a, long b, long difference) {
+        return ((~a & b) | ((~a | b) & difference)) >>> 63;
+    }
+
+    /**
+     * Add two big endian arrays of the same length
+     *
+     * The result may be either of the inputs to add in place
+     *
+     * @param a the first array
+     * @param b the second array
+     * @param result the array to store the sum in
+     * @param carry the carry in (0 or 1)
+     * @return the carry out (0 or 1)
+     */
+    public static long add(long[] a, long[] b, long[] result, long carry) {
+        return add(a, b, result, 0, carry);
+    }
+
+    /**
+     * Add the ends of two big endian arrays of the same length
+     *
+     * The result may be either of the inputs to add in place
+     *
+     * @param a the first array
+     * @param b the second array
+     * @param result the array to store the sum in
+     * @param from the index of the first long to add (the longs before it are not read or written)
+     * @param carry the carry in (0 or 1)
+     * @return the carry out (0 or 1)
+     */
+    public static long add(long[] a, long[] b, long[] result, int from, long carry) {
+        for (int i = result.length - 1; i >= from; i--) {
+            long x = a[i];
+            long y = b[i];
+            long temp = x + y + carry;
+            carry = carryOut(x, y, temp);
+            result[i] = temp;
+        }
+        return carry;
+    }
+
+    /**
+     * Subtract one big endian array from another of the same length
+     *
+     * The result may be either of the inputs to subtract in place
+     *
+     * @param a the array to subtract from
+     * @param b the array to subtract
+     * @param result the array to store the difference in
+     * @param borrow the borrow in (0 or 1)
+     * @return the borrow out (0 or 1)
+     */
+    public static long subtract(long[] a, long[] b, long[] result, long borrow) {
+        return subtract(a, b, result, 0, borrow);
+    }
+
+    /**
+     * Subtract the end of one big endian array from the end of another of the same length
+     *
+     * The result may be either of the inputs to subtract in place
+     *
+     * @param a the array to subtract from
+     * @param b the array to subtract
+     * @param result the array to store the difference in
+     * @param from the index of the first long to subtract (the longs before it are not read or written)
+     * @param borrow the borrow in (0 or 1)
+     * @return the borrow out (0 or 1)
+     */
+    public static long subtract(long[] a, long[] b, long[] result, int from, long borrow) {
+        for (int i = result.length - 1; i >= from; i--) {
+            long x = a[i];
+            long y = b[i];
+            long temp = x - y - borrow;
+            borrow = borrowOut(x, y, temp);
+            result[i] = temp;
+        }
+        return borrow;
+    }
+
+    /**
+     * Negate a big endian two's complement number in place
+     *
+     * @param longs the number to negate
+     */
+    public static void negateInPlace(long[] longs) {
+        //Invert and add one, the one only carries through longs that are zero
+        int i = longs.length - 1;
+        while (i >= 0 && longs[i] == 0) {
+            i--;
+        }
+        if (i >= 0) {
+            longs[i] = -longs[i];
+            i--;
+        }
+        for (; i >= 0; i--) {
+            longs[i] = ~longs[i];
+        }
     }
 
     //Big Endian
@@ -99,11 +835,307 @@ public class CommonUtils {
         }
     }
 
+    /**
+     * Get the number of bits needed to hold an unsigned big endian number
+     *
+     * @param longs the number
+     * @return the position of the highest set bit plus one (zero if no bits are set)
+     */
+    public static int bitLength(long[] longs) {
+        for (int i = 0; i < longs.length; i++) {
+            if (longs[i] != 0) {
+                return (longs.length - i) * 64 - Long.numberOfLeadingZeros(longs[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether any of the lowest bits of a big endian number are set
+     *
+     * @param longs the number
+     * @param bits the number of low bits to check (at most the size of the number)
+     * @return true if any of those bits are set
+     */
+    public static boolean hasLowBits(long[] longs, int bits) {
+        int full = bits / 64;
+        for (int i = longs.length - full; i < longs.length; i++) {
+            if (longs[i] != 0) {
+                return true;
+            }
+        }
+        return bits % 64 != 0 && (longs[longs.length - 1 - full] & ~(-1L << (bits % 64))) != 0;
+    }
+
     //Big Endian
     public static int getBit(long[] longs, int bit) {
         return (longs[longs.length - 1 - (bit / 64)] & (1L << (bit % 64))) != 0 ? 1 : 0;
     }
 
+    /**
+     * A constant used to estimate the decimal exponent of a binary number
+     */
+    private static final double LOG_10_OF_2 = Math.log10(2);
+    /**
+     * A constant used to estimate the number of bits in a power of ten
+     */
+    public static final double LOG_2_OF_10 = Math.log(10) / Math.log(2);
+    /**
+     * A constant used to estimate the number of bits in a power of five
+     */
+    public static final double LOG_2_OF_5 = Math.log(5) / Math.log(2);
+
+    /**
+     * The most longs each reusable shortestDigits and power of five buffer grows to
+     *
+     * The shortestDigits buffers need about (|binary exponent| + |decimal exponent| * log2(10)) / 64 longs, which is
+     * at most 258 for Float128, so the default keeps every Float128 value in the reused buffers (parsing one needs
+     * less). Anything further out (like the extremes of Float256 which need up to 4100) gets buffers of its own that
+     * are dropped after the call.
+     * Can be tuned with the bignum.scratchLongs system property
+     */
+    public static final int SCRATCH_LONGS = Math.max(Integer.getInteger("bignum.scratchLongs", 258), 1);
+    private static final ThreadLocal<DigitScratch> DIGIT_SCRATCH = ThreadLocal.withInitial(DigitScratch::new);
+    private static final ThreadLocal<FiveScratch> FIVE_SCRATCH = ThreadLocal.withInitial(FiveScratch::new);
+
+    /**
+     * Write the shortest decimal digits that uniquely identify a binary floating point value
+     *
+     * This is Steele and White's free-format algorithm with Burger and Dybvig's scaling: everything is kept as exact
+     * big endian integers, so reading the digits back with round to nearest even gives the same value.
+     *
+     * @param mantissa the full mantissa (most significant long first, not modified)
+     * @param exponent the power of two of the last bit of the mantissa
+     * @param narrowBelow whether the gap to the next value down is half the gap to the next value up (the mantissa is a
+     *                    power of two and the exponent is not the smallest one)
+     * @param digits the builder to append the digits to
+     * @return the decimal exponent k such that the value is 0.d1d2d3... * 10^k
+     */
+    public static int shortestDigits(long[] mantissa, long exponent, boolean narrowBelow, StringBuilder digits) {
+        boolean even = (mantissa[mantissa.length - 1] & 1) == 0;
+        int length = bitLength(mantissa);
+        int extra = narrowBelow ? 1 : 0;
+
+        //The value is r / s and the values that round to it are (r - mMinus) / s to (r + mPlus) / s
+        //Everything is doubled so that the half gaps are integers
+        int rShift = (int) Math.max(exponent, 0) + 1 + extra;
+        int sShift = (int) Math.max(-exponent, 0) + 1 + extra;
+        int minusShift = (int) Math.max(exponent, 0);
+        int plusShift = minusShift + extra;
+
+        //Estimate k = ceil(log10(value)) which is either right or one too small
+        int k = (int) Math.ceil((exponent + length - 1) * LOG_10_OF_2 - 1e-10);
+        int power = Math.abs(k);
+        int powerBits = (int) (power * LOG_2_OF_10) + 2;
+
+        //Room for the largest of them times ten
+        int bits = Math.max(rShift + length + (k < 0 ? powerBits : 0), sShift + 1 + (k > 0 ? powerBits : 0)) + 8;
+        int longs = Math.max(bits / 64 + 1, mantissa.length + 1);
+        DigitScratch scratch = longs <= SCRATCH_LONGS ? DIGIT_SCRATCH.get() : new DigitScratch();
+        scratch.prepare(longs);
+        long[] r = scratch.r;
+        long[] s = scratch.s;
+        long[] mMinus = scratch.mMinus;
+        long[] mPlus = narrowBelow ? scratch.mPlus : mMinus;
+        long[] temp = scratch.temp;
+        //The numbers are the last longs of the buffers
+        int from = r.length - longs;
+        int last = r.length - 1;
+
+        //mMinus starts as the power of ten that scales r when k is negative (or one) and is shifted into place after
+        if (k >= 0) {
+            powerOfTen(s, from, power, scratch.wide);
+            shiftLeft(s, from, sShift, s);
+            System.arraycopy(mantissa, 0, r, r.length - mantissa.length, mantissa.length);
+            mMinus[last] = 1;
+        } else {
+            //r = mantissa * 10^-k, one long of the mantissa at a time
+            powerOfTen(mMinus, from, power, scratch.wide);
+            for (long part : mantissa) {
+                shiftLeft(r, from, 64, r);
+                System.arraycopy(mMinus, from, temp, from, longs);
+                multiplyAddInPlace(temp, from, part, 0);
+                add(r, temp, r, from, 0);
+            }
+            s[last] = 1;
+            shiftLeft(s, from, sShift, s);
+        }
+        shiftLeft(r, from, rShift, r);
+        if (narrowBelow) {
+            shiftLeft(mMinus, from, plusShift, mPlus);
+        }
+        shiftLeft(mMinus, from, minusShift, mMinus);
+
+        //Fix the estimate if the upper end of the interval reaches 10^k
+        add(r, mPlus, temp, from, 0);
+        int compare = Arrays.compareUnsigned(temp, from, r.length, s, from, r.length);
+        if (even ? compare >= 0 : compare > 0) {
+            multiplyAddInPlace(s, from, 10, 0);
+            k++;
+        }
+
+        while (true) {
+            multiplyAddInPlace(r, from, 10, 0);
+            multiplyAddInPlace(mMinus, from, 10, 0);
+            if (mPlus != mMinus) {
+                multiplyAddInPlace(mPlus, from, 10, 0);
+            }
+            char digit = '0';
+            while (Arrays.compareUnsigned(r, from, r.length, s, from, r.length) >= 0) {
+                subtract(r, s, r, from, 0);
+                digit++;
+            }
+
+            //Stop once the digits so far (rounded either way) are inside the interval
+            compare = Arrays.compareUnsigned(r, from, r.length, mMinus, from, r.length);
+            boolean low = even ? compare <= 0 : compare < 0;
+            add(r, mPlus, temp, from, 0);
+            compare = Arrays.compareUnsigned(temp, from, r.length, s, from, r.length);
+            boolean high = even ? compare >= 0 : compare > 0;
+            if (!low && !high) {
+                digits.append(digit);
+                continue;
+            }
+            if (low && high) {
+                //Either way works so pick the closer one
+                shiftLeft(r, from, 1, temp);
+                high = Arrays.compareUnsigned(temp, from, r.length, s, from, r.length) >= 0;
+            }
+            digits.append(high ? (char) (digit + 1) : digit);
+            return k;
+        }
+    }
+
+    /**
+     * Set the end of a big endian array to a power of ten
+     *
+     * @param longs the array to store the result in (must be large enough to hold it)
+     * @param from the index of the first long of the result (the longs before it are not read or written)
+     * @param power the non negative power
+     * @param square the buffer to square in (at least twice as long as the result's part of the array)
+     */
+    private static void powerOfTen(long[] longs, int from, int power, long[] square) {
+        //10^power = 5^power * 2^power
+        powerOfFive(power, longs, from, square);
+        shiftLeft(longs, from, power, longs);
+    }
+
+    /**
+     * Multiply an unsigned big endian number by a power of five in place
+     *
+     * @param longs the number, replaced by the result (must be large enough to hold it)
+     * @param power the non negative power
+     */
+    public static void multiplyPowerOfFiveInPlace(long[] longs, int power) {
+        multiplyPowerOfFiveInPlace(longs, 0, power);
+    }
+
+    /**
+     * Multiply the end of an unsigned big endian number by a power of five in place
+     *
+     * @param longs the number, replaced by the result (must be large enough to hold it)
+     * @param from the index of the first long of the number (the longs before it are not read or written)
+     * @param power the non negative power
+     */
+    public static void multiplyPowerOfFiveInPlace(long[] longs, int from, int power) {
+        if (power <= 27) {
+            if (power > 0) {
+                multiplyAddInPlace(longs, from, pow(5, power), 0);
+            }
+            return;
+        }
+        int start = from;
+        while (start < longs.length && longs[start] == 0) {
+            start++;
+        }
+        int numberLongs = longs.length - start;
+        if (numberLongs == 0) {
+            return;
+        }
+
+        //A single product with the whole power instead of one pass over the number per factor of 5^27
+        //Both factors are padded to the same length at the end of their buffers
+        int n = Math.max(numberLongs, powerOfFiveLongs(power));
+        FiveScratch scratch = n <= SCRATCH_LONGS ? FIVE_SCRATCH.get() : new FiveScratch();
+        scratch.prepare(n, 2 * n);
+        int powerFrom = scratch.power.length - n;
+        powerOfFive(power, scratch.power, powerFrom, scratch.wide);
+        int numberFrom = scratch.operand.length - n;
+        Arrays.fill(scratch.operand, numberFrom, scratch.operand.length - numberLongs, 0);
+        System.arraycopy(longs, start, scratch.operand, scratch.operand.length - numberLongs, numberLongs);
+        //The number goes first so that its zero padding skips whole rows of the product
+        multiplySchoolbook(scratch.operand, numberFrom, scratch.power, powerFrom, n, scratch.wide, 0);
+
+        //The product fits so the longs of the wide product past the end of the number are zero
+        int copy = Math.min(2 * n, longs.length - from);
+        Arrays.fill(longs, from, longs.length - copy, 0);
+        System.arraycopy(scratch.wide, 2 * n - copy, longs, longs.length - copy, copy);
+    }
+
+    /**
+     * Divide an unsigned big endian number by a power of five in place rounding towards zero
+     *
+     * @param longs the number, replaced by the quotient
+     * @param power the non negative power
+     * @return whether the division had a nonzero remainder
+     */
+    public static boolean dividePowerOfFiveInPlace(long[] longs, int power) {
+        if (power <= 27) {
+            return power > 0 && divideInPlace(longs, 0, pow(5, power)) != 0;
+        }
+        //A single long division by the whole power instead of one pass over the dividend per factor of 5^27
+        int n = powerOfFiveLongs(power);
+        FiveScratch scratch = Math.max(n, longs.length) <= SCRATCH_LONGS ? FIVE_SCRATCH.get() : new FiveScratch();
+        scratch.prepare(n, Math.max(2 * n, longs.length + 1));
+        int powerFrom = scratch.power.length - n;
+        //The division reads the whole divisor array so what is left of a larger power before it is cleared
+        Arrays.fill(scratch.power, 0, powerFrom, 0);
+        powerOfFive(power, scratch.power, powerFrom, scratch.wide);
+        return divideUnsigned(longs, scratch.power, longs, null, scratch.wide, scratch.operand);
+    }
+
+    /**
+     * Set the end of a big endian array to a power of five by repeated squaring
+     *
+     * @param power the non negative power
+     * @param result the array to store the power in (must be large enough to hold it, see powerOfFiveLongs)
+     * @param from the index of the first long of the power (the longs before it are not read or written)
+     * @param square the buffer to square in (at least twice as long as the power's part of the result)
+     */
+    public static void powerOfFive(int power, long[] result, int from, long[] square) {
+        int end = result.length;
+        int longs = end - from;
+        Arrays.fill(result, from, end, 0);
+        result[end - 1] = 1;
+        int length = 1;
+        //Every partial power is at most the full one so the longs dropped from the top of a square are zero
+        for (int bit = 31 - Integer.numberOfLeadingZeros(power); bit >= 0; bit--) {
+            multiplySchoolbook(result, end - length, result, end - length, length, square, 0);
+            int squareLength = 2 * length;
+            length = Math.min(squareLength, longs);
+            System.arraycopy(square, squareLength - length, result, end - length, length);
+            if ((power >>> bit & 1) != 0) {
+                multiplyAddInPlace(result, end - Math.min(length + 1, longs), 5, 0);
+                if (length < longs && result[end - length - 1] != 0) {
+                    length++;
+                }
+            }
+            while (length > 1 && result[end - length] == 0) {
+                length--;
+            }
+        }
+    }
+
+    /**
+     * Get the number of longs that always hold a power of five
+     *
+     * @param power the non negative power
+     * @return the number of longs (with room to spare for rounding in the estimate)
+     */
+    public static int powerOfFiveLongs(int power) {
+        return (int) (power * LOG_2_OF_5) / 64 + 2;
+    }
+
     public static String doubleToSubplaceString(double input) {
         String original = Double.toString(input).replace(".", "");
         String[] parts = original.split("E");
@@ -120,97 +1152,260 @@ public class CommonUtils {
         return result.toString();
     }
 
+    /**
+     * Exponent strings are cached at every multiple of this exponent and the others are scaled from the nearest one
+     */
     private static final long EXPONENT_FREQ = 1000;
-    private static final Map<Long, ExpString> expStringCache = new HashMap<>();
     /**
-     * Get a string representation of 2^exponent
+     * The number of slots in the exponent string cache
      *
-     * WARNING: SLOW METHOD - Computes using string manipulation
+     * Checkpoint exponent / EXPONENT_FREQ picks the slot (modulo the size) so neighbouring checkpoints never evict
+     * each other and a checkpoint only replaces the one a whole cache size of checkpoints away.
+     * Can be tuned with the bignum.exponentCacheSize system property
+     * Float256 exponent strings reach a few hundred kilobytes each so the default is kept small
+     */
+    public static final int EXPONENT_CACHE_SIZE = Math.max(Integer.getInteger("bignum.exponentCacheSize", 32), 1);
+    private static final long[] expStringKeys = new long[EXPONENT_CACHE_SIZE];
+    private static final ExpString[] expStringValues = new ExpString[EXPONENT_CACHE_SIZE];
+    private static final LongAdder expStringHits = new LongAdder();
+    private static final LongAdder expStringMisses = new LongAdder();
+    /**
+     * Exponent strings are computed on little base 10^18 numbers (most significant limb first) whose limbs are split in
+     * half when multiplying so that every partial product fits into a long
+     */
+    private static final long DECIMAL_BASE = 1_000_000_000_000_000_000L;
+    private static final long DECIMAL_HALF_BASE = 1_000_000_000L;
+    private static final int DECIMAL_DIGITS = 18;
+    /**
+     * The number of repeated squares (base^(2^i)) of two and of five that are kept, enough to reach every exponent of
+     * the floating points; the squares past the table are recomputed each time they are needed
+     */
+    private static final int POWER_TABLE_SIZE = 20;
+    private static final long[][] twoSquares = new long[POWER_TABLE_SIZE][];
+    private static final long[][] fiveSquares = new long[POWER_TABLE_SIZE][];
+
+    /**
+     * Get a string representation of 2^exponent
      *
-     * This method caches results to speed up future computations
-     * Pass a previous result to further speed up halving computations.
+     * The digits of 2^exponent are those of 2^exponent for positive exponents and those of 5^-exponent for negative
+     * ones. The multiples of EXPONENT_FREQ are raised from a table of repeated squares and kept in a small table
+     * indexed by the exponent, the other exponents are multiplied up from the one below them (towards zero).
+     * This method is safe to call from multiple threads.
+     * Pass a previous result to compute a smaller exponent by halving its digits instead.
      *
      * @param exponent the exponent to get the representation of
      * @param lastMemo the last returned value or null
      * @param lastExp the exponent of the last returned value (if lastMemo is null this is ignored)
-     * @return the exponent string and its root index
+     * @return the exponent string and the index of the 10^0s place in it
      */
     public static ExpString getExponentString(long exponent, ExpString lastMemo, long lastExp) {
-        if (expStringCache.containsKey(exponent)) {
-            return expStringCache.get(exponent);
-        }
-        if (lastMemo != null && exponent == lastExp) {
-            return lastMemo;
-        }
-        StringBuilder result = new StringBuilder("1");
-        int rootIndex = 0;
-
-        if (exponent > 0) {
-            // Find closest memoized exponent
-            long start = exponent;
-            while (--start > 0) {
-                if (expStringCache.containsKey(start) || (lastMemo != null && start == lastExp)) {
-                    ExpString last = expStringCache.getOrDefault(start, lastMemo);
-                    result = new StringBuilder(last.string);
-                    rootIndex = last.zeroIndex;
-                    break;
-                }
-            }
+        long checkpoint = exponent - exponent % EXPONENT_FREQ;
+        boolean halve = lastMemo != null && exponent <= lastExp && lastExp - exponent < EXPONENT_FREQ;
+        if (halve && checkpoint != exponent) {
+            return halveExpString(lastMemo, lastExp - exponent);
+        }
 
-            while (start < exponent) {
-                // Double the value of the string
-                int carry = 0;
-                for (int i = result.length() - 1; i >= 0; i--) {
-                    int val = result.charAt(i) - '0';
-                    int newVal = val * 2 + carry;
-                    carry = newVal >= 10 ? 1 : 0;
-                    result.setCharAt(i, (char) ((newVal % 10) + '0'));
-                }
-                if (carry != 0) {
-                    result.insert(0, carry);
-                    rootIndex = result.length();
-                }
-                start++;
+        int base = exponent < 0 ? 5 : 2;
+        int slot = (int) Math.floorMod(checkpoint / EXPONENT_FREQ, (long) EXPONENT_CACHE_SIZE);
+        ExpString start = cachedExpString(slot, checkpoint);
+        if (start != null) {
+            expStringHits.increment();
+        } else {
+            //Computed outside of the cache's lock, two threads may both compute the same string but get equal results
+            expStringMisses.increment();
+            start = halve ? halveExpString(lastMemo, lastExp - exponent)
+                          : toExpString(checkpoint, decimalPower(base, Math.abs(checkpoint)));
+            cacheExpString(slot, checkpoint, start);
+        }
+        if (checkpoint == exponent) {
+            return start;
+        }
 
-                if (start % EXPONENT_FREQ == 0) {
-                    expStringCache.put(start, new ExpString(rootIndex, result.toString()));
-                }
+        //The largest powers of two and of five below the half base
+        int step = base == 2 ? 29 : 12;
+        long[] limbs = toDecimalLimbs(start.string);
+        for (long remaining = Math.abs(exponent - checkpoint); remaining > 0; remaining -= step) {
+            limbs = decimalMultiplySmall(limbs, pow(base, Math.min(remaining, step)));
+        }
+        return toExpString(exponent, limbs);
+    }
+
+    private static ExpString cachedExpString(int slot, long checkpoint) {
+        synchronized (expStringValues) {
+            return expStringKeys[slot] == checkpoint ? expStringValues[slot] : null;
+        }
+    }
+
+    private static void cacheExpString(int slot, long checkpoint, ExpString value) {
+        synchronized (expStringValues) {
+            expStringKeys[slot] = checkpoint;
+            expStringValues[slot] = value;
+        }
+    }
+
+    /**
+     * @return the number of times getExponentString found its starting exponent string in the cache
+     */
+    public static long getExponentCacheHits() {
+        return expStringHits.sum();
+    }
+
+    /**
+     * @return the number of times getExponentString had to compute its starting exponent string
+     */
+    public static long getExponentCacheMisses() {
+        return expStringMisses.sum();
+    }
+
+    /**
+     * Divide an exponent string by a power of two
+     *
+     * @param from the exponent string to divide
+     * @param shift the power of two to divide by
+     * @return the exponent string of the quotient
+     */
+    private static ExpString halveExpString(ExpString from, long shift) {
+        if (shift == 0) {
+            return from;
+        }
+        String digits = from.string;
+        int zeroIndex = from.zeroIndex;
+        while (shift > 0) {
+            //The remainder stays below 2^bits so ten times it plus a digit still fits into a long
+            int bits = (int) Math.min(shift, 59);
+            long mask = (1L << bits) - 1;
+            StringBuilder result = new StringBuilder(digits.length() + bits);
+            long remainder = 0;
+            for (int i = 0; i < digits.length(); i++) {
+                remainder = remainder * 10 + (digits.charAt(i) - '0');
+                result.append((char) ((remainder >>> bits) + '0'));
+                remainder &= mask;
             }
-        } else if (exponent < 0) {
-            long start = exponent;
-            while (++start < 0) {
-                if (expStringCache.containsKey(start) || (lastMemo != null && start == lastExp)) {
-                    ExpString last = expStringCache.getOrDefault(start, lastMemo);
-                    result = new StringBuilder(last.string);
-                    rootIndex = last.zeroIndex;
-                    break;
-                }
+            //Dividing by a power of two always terminates after at most bits more digits
+            while (remainder != 0) {
+                remainder *= 10;
+                result.append((char) ((remainder >>> bits) + '0'));
+                remainder &= mask;
             }
+            int leadingZeros = 0;
+            while (result.charAt(leadingZeros) == '0') {
+                leadingZeros++;
+            }
+            digits = result.substring(leadingZeros);
+            zeroIndex -= leadingZeros; // Allows for negative root indicies
+            shift -= bits;
+        }
+        return new ExpString(zeroIndex, digits);
+    }
 
-            while (start > exponent) {
-                int carry = 0;
-                for (int i = 0; i < result.length(); i++) {
-                    int val = result.charAt(i) - '0' + carry;
-                    int newVal = val / 2;
-                    carry = val % 2 == 0 ? 0 : 10;
-                    result.setCharAt(i, (char) (newVal + '0'));
-                }
-                if (carry != 0) {
-                    result.append(carry / 2);
-                }
-                while (result.charAt(0) == '0') {
-                    result.deleteCharAt(0);
-                    rootIndex--; // Allows for negative root indicies
-                }
-                start--;
+    /**
+     * Raise two or five to a power using the table of repeated squares
+     *
+     * @param base two or five
+     * @param exponent the non negative power
+     * @return the power in base 10^18 limbs
+     */
+    private static long[] decimalPower(int base, long exponent) {
+        long[] result = {1};
+        long[] square = null;
+        for (int i = 0; exponent != 0; i++, exponent >>>= 1) {
+            square = i < POWER_TABLE_SIZE ? decimalSquare(base, i) : decimalMultiply(square, square);
+            if ((exponent & 1) != 0) {
+                result = decimalMultiply(result, square);
+            }
+        }
+        return result;
+    }
 
-                if (start % EXPONENT_FREQ == 0) {
-                    expStringCache.put(start, new ExpString(rootIndex, result.toString()));
-                }
+    /**
+     * Get base^(2^i) from the table of repeated squares, computing it on first use
+     *
+     * @param base two or five
+     * @param i the index in the table
+     * @return the square in base 10^18 limbs (must not be modified)
+     */
+    private static synchronized long[] decimalSquare(int base, int i) {
+        long[][] table = base == 2 ? twoSquares : fiveSquares;
+        if (table[i] == null) {
+            if (i == 0) {
+                table[i] = new long[] {base};
+            } else {
+                long[] half = decimalSquare(base, i - 1);
+                table[i] = decimalMultiply(half, half);
             }
         }
+        return table[i];
+    }
 
-        return new ExpString(rootIndex, result.toString());
+    /**
+     * Multiply two base 10^18 numbers
+     *
+     * @param a the first number (most significant limb first)
+     * @param b the second number (most significant limb first)
+     * @return the product without a leading zero limb
+     */
+    private static long[] decimalMultiply(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        for (int i = a.length - 1; i >= 0; i--) {
+            long aHigh = a[i] / DECIMAL_HALF_BASE;
+            long aLow = a[i] % DECIMAL_HALF_BASE;
+            long carry = 0;
+            for (int j = b.length - 1; j >= 0; j--) {
+                long bHigh = b[j] / DECIMAL_HALF_BASE;
+                long bLow = b[j] % DECIMAL_HALF_BASE;
+                //Every term is below 10^18 (the carry barely above it) so the sums stay below 2^63
+                long middle = aHigh * bLow + aLow * bHigh;
+                long low = aLow * bLow + (middle % DECIMAL_HALF_BASE) * DECIMAL_HALF_BASE + result[i + j + 1] + carry;
+                result[i + j + 1] = low % DECIMAL_BASE;
+                carry = aHigh * bHigh + middle / DECIMAL_HALF_BASE + low / DECIMAL_BASE;
+            }
+            result[i] = carry;
+        }
+        return result[0] == 0 ? Arrays.copyOfRange(result, 1, result.length) : result;
+    }
+
+    /**
+     * Multiply a base 10^18 number by a factor below 10^9
+     *
+     * @param a the number (most significant limb first)
+     * @param factor the factor
+     * @return the product without a leading zero limb
+     */
+    private static long[] decimalMultiplySmall(long[] a, long factor) {
+        long[] result = new long[a.length + 1];
+        long carry = 0;
+        for (int i = a.length - 1; i >= 0; i--) {
+            long high = (a[i] / DECIMAL_HALF_BASE) * factor;
+            long low = (a[i] % DECIMAL_HALF_BASE) * factor + (high % DECIMAL_HALF_BASE) * DECIMAL_HALF_BASE + carry;
+            result[i + 1] = low % DECIMAL_BASE;
+            carry = high / DECIMAL_HALF_BASE + low / DECIMAL_BASE;
+        }
+        result[0] = carry;
+        return result[0] == 0 ? Arrays.copyOfRange(result, 1, result.length) : result;
+    }
+
+    private static long[] toDecimalLimbs(String digits) {
+        long[] limbs = new long[(digits.length() + DECIMAL_DIGITS - 1) / DECIMAL_DIGITS];
+        int end = digits.length();
+        for (int i = limbs.length - 1; i >= 0; i--, end -= DECIMAL_DIGITS) {
+            limbs[i] = Long.parseLong(digits, Math.max(end - DECIMAL_DIGITS, 0), end, 10);
+        }
+        return limbs;
+    }
+
+    private static ExpString toExpString(long exponent, long[] limbs) {
+        StringBuilder digits = new StringBuilder(limbs.length * DECIMAL_DIGITS);
+        digits.append(limbs[0]);
+        for (int i = 1; i < limbs.length; i++) {
+            String limb = Long.toString(limbs[i]);
+            for (int j = limb.length(); j < DECIMAL_DIGITS; j++) {
+                digits.append('0');
+            }
+            digits.append(limb);
+        }
+        //2^-e is 5^e / 10^e so its digits start e places further down
+        long zeroIndex = digits.length() - 1 - Math.max(-exponent, 0);
+        return new ExpString((int) zeroIndex, digits.toString());
     }
 
     public static String addStrings(String a, String b, int carry) {
@@ -240,6 +1435,73 @@ public class CommonUtils {
         return base * y;
     }
 
+    /**
+     * The buffers shortestDigits works in
+     *
+     * The numbers are stored in the last longs of each buffer and the longs before them are never read, so a buffer
+     * grown for one value is reused for every smaller one by only clearing the longs that value needs
+     */
+    private static final class DigitScratch {
+        private long[] r = new long[0];
+        private long[] s = new long[0];
+        private long[] mMinus = new long[0];
+        private long[] mPlus = new long[0];
+        private long[] temp = new long[0];
+        private long[] wide = new long[0];
+
+        /**
+         * Zero the last longs of every buffer, growing them first if they are too short
+         *
+         * The wide buffer is only squared into (which writes every long it reads) so it is twice as long and not zeroed
+         *
+         * @param longs the number of longs needed
+         */
+        private void prepare(int longs) {
+            if (r.length < longs) {
+                r = new long[longs];
+                s = new long[longs];
+                mMinus = new long[longs];
+                mPlus = new long[longs];
+                temp = new long[longs];
+                wide = new long[2 * longs];
+            } else {
+                int from = r.length - longs;
+                Arrays.fill(r, from, r.length, 0);
+                Arrays.fill(s, from, s.length, 0);
+                Arrays.fill(mMinus, from, mMinus.length, 0);
+                Arrays.fill(mPlus, from, mPlus.length, 0);
+                Arrays.fill(temp, from, temp.length, 0);
+            }
+        }
+    }
+
+    /**
+     * The buffers the power of five multiplication and division work in
+     *
+     * Every use writes the longs it reads first, so the buffers only ever grow and are never cleared
+     */
+    private static final class FiveScratch {
+        private long[] power = new long[0];
+        private long[] operand = new long[0];
+        private long[] wide = new long[0];
+
+        /**
+         * Grow the buffers if they are too short
+         *
+         * @param longs the number of longs needed in the power and operand buffers
+         * @param wideLongs the number of longs needed in the wide buffer
+         */
+        private void prepare(int longs, int wideLongs) {
+            if (power.length < longs) {
+                power = new long[longs];
+                operand = new long[longs];
+            }
+            if (wide.length < wideLongs) {
+                wide = new long[wideLongs];
+            }
+        }
+    }
+
     static class ExpString {
         final int zeroIndex;
         final String string;
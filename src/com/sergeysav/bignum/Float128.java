@@ -2,11 +2,11 @@ package com.sergeysav.bignum;
 
 import com.sergeysav.bignum.CommonUtils.ExpString;
 
+import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Base64.Decoder;
 import java.util.Base64.Encoder;
-import java.util.Comparator;
 
 /**
  * Represents a 128 bit floating point number with
@@ -37,10 +37,14 @@ public final class Float128 implements MutableNumber<Float128> {
     private static final int MANTISSA_BITS = 112;
 
     /**
-     * The number of longs used to store the full data
+     * The number of longs used to store the full data in its packed form
      */
     private static final int LONGS = 2; // 128 bits
 
+    /*
+     * The sections of the packed form (used by bytesOf and toBase64), counted from its most significant bit
+     */
+
     /**
      * The start of the sign section (INCLUSIVE)
      */
@@ -76,28 +80,40 @@ public final class Float128 implements MutableNumber<Float128> {
     private static final long EXPONENT_FULL_MASK = ~(-1L << EXPONENT_BITS);
 
     /**
-     * The mantissa array for a mantissa representing a zero value
+     * The number of significant bits (the mantissa bits and the implicit leading one)
      */
-    private static final long[] ZERO_MANTISSA = new long[(MANTISSA_BITS - 1)/64 + 1];
+    private static final int PRECISION = MANTISSA_BITS + 1;
     /**
-     * The full mantissa array for a mantissa representing a zero value
+     * The number of longs in a full mantissa (one including the implicit leading one)
      */
-    private static final long[] ZERO_MANTISSA_FULL = new long[MANTISSA_BITS/64 + 1];
-
+    private static final int FULL_MANTISSA_LONGS = MANTISSA_BITS / 64 + 1;
+    /**
+     * The implicit leading one in the most significant long of a full mantissa
+     */
+    private static final long LEADING_ONE = 1L << (MANTISSA_BITS % 64);
+    /**
+     * The power of two of the last mantissa bit of subnormals and of the smallest normals
+     */
+    private static final long MIN_EXPONENT = 1 - EXPONENT_OFFSET - MANTISSA_BITS;
+    /**
+     * The number of Newton-Raphson steps needed to refine a 53 bit reciprocal past the precision (with a margin)
+     */
+    private static final int RECIPROCAL_STEPS = 32 - Integer.numberOfLeadingZeros((PRECISION + 7) / 53);
+    /**
+     * The number of Newton-Raphson steps needed to refine a 48 bit reciprocal square root to a full mantissa array
+     */
+    private static final int RECIPROCAL_SQRT_STEPS = 32 - Integer.numberOfLeadingZeros((FULL_MANTISSA_LONGS * 64 - 1) / 48);
 
     /**
-     * The comparator used for comparing two positive values
+     * The types of the numbers with an all zeros or all ones exponent
+     * indexed by the last bit of the exponent and then by whether the mantissa is zero
      */
-    private static final Comparator<Float128> POSITIVE_COMPARATOR = Comparator
-            .comparing(Float128::getExponentBits)
-            .thenComparing((a, b) -> compareMantissas(a.getMantissaBits(), b.getMantissaBits()));
+    private static final Type[] SPECIAL_TYPES = {Type.SUBNORMAL, Type.ZERO, Type.NAN, Type.INFINITY};
+
     /**
-     * The comparator used for comparing two negative values
+     * Working space for the arithmetic so that it does not allocate
      */
-    private static final Comparator<Float128> NEGATIVE_COMPARATOR = Comparator
-            .comparing(Float128::getExponentBits)
-            .thenComparing((a, b) -> compareMantissas(a.getMantissaBits(), b.getMantissaBits()))
-            .reversed();
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
     /**
      * A constant equal to 0
@@ -141,13 +157,22 @@ public final class Float128 implements MutableNumber<Float128> {
     public static final Float128 MAX_SUBNORMAL = fromStructure(false, 0, new long[]{-1L, -1L});
 
     /**
-     * The longs representing the internal data
+     * The sign bit
+     */
+    private boolean negative;
+    /**
+     * The value of the exponent section
+     */
+    private int exponent;
+    /**
+     * The full mantissa with the implicit leading one (set unless the exponent section is zero) stored explicitly
+     * (most significant long first)
      */
-    private long[] data;
+    private long m0, m1;
 
     static {
-        if (EXPONENT_BITS > 64) {
-            throw new IllegalStateException("Cannot represent float with over 64 exponent bits");
+        if (EXPONENT_BITS > 31) {
+            throw new IllegalStateException("Cannot represent float with over 31 exponent bits");
         }
     }
 
@@ -155,7 +180,6 @@ public final class Float128 implements MutableNumber<Float128> {
      * Creates a new floating point with a value of zero
      */
     public Float128() {
-        data = new long[LONGS];
     }
 
     /**
@@ -164,8 +188,7 @@ public final class Float128 implements MutableNumber<Float128> {
      * @param src the floating point to copy
      */
     public Float128(Float128 src) {
-        data = new long[LONGS];
-        System.arraycopy(src.data, 0, this.data, 0, LONGS);
+        set(src);
     }
 
     /**
@@ -216,252 +239,499 @@ public final class Float128 implements MutableNumber<Float128> {
 
         Float128 val = new Float128();
 
-        System.arraycopy(parts, 0, val.data, 0, LONGS);
+        val.unpack(parts);
 
         return val;
     }
 
-    private static Float128 fromStructure(boolean negative, long exponent, long[] mantissa) {
-        Float128 result = new Float128();
-        result.setExponentBits(exponent);
-        result.setMantissaBits(mantissa);
-        if (negative) {
-            result.negate();
-        }
-        return result;
-    }
-
-    private boolean isNegative() {
-        return data[0] < 0;
+    /**
+     * Parses a decimal floating point rounding to the nearest representable value (ties to even)
+     *
+     * @param s the characters to parse (an optional sign followed by INFINITY, NAN or decimal digits with an optional
+     *          point and an optional exponent such as 1.5E-7)
+     * @return the parsed floating point
+     * @throws NumberFormatException if the characters are not a floating point
+     */
+    public static Float128 parse(CharSequence s) {
+        return parse(s, 0, s.length(), RoundingMode.HALF_EVEN);
     }
 
-    private long getExponentBits() {
-        if (EXPONENT_BITS == 64) {
-            //First 63 bits after sign bit and the next bit
-            return (data[0] << 1) | (data[1] >>> 63);
-        }
-        //Remove sign bit and shift right until all we have is exponent bits
-        return (data[0] & Long.MAX_VALUE) >>> (63 - EXPONENT_BITS);
+    /**
+     * Parses a decimal floating point rounding with the given rounding mode
+     *
+     * @param s the characters to parse (see parse(CharSequence))
+     * @param mode how to round a value that cannot be represented exactly
+     * @return the parsed floating point
+     * @throws NumberFormatException if the characters are not a floating point
+     * @throws ArithmeticException if the mode is UNNECESSARY and the value must be rounded
+     */
+    public static Float128 parse(CharSequence s, RoundingMode mode) {
+        return parse(s, 0, s.length(), mode);
     }
 
-    private void setExponentBits(long exponentBits) {
-        if (EXPONENT_BITS == 64) {
-            //First 63 bits after sign bit and the next bit
-            data[0] = (data[0] & Long.MIN_VALUE) | (exponentBits >>> 1);
-            data[1] = (data[1] & Long.MAX_VALUE) | (exponentBits << 63);
+    /**
+     * Parses a decimal floating point from part of a sequence of characters without copying it
+     *
+     * @param s the characters containing the floating point (see parse(CharSequence))
+     * @param beginIndex the index of the first character to parse
+     * @param endIndex the index after the last character to parse
+     * @param mode how to round a value that cannot be represented exactly
+     * @return the parsed floating point
+     * @throws NumberFormatException if the characters are not a floating point
+     * @throws ArithmeticException if the mode is UNNECESSARY and the value must be rounded
+     */
+    public static Float128 parse(CharSequence s, int beginIndex, int endIndex, RoundingMode mode) {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException("Range [" + beginIndex + ", " + endIndex + ") out of bounds for length " + s.length());
         }
-        //Take sign bit and bits after the end of the exponent and combine them with the exponent's bits
-        data[0] = (data[0] & Long.MIN_VALUE) | (data[0] & ~(-1L << (63 - EXPONENT_END)))
-                  | ((exponentBits & ~(-1L << EXPONENT_BITS)) << (63 - EXPONENT_END));
-    }
 
-    private boolean isMantissaZero() {
-        if (MANTISSA_START % 64 != 0) { //Partial long at the start
-            if (data[MANTISSA_START / 64] << (MANTISSA_START % 64) != 0) {
-                return false;
+        Float128 result = new Float128();
+        int i = beginIndex;
+        boolean negative = false;
+        if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (matchesIgnoreCase(s, i, endIndex, "NAN")) {
+            result.setNaN();
+            return result;
+        }
+        if (matchesIgnoreCase(s, i, endIndex, "INFINITY")) {
+            result.setInfinity();
+            return negative ? result.negate() : result;
+        }
+
+        //Find the significant digits (from the first nonzero digit to the last one) and where the point is
+        int point = -1;
+        int firstNonzero = -1;
+        int lastNonzero = -1;
+        int digits = 0;
+        for (; i < endIndex; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && point < 0) {
+                point = i;
+            } else if (Character.digit(c, 10) >= 0) {
+                digits++;
+                if (c != '0') {
+                    if (firstNonzero < 0) {
+                        firstNonzero = i;
+                    }
+                    lastNonzero = i;
+                }
+            } else {
+                break;
             }
         }
+        if (digits == 0) {
+            throw parseException("No digits", s, beginIndex, endIndex);
+        }
+        int mantissaEnd = i;
 
-        //Full longs
-        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {
-            if (data[i] != 0) {
-                return false;
+        long exponent10 = 0;
+        if (i < endIndex) {
+            if (s.charAt(i) != 'e' && s.charAt(i) != 'E') {
+                throw parseException("Invalid digit", s, beginIndex, endIndex);
+            }
+            i++;
+            boolean negativeExponent = false;
+            if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExponent = s.charAt(i) == '-';
+                i++;
+            }
+            if (i == endIndex) {
+                throw parseException("No exponent digits", s, beginIndex, endIndex);
+            }
+            for (; i < endIndex; i++) {
+                int digit = Character.digit(s.charAt(i), 10);
+                if (digit < 0) {
+                    throw parseException("Invalid digit", s, beginIndex, endIndex);
+                }
+                //Anything this large overflows or underflows regardless of the digits
+                if (exponent10 < 1_000_000_000_000L) {
+                    exponent10 = exponent10 * 10 + digit;
+                }
+            }
+            if (negativeExponent) {
+                exponent10 = -exponent10;
             }
         }
 
-        //Partial long at the end
-        if ((MANTISSA_END + 1) % 64 != 0) {
-            if (data[MANTISSA_END / 64] >>> (64 - ((MANTISSA_END + 1) % 64)) != 0) {
-                return false;
+        if (firstNonzero < 0) {
+            return negative ? result.negate() : result;
+        }
+
+        //The value is the significant digits as an integer times 10^power
+        int significant = lastNonzero - firstNonzero + 1 - (firstNonzero < point && point < lastNonzero ? 1 : 0);
+        long power = exponent10 + (point < 0 || point > lastNonzero ?
+                                   (point < 0 ? mantissaEnd : point) - lastNonzero - 1 :
+                                   point - lastNonzero);
+
+        //Values past the range only need a single bit to round the right way
+        long[] magnitude;
+        long exponent;
+        boolean sticky = false;
+        if ((significant + power - 1) * CommonUtils.LOG_2_OF_10 > EXPONENT_OFFSET + 2) {
+            magnitude = new long[FULL_MANTISSA_LONGS];
+            magnitude[FULL_MANTISSA_LONGS - 1] = 1;
+            exponent = EXPONENT_OFFSET + 2;
+        } else if ((significant + power) * CommonUtils.LOG_2_OF_10 < MIN_EXPONENT - 2) {
+            magnitude = new long[FULL_MANTISSA_LONGS];
+            magnitude[FULL_MANTISSA_LONGS - 1] = 1;
+            exponent = MIN_EXPONENT - 2;
+            sticky = true;
+        } else {
+            //digits * 5^power * 2^power, or for negative powers digits * 2^shift / 5^-power with enough bits left to round
+            int fives = (int) Math.abs(power);
+            int digitBits = (int) (significant * CommonUtils.LOG_2_OF_10) + 1;
+            int fiveBits = (int) (fives * CommonUtils.LOG_2_OF_5) + 1;
+            int bits = power >= 0 ? digitBits + fiveBits : Math.max(digitBits, PRECISION + 2 + fiveBits);
+            magnitude = new long[Math.max(bits / 64 + 1, FULL_MANTISSA_LONGS)];
+            accumulateDigits(s, firstNonzero, lastNonzero, magnitude);
+            if (power >= 0) {
+                CommonUtils.multiplyPowerOfFiveInPlace(magnitude, fives);
+                exponent = power;
+            } else {
+                int shift = Math.max(PRECISION + 2 + fiveBits - CommonUtils.bitLength(magnitude), 0);
+                CommonUtils.shiftLeftInPlace(magnitude, shift);
+                sticky = CommonUtils.dividePowerOfFiveInPlace(magnitude, fives);
+                exponent = power - shift;
             }
         }
+        result.roundAndSet(negative, exponent, magnitude, sticky, mode);
 
-        return true;
+        return result;
     }
 
-    private long[] getMantissaBits() {
-        long[] mantissa = new long[(MANTISSA_BITS - 1)/64 + 1];
-        int pos = 0;
-
-        if (MANTISSA_START % 64 != 0) { //Partial long at the start
-            mantissa[pos++] = data[MANTISSA_START / 64] & ~(-1L << (64 - (MANTISSA_START % 64)));
+    /**
+     * Accumulate decimal digits (skipping a point) into an unsigned big endian number
+     *
+     * @param s the characters containing the digits
+     * @param from the index of the first digit
+     * @param to the index of the last digit (INCLUSIVE)
+     * @param magnitude the zeroed number to accumulate into (must be large enough to hold the digits)
+     */
+    private static void accumulateDigits(CharSequence s, int from, int to, long[] magnitude) {
+        int chunkDigits = CommonUtils.radixChunkDigits(10);
+        long chunk = 0;
+        int count = 0;
+        for (int i = from; i <= to; i++) {
+            char c = s.charAt(i);
+            if (c != '.') {
+                chunk = chunk * 10 + Character.digit(c, 10);
+                if (++count == chunkDigits) {
+                    CommonUtils.multiplyAddInPlace(magnitude, CommonUtils.radixChunk(10), chunk);
+                    chunk = 0;
+                    count = 0;
+                }
+            }
         }
-
-        //Full longs
-        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {
-            mantissa[pos++] = data[i];
+        if (count > 0) {
+            CommonUtils.multiplyAddInPlace(magnitude, CommonUtils.pow(10, count), chunk);
         }
+    }
 
-        //Partial long at the end
-        if ((MANTISSA_END + 1) % 64 != 0) {
-            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {
-                //The unset data to the right will be set here
-                mantissa[mantissa.length - 1] = data[MANTISSA_END / 64];
-                //Shift stuff as far to the right as it must go
-                mantissa = CommonUtils.shiftRightUnsigned(mantissa, 64 - ((MANTISSA_END + 1) % 64));
-            } else {
-                //Shift left in order to fit the extra data
-                mantissa = CommonUtils.shiftLeft(mantissa, (MANTISSA_END + 1) % 64);
-                //Set the newly created unset data on the right
-                mantissa[mantissa.length - 1] |= data[MANTISSA_END / 64] >>> (64 - ((MANTISSA_END + 1) % 64));
+    private static boolean matchesIgnoreCase(CharSequence s, int beginIndex, int endIndex, String word) {
+        if (endIndex - beginIndex != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toUpperCase(s.charAt(beginIndex + i)) != word.charAt(i)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        return mantissa;
+    private static NumberFormatException parseException(String reason, CharSequence s, int beginIndex, int endIndex) {
+        return new NumberFormatException(reason + " for Float128: \"" + s.subSequence(beginIndex, endIndex) + "\"");
     }
 
-    private long[] getMantissaBitsExtra() {
-        long[] mantissa = new long[MANTISSA_BITS/64 + 1];
-        int pos = 0;
+    private static Float128 fromStructure(boolean negative, long exponent, long[] mantissa) {
+        Float128 result = new Float128();
+        result.setExponentBits(exponent);
+        result.setMantissaBits(mantissa);
+        if (negative) {
+            result.negate();
+        }
+        return result;
+    }
 
-        if (MANTISSA_START % 64 != 0) { //Partial long at the start
-            mantissa[pos++] = data[MANTISSA_START / 64] & ~(-1L << (64 - (MANTISSA_START % 64)))
-                              | (getExponentBits() != 0 ? (1L << (64 - (MANTISSA_START % 64))) : 0);
-        } else {
-            mantissa[pos++] = getExponentBits() != 0 ? 1 : 0;
+    /**
+     * Set this floating point to the value of another one
+     *
+     * @param that the floating point to copy
+     */
+    private void set(Float128 that) {
+        negative = that.negative;
+        exponent = that.exponent;
+        m0 = that.m0;
+        m1 = that.m1;
+    }
+
+    /**
+     * Pack this floating point into its sign, exponent and mantissa sections
+     *
+     * @return the packed form with the most significant long first
+     */
+    private long[] pack() {
+        long[] packed = new long[LONGS];
+        getMantissaBitsExtra(packed, LONGS - FULL_MANTISSA_LONGS);
+
+        //The exponent section starts where the implicit leading one was
+        int low = LONGS - FULL_MANTISSA_LONGS;
+        packed[low] = (packed[low] & (LEADING_ONE - 1)) | ((long) exponent << (MANTISSA_BITS % 64));
+        if (MANTISSA_BITS % 64 + EXPONENT_BITS > 64) {
+            packed[low - 1] |= (long) exponent >>> (64 - (MANTISSA_BITS % 64));
         }
 
-        //Full longs
-        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {
-            mantissa[pos++] = data[i];
+        if (negative) {
+            packed[0] |= Long.MIN_VALUE;
         }
+        return packed;
+    }
 
-        //Partial long at the end
-        if ((MANTISSA_END + 1) % 64 != 0) {
-            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {
-                //The unset data to the right will be set here
-                mantissa[mantissa.length - 1] = data[MANTISSA_END / 64];
-                //Shift stuff as far to the right as it must go
-                mantissa = CommonUtils.shiftRightUnsigned(mantissa, 64 - ((MANTISSA_END + 1) % 64));
-            } else {
-                //Shift left in order to fit the extra data
-                mantissa = CommonUtils.shiftLeft(mantissa, (MANTISSA_END + 1) % 64);
-                //Set the newly created unset data on the right
-                mantissa[mantissa.length - 1] |= data[MANTISSA_END / 64] >>> (64 - ((MANTISSA_END + 1) % 64));
-            }
+    /**
+     * Set this floating point from its packed form
+     *
+     * @param packed the sign, exponent and mantissa sections with the most significant long first
+     */
+    private void unpack(long[] packed) {
+        int low = LONGS - FULL_MANTISSA_LONGS;
+        long exponentBits = packed[low] >>> (MANTISSA_BITS % 64);
+        if (MANTISSA_BITS % 64 + EXPONENT_BITS > 64) {
+            exponentBits |= packed[low - 1] << (64 - (MANTISSA_BITS % 64));
         }
 
-        return mantissa;
+        negative = packed[0] < 0;
+        setExponentBits(exponentBits);
+        setMantissaBitsExtra(packed, low);
     }
 
-    private void setMantissaBits(long[] mantissa) {
-        //Partial long at the end
-        if ((MANTISSA_END + 1) % 64 != 0) {
-            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {
-                //Shift stuff back
-                mantissa = CommonUtils.shiftLeft(mantissa, 64 - ((MANTISSA_END + 1) % 64));
-
-                //Set data
-                data[MANTISSA_END / 64] = mantissa[mantissa.length - 1];
-            } else {
-                //Set the newly created unset data on the right
-                data[MANTISSA_END / 64] = (mantissa[mantissa.length - 1] & ~(-1L << ((MANTISSA_END + 1) % 64))) << (64 - ((MANTISSA_END + 1) % 64));
+    private boolean isNegative() {
+        return negative;
+    }
 
-                //Shift left in order to fit the extra data
-                mantissa = CommonUtils.shiftRightUnsigned(mantissa, (MANTISSA_END + 1) % 64);
-            }
+    private long getExponentBits() {
+        return exponent;
+    }
+
+    private void setExponentBits(long exponentBits) {
+        exponent = (int) (exponentBits & EXPONENT_FULL_MASK);
+        if (exponent != 0) {
+            m0 |= LEADING_ONE;
+        } else {
+            m0 &= ~LEADING_ONE;
         }
+    }
 
-        int pos = 0;
+    private boolean isMantissaZero() {
+        return (m0 & (LEADING_ONE - 1)) == 0 && m1 == 0;
+    }
 
-        if (MANTISSA_START % 64 != 0) { //Partial long at the start
-            data[MANTISSA_START / 64] = (data[MANTISSA_START / 64] & (-1L << (64 - (MANTISSA_START % 64)))) |
-                                        (mantissa[pos++] & ~(-1L << (64 - (MANTISSA_START % 64))));
+    private long[] getMantissaBits() {
+        long[] mantissa = Arrays.copyOfRange(getMantissaBitsExtra(), FULL_MANTISSA_LONGS - ((MANTISSA_BITS - 1)/64 + 1),
+                                             FULL_MANTISSA_LONGS);
+        if (mantissa.length == FULL_MANTISSA_LONGS) {
+            //The leading one shares its long with the top of the mantissa
+            mantissa[0] &= LEADING_ONE - 1;
         }
+        return mantissa;
+    }
 
-        //Full longs
-        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {
-            data[i] = mantissa[pos++];
-        }
+    private long[] getMantissaBitsExtra() {
+        long[] mantissa = new long[FULL_MANTISSA_LONGS];
+        getMantissaBitsExtra(mantissa, 0);
+        return mantissa;
     }
 
-    private void setMantissaBitsExtra(long[] mantissa) {
-        //Partial long at the end
-        if ((MANTISSA_END + 1) % 64 != 0) {
-            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {
-                //Shift stuff back
-                mantissa = CommonUtils.shiftLeft(mantissa, 64 - ((MANTISSA_END + 1) % 64));
-
-                //Set data
-                data[MANTISSA_END / 64] = mantissa[mantissa.length - 1];
-            } else {
-                //Set the newly created unset data on the right
-                data[MANTISSA_END / 64] = (mantissa[mantissa.length - 1] & ~(-1L << ((MANTISSA_END + 1) % 64))) << (64 - ((MANTISSA_END + 1) % 64));
+    /**
+     * Set the mantissa from just its bits without allocating
+     *
+     * @param mantissa the (MANTISSA_BITS - 1)/64 + 1 longs of the mantissa section, most significant first
+     */
+    private void setMantissaBits(long[] mantissa) {
+        m0 = mantissa[0];
+        m1 = mantissa[1];
+        setLeadingOne();
+    }
 
-                //Shift left in order to fit the extra data
-                mantissa = CommonUtils.shiftRightUnsigned(mantissa, (MANTISSA_END + 1) % 64);
-            }
-        }
+    private void setMantissaBitsExtra(long[] mantissa) {
+        setMantissaBitsExtra(mantissa, 0);
+    }
 
-        int pos = 0;
+    /**
+     * Write the full mantissa (including the implicit leading one) into part of an array without allocating
+     *
+     * @param mantissa the array to write to
+     * @param offset the index to write the most significant long of the full mantissa to
+     */
+    private void getMantissaBitsExtra(long[] mantissa, int offset) {
+        mantissa[offset] = m0;
+        mantissa[offset + 1] = m1;
+    }
 
-        if (MANTISSA_START % 64 != 0) { //Partial long at the start
-            data[MANTISSA_START / 64] = (data[MANTISSA_START / 64] & (-1L << (64 - (MANTISSA_START % 64)))) |
-                                        (mantissa[pos++] & ~(-1L << (64 - (MANTISSA_START % 64))));
-        } else {
-            pos++;
-        }
+    /**
+     * Set the mantissa from a full mantissa stored in part of an array without allocating
+     *
+     * The implicit leading one in the array is ignored as it is decided by the exponent section
+     *
+     * @param mantissa the array to read from
+     * @param offset the index of the most significant long of the full mantissa
+     */
+    private void setMantissaBitsExtra(long[] mantissa, int offset) {
+        m0 = mantissa[offset];
+        m1 = mantissa[offset + 1];
+        setLeadingOne();
+    }
 
-        //Full longs
-        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {
-            data[i] = mantissa[pos++];
-        }
+    /**
+     * Clear the bits above the mantissa and set the implicit leading one from the exponent section
+     */
+    private void setLeadingOne() {
+        m0 = (m0 & (LEADING_ONE - 1)) | (exponent != 0 ? LEADING_ONE : 0);
     }
 
-    private static void negateMantissa(long[] mantissa) {
-        for (int i = 0; i < mantissa.length; i++) {
-            mantissa[i] = ~mantissa[i];
-        }
-        mantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));
+    /**
+     * Set the mantissa section to zero, keeping the implicit leading one decided by the exponent section
+     */
+    private void clearMantissa() {
+        m0 = exponent != 0 ? LEADING_ONE : 0;
+        m1 = 0;
+    }
 
-        //Simple add where the carry in is 1
-        long carry = 1;
+    /**
+     * Turn the magnitude of this floating point into zero (the sign is kept)
+     */
+    private void setZero() {
+        exponent = 0;
+        clearMantissa();
+    }
 
-        for (int i = mantissa.length - 1; i >= 0; i--) {
-            long temp = mantissa[i] + carry;
+    /**
+     * Turn the magnitude of this floating point into infinity (the sign is kept)
+     */
+    private void setInfinity() {
+        exponent = (int) EXPONENT_FULL_MASK;
+        clearMantissa();
+    }
 
-            if (carry == 1) {
-                carry = (Long.compareUnsigned(temp, mantissa[i]) <= 0) ? 1 : 0;
-            } else {
-                carry = (Long.compareUnsigned(temp, mantissa[i]) < 0) ? 1 : 0;
-            }
+    /**
+     * Turn the magnitude of this floating point into the largest finite one (the sign is kept)
+     */
+    private void setLargest() {
+        exponent = (int) EXPONENT_FULL_MASK - 1;
+        m0 = LEADING_ONE | (LEADING_ONE - 1);
+        m1 = -1L;
+    }
 
-            mantissa[i] = temp;
-        }
-//        long topBit = mantissa[0] & (-1L << (64 - (MANTISSA_START % 64)));
+    /**
+     * Turn this floating point into a NaN
+     */
+    private void setNaN() {
+        setInfinity();
+        m1 |= 1;
+    }
 
-        //Clear mantissa
-        mantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));
-//        return carry == 1 ? 1 : (topBit != 0 ? 1 : 0);
+    /**
+     * Get the power of two of the last bit of the full mantissa
+     *
+     * @return the exponent such that this number's magnitude is its full mantissa times two to that exponent
+     */
+    private long getMantissaExponent() {
+        long exponentBits = getExponentBits();
+        return (exponentBits == 0 ? 1 : exponentBits) + MIN_EXPONENT - 1;
     }
 
-    private static long[] negateMantissaCopy(long[] mantissa) {
-        long[] newMantissa = new long[mantissa.length];
-        for (int i = 0; i < mantissa.length; i++) {
-            newMantissa[i] = ~mantissa[i];
+    /**
+     * Round an exact result to a representable value and store it in this floating point
+     *
+     * @param negative the sign of the result
+     * @param exponent the power of two of the last bit of the magnitude
+     * @param magnitude the unsigned magnitude, at least as long as a full mantissa (overwritten)
+     * @param sticky whether the exact result has more nonzero bits below the last bit of the magnitude
+     * @param mode how to round a result that cannot be represented exactly
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    private void roundAndSet(boolean negative, long exponent, long[] magnitude, boolean sticky, RoundingMode mode) {
+        int bits = magnitude.length * 64;
+
+        //Move the top bit to the implicit one, unless that would take the exponent below the subnormal one
+        //The first bit shifted out is the round bit and all of the ones after it make up the sticky bit
+        long shift = Math.max(CommonUtils.bitLength(magnitude) - PRECISION, MIN_EXPONENT - exponent);
+        boolean round = false;
+        if (shift > 0) {
+            round = shift <= bits && CommonUtils.getBit(magnitude, (int) shift - 1) != 0;
+            sticky |= CommonUtils.hasLowBits(magnitude, (int) Math.min(shift - 1, bits));
+            CommonUtils.shiftRightUnsignedInPlace(magnitude, (int) Math.min(shift, bits));
+        } else if (shift < 0) {
+            CommonUtils.shiftLeftInPlace(magnitude, (int) -shift);
+        }
+        exponent += shift;
+
+        if (roundsUp(mode, negative, (magnitude[magnitude.length - 1] & 1) != 0, round, sticky)) {
+            for (int i = magnitude.length - 1; i >= 0 && ++magnitude[i] == 0; i--);
+            if (CommonUtils.bitLength(magnitude) > PRECISION) {
+                //Rounded up to the next power of two
+                CommonUtils.shiftRightUnsignedInPlace(magnitude, 1);
+                exponent++;
+            }
         }
-//        newMantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));
 
-        //Simple add where the carry in is 1
-        long carry = 1;
-
-        for (int i = newMantissa.length - 1; i >= 0; i--) {
-            long temp = newMantissa[i] + carry;
-
-            if (carry == 1) {
-                carry = (Long.compareUnsigned(temp, newMantissa[i]) <= 0) ? 1 : 0;
+        //The full mantissa is now in the last longs of the magnitude
+        int offset = magnitude.length - FULL_MANTISSA_LONGS;
+        if (CommonUtils.getBit(magnitude, MANTISSA_BITS) == 0) {
+            //Subnormal (or zero) so the exponent must already be the smallest one
+            setExponentBits(0);
+            setMantissaBitsExtra(magnitude, offset);
+        } else if (exponent - MIN_EXPONENT + 1 >= EXPONENT_FULL_MASK) {
+            //Overflow goes to infinity unless the mode would round something just past the largest value down
+            if (roundsUp(mode, negative, true, true, true)) {
+                setInfinity();
             } else {
-                carry = (Long.compareUnsigned(temp, newMantissa[i]) < 0) ? 1 : 0;
+                setLargest();
             }
-
-            newMantissa[i] = temp;
+        } else {
+            setExponentBits(exponent - MIN_EXPONENT + 1);
+            setMantissaBitsExtra(magnitude, offset);
+        }
+        if (isNegative() != negative) {
+            negate();
         }
-//        long topBit = mantissa[0] & (-1L << (64 - (MANTISSA_START % 64)));
+    }
 
-        //Clear mantissa
-//        newMantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));
-//        return carry == 1 ? 1 : (topBit != 0 ? 1 : 0);
-        return newMantissa;
+    /**
+     * Decide whether a magnitude that was cut short should be incremented
+     *
+     * @param mode the rounding mode
+     * @param negative the sign of the value being rounded
+     * @param odd whether the last kept bit is set
+     * @param round whether the first bit cut off is set
+     * @param sticky whether any of the other bits cut off are set
+     * @return true if the magnitude should be rounded away from zero
+     * @throws ArithmeticException if the mode is UNNECESSARY and bits were cut off
+     */
+    private static boolean roundsUp(RoundingMode mode, boolean negative, boolean odd, boolean round, boolean sticky) {
+        switch (mode) {
+            case HALF_EVEN:
+                return round && (sticky || odd);
+            case HALF_UP:
+                return round;
+            case HALF_DOWN:
+                return round && sticky;
+            case UP:
+                return round || sticky;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative && (round || sticky);
+            case FLOOR:
+                return negative && (round || sticky);
+            default:
+                if (round || sticky) {
+                    throw new ArithmeticException("Rounding necessary");
+                }
+                return false;
+        }
     }
 
     private static int compareMantissas(long[] mantissa1, long[] mantissa2) {
@@ -476,29 +746,16 @@ public final class Float128 implements MutableNumber<Float128> {
 
     private Type getType() {
         long exponentBits = getExponentBits();
-        if (exponentBits == 0) {
-            if (isMantissaZero()) {
-                return Type.ZERO;
-            } else {
-                return Type.SUBNORMAL;
-            }
-        } else if (exponentBits == EXPONENT_FULL_MASK) {
-            if (isMantissaZero()) {
-                return Type.INFINITY;
-            } else {
-                return Type.NAN;
-            }
+        //Adding one wraps the all ones exponent around to zero so only the two special exponents end up at most one
+        if (((exponentBits + 1) & EXPONENT_FULL_MASK) > 1) {
+            return Type.NORMAL;
         }
-        return Type.NORMAL;
+        return SPECIAL_TYPES[(int) (exponentBits & 1) * 2 + (isMantissaZero() ? 1 : 0)];
     }
 
     @Override
     public Float128 negate() {
-        if (isNegative()) {
-            data[0] &= Long.MAX_VALUE;
-        } else {
-            data[0] |= Long.MIN_VALUE;
-        }
+        negative = !negative;
         return this;
     }
 
@@ -523,186 +780,132 @@ public final class Float128 implements MutableNumber<Float128> {
 
     @Override
     public Float128 add(Float128 that) {
+        return add(that, that.isNegative(), RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Add another floating point to this one rounding the result with the given rounding mode
+     *
+     * @param that the floating point to add
+     * @param mode how to round a result that cannot be represented exactly
+     * @return this for chaining
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    public Float128 add(Float128 that, RoundingMode mode) {
+        return add(that, that.isNegative(), mode);
+    }
+
+    /**
+     * Add another floating point to this one treating it as having the given sign
+     *
+     * This lets subtraction share the addition code without making a negated copy
+     *
+     * @param that the floating point to add
+     * @param thatNegative the sign to use for that
+     * @param mode how to round a result that cannot be represented exactly
+     * @return this for chaining
+     */
+    private Float128 add(Float128 that, boolean thatNegative, RoundingMode mode) {
+        boolean thisNegative = this.isNegative();
         Type thisType = getType();
-        if (thisType == Type.NAN || thisType == Type.INFINITY) {
-            return this;
-        }
-        if (thisType == Type.ZERO) {
-            //zero plus anything is that thing
-            System.arraycopy(that.data, 0, this.data, 0, LONGS);
+        if (thisType == Type.NAN) {
             return this;
         }
         Type thatType = that.getType();
-        if (thatType == Type.NAN || thatType == Type.INFINITY) {
-            //anything plus NaN or Infinity is NaN or Infinity
-            System.arraycopy(that.data, 0, this.data, 0, LONGS);
+        if (thatType == Type.NAN) {
+            set(that);
             return this;
         }
-        if (thatType == Type.ZERO) {
-            //Anything plus zero is same thing
+        if (thisType == Type.INFINITY) {
+            if (thatType == Type.INFINITY && thisNegative != thatNegative) {
+                //Infinity minus infinity
+                setNaN();
+            }
             return this;
         }
-        //Both this and that are either Normal or Subnormal
-
-        long expThis = getExponentBits();
-        long expThat = that.getExponentBits();
-        long[] mantissaThis = this.getMantissaBits();
-        long[] mantissaThat = that.getMantissaBits();
-        boolean negativeCase = this.isNegative() != that.isNegative();
-        boolean invertFinalResult = false;
-        boolean signFlip = false;
-
-        int compareUnsigned = Long.compareUnsigned(expThis, expThat);
-        long finalExp;
-        int norms = 0;
-
-        if (compareUnsigned > 0) {
-            long deltaExp = expThis - expThat;
-            if (thatType == Type.SUBNORMAL) {
-                deltaExp--;
-            }
-            if (deltaExp > MANTISSA_BITS + 1) { //Essentially adding a zero to this
-                //Anything plus zero is same thing
-                return this;
-            }
-            finalExp = expThis;
-            mantissaThat = CommonUtils.shiftRightUnsigned(mantissaThat, (int) (deltaExp));
-            if (thatType == Type.NORMAL) { //If it is normal we need to introduce an extra one
-                long toChange = MANTISSA_BITS - deltaExp;
-                if (toChange >= 0) {
-                    CommonUtils.setBit(mantissaThat, (int) toChange, 1);
-                }
-            }
-            if (thisType == Type.NORMAL) {
-                norms = 1;
-            }
-        } else if (compareUnsigned < 0) {
-            long deltaExp = expThat - expThis;
-            if (thisType == Type.SUBNORMAL) {
-                deltaExp--;
-            }
-            if (expThat - expThis > MANTISSA_BITS + 1) { //Essentially adding something to zero
-                //zero plus anything is that thing
-                System.arraycopy(that.data, 0, this.data, 0, LONGS);
+        if (thatType == Type.INFINITY || thisType == Type.ZERO) {
+            //anything plus Infinity is Infinity and zero plus anything is that thing
+            //(unless both are zeros of opposite signs, which is handled below)
+            if (thatType != Type.ZERO) {
+                copySigned(that, thatNegative);
                 return this;
             }
-            finalExp = expThat;
-            mantissaThis = CommonUtils.shiftRightUnsigned(mantissaThis, (int) (deltaExp));
-            if (thisType == Type.NORMAL) { //If it is normal we need to introduce an extra one
-                long toChange = MANTISSA_BITS - deltaExp;
-                if (toChange >= 0) {
-                    CommonUtils.setBit(mantissaThis, (int) toChange, 1);
-                }
-            }
-            if (thatType == Type.NORMAL) {
-                norms = 1;
-            }
-        } else {
-            finalExp = expThis;
-            if (thisType == Type.NORMAL) {
-                norms = 1;
-            }
-            if (thatType == Type.NORMAL) {
-                norms++;
-            }
-        }
-
-        if (negativeCase) {
-            int compareMantissas = compareMantissas(mantissaThis, mantissaThat);
-            if (compareMantissas > 0) {
-                if (this.isNegative()){
-                    invertFinalResult = true;
-                }
-            } else if (compareMantissas < 0) {
-                long[] temp = mantissaThis;
-                mantissaThis = mantissaThat;
-                mantissaThat = temp;
-                if (that.isNegative()) {
-                    invertFinalResult = true;
-                }
-                signFlip = true;
-            }
-
-            negateMantissa(mantissaThat);
         }
-
-        //At this point the mantissas in mantissaThis and mantissaThat both have an exponent of finalExp
-        //They can be simply added now
-        //We also know how many normalized numbers we had at the start so we know how much we have to compensate
-        long carry = 0;
-
-        for (int i = mantissaThis.length - 1; i >= 0; i--) {
-            long temp = mantissaThis[i] + mantissaThat[i] + carry;
-
-            if (carry == 1) {
-                carry = (Long.compareUnsigned(temp, mantissaThis[i]) <= 0 &&
-                         Long.compareUnsigned(temp, mantissaThat[i]) <= 0) ? 1 : 0;
-            } else {
-                carry = (Long.compareUnsigned(temp, mantissaThis[i]) < 0 &&
-                         Long.compareUnsigned(temp, mantissaThat[i]) < 0) ? 1 : 0;
+        if (thatType == Type.ZERO) {
+            if (thisType == Type.ZERO && thisNegative != thatNegative) {
+                //Exact zero sums are positive except when rounding towards negative infinity
+                copySigned(that, mode == RoundingMode.FLOOR);
             }
-
-            mantissaThis[i] = temp;
-        }
-        long topBit = mantissaThis[0] & (-1L << (64 - (MANTISSA_START % 64)));
-
-        //Mantissas have been added but the normal assumed ones have been ignored
-        if (topBit != 0) {
-            //Overflow into the top of the mantissa (shift right and change exponent to fix)
-            //Clear the overflow for easier stuff later
-            mantissaThis[0] = mantissaThis[0] & ~(-1L << (64 - (MANTISSA_START % 64)));
-            norms++;
-        } else if (carry == 1) {
-            //Overflow past top of the mantissa (shift right, change exponent, and add the extra one)
-            norms++;
+            return this;
         }
+        //Both this and that are either Normal or Subnormal
 
-        if (negativeCase) {
-            if (invertFinalResult) {
-                negateMantissa(mantissaThis);
-            }
-            if (norms == 2) {
-                long steps = 1;
-                for (int i = MANTISSA_BITS - 1; i >= 0 && CommonUtils.getBit(mantissaThis, i) == 0; i--, steps++);
-                if (steps < MANTISSA_BITS) {
-                    if (Long.compareUnsigned(steps, finalExp) > 0) {
-                        steps = finalExp;
-                    }
-                    mantissaThis = CommonUtils.shiftLeft(mantissaThis, (int) steps);
-                    mantissaThis[0] = mantissaThis[0] & ~(-1L << (64 - (MANTISSA_START % 64)));
-                    finalExp -= steps;
-                } else {
-                    finalExp = 0;
-                }
-            }
+        //The full mantissas get a spare long above them for the carry and a long of guard bits below them
+        Scratch scratch = SCRATCH.get();
+        long[] big = scratch.sum;
+        long[] small = scratch.addend;
+        big[0] = 0;
+        small[0] = 0;
+        big[FULL_MANTISSA_LONGS + 1] = 0;
+        small[FULL_MANTISSA_LONGS + 1] = 0;
+        this.getMantissaBitsExtra(big, 1);
+        that.getMantissaBitsExtra(small, 1);
+        long bigExponent = this.getMantissaExponent();
+        long smallExponent = that.getMantissaExponent();
+        boolean bigNegative = thisNegative;
+        boolean smallNegative = thatNegative;
+        if (bigExponent < smallExponent ||
+            (bigExponent == smallExponent && compareMantissas(big, small) < 0)) {
+            long[] tempMantissa = big;
+            big = small;
+            small = tempMantissa;
+            long tempExponent = bigExponent;
+            bigExponent = smallExponent;
+            smallExponent = tempExponent;
+            bigNegative = thatNegative;
+            smallNegative = thisNegative;
+        }
+
+        //Align the smaller number, anything shifted past the guard bits only matters as the sticky bit
+        long shift = bigExponent - smallExponent;
+        int bits = big.length * 64;
+        boolean sticky = CommonUtils.hasLowBits(small, (int) Math.min(shift, bits));
+        CommonUtils.shiftRightUnsignedInPlace(small, (int) Math.min(shift, bits));
+
+        if (bigNegative == smallNegative) {
+            CommonUtils.add(big, small, big, 0);
         } else {
-            if (norms == 1) {
-                if (finalExp == 0) {
-                    finalExp = 1;
+            //The smaller number is really a little larger than what is left of it after the alignment
+            CommonUtils.subtract(big, small, big, sticky ? 1 : 0);
+            if (!sticky && CommonUtils.bitLength(big) == 0) {
+                //Exact zero sums are positive except when rounding towards negative infinity
+                setZero();
+                if (isNegative() != (mode == RoundingMode.FLOOR)) {
+                    negate();
                 }
-            } else if (norms == 2) {
-                mantissaThis = CommonUtils.shiftRightUnsigned(mantissaThis, 1);
-                finalExp += 1;
-            } else if (norms == 3) {
-                mantissaThis = CommonUtils.shiftRightUnsigned(mantissaThis, 1);
-                CommonUtils.setBit(mantissaThis, MANTISSA_BITS - 1, 1);
-                finalExp += 1;
+                return this;
             }
         }
-
-        //At this point mantissaThis contains the summed mantissa
-        //finalExp is the final exponent value
-        setMantissaBits(mantissaThis);
-        setExponentBits(finalExp);
-        if (signFlip) {
-            negate();
-        }
+        roundAndSet(bigNegative, bigExponent - 64, big, sticky, mode);
 
         return this;
     }
 
+    /**
+     * Copy another floating point into this one giving it the given sign
+     *
+     * @param that the floating point to copy
+     * @param negative the sign the copy should have
+     */
+    private void copySigned(Float128 that, boolean negative) {
+        set(that);
+        if (isNegative() != negative) {
+            negate();
+        }
+    }
+
     public boolean isFinite() {
-        return getType() == Type.ZERO || getType() == Type.NORMAL || getType() == Type.SUBNORMAL;
+        return getExponentBits() != EXPONENT_FULL_MASK;
     }
     
     public boolean isInfinite() {
@@ -719,7 +922,19 @@ public final class Float128 implements MutableNumber<Float128> {
 
     @Override
     public Float128 subtract(Float128 other) {
-        return add(Float128.negate(other));
+        return add(other, !other.isNegative(), RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Subtract another floating point from this one rounding the result with the given rounding mode
+     *
+     * @param other the floating point to subtract
+     * @param mode how to round a result that cannot be represented exactly
+     * @return this for chaining
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    public Float128 subtract(Float128 other, RoundingMode mode) {
+        return add(other, !other.isNegative(), mode);
     }
 
     @Override
@@ -728,96 +943,51 @@ public final class Float128 implements MutableNumber<Float128> {
     }
 
     public static Float128 subtract(Float128 a,  Float128 b) {
-        return Float128.add(a, Float128.negate(b));
+        return new Float128(a).subtract(b);
     }
 
     @Override
     public Float128 multiply(Float128 that) {
+        return multiply(that, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Multiply this floating point by another one rounding the result with the given rounding mode
+     *
+     * @param that the floating point to multiply by
+     * @param mode how to round a result that cannot be represented exactly
+     * @return this for chaining
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    public Float128 multiply(Float128 that, RoundingMode mode) {
+        boolean sign = this.isNegative() ^ that.isNegative();
         Type thisType = getType();
-        if (thisType == Type.NAN || thisType == Type.INFINITY || thisType == Type.ZERO) {
+        if (thisType == Type.NAN) {
             return this;
         }
         Type thatType = that.getType();
-        if (thatType == Type.NAN || thatType == Type.INFINITY) {
-            //anything plus NaN or Infinity is NaN or Infinity
-            System.arraycopy(that.data, 0, this.data, 0, LONGS);
-            return this;
-        }
-        if (thatType == Type.ZERO) {
-            setExponentBits(0);
-            setMantissaBits(ZERO_MANTISSA);
+        if (thatType == Type.NAN) {
+            set(that);
             return this;
         }
-        //Both this and that are either Normal or Subnormal
-        int norms = 0;
-
-        long thisExp;
-        if (thisType == Type.SUBNORMAL) {
-            thisExp = 1;
-        } else {
-            thisExp = this.getExponentBits();
-        }
-        long thatExp;
-        if (thatType == Type.SUBNORMAL) {
-            thatExp = 1;
-        } else {
-            thatExp = that.getExponentBits();
-        }
-
-        long finalExp = thisExp - EXPONENT_OFFSET + thatExp;
-
-        long[] newMantissa = new long[MANTISSA_BITS / 64 + 1];
-        long[] thisMantissa = this.getMantissaBitsExtra();
-        long[] thatMantissa = that.getMantissaBitsExtra();
-
-        boolean sign = this.isNegative() ^ that.isNegative();
-
-        int shiftAmount = 0;
-        for (int i = MANTISSA_BITS; i >= 0; i--) {
-            if (CommonUtils.getBit(thisMantissa, i) != 0) {
-                thatMantissa = CommonUtils.shiftRightUnsigned(thatMantissa, shiftAmount);
-
-                long carry = 0;
-                for (int j = newMantissa.length - 1; j >= 0; j--) {
-                    long temp = newMantissa[j] + thatMantissa[j] + carry;
-
-                    if (carry == 1) {
-                        carry = (Long.compareUnsigned(temp, newMantissa[j]) <= 0 &&
-                                 Long.compareUnsigned(temp, thatMantissa[j]) <= 0) ? 1 : 0;
-                    } else {
-                        carry = (Long.compareUnsigned(temp, newMantissa[j]) < 0 &&
-                                 Long.compareUnsigned(temp, thatMantissa[j]) < 0) ? 1 : 0;
-                    }
-
-                    newMantissa[j] = temp;
-                }
-                
-                shiftAmount = 0;
-            }
-            shiftAmount++;
-        }
-
-        int firstOne = 0;
-        for (int i = newMantissa.length * 64 - 1; i >= 0 && CommonUtils.getBit(newMantissa, i) == 0; i--, firstOne++);
-        long shiftRight = (newMantissa.length * 64) - MANTISSA_BITS - firstOne - 1;
-        if (shiftRight > 0) {
-            newMantissa = CommonUtils.shiftRightUnsigned(newMantissa, (int) shiftRight);
-            finalExp += shiftRight;
-        } else if (shiftRight < 0) {
-            shiftRight = -shiftRight;
-            if (shiftRight <= MANTISSA_BITS) {
-                if (Long.compareUnsigned(shiftRight, finalExp) > 0) {
-                    shiftRight = finalExp;
-                }
-                newMantissa = CommonUtils.shiftLeft(newMantissa, (int) shiftRight);
-                finalExp -= shiftRight;
+        if (thisType == Type.INFINITY || thatType == Type.INFINITY) {
+            if (thisType == Type.ZERO || thatType == Type.ZERO) {
+                setNaN();
             } else {
-                finalExp = 0;
+                setInfinity();
             }
+        } else if (thisType == Type.ZERO || thatType == Type.ZERO) {
+            setZero();
+        } else {
+            //Both this and that are either Normal or Subnormal
+            //The exact product of the full mantissas is rounded once
+            Scratch scratch = SCRATCH.get();
+            this.getMantissaBitsExtra(scratch.thisMantissa, 0);
+            that.getMantissaBitsExtra(scratch.thatMantissa, 0);
+            long[] product = scratch.product;
+            CommonUtils.multiplySchoolbook(scratch.thisMantissa, 0, scratch.thatMantissa, 0, FULL_MANTISSA_LONGS, product, 0);
+            roundAndSet(sign, this.getMantissaExponent() + that.getMantissaExponent(), product, false, mode);
         }
-
-        setMantissaBitsExtra(newMantissa);
-        setExponentBits(finalExp);
         if (this.isNegative() != sign) {
             negate();
         }
@@ -829,163 +999,458 @@ public final class Float128 implements MutableNumber<Float128> {
         return new Float128(a).multiply(b);
     }
 
-    private static long[] mantissaDivision(long[] n, long[] d) {
-        long[] q = new long[n.length]; //q = 0
-        long[] nn = new long[n.length]; //r = 0
-        System.arraycopy(n, 0, nn, 0, n.length);
-
-        boolean notEmpty = compareMantissas(nn, ZERO_MANTISSA_FULL) != 0;
+    /**
+     * Compute a * b + c with a single rounding (fused multiply-add)
+     *
+     * @param a the first factor
+     * @param b the second factor
+     * @param c the addend
+     * @return a new floating point holding the correctly rounded result
+     */
+    public static Float128 fma(Float128 a, Float128 b, Float128 c) {
+        return fma(a, b, c, RoundingMode.HALF_EVEN);
+    }
 
-        for (int i = MANTISSA_BITS; i >= 0 && compareMantissas(d, ZERO_MANTISSA_FULL) != 0 && notEmpty; i--) {
-            if (compareMantissas(nn, d) >= 0) {
-                CommonUtils.setBit(q,i, 1);
-                long[] toSubtract = negateMantissaCopy(d);
-                toSubtract[0] = toSubtract[0] & ~(-1L << (64 - ((MANTISSA_START - 1) % 64)));
+    /**
+     * Compute a * b + c with a single rounding (fused multiply-add) using the given rounding mode
+     *
+     * @param a the first factor
+     * @param b the second factor
+     * @param c the addend
+     * @param mode how to round a result that cannot be represented exactly
+     * @return a new floating point holding the rounded result
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    public static Float128 fma(Float128 a, Float128 b, Float128 c, RoundingMode mode) {
+        Float128 result = new Float128();
+        boolean productNegative = a.isNegative() ^ b.isNegative();
+        boolean cNegative = c.isNegative();
+        Type aType = a.getType();
+        Type bType = b.getType();
+        Type cType = c.getType();
+        boolean productInfinite = aType == Type.INFINITY || bType == Type.INFINITY;
+        boolean productZero = aType == Type.ZERO || bType == Type.ZERO;
+
+        if (aType == Type.NAN || bType == Type.NAN || cType == Type.NAN ||
+            (productInfinite && productZero) ||
+            (productInfinite && cType == Type.INFINITY && productNegative != cNegative)) {
+            result.setNaN();
+            return result;
+        }
+        if (productInfinite) {
+            result.setInfinity();
+            if (productNegative) {
+                result.negate();
+            }
+            return result;
+        }
+        if (cType == Type.INFINITY || (productZero && cType != Type.ZERO)) {
+            result.copySigned(c, cNegative);
+            return result;
+        }
+        if (productZero) {
+            //Exact zero sums are positive except when rounding towards negative infinity
+            if (productNegative == cNegative ? cNegative : mode == RoundingMode.FLOOR) {
+                result.negate();
+            }
+            return result;
+        }
+        //a and b are Normal or Subnormal and c is Normal, Subnormal or Zero
+
+        //The exact product and c both get a spare long above them and a long of guard bits below them
+        Scratch scratch = SCRATCH.get();
+        long[] big = scratch.wideSum;
+        long[] small = scratch.wideAddend;
+        big[0] = 0;
+        big[2 * FULL_MANTISSA_LONGS + 1] = 0;
+        a.getMantissaBitsExtra(scratch.thisMantissa, 0);
+        b.getMantissaBitsExtra(scratch.thatMantissa, 0);
+        CommonUtils.multiplySchoolbook(scratch.thisMantissa, 0, scratch.thatMantissa, 0, FULL_MANTISSA_LONGS, big, 1);
+        Arrays.fill(small, 0);
+        c.getMantissaBitsExtra(small, FULL_MANTISSA_LONGS + 1);
+        long bigExponent = a.getMantissaExponent() + b.getMantissaExponent() - 64;
+        long smallExponent = c.getMantissaExponent() - 64;
+        boolean bigNegative = productNegative;
+        boolean smallNegative = cNegative;
+        if (cType == Type.ZERO) {
+            result.roundAndSet(productNegative, bigExponent, big, false, mode);
+            return result;
+        }
+
+        //The operand whose top bit is higher goes first
+        if (smallExponent + CommonUtils.bitLength(small) > bigExponent + CommonUtils.bitLength(big)) {
+            long[] tempMantissa = big;
+            big = small;
+            small = tempMantissa;
+            long tempExponent = bigExponent;
+            bigExponent = smallExponent;
+            smallExponent = tempExponent;
+            bigNegative = cNegative;
+            smallNegative = productNegative;
+        }
+
+        //Move the first operand up against the spare long so that whenever the top bits are close enough for the
+        //sum to cancel, the whole second operand fits below it
+        int bits = big.length * 64;
+        int align = bits - 64 - CommonUtils.bitLength(big);
+        CommonUtils.shiftLeftInPlace(big, align);
+        bigExponent -= align;
+
+        //Align the second operand, anything shifted past the end only matters as the sticky bit
+        //It can need to move left, but its top bit still ends up at or below the first one's
+        long shift = bigExponent - smallExponent;
+        boolean sticky = false;
+        if (shift > 0) {
+            sticky = CommonUtils.hasLowBits(small, (int) Math.min(shift, bits));
+            CommonUtils.shiftRightUnsignedInPlace(small, (int) Math.min(shift, bits));
+        } else if (shift < 0) {
+            CommonUtils.shiftLeftInPlace(small, (int) -shift);
+        }
+
+        if (bigNegative == smallNegative) {
+            CommonUtils.add(big, small, big, 0);
+        } else {
+            //The second operand is really a little larger than what is left of it after the alignment
+            if (CommonUtils.subtract(big, small, big, sticky ? 1 : 0) != 0) {
+                //Only possible when both top bits were in the same place, in which case nothing was cut off
+                CommonUtils.negateInPlace(big);
+                bigNegative = !bigNegative;
+            }
+            if (!sticky && CommonUtils.bitLength(big) == 0) {
+                //Exact zero sums are positive except when rounding towards negative infinity
+                if (mode == RoundingMode.FLOOR) {
+                    result.negate();
+                }
+                return result;
+            }
+        }
+        result.roundAndSet(bigNegative, bigExponent, big, sticky, mode);
 
-                long carry = 0;
+        return result;
+    }
 
-                for (int j = toSubtract.length - 1; j >= 0; j--) {
-                    long temp = nn[j] + toSubtract[j] + carry;
+    /**
+     * Approximate the reciprocal of a full mantissa using Newton-Raphson iteration
+     *
+     * With W the number of bits in a full mantissa array, the result is roughly 2^(2W - 1) / divisor
+     * (within a few units of its last place) clamped to W bits
+     *
+     * @param divisor the divisor shifted so that its top bit is set
+     * @param x the array to store the reciprocal in
+     * @param scratch the working space to use
+     */
+    private static void reciprocal(long[] divisor, long[] x, Scratch scratch) {
+        int bits = FULL_MANTISSA_LONGS * 64;
+
+        //Seed with the reciprocal of the top 53 bits: the top long of the result is about 2^116 / top
+        Arrays.fill(x, 0);
+        x[0] = (long) (0x1p115 / (divisor[0] >>> 11)) << 1;
+
+        long[] product = scratch.product;
+        long[] correction = scratch.wide;
+        long[] delta = scratch.delta;
+        for (int step = 0; step < RECIPROCAL_STEPS; step++) {
+            //x += x * (2^(2W - 1) - divisor * x) / 2^(2W - 1), which doubles the number of correct bits
+            CommonUtils.multiplySchoolbook(divisor, 0, x, 0, FULL_MANTISSA_LONGS, product, 0);
+            boolean tooLarge = product[0] < 0;
+            if (!tooLarge) {
+                CommonUtils.negateInPlace(product);
+            }
+            product[0] &= Long.MAX_VALUE; //|2^(2W - 1) - divisor * x|
 
-                    if (carry == 1) {
-                        carry = (Long.compareUnsigned(temp, nn[j]) <= 0 &&
-                                 Long.compareUnsigned(temp, toSubtract[j]) <= 0) ? 1 : 0;
-                    } else {
-                        carry = (Long.compareUnsigned(temp, nn[j]) < 0 &&
-                                 Long.compareUnsigned(temp, toSubtract[j]) < 0) ? 1 : 0;
-                    }
+            //The error is tiny so its low half can be dropped at the cost of a unit or two
+            CommonUtils.multiplySchoolbook(x, 0, product, 0, FULL_MANTISSA_LONGS, correction, 0);
+            CommonUtils.shiftRightUnsignedInPlace(correction, bits - 1);
+            System.arraycopy(correction, FULL_MANTISSA_LONGS, delta, 0, FULL_MANTISSA_LONGS);
 
-                    nn[j] = temp;
-                }
-                nn[0] = nn[0] & ~(-1L << (64 - ((MANTISSA_START - 1) % 64)));
-                notEmpty = compareMantissas(nn, ZERO_MANTISSA_FULL) != 0;
-            }
-            if (notEmpty) {
-                d = CommonUtils.shiftRightUnsigned(d, 1);
+            if (tooLarge) {
+                CommonUtils.subtract(x, delta, x, 0);
+            } else if (CommonUtils.add(x, delta, x, 0) != 0) {
+                Arrays.fill(x, -1L);
             }
         }
+    }
 
-        return q;
+    /**
+     * Divide two full mantissas
+     *
+     * The quotient is multiplied by 2^(PRECISION + 1) so that it has at least one bit more than the precision
+     *
+     * @param n the dividend with its top bit at the implicit one's position
+     * @param d the divisor with its top bit at the implicit one's position
+     * @param q the array to store floor(n * 2^(PRECISION + 1) / d) in
+     * @param scratch the working space to use
+     * @return whether the division had a nonzero remainder
+     */
+    private static boolean mantissaDivision(long[] n, long[] d, long[] q, Scratch scratch) {
+        int bits = FULL_MANTISSA_LONGS * 64;
+
+        long[] divisor = scratch.divisor;
+        long[] x = scratch.reciprocal;
+        CommonUtils.shiftLeft(d, bits - PRECISION, divisor);
+        reciprocal(divisor, x, scratch);
+
+        //n * 2^(P + 1) / d = n * 2^(W + 1) / divisor = n * x / 2^(W - 2)
+        long[] wide = scratch.wide;
+        CommonUtils.multiplySchoolbook(n, 0, x, 0, FULL_MANTISSA_LONGS, wide, 0);
+        CommonUtils.shiftRightUnsignedInPlace(wide, bits - 2);
+        System.arraycopy(wide, FULL_MANTISSA_LONGS, q, 0, FULL_MANTISSA_LONGS);
+
+        //The estimate is off by at most a few units so fix it using the exact remainder n * 2^(P + 1) - q * d
+        long[] remainder = scratch.remainder;
+        Arrays.fill(remainder, 0, FULL_MANTISSA_LONGS, 0);
+        System.arraycopy(n, 0, remainder, FULL_MANTISSA_LONGS, FULL_MANTISSA_LONGS);
+        CommonUtils.shiftLeftInPlace(remainder, PRECISION + 1);
+        CommonUtils.multiplySchoolbook(q, 0, d, 0, FULL_MANTISSA_LONGS, wide, 0);
+        CommonUtils.subtract(remainder, wide, remainder, 0);
+
+        long[] divisorWide = scratch.product;
+        Arrays.fill(divisorWide, 0, FULL_MANTISSA_LONGS, 0);
+        System.arraycopy(d, 0, divisorWide, FULL_MANTISSA_LONGS, FULL_MANTISSA_LONGS);
+        while (remainder[0] < 0) {
+            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && q[i]-- == 0; i--);
+            CommonUtils.add(remainder, divisorWide, remainder, 0);
+        }
+        while (compareMantissas(remainder, divisorWide) >= 0) {
+            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && ++q[i] == 0; i--);
+            CommonUtils.subtract(remainder, divisorWide, remainder, 0);
+        }
+
+        return CommonUtils.bitLength(remainder) != 0;
     }
 
     @Override
     public Float128 divide(Float128 that) {
+        return divide(that, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Divide this floating point by another one rounding the result with the given rounding mode
+     *
+     * @param that the floating point to divide by
+     * @param mode how to round a result that cannot be represented exactly
+     * @return this for chaining
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    public Float128 divide(Float128 that, RoundingMode mode) {
+        boolean sign = this.isNegative() ^ that.isNegative();
         Type thisType = getType();
         if (thisType == Type.NAN) {
             return this;
         }
         Type thatType = that.getType();
         if (thatType == Type.NAN) {
-            System.arraycopy(that.data, 0, this.data, 0, LONGS);
+            set(that);
             return this;
         }
-        if (thatType == Type.ZERO) {
-            setExponentBits(EXPONENT_FULL_MASK);
-            if (thisType == Type.ZERO) {
-                CommonUtils.setBit(data,0, 1); //NaN
-            } else {
-                setMantissaBits(new long[MANTISSA_BITS/64 + 1]); //Infinity
-            }
-            return this;
+        if ((thisType == Type.ZERO && thatType == Type.ZERO) || (thisType == Type.INFINITY && thatType == Type.INFINITY)) {
+            setNaN();
+        } else if (thisType == Type.INFINITY || thatType == Type.ZERO) {
+            setInfinity();
+        } else if (thisType == Type.ZERO || thatType == Type.INFINITY) {
+            setZero();
+        } else {
+            //Both this and that are either Normal or Subnormal
+            //Subnormal mantissas are normalized first so the quotient always has enough bits to round
+            Scratch scratch = SCRATCH.get();
+            long[] thisMantissa = scratch.thisMantissa;
+            long[] thatMantissa = scratch.thatMantissa;
+            this.getMantissaBitsExtra(thisMantissa, 0);
+            that.getMantissaBitsExtra(thatMantissa, 0);
+            int thisShift = PRECISION - CommonUtils.bitLength(thisMantissa);
+            int thatShift = PRECISION - CommonUtils.bitLength(thatMantissa);
+            CommonUtils.shiftLeftInPlace(thisMantissa, thisShift);
+            CommonUtils.shiftLeftInPlace(thatMantissa, thatShift);
+
+            long[] quotient = scratch.quotient;
+            boolean sticky = mantissaDivision(thisMantissa, thatMantissa, quotient, scratch);
+            long exponent = (this.getMantissaExponent() - thisShift) - (that.getMantissaExponent() - thatShift) - PRECISION - 1;
+            roundAndSet(sign, exponent, quotient, sticky, mode);
         }
-        if (thatType == Type.INFINITY) {
-            if (thisType == Type.INFINITY) {
-                setExponentBits(EXPONENT_FULL_MASK);
-                CommonUtils.setBit(data,0, 1); //NaN
-            } else {
-                setExponentBits(0);
-                setMantissaBits(new long[MANTISSA_BITS/64 + 1]); //Zero
-            }
-            return this;
+        if (this.isNegative() != sign) {
+            negate();
         }
 
-        long thisExp;
-        if (thisType == Type.SUBNORMAL) {
-            thisExp = 1;
-        } else {
-            thisExp = this.getExponentBits();
+        return this;
+    }
+
+    public static Float128 divide(Float128 a,  Float128 b) {
+        return new Float128(a).divide(b);
+    }
+
+    /**
+     * Approximate the reciprocal square root of a full mantissa using Newton-Raphson iteration
+     *
+     * With W the number of bits in a full mantissa array, the result is roughly 2^(3W / 2 - 1) / sqrt(a)
+     * (within a few units of its last place) clamped to W bits
+     *
+     * @param a the radicand with its top bit in one of the two highest places of the array
+     * @param y the array to store the reciprocal square root in
+     * @param scratch the working space to use
+     */
+    private static void reciprocalSquareRoot(long[] a, long[] y, Scratch scratch) {
+        int bits = FULL_MANTISSA_LONGS * 64;
+
+        //Seed with the reciprocal square root of the top 53 bits: the top long of the result is about 2^63 / sqrt(top / 2^53)
+        Arrays.fill(y, 0);
+        y[0] = (long) (0x1p62 / Math.sqrt((a[0] >>> 11) * 0x1p-53)) << 1;
+
+        long[] product = scratch.product;
+        long[] square = scratch.remainder;
+        long[] correction = scratch.wide;
+        long[] delta = scratch.delta;
+        for (int step = 0; step < RECIPROCAL_SQRT_STEPS; step++) {
+            //y += y * (2^(2W - 2) - a * y^2 / 2^W) / 2^(2W - 1), which doubles the number of correct bits
+            CommonUtils.multiplySchoolbook(y, 0, y, 0, FULL_MANTISSA_LONGS, product, 0);
+            CommonUtils.multiplySchoolbook(a, 0, product, 0, FULL_MANTISSA_LONGS, square, 0);
+            boolean tooLarge = (square[0] >>> 62) != 0;
+            if (!tooLarge) {
+                CommonUtils.negateInPlace(square);
+            }
+            square[0] &= Long.MAX_VALUE >>> 1; //|2^(2W - 2) - a * y^2 / 2^W|
+
+            //The error is tiny so its low half can be dropped at the cost of a unit or two
+            CommonUtils.multiplySchoolbook(y, 0, square, 0, FULL_MANTISSA_LONGS, correction, 0);
+            CommonUtils.shiftRightUnsignedInPlace(correction, bits - 1);
+            System.arraycopy(correction, FULL_MANTISSA_LONGS, delta, 0, FULL_MANTISSA_LONGS);
+
+            if (tooLarge) {
+                CommonUtils.subtract(y, delta, y, 0);
+            } else if (CommonUtils.add(y, delta, y, 0) != 0) {
+                Arrays.fill(y, -1L);
+            }
         }
-        long thatExp;
-        if (thatType == Type.SUBNORMAL) {
-            thatExp = 1;
+    }
+
+    /**
+     * Take the square root of a full mantissa
+     *
+     * With W the number of bits in a full mantissa array, the root of a * 2^W has exactly W bits
+     *
+     * @param a the radicand with its top bit in one of the two highest places of the array
+     * @param r the array to store floor(sqrt(a * 2^W)) in
+     * @param scratch the working space to use
+     * @return whether the square root was inexact
+     */
+    private static boolean mantissaSquareRoot(long[] a, long[] r, Scratch scratch) {
+        int bits = FULL_MANTISSA_LONGS * 64;
+
+        long[] y = scratch.reciprocal;
+        reciprocalSquareRoot(a, y, scratch);
+
+        //sqrt(a * 2^W) = a / sqrt(a / 2^W) = a * y / 2^(W - 1)
+        long[] wide = scratch.wide;
+        CommonUtils.multiplySchoolbook(a, 0, y, 0, FULL_MANTISSA_LONGS, wide, 0);
+        CommonUtils.shiftRightUnsignedInPlace(wide, bits - 1);
+        if ((wide[FULL_MANTISSA_LONGS - 1] & 1) != 0) {
+            //The estimate reached 2^W but the root is always below it
+            Arrays.fill(r, -1L);
         } else {
-            thatExp = that.getExponentBits();
+            System.arraycopy(wide, FULL_MANTISSA_LONGS, r, 0, FULL_MANTISSA_LONGS);
         }
 
-        long finalExp = thisExp + EXPONENT_OFFSET - thatExp;
+        //The estimate is off by at most a few units so fix it using the exact remainder a * 2^W - r^2
+        //That remainder is small enough for its top bit to be its sign
+        long[] remainder = scratch.remainder;
+        System.arraycopy(a, 0, remainder, 0, FULL_MANTISSA_LONGS);
+        Arrays.fill(remainder, FULL_MANTISSA_LONGS, 2 * FULL_MANTISSA_LONGS, 0);
+        CommonUtils.multiplySchoolbook(r, 0, r, 0, FULL_MANTISSA_LONGS, wide, 0);
+        CommonUtils.subtract(remainder, wide, remainder, 0);
 
-        long[] thisMantissa = this.getMantissaBitsExtra();
-        long[] thatMantissa = that.getMantissaBitsExtra();
+        long[] step = scratch.product;
+        while (remainder[0] < 0) {
+            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && r[i]-- == 0; i--);
+            squareStep(r, step);
+            CommonUtils.add(remainder, step, remainder, 0);
+        }
+        squareStep(r, step);
+        while (compareMantissas(remainder, step) >= 0) {
+            CommonUtils.subtract(remainder, step, remainder, 0);
+            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && ++r[i] == 0; i--);
+            squareStep(r, step);
+        }
 
-        boolean sign = this.isNegative() ^ that.isNegative();
+        return CommonUtils.bitLength(remainder) != 0;
+    }
 
-        long[] newMantissa = mantissaDivision(thisMantissa, thatMantissa);
+    /**
+     * Store the difference between (r + 1)^2 and r^2 (which is 2r + 1)
+     *
+     * @param r the root
+     * @param step the array twice as long as the root to store the difference in
+     */
+    private static void squareStep(long[] r, long[] step) {
+        Arrays.fill(step, 0, FULL_MANTISSA_LONGS, 0);
+        System.arraycopy(r, 0, step, FULL_MANTISSA_LONGS, FULL_MANTISSA_LONGS);
+        CommonUtils.shiftLeftInPlace(step, 1);
+        step[2 * FULL_MANTISSA_LONGS - 1] |= 1;
+    }
 
-        int firstOne = 0;
-        int i;
-        for (i = newMantissa.length * 64 - 1; i >= 0 && CommonUtils.getBit(newMantissa, i) == 0; i--, firstOne++);
-        long shiftRight = (newMantissa.length * 64) - MANTISSA_BITS - firstOne - 1;
-        if (shiftRight > 0) {
-            newMantissa = CommonUtils.shiftRightUnsigned(newMantissa, (int) shiftRight);
-            finalExp += shiftRight;
-        } else if (shiftRight < 0) {
-            shiftRight = -shiftRight;
-            if (shiftRight <= MANTISSA_BITS) {
-                if (Long.compareUnsigned(shiftRight, finalExp) > 0) {
-                    shiftRight = finalExp;
-                }
-                newMantissa = CommonUtils.shiftLeft(newMantissa, (int) shiftRight);
-                finalExp -= shiftRight;
-            } else {
-                finalExp = 0;
-            }
+    /**
+     * Take the square root of this floating point
+     *
+     * @return this for chaining
+     */
+    public Float128 sqrt() {
+        return sqrt(RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Take the square root of this floating point rounding the result with the given rounding mode
+     *
+     * The square root of -0 is -0 and the square root of any other negative number is NaN
+     *
+     * @param mode how to round a result that cannot be represented exactly
+     * @return this for chaining
+     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded
+     */
+    public Float128 sqrt(RoundingMode mode) {
+        Type type = getType();
+        if (type == Type.NAN || type == Type.ZERO) {
+            return this;
         }
+        if (isNegative()) {
+            setNaN();
+        } else if (type != Type.INFINITY) {
+            //Normal or Subnormal
+            //The mantissa moves to the top of its array with an even exponent so that the root fills a whole array
+            Scratch scratch = SCRATCH.get();
+            long[] mantissa = scratch.thisMantissa;
+            getMantissaBitsExtra(mantissa, 0);
+            int shift = FULL_MANTISSA_LONGS * 64 - CommonUtils.bitLength(mantissa);
+            long exponent = getMantissaExponent() - shift;
+            if ((exponent & 1) != 0) {
+                shift--;
+                exponent++;
+            }
+            CommonUtils.shiftLeftInPlace(mantissa, shift);
 
-        setMantissaBitsExtra(newMantissa);
-        setExponentBits(finalExp);
-        if (this.isNegative() != sign) {
-            negate();
+            //sqrt(a * 2^e) = sqrt(a * 2^W) * 2^((e - W) / 2)
+            long[] root = scratch.quotient;
+            boolean sticky = mantissaSquareRoot(mantissa, root, scratch);
+            roundAndSet(false, (exponent - FULL_MANTISSA_LONGS * 64) / 2, root, sticky, mode);
         }
 
         return this;
     }
 
-    public static Float128 divide(Float128 a,  Float128 b) {
-        return new Float128(a).divide(b);
+    public static Float128 sqrt(Float128 a) {
+        return new Float128(a).sqrt();
     }
 
     private static long[] mantissaModulo(long[] n, long[] d) {
         long[] q = new long[n.length];
         long[] r = new long[n.length];
-        long[] t = new long[n.length];
 
         boolean isFirstN = false;
 
         for (int i = n.length * 64 - 1; i >= 0; i--) {
             if (isFirstN || CommonUtils.getBit(n, i) != 0) {
                 isFirstN = true;
-                r = CommonUtils.shiftLeft(r, 1);
+                CommonUtils.shiftLeftInPlace(r, 1);
                 CommonUtils.setBit(r, 0, CommonUtils.getBit(n, i));
                 if (compareMantissas(r, d) >= 0) {
-                    for (int j = 0; j < d.length; j++) {
-                        t[j] = ~d[j];
-                    }
-
-                    long carry = 1;
-
-                    for (int j = n.length - 1; j >= 0; j--) {
-                        long temp = r[j] + t[j] + carry;
-
-                        if (carry == 1) {
-                            carry = (Long.compareUnsigned(temp, r[j]) <= 0 &&
-                                     Long.compareUnsigned(temp, t[j]) <= 0) ? 1 : 0;
-                        } else {
-                            carry = (Long.compareUnsigned(temp, r[j]) < 0 &&
-                                     Long.compareUnsigned(temp, t[j]) < 0) ? 1 : 0;
-                        }
-
-                        r[j] = temp;
-                    }
+                    CommonUtils.subtract(r, d, r, 0);
                     r[0] = r[0] & ~(-1L << (64 - ((MANTISSA_START - 1) % 64)));
 
                     CommonUtils.setBit(q, i, 1);
@@ -1004,12 +1469,11 @@ public final class Float128 implements MutableNumber<Float128> {
         }
         Type thatType = that.getType();
         if (thatType == Type.NAN) {
-            System.arraycopy(that.data, 0, this.data, 0, LONGS);
+            set(that);
             return this;
         }
         if (thatType == Type.ZERO || thisType == Type.INFINITY) {
-            setExponentBits(EXPONENT_FULL_MASK);
-            CommonUtils.setBit(data,0, 1); //NaN
+            setNaN();
             return this;
         }
         if (thatType == Type.INFINITY) {
@@ -1037,7 +1501,7 @@ public final class Float128 implements MutableNumber<Float128> {
             if (thisExp - thatExp > MANTISSA_BITS + 1) {
                 Arrays.fill(thisMantissa, 0);
             } else {
-                thatMantissa = CommonUtils.shiftRightUnsigned(thatMantissa, (int) (thisExp - thatExp));
+                CommonUtils.shiftRightUnsignedInPlace(thatMantissa, (int) (thisExp - thatExp));
             }
         }
         if (thisExp < thatExp) {
@@ -1045,7 +1509,7 @@ public final class Float128 implements MutableNumber<Float128> {
             if (thatExp - thisExp > MANTISSA_BITS + 1) {
                 Arrays.fill(thatMantissa, 0);
             } else {
-                thisMantissa = CommonUtils.shiftRightUnsigned(thisMantissa, (int) (thatExp - thisExp));
+                CommonUtils.shiftRightUnsignedInPlace(thisMantissa, (int) (thatExp - thisExp));
             }
         }
 
@@ -1058,7 +1522,7 @@ public final class Float128 implements MutableNumber<Float128> {
         for (i = newMantissa.length * 64 - 1; i >= 0 && CommonUtils.getBit(newMantissa, i) == 0; i--, firstOne++);
         long shiftRight = (newMantissa.length * 64) - MANTISSA_BITS - firstOne - 1;
         if (shiftRight > 0) {
-            newMantissa = CommonUtils.shiftRightUnsigned(newMantissa, (int) shiftRight);
+            CommonUtils.shiftRightUnsignedInPlace(newMantissa, (int) shiftRight);
             finalExp += shiftRight;
         } else if (shiftRight < 0) {
             shiftRight = -shiftRight;
@@ -1066,7 +1530,7 @@ public final class Float128 implements MutableNumber<Float128> {
                 if (Long.compareUnsigned(shiftRight, finalExp) > 0) {
                     shiftRight = finalExp;
                 }
-                newMantissa = CommonUtils.shiftLeft(newMantissa, (int) shiftRight);
+                CommonUtils.shiftLeftInPlace(newMantissa, (int) shiftRight);
                 finalExp -= shiftRight;
             } else {
                 finalExp = 0;
@@ -1086,108 +1550,127 @@ public final class Float128 implements MutableNumber<Float128> {
         return new Float128(a).modulo(b);
     }
 
+    /**
+     * Compares like Double.equals so that it agrees with compareTo: -0 and +0 are different and every NaN
+     * equals every other NaN
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Float128 float128 = (Float128) o;
-        if (float128.getType() == Type.NAN || this.getType() == Type.NAN || float128.getType() == Type.INFINITY || this.getType() == Type.INFINITY) {
-            return false;
-        }
-        if (float128.getType() == Type.ZERO && this.getType() == Type.ZERO) {
-            return true;
+        boolean thisNaN = this.getType() == Type.NAN;
+        boolean thatNaN = float128.getType() == Type.NAN;
+        if (thisNaN || thatNaN) {
+            return thisNaN == thatNaN;
         }
-        return Arrays.equals(data, float128.data);
+        return negative == float128.negative && exponent == float128.exponent &&
+               m0 == float128.m0 && m1 == float128.m1;
     }
 
     @Override
     public int hashCode() {
-        if (this.getType() == Type.ZERO) {
-            return Type.ZERO.hashCode(); // Since ZEROs are always equal: they all share the same hashcode
+        if (this.getType() == Type.NAN) {
+            return Type.NAN.hashCode(); // Since NaNs are always equal: they all share the same hashcode
         }
-        return Arrays.hashCode(data);
+        int result = 31 * Boolean.hashCode(negative) + exponent;
+        result = 31 * result + Long.hashCode(m0);
+        result = 31 * result + Long.hashCode(m1);
+        return result;
     }
 
-
+    /**
+     * Compares in the same total order as Double.compare: -0 is below +0 and every NaN is above positive
+     * infinity and equal to every other NaN. This is consistent with equals.
+     */
     @Override
     public int compareTo(Float128 o) {
-        Float128 a = this;
-        Float128 b = o;
-        Type aType = a.getType();
-        Type bType = b.getType();
-        if (aType == bType) {
-            if (aType == Type.ZERO) {
-                return 0;
-            } else if (aType == Type.INFINITY) {
-                return a.isNegative() ? (b.isNegative() ? 0 : -1) : (b.isNegative() ? 1 : 0);
-            } else if (aType == Type.NAN) {
-                return 0;
-            } else {
-                return a.isNegative() ?
-                        (b.isNegative() ? NEGATIVE_COMPARATOR.compare(a, b) : -1) :
-                        (b.isNegative() ? 1 : POSITIVE_COMPARATOR.compare(a, b));
-            }
-        } else {
-            if (bType == Type.NAN) {
-                return 0;
-            }
-            // Types are different
-            if (aType == Type.ZERO) {
-                return b.isNegative() ? 1 : -1;
-            } else if (aType == Type.INFINITY) {
-                return a.isNegative() ? -1 : 1;
-            } else if (aType == Type.NAN) {
-                return 0;
-            } else if (bType == Type.INFINITY) {
-                return b.isNegative() ? 1 : -1;
-            } else { // SUBNORMAL | NORMAL
-                if (bType == Type.ZERO) {
-                    return a.isNegative() ? -1 : 1;
-                } else { // SUBNORMAL | NORMAL
-                    return a.isNegative() ?
-                            (b.isNegative() ? NEGATIVE_COMPARATOR.compare(a, b) : -1) :
-                            (b.isNegative() ? 1 : POSITIVE_COMPARATOR.compare(a, b));
-                }
-            }
+        boolean thisNaN = this.getType() == Type.NAN;
+        boolean thatNaN = o.getType() == Type.NAN;
+        if (thisNaN || thatNaN) {
+            return Boolean.compare(thisNaN, thatNaN);
+        }
+        //Different signs also put -0 below +0
+        if (this.negative != o.negative) {
+            return this.negative ? -1 : 1;
+        }
+        int compare = compareMagnitudes(this, o);
+        return this.negative ? -compare : compare;
+    }
+
+    /**
+     * Compare the absolute values of two floating points that are not NaN
+     *
+     * @param a the first floating point
+     * @param b the second floating point
+     * @return a negative number, zero or a positive number as |a| is less than, equal to or greater than |b|
+     */
+    private static int compareMagnitudes(Float128 a, Float128 b) {
+        //A larger exponent always means a larger magnitude (subnormals and zero have exponent 0 and infinity the
+        //largest one), equal exponents are ordered by the full mantissas as unsigned numbers
+        if (a.exponent != b.exponent) {
+            return Integer.compare(a.exponent, b.exponent);
+        }
+        if (a.m0 != b.m0) {
+            return Long.compareUnsigned(a.m0, b.m0);
         }
+        return Long.compareUnsigned(a.m1, b.m1);
     }
 
     @Override
     public String toString() {
-        StringBuilder builder = new StringBuilder();
+        return appendTo(new StringBuilder()).toString();
+    }
 
-        String negative = "";
+    /**
+     * Append the shortest decimal representation that reads back as exactly this floating point
+     *
+     * Values from 10^-3 up to 10^8 are written out in full and the rest in scientific notation
+     *
+     * @param builder the builder to append to
+     * @return the builder for chaining
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        Type type = getType();
+        if (type == Type.NAN) {
+            return builder.append("NAN");
+        }
         if (isNegative()) {
-            negative = "-";
+            builder.append('-');
+        }
+        if (type == Type.INFINITY) {
+            return builder.append("INFINITY");
         }
-
-        Type type = getType();
-
         if (type == Type.ZERO) {
-            builder.append('0');
-        } else if (type == Type.SUBNORMAL || type == Type.NORMAL) {
-            double base10s = base2To10Exp(getExponentBits() - EXPONENT_OFFSET);
-            long base10 = (long) Math.floor(base10s);
-            if (base10 <= 7 && base10 >= -3) {
-                StringBuilder fullString = new StringBuilder(toFullString(10));
-                while (fullString.charAt(fullString.length() - 1) == '0') {
-                    fullString.deleteCharAt(fullString.length() - 1);
-                }
-                if (fullString.charAt(fullString.length() - 1) == '.') {
-                    fullString.deleteCharAt(fullString.length() - 1);
-                }
-                return fullString.toString();
-            } else {
-                return toSciString(10);
+            return builder.append('0');
+        }
+
+        long[] mantissa = SCRATCH.get().thisMantissa;
+        getMantissaBitsExtra(mantissa, 0);
+        int start = builder.length();
+        //The digits are 0.d1d2d3... * 10^k so the first one is worth 10^(k - 1)
+        int base10 = CommonUtils.shortestDigits(mantissa, getMantissaExponent(),
+                                                getExponentBits() > 1 && isMantissaZero(), builder) - 1;
+        int digits = builder.length() - start;
+        if (base10 >= 0 && base10 <= 7) {
+            for (int i = digits; i <= base10; i++) {
+                builder.append('0');
             }
-        } else  if (type == Type.INFINITY) {
-            builder.append(negative);
-            builder.append("INFINITY");
-        } else if (type == Type.NAN) {
-            builder.append("NAN");
+            if (digits > base10 + 1) {
+                builder.insert(start + base10 + 1, '.');
+            }
+        } else if (base10 < 0 && base10 >= -3) {
+            builder.insert(start, "0.000", 0, 1 - base10);
+        } else {
+            if (digits == 1) {
+                builder.append('0');
+            }
+            builder.insert(start + 1, '.');
+            builder.append('E');
+            builder.append(base10);
         }
 
-        return builder.toString();
+        return builder;
     }
 
     public String toSciString(int precision) {
@@ -1379,6 +1862,7 @@ public final class Float128 implements MutableNumber<Float128> {
     }
 
     public String toBase64(Encoder encoder) {
+        long[] data = pack();
         byte[] bytes = new byte[8*LONGS];
 
         for (int i = 0; i < LONGS; i++) {
@@ -1401,10 +1885,10 @@ public final class Float128 implements MutableNumber<Float128> {
     public static Float128 fromBase64(String base64, Decoder decoder) {
         byte[] bytes = decoder.decode(base64);
 
-        Float128 result = new Float128();
+        long[] data = new long[LONGS];
 
         for (int i = 0; i < LONGS; i++) {
-            result.data[i] = (((long)bytes[i * 8]) & 0xFF) << 56 |
+            data[i] = (((long)bytes[i * 8]) & 0xFF) << 56 |
                              (((long)bytes[i * 8 + 1]) & 0xFF) << 48 |
                              (((long)bytes[i * 8 + 2]) & 0xFF) << 40 |
                              (((long)bytes[i * 8 + 3]) & 0xFF) << 32 |
@@ -1414,13 +1898,32 @@ public final class Float128 implements MutableNumber<Float128> {
                              (((long)bytes[i * 8 + 7]) & 0xFF);
         }
 
-        return result;
+        return bytesOf(data);
     }
 
     private static double base2To10Exp(long base2Exponent) {
         return base2Exponent * LOG_10_OF_2;
     }
 
+    /**
+     * Per thread arrays used by the arithmetic instead of allocating new ones
+     */
+    private static final class Scratch {
+        private final long[] thisMantissa = new long[FULL_MANTISSA_LONGS];
+        private final long[] thatMantissa = new long[FULL_MANTISSA_LONGS];
+        private final long[] sum = new long[FULL_MANTISSA_LONGS + 2];
+        private final long[] addend = new long[FULL_MANTISSA_LONGS + 2];
+        private final long[] wideSum = new long[2 * FULL_MANTISSA_LONGS + 2];
+        private final long[] wideAddend = new long[2 * FULL_MANTISSA_LONGS + 2];
+        private final long[] product = new long[2 * FULL_MANTISSA_LONGS];
+        private final long[] wide = new long[2 * FULL_MANTISSA_LONGS];
+        private final long[] remainder = new long[2 * FULL_MANTISSA_LONGS];
+        private final long[] divisor = new long[FULL_MANTISSA_LONGS];
+        private final long[] reciprocal = new long[FULL_MANTISSA_LONGS];
+        private final long[] delta = new long[FULL_MANTISSA_LONGS];
+        private final long[] quotient = new long[FULL_MANTISSA_LONGS];
+    }
+
     private enum Type {
         ZERO, SUBNORMAL, NORMAL, INFINITY, NAN
     }
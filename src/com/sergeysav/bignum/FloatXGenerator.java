@@ -32,8 +32,8 @@ public class FloatXGenerator {
                "\n" +
                "import com.sergeysav.bignum.CommonUtils.ExpString;\n" +
                "\n" +
+               "import java.math.RoundingMode;\n" +
                "import java.util.Arrays;\n" +
-               "import java.util.Comparator;\n" +
                "\n" +
                "/**\n" +
                " * Represents a " + bits + " bit floating point number with\n" +
@@ -64,10 +64,14 @@ public class FloatXGenerator {
                "    private static final int MANTISSA_BITS = " + mantissaBits + ";\n" +
                "\n" +
                "    /**\n" +
-               "     * The number of longs used to store the full data\n" +
+               "     * The number of longs used to store the full data in its packed form\n" +
                "     */\n" +
                "    private static final int LONGS = " + longs + "; // " + bits + " bits\n" +
                "\n" +
+               "    /*\n" +
+               "     * The sections of the packed form (used by bytesOf and toBase64), counted from its most significant bit\n" +
+               "     */\n" +
+               "\n" +
                "    /**\n" +
                "     * The start of the sign section (INCLUSIVE)\n" +
                "     */\n" +
@@ -103,28 +107,40 @@ public class FloatXGenerator {
                "    private static final long EXPONENT_FULL_MASK = ~(-1L << EXPONENT_BITS);\n" +
                "\n" +
                "    /**\n" +
-               "     * The mantissa array for a mantissa representing a zero value\n" +
+               "     * The number of significant bits (the mantissa bits and the implicit leading one)\n" +
                "     */\n" +
-               "    private static final long[] ZERO_MANTISSA = new long[(MANTISSA_BITS - 1)/64 + 1];\n" +
+               "    private static final int PRECISION = MANTISSA_BITS + 1;\n" +
                "    /**\n" +
-               "     * The full mantissa array for a mantissa representing a zero value\n" +
+               "     * The number of longs in a full mantissa (one including the implicit leading one)\n" +
                "     */\n" +
-               "    private static final long[] ZERO_MANTISSA_FULL = new long[MANTISSA_BITS/64 + 1];\n" +
-               "\n" +
+               "    private static final int FULL_MANTISSA_LONGS = MANTISSA_BITS / 64 + 1;\n" +
+               "    /**\n" +
+               "     * The implicit leading one in the most significant long of a full mantissa\n" +
+               "     */\n" +
+               "    private static final long LEADING_ONE = 1L << (MANTISSA_BITS % 64);\n" +
+               "    /**\n" +
+               "     * The power of two of the last mantissa bit of subnormals and of the smallest normals\n" +
+               "     */\n" +
+               "    private static final long MIN_EXPONENT = 1 - EXPONENT_OFFSET - MANTISSA_BITS;\n" +
+               "    /**\n" +
+               "     * The number of Newton-Raphson steps needed to refine a 53 bit reciprocal past the precision (with a margin)\n" +
+               "     */\n" +
+               "    private static final int RECIPROCAL_STEPS = 32 - Integer.numberOfLeadingZeros((PRECISION + 7) / 53);\n" +
+               "    /**\n" +
+               "     * The number of Newton-Raphson steps needed to refine a 48 bit reciprocal square root to a full mantissa array\n" +
+               "     */\n" +
+               "    private static final int RECIPROCAL_SQRT_STEPS = 32 - Integer.numberOfLeadingZeros((FULL_MANTISSA_LONGS * 64 - 1) / 48);\n" +
                "\n" +
                "    /**\n" +
-               "     * The comparator used for comparing two positive values\n" +
+               "     * The types of the numbers with an all zeros or all ones exponent\n" +
+               "     * indexed by the last bit of the exponent and then by whether the mantissa is zero\n" +
                "     */\n" +
-               "    private static final Comparator<Float" + bits + "> POSITIVE_COMPARATOR = Comparator\n" +
-               "            .comparing(Float" + bits + "::getExponentBits)\n" +
-               "            .thenComparing((a, b) -> compareMantissas(a.getMantissaBits(), b.getMantissaBits()));\n" +
+               "    private static final Type[] SPECIAL_TYPES = {Type.SUBNORMAL, Type.ZERO, Type.NAN, Type.INFINITY};\n" +
+               "\n" +
                "    /**\n" +
-               "     * The comparator used for comparing two negative values\n" +
+               "     * Working space for the arithmetic so that it does not allocate\n" +
                "     */\n" +
-               "    private static final Comparator<Float" + bits + "> NEGATIVE_COMPARATOR = Comparator\n" +
-               "            .comparing(Float" + bits + "::getExponentBits)\n" +
-               "            .thenComparing((a, b) -> compareMantissas(a.getMantissaBits(), b.getMantissaBits()))\n" +
-               "            .reversed();\n" +
+               "    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);\n" +
                "\n" +
                "    /**\n" +
                "     * A constant equal to 0\n" +
@@ -177,13 +193,22 @@ public class FloatXGenerator {
                        .collect(Collectors.joining(", ")) + "});\n" +
                "\n" +
                "    /**\n" +
-               "     * The longs representing the internal data\n" +
+               "     * The sign bit\n" +
                "     */\n" +
-               "    private long[] data;\n" +
+               "    private boolean negative;\n" +
+               "    /**\n" +
+               "     * The value of the exponent section\n" +
+               "     */\n" +
+               "    private int exponent;\n" +
+               "    /**\n" +
+               "     * The full mantissa with the implicit leading one (set unless the exponent section is zero) stored explicitly\n" +
+               "     * (most significant long first)\n" +
+               "     */\n" +
+               "    private long " + joinLimbs("m#", ", ") + ";\n" +
                "\n" +
                "    static {\n" +
-               "        if (EXPONENT_BITS > 64) {\n" +
-               "            throw new IllegalStateException(\"Cannot represent float with over 64 exponent bits\");\n" +
+               "        if (EXPONENT_BITS > 31) {\n" +
+               "            throw new IllegalStateException(\"Cannot represent float with over 31 exponent bits\");\n" +
                "        }\n" +
                "    }\n" +
                "\n" +
@@ -191,7 +216,6 @@ public class FloatXGenerator {
                "     * Creates a new floating point with a value of zero\n" +
                "     */\n" +
                "    public Float" + bits + "() {\n" +
-               "        data = new long[LONGS];\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -200,8 +224,7 @@ public class FloatXGenerator {
                "     * @param src the floating point to copy\n" +
                "     */\n" +
                "    public Float" + bits + "(Float" + bits + " src) {\n" +
-               "        data = new long[LONGS];\n" +
-               "        System.arraycopy(src.data, 0, this.data, 0, LONGS);\n" +
+               "        set(src);\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -252,252 +275,500 @@ public class FloatXGenerator {
                "\n" +
                "        Float" + bits + " val = new Float" + bits + "();\n" +
                "\n" +
-               "        System.arraycopy(parts, 0, val.data, 0, LONGS);\n" +
+               "        val.unpack(parts);\n" +
                "\n" +
                "        return val;\n" +
                "    }\n" +
                "\n" +
-               "    private static Float" + bits + " fromStructure(boolean negative, long exponent, long[] mantissa) {\n" +
-               "        Float" + bits + " result = new Float" + bits + "();\n" +
-               "        result.setExponentBits(exponent);\n" +
-               "        result.setMantissaBits(mantissa);\n" +
-               "        if (negative) {\n" +
-               "            result.negate();\n" +
-               "        }\n" +
-               "        return result;\n" +
-               "    }\n" +
-               "\n" +
-               "    private boolean isNegative() {\n" +
-               "        return data[0] < 0;\n" +
+               "    /**\n" +
+               "     * Parses a decimal floating point rounding to the nearest representable value (ties to even)\n" +
+               "     *\n" +
+               "     * @param s the characters to parse (an optional sign followed by INFINITY, NAN or decimal digits with an optional\n" +
+               "     *          point and an optional exponent such as 1.5E-7)\n" +
+               "     * @return the parsed floating point\n" +
+               "     * @throws NumberFormatException if the characters are not a floating point\n" +
+               "     */\n" +
+               "    public static Float" + bits + " parse(CharSequence s) {\n" +
+               "        return parse(s, 0, s.length(), RoundingMode.HALF_EVEN);\n" +
                "    }\n" +
                "\n" +
-               "    private long getExponentBits() {\n" +
-               "        if (EXPONENT_BITS == 64) {\n" +
-               "            //First 63 bits after sign bit and the next bit\n" +
-               "            return (data[0] << 1) | (data[1] >>> 63);\n" +
-               "        }\n" +
-               "        //Remove sign bit and shift right until all we have is exponent bits\n" +
-               "        return (data[0] & Long.MAX_VALUE) >>> (63 - EXPONENT_BITS);\n" +
+               "    /**\n" +
+               "     * Parses a decimal floating point rounding with the given rounding mode\n" +
+               "     *\n" +
+               "     * @param s the characters to parse (see parse(CharSequence))\n" +
+               "     * @param mode how to round a value that cannot be represented exactly\n" +
+               "     * @return the parsed floating point\n" +
+               "     * @throws NumberFormatException if the characters are not a floating point\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the value must be rounded\n" +
+               "     */\n" +
+               "    public static Float" + bits + " parse(CharSequence s, RoundingMode mode) {\n" +
+               "        return parse(s, 0, s.length(), mode);\n" +
                "    }\n" +
                "\n" +
-               "    private void setExponentBits(long exponentBits) {\n" +
-               "        if (EXPONENT_BITS == 64) {\n" +
-               "            //First 63 bits after sign bit and the next bit\n" +
-               "            data[0] = (data[0] & Long.MIN_VALUE) | (exponentBits >>> 1);\n" +
-               "            data[1] = (data[1] & Long.MAX_VALUE) | (exponentBits << 63);\n" +
+               "    /**\n" +
+               "     * Parses a decimal floating point from part of a sequence of characters without copying it\n" +
+               "     *\n" +
+               "     * @param s the characters containing the floating point (see parse(CharSequence))\n" +
+               "     * @param beginIndex the index of the first character to parse\n" +
+               "     * @param endIndex the index after the last character to parse\n" +
+               "     * @param mode how to round a value that cannot be represented exactly\n" +
+               "     * @return the parsed floating point\n" +
+               "     * @throws NumberFormatException if the characters are not a floating point\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the value must be rounded\n" +
+               "     */\n" +
+               "    public static Float" + bits + " parse(CharSequence s, int beginIndex, int endIndex, RoundingMode mode) {\n" +
+               "        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {\n" +
+               "            throw new IndexOutOfBoundsException(\"Range [\" + beginIndex + \", \" + endIndex + \") out of bounds for length \" + s.length());\n" +
                "        }\n" +
-               "        //Take sign bit and bits after the end of the exponent and combine them with the exponent's bits\n" +
-               "        data[0] = (data[0] & Long.MIN_VALUE) | (data[0] & ~(-1L << (63 - EXPONENT_END)))\n" +
-               "                  | ((exponentBits & ~(-1L << EXPONENT_BITS)) << (63 - EXPONENT_END));\n" +
-               "    }\n" +
                "\n" +
-               "    private boolean isMantissaZero() {\n" +
-               "        if (MANTISSA_START % 64 != 0) { //Partial long at the start\n" +
-               "            if (data[MANTISSA_START / 64] << (MANTISSA_START % 64) != 0) {\n" +
-               "                return false;\n" +
+               "        Float" + bits + " result = new Float" + bits + "();\n" +
+               "        int i = beginIndex;\n" +
+               "        boolean negative = false;\n" +
+               "        if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {\n" +
+               "            negative = s.charAt(i) == '-';\n" +
+               "            i++;\n" +
+               "        }\n" +
+               "        if (matchesIgnoreCase(s, i, endIndex, \"NAN\")) {\n" +
+               "            result.setNaN();\n" +
+               "            return result;\n" +
+               "        }\n" +
+               "        if (matchesIgnoreCase(s, i, endIndex, \"INFINITY\")) {\n" +
+               "            result.setInfinity();\n" +
+               "            return negative ? result.negate() : result;\n" +
+               "        }\n" +
+               "\n" +
+               "        //Find the significant digits (from the first nonzero digit to the last one) and where the point is\n" +
+               "        int point = -1;\n" +
+               "        int firstNonzero = -1;\n" +
+               "        int lastNonzero = -1;\n" +
+               "        int digits = 0;\n" +
+               "        for (; i < endIndex; i++) {\n" +
+               "            char c = s.charAt(i);\n" +
+               "            if (c == '.' && point < 0) {\n" +
+               "                point = i;\n" +
+               "            } else if (Character.digit(c, 10) >= 0) {\n" +
+               "                digits++;\n" +
+               "                if (c != '0') {\n" +
+               "                    if (firstNonzero < 0) {\n" +
+               "                        firstNonzero = i;\n" +
+               "                    }\n" +
+               "                    lastNonzero = i;\n" +
+               "                }\n" +
+               "            } else {\n" +
+               "                break;\n" +
                "            }\n" +
                "        }\n" +
+               "        if (digits == 0) {\n" +
+               "            throw parseException(\"No digits\", s, beginIndex, endIndex);\n" +
+               "        }\n" +
+               "        int mantissaEnd = i;\n" +
                "\n" +
-               "        //Full longs\n" +
-               "        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {\n" +
-               "            if (data[i] != 0) {\n" +
-               "                return false;\n" +
+               "        long exponent10 = 0;\n" +
+               "        if (i < endIndex) {\n" +
+               "            if (s.charAt(i) != 'e' && s.charAt(i) != 'E') {\n" +
+               "                throw parseException(\"Invalid digit\", s, beginIndex, endIndex);\n" +
+               "            }\n" +
+               "            i++;\n" +
+               "            boolean negativeExponent = false;\n" +
+               "            if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {\n" +
+               "                negativeExponent = s.charAt(i) == '-';\n" +
+               "                i++;\n" +
+               "            }\n" +
+               "            if (i == endIndex) {\n" +
+               "                throw parseException(\"No exponent digits\", s, beginIndex, endIndex);\n" +
+               "            }\n" +
+               "            for (; i < endIndex; i++) {\n" +
+               "                int digit = Character.digit(s.charAt(i), 10);\n" +
+               "                if (digit < 0) {\n" +
+               "                    throw parseException(\"Invalid digit\", s, beginIndex, endIndex);\n" +
+               "                }\n" +
+               "                //Anything this large overflows or underflows regardless of the digits\n" +
+               "                if (exponent10 < 1_000_000_000_000L) {\n" +
+               "                    exponent10 = exponent10 * 10 + digit;\n" +
+               "                }\n" +
+               "            }\n" +
+               "            if (negativeExponent) {\n" +
+               "                exponent10 = -exponent10;\n" +
                "            }\n" +
                "        }\n" +
                "\n" +
-               "        //Partial long at the end\n" +
-               "        if ((MANTISSA_END + 1) % 64 != 0) {\n" +
-               "            if (data[MANTISSA_END / 64] >>> (64 - ((MANTISSA_END + 1) % 64)) != 0) {\n" +
-               "                return false;\n" +
+               "        if (firstNonzero < 0) {\n" +
+               "            return negative ? result.negate() : result;\n" +
+               "        }\n" +
+               "\n" +
+               "        //The value is the significant digits as an integer times 10^power\n" +
+               "        int significant = lastNonzero - firstNonzero + 1 - (firstNonzero < point && point < lastNonzero ? 1 : 0);\n" +
+               "        long power = exponent10 + (point < 0 || point > lastNonzero ?\n" +
+               "                                   (point < 0 ? mantissaEnd : point) - lastNonzero - 1 :\n" +
+               "                                   point - lastNonzero);\n" +
+               "\n" +
+               "        //Values past the range only need a single bit to round the right way\n" +
+               "        long[] magnitude;\n" +
+               "        long exponent;\n" +
+               "        boolean sticky = false;\n" +
+               "        if ((significant + power - 1) * CommonUtils.LOG_2_OF_10 > EXPONENT_OFFSET + 2) {\n" +
+               "            magnitude = new long[FULL_MANTISSA_LONGS];\n" +
+               "            magnitude[FULL_MANTISSA_LONGS - 1] = 1;\n" +
+               "            exponent = EXPONENT_OFFSET + 2;\n" +
+               "        } else if ((significant + power) * CommonUtils.LOG_2_OF_10 < MIN_EXPONENT - 2) {\n" +
+               "            magnitude = new long[FULL_MANTISSA_LONGS];\n" +
+               "            magnitude[FULL_MANTISSA_LONGS - 1] = 1;\n" +
+               "            exponent = MIN_EXPONENT - 2;\n" +
+               "            sticky = true;\n" +
+               "        } else {\n" +
+               "            //digits * 5^power * 2^power, or for negative powers digits * 2^shift / 5^-power with enough bits left to round\n" +
+               "            int fives = (int) Math.abs(power);\n" +
+               "            int digitBits = (int) (significant * CommonUtils.LOG_2_OF_10) + 1;\n" +
+               "            int fiveBits = (int) (fives * CommonUtils.LOG_2_OF_5) + 1;\n" +
+               "            int bits = power >= 0 ? digitBits + fiveBits : Math.max(digitBits, PRECISION + 2 + fiveBits);\n" +
+               "            magnitude = new long[Math.max(bits / 64 + 1, FULL_MANTISSA_LONGS)];\n" +
+               "            accumulateDigits(s, firstNonzero, lastNonzero, magnitude);\n" +
+               "            if (power >= 0) {\n" +
+               "                CommonUtils.multiplyPowerOfFiveInPlace(magnitude, fives);\n" +
+               "                exponent = power;\n" +
+               "            } else {\n" +
+               "                int shift = Math.max(PRECISION + 2 + fiveBits - CommonUtils.bitLength(magnitude), 0);\n" +
+               "                CommonUtils.shiftLeftInPlace(magnitude, shift);\n" +
+               "                sticky = CommonUtils.dividePowerOfFiveInPlace(magnitude, fives);\n" +
+               "                exponent = power - shift;\n" +
                "            }\n" +
                "        }\n" +
+               "        result.roundAndSet(negative, exponent, magnitude, sticky, mode);\n" +
                "\n" +
-               "        return true;\n" +
+               "        return result;\n" +
                "    }\n" +
                "\n" +
-               "    private long[] getMantissaBits() {\n" +
-               "        long[] mantissa = new long[(MANTISSA_BITS - 1)/64 + 1];\n" +
-               "        int pos = 0;\n" +
-               "\n" +
-               "        if (MANTISSA_START % 64 != 0) { //Partial long at the start\n" +
-               "            mantissa[pos++] = data[MANTISSA_START / 64] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
+               "    /**\n" +
+               "     * Accumulate decimal digits (skipping a point) into an unsigned big endian number\n" +
+               "     *\n" +
+               "     * @param s the characters containing the digits\n" +
+               "     * @param from the index of the first digit\n" +
+               "     * @param to the index of the last digit (INCLUSIVE)\n" +
+               "     * @param magnitude the zeroed number to accumulate into (must be large enough to hold the digits)\n" +
+               "     */\n" +
+               "    private static void accumulateDigits(CharSequence s, int from, int to, long[] magnitude) {\n" +
+               "        int chunkDigits = CommonUtils.radixChunkDigits(10);\n" +
+               "        long chunk = 0;\n" +
+               "        int count = 0;\n" +
+               "        for (int i = from; i <= to; i++) {\n" +
+               "            char c = s.charAt(i);\n" +
+               "            if (c != '.') {\n" +
+               "                chunk = chunk * 10 + Character.digit(c, 10);\n" +
+               "                if (++count == chunkDigits) {\n" +
+               "                    CommonUtils.multiplyAddInPlace(magnitude, CommonUtils.radixChunk(10), chunk);\n" +
+               "                    chunk = 0;\n" +
+               "                    count = 0;\n" +
+               "                }\n" +
+               "            }\n" +
                "        }\n" +
-               "\n" +
-               "        //Full longs\n" +
-               "        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {\n" +
-               "            mantissa[pos++] = data[i];\n" +
+               "        if (count > 0) {\n" +
+               "            CommonUtils.multiplyAddInPlace(magnitude, CommonUtils.pow(10, count), chunk);\n" +
                "        }\n" +
+               "    }\n" +
                "\n" +
-               "        //Partial long at the end\n" +
-               "        if ((MANTISSA_END + 1) % 64 != 0) {\n" +
-               "            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {\n" +
-               "                //The unset data to the right will be set here\n" +
-               "                mantissa[mantissa.length - 1] = data[MANTISSA_END / 64];\n" +
-               "                //Shift stuff as far to the right as it must go\n" +
-               "                mantissa = CommonUtils.shiftRightUnsigned(mantissa, 64 - ((MANTISSA_END + 1) % 64));\n" +
-               "            } else {\n" +
-               "                //Shift left in order to fit the extra data\n" +
-               "                mantissa = CommonUtils.shiftLeft(mantissa, (MANTISSA_END + 1) % 64);\n" +
-               "                //Set the newly created unset data on the right\n" +
-               "                mantissa[mantissa.length - 1] |= data[MANTISSA_END / 64] >>> (64 - ((MANTISSA_END + 1) % 64));\n" +
+               "    private static boolean matchesIgnoreCase(CharSequence s, int beginIndex, int endIndex, String word) {\n" +
+               "        if (endIndex - beginIndex != word.length()) {\n" +
+               "            return false;\n" +
+               "        }\n" +
+               "        for (int i = 0; i < word.length(); i++) {\n" +
+               "            if (Character.toUpperCase(s.charAt(beginIndex + i)) != word.charAt(i)) {\n" +
+               "                return false;\n" +
                "            }\n" +
                "        }\n" +
+               "        return true;\n" +
+               "    }\n" +
                "\n" +
-               "        return mantissa;\n" +
+               "    private static NumberFormatException parseException(String reason, CharSequence s, int beginIndex, int endIndex) {\n" +
+               "        return new NumberFormatException(reason + \" for Float" + bits + ": \\\"\" + s.subSequence(beginIndex, endIndex) + \"\\\"\");\n" +
                "    }\n" +
                "\n" +
-               "    private long[] getMantissaBitsExtra() {\n" +
-               "        long[] mantissa = new long[MANTISSA_BITS/64 + 1];\n" +
-               "        int pos = 0;\n" +
+               "    private static Float" + bits + " fromStructure(boolean negative, long exponent, long[] mantissa) {\n" +
+               "        Float" + bits + " result = new Float" + bits + "();\n" +
+               "        result.setExponentBits(exponent);\n" +
+               "        result.setMantissaBits(mantissa);\n" +
+               "        if (negative) {\n" +
+               "            result.negate();\n" +
+               "        }\n" +
+               "        return result;\n" +
+               "    }\n" +
                "\n" +
-               "        if (MANTISSA_START % 64 != 0) { //Partial long at the start\n" +
-               "            mantissa[pos++] = data[MANTISSA_START / 64] & ~(-1L << (64 - (MANTISSA_START % 64)))\n" +
-               "                              | (getExponentBits() != 0 ? (1L << (64 - (MANTISSA_START % 64))) : 0);\n" +
-               "        } else {\n" +
-               "            mantissa[pos++] = getExponentBits() != 0 ? 1 : 0;\n" +
+               "    /**\n" +
+               "     * Set this floating point to the value of another one\n" +
+               "     *\n" +
+               "     * @param that the floating point to copy\n" +
+               "     */\n" +
+               "    private void set(Float" + bits + " that) {\n" +
+               "        negative = that.negative;\n" +
+               "        exponent = that.exponent;\n" +
+               limbs("        m# = that.m#;\n") +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Pack this floating point into its sign, exponent and mantissa sections\n" +
+               "     *\n" +
+               "     * @return the packed form with the most significant long first\n" +
+               "     */\n" +
+               "    private long[] pack() {\n" +
+               "        long[] packed = new long[LONGS];\n" +
+               "        getMantissaBitsExtra(packed, LONGS - FULL_MANTISSA_LONGS);\n" +
+               "\n" +
+               "        //The exponent section starts where the implicit leading one was\n" +
+               "        int low = LONGS - FULL_MANTISSA_LONGS;\n" +
+               "        packed[low] = (packed[low] & (LEADING_ONE - 1)) | ((long) exponent << (MANTISSA_BITS % 64));\n" +
+               "        if (MANTISSA_BITS % 64 + EXPONENT_BITS > 64) {\n" +
+               "            packed[low - 1] |= (long) exponent >>> (64 - (MANTISSA_BITS % 64));\n" +
                "        }\n" +
                "\n" +
-               "        //Full longs\n" +
-               "        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {\n" +
-               "            mantissa[pos++] = data[i];\n" +
+               "        if (negative) {\n" +
+               "            packed[0] |= Long.MIN_VALUE;\n" +
                "        }\n" +
+               "        return packed;\n" +
+               "    }\n" +
                "\n" +
-               "        //Partial long at the end\n" +
-               "        if ((MANTISSA_END + 1) % 64 != 0) {\n" +
-               "            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {\n" +
-               "                //The unset data to the right will be set here\n" +
-               "                mantissa[mantissa.length - 1] = data[MANTISSA_END / 64];\n" +
-               "                //Shift stuff as far to the right as it must go\n" +
-               "                mantissa = CommonUtils.shiftRightUnsigned(mantissa, 64 - ((MANTISSA_END + 1) % 64));\n" +
-               "            } else {\n" +
-               "                //Shift left in order to fit the extra data\n" +
-               "                mantissa = CommonUtils.shiftLeft(mantissa, (MANTISSA_END + 1) % 64);\n" +
-               "                //Set the newly created unset data on the right\n" +
-               "                mantissa[mantissa.length - 1] |= data[MANTISSA_END / 64] >>> (64 - ((MANTISSA_END + 1) % 64));\n" +
-               "            }\n" +
+               "    /**\n" +
+               "     * Set this floating point from its packed form\n" +
+               "     *\n" +
+               "     * @param packed the sign, exponent and mantissa sections with the most significant long first\n" +
+               "     */\n" +
+               "    private void unpack(long[] packed) {\n" +
+               "        int low = LONGS - FULL_MANTISSA_LONGS;\n" +
+               "        long exponentBits = packed[low] >>> (MANTISSA_BITS % 64);\n" +
+               "        if (MANTISSA_BITS % 64 + EXPONENT_BITS > 64) {\n" +
+               "            exponentBits |= packed[low - 1] << (64 - (MANTISSA_BITS % 64));\n" +
                "        }\n" +
                "\n" +
-               "        return mantissa;\n" +
+               "        negative = packed[0] < 0;\n" +
+               "        setExponentBits(exponentBits);\n" +
+               "        setMantissaBitsExtra(packed, low);\n" +
                "    }\n" +
                "\n" +
-               "    private void setMantissaBits(long[] mantissa) {\n" +
-               "        //Partial long at the end\n" +
-               "        if ((MANTISSA_END + 1) % 64 != 0) {\n" +
-               "            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {\n" +
-               "                //Shift stuff back\n" +
-               "                mantissa = CommonUtils.shiftLeft(mantissa, 64 - ((MANTISSA_END + 1) % 64));\n" +
-               "\n" +
-               "                //Set data\n" +
-               "                data[MANTISSA_END / 64] = mantissa[mantissa.length - 1];\n" +
-               "            } else {\n" +
-               "                //Set the newly created unset data on the right\n" +
-               "                data[MANTISSA_END / 64] = (mantissa[mantissa.length - 1] & ~(-1L << ((MANTISSA_END + 1) % 64))) << (64 - ((MANTISSA_END + 1) % 64));\n" +
+               "    private boolean isNegative() {\n" +
+               "        return negative;\n" +
+               "    }\n" +
                "\n" +
-               "                //Shift left in order to fit the extra data\n" +
-               "                mantissa = CommonUtils.shiftRightUnsigned(mantissa, (MANTISSA_END + 1) % 64);\n" +
-               "            }\n" +
+               "    private long getExponentBits() {\n" +
+               "        return exponent;\n" +
+               "    }\n" +
+               "\n" +
+               "    private void setExponentBits(long exponentBits) {\n" +
+               "        exponent = (int) (exponentBits & EXPONENT_FULL_MASK);\n" +
+               "        if (exponent != 0) {\n" +
+               "            m0 |= LEADING_ONE;\n" +
+               "        } else {\n" +
+               "            m0 &= ~LEADING_ONE;\n" +
                "        }\n" +
+               "    }\n" +
                "\n" +
-               "        int pos = 0;\n" +
+               "    private boolean isMantissaZero() {\n" +
+               "        return (m0 & (LEADING_ONE - 1)) == 0" + limbs(" && m# == 0", 1, mantissaLongs()) + ";\n" +
+               "    }\n" +
                "\n" +
-               "        if (MANTISSA_START % 64 != 0) { //Partial long at the start\n" +
-               "            data[MANTISSA_START / 64] = (data[MANTISSA_START / 64] & (-1L << (64 - (MANTISSA_START % 64)))) |\n" +
-               "                                        (mantissa[pos++] & ~(-1L << (64 - (MANTISSA_START % 64))));\n" +
+               "    private long[] getMantissaBits() {\n" +
+               "        long[] mantissa = Arrays.copyOfRange(getMantissaBitsExtra(), FULL_MANTISSA_LONGS - ((MANTISSA_BITS - 1)/64 + 1),\n" +
+               "                                             FULL_MANTISSA_LONGS);\n" +
+               "        if (mantissa.length == FULL_MANTISSA_LONGS) {\n" +
+               "            //The leading one shares its long with the top of the mantissa\n" +
+               "            mantissa[0] &= LEADING_ONE - 1;\n" +
                "        }\n" +
+               "        return mantissa;\n" +
+               "    }\n" +
                "\n" +
-               "        //Full longs\n" +
-               "        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {\n" +
-               "            data[i] = mantissa[pos++];\n" +
-               "        }\n" +
+               "    private long[] getMantissaBitsExtra() {\n" +
+               "        long[] mantissa = new long[FULL_MANTISSA_LONGS];\n" +
+               "        getMantissaBitsExtra(mantissa, 0);\n" +
+               "        return mantissa;\n" +
                "    }\n" +
                "\n" +
-               "    private void setMantissaBitsExtra(long[] mantissa) {\n" +
-               "        //Partial long at the end\n" +
-               "        if ((MANTISSA_END + 1) % 64 != 0) {\n" +
-               "            if (((64 - (MANTISSA_START % 64)) + ((MANTISSA_END % 64) + 1)) > 64) {\n" +
-               "                //Shift stuff back\n" +
-               "                mantissa = CommonUtils.shiftLeft(mantissa, 64 - ((MANTISSA_END + 1) % 64));\n" +
-               "\n" +
-               "                //Set data\n" +
-               "                data[MANTISSA_END / 64] = mantissa[mantissa.length - 1];\n" +
-               "            } else {\n" +
-               "                //Set the newly created unset data on the right\n" +
-               "                data[MANTISSA_END / 64] = (mantissa[mantissa.length - 1] & ~(-1L << ((MANTISSA_END + 1) % 64))) << (64 - ((MANTISSA_END + 1) % 64));\n" +
+               "    /**\n" +
+               "     * Set the mantissa from just its bits without allocating\n" +
+               "     *\n" +
+               "     * @param mantissa the (MANTISSA_BITS - 1)/64 + 1 longs of the mantissa section, most significant first\n" +
+               "     */\n" +
+               "    private void setMantissaBits(long[] mantissa) {\n" +
+               limbs("        m# = 0;\n", 0, mantissaLongs() - shortMantissaLongs()) +
+               IntStream.range(mantissaLongs() - shortMantissaLongs(), mantissaLongs())
+                        .mapToObj((index) -> limb("        m# = mantissa[" + (index - mantissaLongs() + shortMantissaLongs()) + "];\n", index))
+                        .collect(Collectors.joining()) +
+               "        setLeadingOne();\n" +
+               "    }\n" +
                "\n" +
-               "                //Shift left in order to fit the extra data\n" +
-               "                mantissa = CommonUtils.shiftRightUnsigned(mantissa, (MANTISSA_END + 1) % 64);\n" +
-               "            }\n" +
-               "        }\n" +
+               "    private void setMantissaBitsExtra(long[] mantissa) {\n" +
+               "        setMantissaBitsExtra(mantissa, 0);\n" +
+               "    }\n" +
                "\n" +
-               "        int pos = 0;\n" +
+               "    /**\n" +
+               "     * Write the full mantissa (including the implicit leading one) into part of an array without allocating\n" +
+               "     *\n" +
+               "     * @param mantissa the array to write to\n" +
+               "     * @param offset the index to write the most significant long of the full mantissa to\n" +
+               "     */\n" +
+               "    private void getMantissaBitsExtra(long[] mantissa, int offset) {\n" +
+               "        mantissa[offset] = m0;\n" +
+               limbs("        mantissa[offset + #] = m#;\n", 1, mantissaLongs()) +
+               "    }\n" +
                "\n" +
-               "        if (MANTISSA_START % 64 != 0) { //Partial long at the start\n" +
-               "            data[MANTISSA_START / 64] = (data[MANTISSA_START / 64] & (-1L << (64 - (MANTISSA_START % 64)))) |\n" +
-               "                                        (mantissa[pos++] & ~(-1L << (64 - (MANTISSA_START % 64))));\n" +
-               "        } else {\n" +
-               "            pos++;\n" +
-               "        }\n" +
+               "    /**\n" +
+               "     * Set the mantissa from a full mantissa stored in part of an array without allocating\n" +
+               "     *\n" +
+               "     * The implicit leading one in the array is ignored as it is decided by the exponent section\n" +
+               "     *\n" +
+               "     * @param mantissa the array to read from\n" +
+               "     * @param offset the index of the most significant long of the full mantissa\n" +
+               "     */\n" +
+               "    private void setMantissaBitsExtra(long[] mantissa, int offset) {\n" +
+               "        m0 = mantissa[offset];\n" +
+               limbs("        m# = mantissa[offset + #];\n", 1, mantissaLongs()) +
+               "        setLeadingOne();\n" +
+               "    }\n" +
                "\n" +
-               "        //Full longs\n" +
-               "        for (int i = ((MANTISSA_START - 1) / 64) + 1; i < (MANTISSA_END + 1) / 64; i++) {\n" +
-               "            data[i] = mantissa[pos++];\n" +
-               "        }\n" +
+               "    /**\n" +
+               "     * Clear the bits above the mantissa and set the implicit leading one from the exponent section\n" +
+               "     */\n" +
+               "    private void setLeadingOne() {\n" +
+               "        m0 = (m0 & (LEADING_ONE - 1)) | (exponent != 0 ? LEADING_ONE : 0);\n" +
                "    }\n" +
                "\n" +
-               "    private static void negateMantissa(long[] mantissa) {\n" +
-               "        for (int i = 0; i < mantissa.length; i++) {\n" +
-               "            mantissa[i] = ~mantissa[i];\n" +
-               "        }\n" +
-               "        mantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
+               "    /**\n" +
+               "     * Set the mantissa section to zero, keeping the implicit leading one decided by the exponent section\n" +
+               "     */\n" +
+               "    private void clearMantissa() {\n" +
+               "        m0 = exponent != 0 ? LEADING_ONE : 0;\n" +
+               limbs("        m# = 0;\n", 1, mantissaLongs()) +
+               "    }\n" +
                "\n" +
-               "        //Simple add where the carry in is 1\n" +
-               "        long carry = 1;\n" +
+               "    /**\n" +
+               "     * Turn the magnitude of this floating point into zero (the sign is kept)\n" +
+               "     */\n" +
+               "    private void setZero() {\n" +
+               "        exponent = 0;\n" +
+               "        clearMantissa();\n" +
+               "    }\n" +
                "\n" +
-               "        for (int i = mantissa.length - 1; i >= 0; i--) {\n" +
-               "            long temp = mantissa[i] + carry;\n" +
+               "    /**\n" +
+               "     * Turn the magnitude of this floating point into infinity (the sign is kept)\n" +
+               "     */\n" +
+               "    private void setInfinity() {\n" +
+               "        exponent = (int) EXPONENT_FULL_MASK;\n" +
+               "        clearMantissa();\n" +
+               "    }\n" +
                "\n" +
-               "            if (carry == 1) {\n" +
-               "                carry = (Long.compareUnsigned(temp, mantissa[i]) <= 0) ? 1 : 0;\n" +
-               "            } else {\n" +
-               "                carry = (Long.compareUnsigned(temp, mantissa[i]) < 0) ? 1 : 0;\n" +
-               "            }\n" +
+               "    /**\n" +
+               "     * Turn the magnitude of this floating point into the largest finite one (the sign is kept)\n" +
+               "     */\n" +
+               "    private void setLargest() {\n" +
+               "        exponent = (int) EXPONENT_FULL_MASK - 1;\n" +
+               "        m0 = LEADING_ONE | (LEADING_ONE - 1);\n" +
+               limbs("        m# = -1L;\n", 1, mantissaLongs()) +
+               "    }\n" +
                "\n" +
-               "            mantissa[i] = temp;\n" +
-               "        }\n" +
-               "//        long topBit = mantissa[0] & (-1L << (64 - (MANTISSA_START % 64)));\n" +
+               "    /**\n" +
+               "     * Turn this floating point into a NaN\n" +
+               "     */\n" +
+               "    private void setNaN() {\n" +
+               "        setInfinity();\n" +
+               limb("        m# |= 1;\n", mantissaLongs() - 1) +
+               "    }\n" +
                "\n" +
-               "        //Clear mantissa\n" +
-               "        mantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
-               "//        return carry == 1 ? 1 : (topBit != 0 ? 1 : 0);\n" +
+               "    /**\n" +
+               "     * Get the power of two of the last bit of the full mantissa\n" +
+               "     *\n" +
+               "     * @return the exponent such that this number's magnitude is its full mantissa times two to that exponent\n" +
+               "     */\n" +
+               "    private long getMantissaExponent() {\n" +
+               "        long exponentBits = getExponentBits();\n" +
+               "        return (exponentBits == 0 ? 1 : exponentBits) + MIN_EXPONENT - 1;\n" +
                "    }\n" +
                "\n" +
-               "    private static long[] negateMantissaCopy(long[] mantissa) {\n" +
-               "        long[] newMantissa = new long[mantissa.length];\n" +
-               "        for (int i = 0; i < mantissa.length; i++) {\n" +
-               "            newMantissa[i] = ~mantissa[i];\n" +
+               "    /**\n" +
+               "     * Round an exact result to a representable value and store it in this floating point\n" +
+               "     *\n" +
+               "     * @param negative the sign of the result\n" +
+               "     * @param exponent the power of two of the last bit of the magnitude\n" +
+               "     * @param magnitude the unsigned magnitude, at least as long as a full mantissa (overwritten)\n" +
+               "     * @param sticky whether the exact result has more nonzero bits below the last bit of the magnitude\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    private void roundAndSet(boolean negative, long exponent, long[] magnitude, boolean sticky, RoundingMode mode) {\n" +
+               "        int bits = magnitude.length * 64;\n" +
+               "\n" +
+               "        //Move the top bit to the implicit one, unless that would take the exponent below the subnormal one\n" +
+               "        //The first bit shifted out is the round bit and all of the ones after it make up the sticky bit\n" +
+               "        long shift = Math.max(CommonUtils.bitLength(magnitude) - PRECISION, MIN_EXPONENT - exponent);\n" +
+               "        boolean round = false;\n" +
+               "        if (shift > 0) {\n" +
+               "            round = shift <= bits && CommonUtils.getBit(magnitude, (int) shift - 1) != 0;\n" +
+               "            sticky |= CommonUtils.hasLowBits(magnitude, (int) Math.min(shift - 1, bits));\n" +
+               "            CommonUtils.shiftRightUnsignedInPlace(magnitude, (int) Math.min(shift, bits));\n" +
+               "        } else if (shift < 0) {\n" +
+               "            CommonUtils.shiftLeftInPlace(magnitude, (int) -shift);\n" +
+               "        }\n" +
+               "        exponent += shift;\n" +
+               "\n" +
+               "        if (roundsUp(mode, negative, (magnitude[magnitude.length - 1] & 1) != 0, round, sticky)) {\n" +
+               "            for (int i = magnitude.length - 1; i >= 0 && ++magnitude[i] == 0; i--);\n" +
+               "            if (CommonUtils.bitLength(magnitude) > PRECISION) {\n" +
+               "                //Rounded up to the next power of two\n" +
+               "                CommonUtils.shiftRightUnsignedInPlace(magnitude, 1);\n" +
+               "                exponent++;\n" +
+               "            }\n" +
                "        }\n" +
-               "//        newMantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
-               "\n" +
-               "        //Simple add where the carry in is 1\n" +
-               "        long carry = 1;\n" +
-               "\n" +
-               "        for (int i = newMantissa.length - 1; i >= 0; i--) {\n" +
-               "            long temp = newMantissa[i] + carry;\n" +
                "\n" +
-               "            if (carry == 1) {\n" +
-               "                carry = (Long.compareUnsigned(temp, newMantissa[i]) <= 0) ? 1 : 0;\n" +
+               "        //The full mantissa is now in the last longs of the magnitude\n" +
+               "        int offset = magnitude.length - FULL_MANTISSA_LONGS;\n" +
+               "        if (CommonUtils.getBit(magnitude, MANTISSA_BITS) == 0) {\n" +
+               "            //Subnormal (or zero) so the exponent must already be the smallest one\n" +
+               "            setExponentBits(0);\n" +
+               "            setMantissaBitsExtra(magnitude, offset);\n" +
+               "        } else if (exponent - MIN_EXPONENT + 1 >= EXPONENT_FULL_MASK) {\n" +
+               "            //Overflow goes to infinity unless the mode would round something just past the largest value down\n" +
+               "            if (roundsUp(mode, negative, true, true, true)) {\n" +
+               "                setInfinity();\n" +
                "            } else {\n" +
-               "                carry = (Long.compareUnsigned(temp, newMantissa[i]) < 0) ? 1 : 0;\n" +
+               "                setLargest();\n" +
                "            }\n" +
-               "\n" +
-               "            newMantissa[i] = temp;\n" +
+               "        } else {\n" +
+               "            setExponentBits(exponent - MIN_EXPONENT + 1);\n" +
+               "            setMantissaBitsExtra(magnitude, offset);\n" +
+               "        }\n" +
+               "        if (isNegative() != negative) {\n" +
+               "            negate();\n" +
                "        }\n" +
-               "//        long topBit = mantissa[0] & (-1L << (64 - (MANTISSA_START % 64)));\n" +
+               "    }\n" +
                "\n" +
-               "        //Clear mantissa\n" +
-               "//        newMantissa[0] = mantissa[0] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
-               "//        return carry == 1 ? 1 : (topBit != 0 ? 1 : 0);\n" +
-               "        return newMantissa;\n" +
+               "    /**\n" +
+               "     * Decide whether a magnitude that was cut short should be incremented\n" +
+               "     *\n" +
+               "     * @param mode the rounding mode\n" +
+               "     * @param negative the sign of the value being rounded\n" +
+               "     * @param odd whether the last kept bit is set\n" +
+               "     * @param round whether the first bit cut off is set\n" +
+               "     * @param sticky whether any of the other bits cut off are set\n" +
+               "     * @return true if the magnitude should be rounded away from zero\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and bits were cut off\n" +
+               "     */\n" +
+               "    private static boolean roundsUp(RoundingMode mode, boolean negative, boolean odd, boolean round, boolean sticky) {\n" +
+               "        switch (mode) {\n" +
+               "            case HALF_EVEN:\n" +
+               "                return round && (sticky || odd);\n" +
+               "            case HALF_UP:\n" +
+               "                return round;\n" +
+               "            case HALF_DOWN:\n" +
+               "                return round && sticky;\n" +
+               "            case UP:\n" +
+               "                return round || sticky;\n" +
+               "            case DOWN:\n" +
+               "                return false;\n" +
+               "            case CEILING:\n" +
+               "                return !negative && (round || sticky);\n" +
+               "            case FLOOR:\n" +
+               "                return negative && (round || sticky);\n" +
+               "            default:\n" +
+               "                if (round || sticky) {\n" +
+               "                    throw new ArithmeticException(\"Rounding necessary\");\n" +
+               "                }\n" +
+               "                return false;\n" +
+               "        }\n" +
                "    }\n" +
                "\n" +
                "    private static int compareMantissas(long[] mantissa1, long[] mantissa2) {\n" +
@@ -512,29 +783,16 @@ public class FloatXGenerator {
                "\n" +
                "    private Type getType() {\n" +
                "        long exponentBits = getExponentBits();\n" +
-               "        if (exponentBits == 0) {\n" +
-               "            if (isMantissaZero()) {\n" +
-               "                return Type.ZERO;\n" +
-               "            } else {\n" +
-               "                return Type.SUBNORMAL;\n" +
-               "            }\n" +
-               "        } else if (exponentBits == EXPONENT_FULL_MASK) {\n" +
-               "            if (isMantissaZero()) {\n" +
-               "                return Type.INFINITY;\n" +
-               "            } else {\n" +
-               "                return Type.NAN;\n" +
-               "            }\n" +
+               "        //Adding one wraps the all ones exponent around to zero so only the two special exponents end up at most one\n" +
+               "        if (((exponentBits + 1) & EXPONENT_FULL_MASK) > 1) {\n" +
+               "            return Type.NORMAL;\n" +
                "        }\n" +
-               "        return Type.NORMAL;\n" +
+               "        return SPECIAL_TYPES[(int) (exponentBits & 1) * 2 + (isMantissaZero() ? 1 : 0)];\n" +
                "    }\n" +
                "\n" +
                "    @Override\n" +
                "    public Float" + bits + " negate() {\n" +
-               "        if (isNegative()) {\n" +
-               "            data[0] &= Long.MAX_VALUE;\n" +
-               "        } else {\n" +
-               "            data[0] |= Long.MIN_VALUE;\n" +
-               "        }\n" +
+               "        negative = !negative;\n" +
                "        return this;\n" +
                "    }\n" +
                "\n" +
@@ -559,186 +817,132 @@ public class FloatXGenerator {
                "\n" +
                "    @Override\n" +
                "    public Float" + bits + " add(Float" + bits + " that) {\n" +
+               "        return add(that, that.isNegative(), RoundingMode.HALF_EVEN);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Add another floating point to this one rounding the result with the given rounding mode\n" +
+               "     *\n" +
+               "     * @param that the floating point to add\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return this for chaining\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    public Float" + bits + " add(Float" + bits + " that, RoundingMode mode) {\n" +
+               "        return add(that, that.isNegative(), mode);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Add another floating point to this one treating it as having the given sign\n" +
+               "     *\n" +
+               "     * This lets subtraction share the addition code without making a negated copy\n" +
+               "     *\n" +
+               "     * @param that the floating point to add\n" +
+               "     * @param thatNegative the sign to use for that\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return this for chaining\n" +
+               "     */\n" +
+               "    private Float" + bits + " add(Float" + bits + " that, boolean thatNegative, RoundingMode mode) {\n" +
+               "        boolean thisNegative = this.isNegative();\n" +
                "        Type thisType = getType();\n" +
-               "        if (thisType == Type.NAN || thisType == Type.INFINITY) {\n" +
-               "            return this;\n" +
-               "        }\n" +
-               "        if (thisType == Type.ZERO) {\n" +
-               "            //zero plus anything is that thing\n" +
-               "            System.arraycopy(that.data, 0, this.data, 0, LONGS);\n" +
+               "        if (thisType == Type.NAN) {\n" +
                "            return this;\n" +
                "        }\n" +
                "        Type thatType = that.getType();\n" +
-               "        if (thatType == Type.NAN || thatType == Type.INFINITY) {\n" +
-               "            //anything plus NaN or Infinity is NaN or Infinity\n" +
-               "            System.arraycopy(that.data, 0, this.data, 0, LONGS);\n" +
+               "        if (thatType == Type.NAN) {\n" +
+               "            set(that);\n" +
                "            return this;\n" +
                "        }\n" +
-               "        if (thatType == Type.ZERO) {\n" +
-               "            //Anything plus zero is same thing\n" +
+               "        if (thisType == Type.INFINITY) {\n" +
+               "            if (thatType == Type.INFINITY && thisNegative != thatNegative) {\n" +
+               "                //Infinity minus infinity\n" +
+               "                setNaN();\n" +
+               "            }\n" +
                "            return this;\n" +
                "        }\n" +
-               "        //Both this and that are either Normal or Subnormal\n" +
-               "\n" +
-               "        long expThis = getExponentBits();\n" +
-               "        long expThat = that.getExponentBits();\n" +
-               "        long[] mantissaThis = this.getMantissaBits();\n" +
-               "        long[] mantissaThat = that.getMantissaBits();\n" +
-               "        boolean negativeCase = this.isNegative() != that.isNegative();\n" +
-               "        boolean invertFinalResult = false;\n" +
-               "        boolean signFlip = false;\n" +
-               "\n" +
-               "        int compareUnsigned = Long.compareUnsigned(expThis, expThat);\n" +
-               "        long finalExp;\n" +
-               "        int norms = 0;\n" +
-               "\n" +
-               "        if (compareUnsigned > 0) {\n" +
-               "            long deltaExp = expThis - expThat;\n" +
-               "            if (thatType == Type.SUBNORMAL) {\n" +
-               "                deltaExp--;\n" +
-               "            }\n" +
-               "            if (deltaExp > MANTISSA_BITS + 1) { //Essentially adding a zero to this\n" +
-               "                //Anything plus zero is same thing\n" +
-               "                return this;\n" +
-               "            }\n" +
-               "            finalExp = expThis;\n" +
-               "            mantissaThat = CommonUtils.shiftRightUnsigned(mantissaThat, (int) (deltaExp));\n" +
-               "            if (thatType == Type.NORMAL) { //If it is normal we need to introduce an extra one\n" +
-               "                long toChange = MANTISSA_BITS - deltaExp;\n" +
-               "                if (toChange >= 0) {\n" +
-               "                    CommonUtils.setBit(mantissaThat, (int) toChange, 1);\n" +
-               "                }\n" +
-               "            }\n" +
-               "            if (thisType == Type.NORMAL) {\n" +
-               "                norms = 1;\n" +
-               "            }\n" +
-               "        } else if (compareUnsigned < 0) {\n" +
-               "            long deltaExp = expThat - expThis;\n" +
-               "            if (thisType == Type.SUBNORMAL) {\n" +
-               "                deltaExp--;\n" +
-               "            }\n" +
-               "            if (expThat - expThis > MANTISSA_BITS + 1) { //Essentially adding something to zero\n" +
-               "                //zero plus anything is that thing\n" +
-               "                System.arraycopy(that.data, 0, this.data, 0, LONGS);\n" +
+               "        if (thatType == Type.INFINITY || thisType == Type.ZERO) {\n" +
+               "            //anything plus Infinity is Infinity and zero plus anything is that thing\n" +
+               "            //(unless both are zeros of opposite signs, which is handled below)\n" +
+               "            if (thatType != Type.ZERO) {\n" +
+               "                copySigned(that, thatNegative);\n" +
                "                return this;\n" +
                "            }\n" +
-               "            finalExp = expThat;\n" +
-               "            mantissaThis = CommonUtils.shiftRightUnsigned(mantissaThis, (int) (deltaExp));\n" +
-               "            if (thisType == Type.NORMAL) { //If it is normal we need to introduce an extra one\n" +
-               "                long toChange = MANTISSA_BITS - deltaExp;\n" +
-               "                if (toChange >= 0) {\n" +
-               "                    CommonUtils.setBit(mantissaThis, (int) toChange, 1);\n" +
-               "                }\n" +
-               "            }\n" +
-               "            if (thatType == Type.NORMAL) {\n" +
-               "                norms = 1;\n" +
-               "            }\n" +
-               "        } else {\n" +
-               "            finalExp = expThis;\n" +
-               "            if (thisType == Type.NORMAL) {\n" +
-               "                norms = 1;\n" +
-               "            }\n" +
-               "            if (thatType == Type.NORMAL) {\n" +
-               "                norms++;\n" +
-               "            }\n" +
                "        }\n" +
-               "\n" +
-               "        if (negativeCase) {\n" +
-               "            int compareMantissas = compareMantissas(mantissaThis, mantissaThat);\n" +
-               "            if (compareMantissas > 0) {\n" +
-               "                if (this.isNegative()){\n" +
-               "                    invertFinalResult = true;\n" +
-               "                }\n" +
-               "            } else if (compareMantissas < 0) {\n" +
-               "                long[] temp = mantissaThis;\n" +
-               "                mantissaThis = mantissaThat;\n" +
-               "                mantissaThat = temp;\n" +
-               "                if (that.isNegative()) {\n" +
-               "                    invertFinalResult = true;\n" +
-               "                }\n" +
-               "                signFlip = true;\n" +
-               "            }\n" +
-               "\n" +
-               "            negateMantissa(mantissaThat);\n" +
-               "        }\n" +
-               "\n" +
-               "        //At this point the mantissas in mantissaThis and mantissaThat both have an exponent of finalExp\n" +
-               "        //They can be simply added now\n" +
-               "        //We also know how many normalized numbers we had at the start so we know how much we have to compensate\n" +
-               "        long carry = 0;\n" +
-               "\n" +
-               "        for (int i = mantissaThis.length - 1; i >= 0; i--) {\n" +
-               "            long temp = mantissaThis[i] + mantissaThat[i] + carry;\n" +
-               "\n" +
-               "            if (carry == 1) {\n" +
-               "                carry = (Long.compareUnsigned(temp, mantissaThis[i]) <= 0 &&\n" +
-               "                         Long.compareUnsigned(temp, mantissaThat[i]) <= 0) ? 1 : 0;\n" +
-               "            } else {\n" +
-               "                carry = (Long.compareUnsigned(temp, mantissaThis[i]) < 0 &&\n" +
-               "                         Long.compareUnsigned(temp, mantissaThat[i]) < 0) ? 1 : 0;\n" +
+               "        if (thatType == Type.ZERO) {\n" +
+               "            if (thisType == Type.ZERO && thisNegative != thatNegative) {\n" +
+               "                //Exact zero sums are positive except when rounding towards negative infinity\n" +
+               "                copySigned(that, mode == RoundingMode.FLOOR);\n" +
                "            }\n" +
-               "\n" +
-               "            mantissaThis[i] = temp;\n" +
-               "        }\n" +
-               "        long topBit = mantissaThis[0] & (-1L << (64 - (MANTISSA_START % 64)));\n" +
-               "\n" +
-               "        //Mantissas have been added but the normal assumed ones have been ignored\n" +
-               "        if (topBit != 0) {\n" +
-               "            //Overflow into the top of the mantissa (shift right and change exponent to fix)\n" +
-               "            //Clear the overflow for easier stuff later\n" +
-               "            mantissaThis[0] = mantissaThis[0] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
-               "            norms++;\n" +
-               "        } else if (carry == 1) {\n" +
-               "            //Overflow past top of the mantissa (shift right, change exponent, and add the extra one)\n" +
-               "            norms++;\n" +
+               "            return this;\n" +
                "        }\n" +
+               "        //Both this and that are either Normal or Subnormal\n" +
                "\n" +
-               "        if (negativeCase) {\n" +
-               "            if (invertFinalResult) {\n" +
-               "                negateMantissa(mantissaThis);\n" +
-               "            }\n" +
-               "            if (norms == 2) {\n" +
-               "                long steps = 1;\n" +
-               "                for (int i = MANTISSA_BITS - 1; i >= 0 && CommonUtils.getBit(mantissaThis, i) == 0; i--, steps++);\n" +
-               "                if (steps < MANTISSA_BITS) {\n" +
-               "                    if (Long.compareUnsigned(steps, finalExp) > 0) {\n" +
-               "                        steps = finalExp;\n" +
-               "                    }\n" +
-               "                    mantissaThis = CommonUtils.shiftLeft(mantissaThis, (int) steps);\n" +
-               "                    mantissaThis[0] = mantissaThis[0] & ~(-1L << (64 - (MANTISSA_START % 64)));\n" +
-               "                    finalExp -= steps;\n" +
-               "                } else {\n" +
-               "                    finalExp = 0;\n" +
-               "                }\n" +
-               "            }\n" +
+               "        //The full mantissas get a spare long above them for the carry and a long of guard bits below them\n" +
+               "        Scratch scratch = SCRATCH.get();\n" +
+               "        long[] big = scratch.sum;\n" +
+               "        long[] small = scratch.addend;\n" +
+               "        big[0] = 0;\n" +
+               "        small[0] = 0;\n" +
+               "        big[FULL_MANTISSA_LONGS + 1] = 0;\n" +
+               "        small[FULL_MANTISSA_LONGS + 1] = 0;\n" +
+               "        this.getMantissaBitsExtra(big, 1);\n" +
+               "        that.getMantissaBitsExtra(small, 1);\n" +
+               "        long bigExponent = this.getMantissaExponent();\n" +
+               "        long smallExponent = that.getMantissaExponent();\n" +
+               "        boolean bigNegative = thisNegative;\n" +
+               "        boolean smallNegative = thatNegative;\n" +
+               "        if (bigExponent < smallExponent ||\n" +
+               "            (bigExponent == smallExponent && compareMantissas(big, small) < 0)) {\n" +
+               "            long[] tempMantissa = big;\n" +
+               "            big = small;\n" +
+               "            small = tempMantissa;\n" +
+               "            long tempExponent = bigExponent;\n" +
+               "            bigExponent = smallExponent;\n" +
+               "            smallExponent = tempExponent;\n" +
+               "            bigNegative = thatNegative;\n" +
+               "            smallNegative = thisNegative;\n" +
+               "        }\n" +
+               "\n" +
+               "        //Align the smaller number, anything shifted past the guard bits only matters as the sticky bit\n" +
+               "        long shift = bigExponent - smallExponent;\n" +
+               "        int bits = big.length * 64;\n" +
+               "        boolean sticky = CommonUtils.hasLowBits(small, (int) Math.min(shift, bits));\n" +
+               "        CommonUtils.shiftRightUnsignedInPlace(small, (int) Math.min(shift, bits));\n" +
+               "\n" +
+               "        if (bigNegative == smallNegative) {\n" +
+               "            CommonUtils.add(big, small, big, 0);\n" +
                "        } else {\n" +
-               "            if (norms == 1) {\n" +
-               "                if (finalExp == 0) {\n" +
-               "                    finalExp = 1;\n" +
+               "            //The smaller number is really a little larger than what is left of it after the alignment\n" +
+               "            CommonUtils.subtract(big, small, big, sticky ? 1 : 0);\n" +
+               "            if (!sticky && CommonUtils.bitLength(big) == 0) {\n" +
+               "                //Exact zero sums are positive except when rounding towards negative infinity\n" +
+               "                setZero();\n" +
+               "                if (isNegative() != (mode == RoundingMode.FLOOR)) {\n" +
+               "                    negate();\n" +
                "                }\n" +
-               "            } else if (norms == 2) {\n" +
-               "                mantissaThis = CommonUtils.shiftRightUnsigned(mantissaThis, 1);\n" +
-               "                finalExp += 1;\n" +
-               "            } else if (norms == 3) {\n" +
-               "                mantissaThis = CommonUtils.shiftRightUnsigned(mantissaThis, 1);\n" +
-               "                CommonUtils.setBit(mantissaThis, MANTISSA_BITS - 1, 1);\n" +
-               "                finalExp += 1;\n" +
+               "                return this;\n" +
                "            }\n" +
                "        }\n" +
+               "        roundAndSet(bigNegative, bigExponent - 64, big, sticky, mode);\n" +
                "\n" +
-               "        //At this point mantissaThis contains the summed mantissa\n" +
-               "        //finalExp is the final exponent value\n" +
-               "        setMantissaBits(mantissaThis);\n" +
-               "        setExponentBits(finalExp);\n" +
-               "        if (signFlip) {\n" +
+               "        return this;\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Copy another floating point into this one giving it the given sign\n" +
+               "     *\n" +
+               "     * @param that the floating point to copy\n" +
+               "     * @param negative the sign the copy should have\n" +
+               "     */\n" +
+               "    private void copySigned(Float" + bits + " that, boolean negative) {\n" +
+               "        set(that);\n" +
+               "        if (isNegative() != negative) {\n" +
                "            negate();\n" +
                "        }\n" +
-               "\n" +
-               "        return this;\n" +
                "    }\n" +
                "\n" +
                "    public boolean isFinite() {\n" +
-               "        return getType() == Type.ZERO || getType() == Type.NORMAL || getType() == Type.SUBNORMAL;\n" +
+               "        return getExponentBits() != EXPONENT_FULL_MASK;\n" +
                "    }\n" +
                "    \n" +
                "    public boolean isInfinite() {\n" +
@@ -753,107 +957,74 @@ public class FloatXGenerator {
                "        return new Float" + bits + "(a).add(b);\n" +
                "    }\n" +
                "\n" +
-               "    @Override\n" +
-               "    public Float" + bits + " subtract(Float" + bits + " other) {\n" +
-               "        return add(Float" + bits + ".negate(other));\n" +
-               "    }\n" +
-               "\n" +
-               "    @Override\n" +
-               "    public Float" + bits + " copy() {\n" +
-               "        return new Float" + bits + "(this);\n" +
-               "    }\n" +
-               "\n" +
-               "    public static Float" + bits + " subtract(Float" + bits + " a,  Float" + bits + " b) {\n" +
-               "        return Float" + bits + ".add(a, Float" + bits + ".negate(b));\n" +
-               "    }\n" +
-               "\n" +
-               "    @Override\n" +
-               "    public Float" + bits + " multiply(Float" + bits + " that) {\n" +
-               "        Type thisType = getType();\n" +
-               "        if (thisType == Type.NAN || thisType == Type.INFINITY || thisType == Type.ZERO) {\n" +
-               "            return this;\n" +
-               "        }\n" +
-               "        Type thatType = that.getType();\n" +
-               "        if (thatType == Type.NAN || thatType == Type.INFINITY) {\n" +
-               "            //anything plus NaN or Infinity is NaN or Infinity\n" +
-               "            System.arraycopy(that.data, 0, this.data, 0, LONGS);\n" +
-               "            return this;\n" +
-               "        }\n" +
-               "        if (thatType == Type.ZERO) {\n" +
-               "            setExponentBits(0);\n" +
-               "            setMantissaBits(ZERO_MANTISSA);\n" +
-               "            return this;\n" +
-               "        }\n" +
-               "        //Both this and that are either Normal or Subnormal\n" +
-               "        int norms = 0;\n" +
-               "\n" +
-               "        long thisExp;\n" +
-               "        if (thisType == Type.SUBNORMAL) {\n" +
-               "            thisExp = 1;\n" +
-               "        } else {\n" +
-               "            thisExp = this.getExponentBits();\n" +
-               "        }\n" +
-               "        long thatExp;\n" +
-               "        if (thatType == Type.SUBNORMAL) {\n" +
-               "            thatExp = 1;\n" +
-               "        } else {\n" +
-               "            thatExp = that.getExponentBits();\n" +
-               "        }\n" +
+               "    @Override\n" +
+               "    public Float" + bits + " subtract(Float" + bits + " other) {\n" +
+               "        return add(other, !other.isNegative(), RoundingMode.HALF_EVEN);\n" +
+               "    }\n" +
                "\n" +
-               "        long finalExp = thisExp - EXPONENT_OFFSET + thatExp;\n" +
+               "    /**\n" +
+               "     * Subtract another floating point from this one rounding the result with the given rounding mode\n" +
+               "     *\n" +
+               "     * @param other the floating point to subtract\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return this for chaining\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    public Float" + bits + " subtract(Float" + bits + " other, RoundingMode mode) {\n" +
+               "        return add(other, !other.isNegative(), mode);\n" +
+               "    }\n" +
                "\n" +
-               "        long[] newMantissa = new long[MANTISSA_BITS / 64 + 1];\n" +
-               "        long[] thisMantissa = this.getMantissaBitsExtra();\n" +
-               "        long[] thatMantissa = that.getMantissaBitsExtra();\n" +
+               "    @Override\n" +
+               "    public Float" + bits + " copy() {\n" +
+               "        return new Float" + bits + "(this);\n" +
+               "    }\n" +
                "\n" +
-               "        boolean sign = this.isNegative() ^ that.isNegative();\n" +
+               "    public static Float" + bits + " subtract(Float" + bits + " a,  Float" + bits + " b) {\n" +
+               "        return new Float" + bits + "(a).subtract(b);\n" +
+               "    }\n" +
                "\n" +
-               "        int shiftAmount = 0;\n" +
-               "        for (int i = MANTISSA_BITS; i >= 0; i--) {\n" +
-               "            if (CommonUtils.getBit(thisMantissa, i) != 0) {\n" +
-               "                thatMantissa = CommonUtils.shiftRightUnsigned(thatMantissa, shiftAmount);\n" +
-               "\n" +
-               "                long carry = 0;\n" +
-               "                for (int j = newMantissa.length - 1; j >= 0; j--) {\n" +
-               "                    long temp = newMantissa[j] + thatMantissa[j] + carry;\n" +
-               "\n" +
-               "                    if (carry == 1) {\n" +
-               "                        carry = (Long.compareUnsigned(temp, newMantissa[j]) <= 0 &&\n" +
-               "                                 Long.compareUnsigned(temp, thatMantissa[j]) <= 0) ? 1 : 0;\n" +
-               "                    } else {\n" +
-               "                        carry = (Long.compareUnsigned(temp, newMantissa[j]) < 0 &&\n" +
-               "                                 Long.compareUnsigned(temp, thatMantissa[j]) < 0) ? 1 : 0;\n" +
-               "                    }\n" +
+               "    @Override\n" +
+               "    public Float" + bits + " multiply(Float" + bits + " that) {\n" +
+               "        return multiply(that, RoundingMode.HALF_EVEN);\n" +
+               "    }\n" +
                "\n" +
-               "                    newMantissa[j] = temp;\n" +
-               "                }\n" +
-               "                \n" +
-               "                shiftAmount = 0;\n" +
-               "            }\n" +
-               "            shiftAmount++;\n" +
+               "    /**\n" +
+               "     * Multiply this floating point by another one rounding the result with the given rounding mode\n" +
+               "     *\n" +
+               "     * @param that the floating point to multiply by\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return this for chaining\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    public Float" + bits + " multiply(Float" + bits + " that, RoundingMode mode) {\n" +
+               "        boolean sign = this.isNegative() ^ that.isNegative();\n" +
+               "        Type thisType = getType();\n" +
+               "        if (thisType == Type.NAN) {\n" +
+               "            return this;\n" +
                "        }\n" +
-               "\n" +
-               "        int firstOne = 0;\n" +
-               "        for (int i = newMantissa.length * 64 - 1; i >= 0 && CommonUtils.getBit(newMantissa, i) == 0; i--, firstOne++);\n" +
-               "        long shiftRight = (newMantissa.length * 64) - MANTISSA_BITS - firstOne - 1;\n" +
-               "        if (shiftRight > 0) {\n" +
-               "            newMantissa = CommonUtils.shiftRightUnsigned(newMantissa, (int) shiftRight);\n" +
-               "            finalExp += shiftRight;\n" +
-               "        } else if (shiftRight < 0) {\n" +
-               "            shiftRight = -shiftRight;\n" +
-               "            if (shiftRight <= MANTISSA_BITS) {\n" +
-               "                if (Long.compareUnsigned(shiftRight, finalExp) > 0) {\n" +
-               "                    shiftRight = finalExp;\n" +
-               "                }\n" +
-               "                newMantissa = CommonUtils.shiftLeft(newMantissa, (int) shiftRight);\n" +
-               "                finalExp -= shiftRight;\n" +
+               "        Type thatType = that.getType();\n" +
+               "        if (thatType == Type.NAN) {\n" +
+               "            set(that);\n" +
+               "            return this;\n" +
+               "        }\n" +
+               "        if (thisType == Type.INFINITY || thatType == Type.INFINITY) {\n" +
+               "            if (thisType == Type.ZERO || thatType == Type.ZERO) {\n" +
+               "                setNaN();\n" +
                "            } else {\n" +
-               "                finalExp = 0;\n" +
+               "                setInfinity();\n" +
                "            }\n" +
+               "        } else if (thisType == Type.ZERO || thatType == Type.ZERO) {\n" +
+               "            setZero();\n" +
+               "        } else {\n" +
+               "            //Both this and that are either Normal or Subnormal\n" +
+               "            //The exact product of the full mantissas is rounded once\n" +
+               "            Scratch scratch = SCRATCH.get();\n" +
+               "            this.getMantissaBitsExtra(scratch.thisMantissa, 0);\n" +
+               "            that.getMantissaBitsExtra(scratch.thatMantissa, 0);\n" +
+               "            long[] product = scratch.product;\n" +
+               "            CommonUtils.multiplySchoolbook(scratch.thisMantissa, 0, scratch.thatMantissa, 0, FULL_MANTISSA_LONGS, product, 0);\n" +
+               "            roundAndSet(sign, this.getMantissaExponent() + that.getMantissaExponent(), product, false, mode);\n" +
                "        }\n" +
-               "\n" +
-               "        setMantissaBitsExtra(newMantissa);\n" +
-               "        setExponentBits(finalExp);\n" +
                "        if (this.isNegative() != sign) {\n" +
                "            negate();\n" +
                "        }\n" +
@@ -865,163 +1036,458 @@ public class FloatXGenerator {
                "        return new Float" + bits + "(a).multiply(b);\n" +
                "    }\n" +
                "\n" +
-               "    private static long[] mantissaDivision(long[] n, long[] d) {\n" +
-               "        long[] q = new long[n.length]; //q = 0\n" +
-               "        long[] nn = new long[n.length]; //r = 0\n" +
-               "        System.arraycopy(n, 0, nn, 0, n.length);\n" +
-               "\n" +
-               "        boolean notEmpty = compareMantissas(nn, ZERO_MANTISSA_FULL) != 0;\n" +
+               "    /**\n" +
+               "     * Compute a * b + c with a single rounding (fused multiply-add)\n" +
+               "     *\n" +
+               "     * @param a the first factor\n" +
+               "     * @param b the second factor\n" +
+               "     * @param c the addend\n" +
+               "     * @return a new floating point holding the correctly rounded result\n" +
+               "     */\n" +
+               "    public static Float" + bits + " fma(Float" + bits + " a, Float" + bits + " b, Float" + bits + " c) {\n" +
+               "        return fma(a, b, c, RoundingMode.HALF_EVEN);\n" +
+               "    }\n" +
                "\n" +
-               "        for (int i = MANTISSA_BITS; i >= 0 && compareMantissas(d, ZERO_MANTISSA_FULL) != 0 && notEmpty; i--) {\n" +
-               "            if (compareMantissas(nn, d) >= 0) {\n" +
-               "                CommonUtils.setBit(q,i, 1);\n" +
-               "                long[] toSubtract = negateMantissaCopy(d);\n" +
-               "                toSubtract[0] = toSubtract[0] & ~(-1L << (64 - ((MANTISSA_START - 1) % 64)));\n" +
+               "    /**\n" +
+               "     * Compute a * b + c with a single rounding (fused multiply-add) using the given rounding mode\n" +
+               "     *\n" +
+               "     * @param a the first factor\n" +
+               "     * @param b the second factor\n" +
+               "     * @param c the addend\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return a new floating point holding the rounded result\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    public static Float" + bits + " fma(Float" + bits + " a, Float" + bits + " b, Float" + bits + " c, RoundingMode mode) {\n" +
+               "        Float" + bits + " result = new Float" + bits + "();\n" +
+               "        boolean productNegative = a.isNegative() ^ b.isNegative();\n" +
+               "        boolean cNegative = c.isNegative();\n" +
+               "        Type aType = a.getType();\n" +
+               "        Type bType = b.getType();\n" +
+               "        Type cType = c.getType();\n" +
+               "        boolean productInfinite = aType == Type.INFINITY || bType == Type.INFINITY;\n" +
+               "        boolean productZero = aType == Type.ZERO || bType == Type.ZERO;\n" +
+               "\n" +
+               "        if (aType == Type.NAN || bType == Type.NAN || cType == Type.NAN ||\n" +
+               "            (productInfinite && productZero) ||\n" +
+               "            (productInfinite && cType == Type.INFINITY && productNegative != cNegative)) {\n" +
+               "            result.setNaN();\n" +
+               "            return result;\n" +
+               "        }\n" +
+               "        if (productInfinite) {\n" +
+               "            result.setInfinity();\n" +
+               "            if (productNegative) {\n" +
+               "                result.negate();\n" +
+               "            }\n" +
+               "            return result;\n" +
+               "        }\n" +
+               "        if (cType == Type.INFINITY || (productZero && cType != Type.ZERO)) {\n" +
+               "            result.copySigned(c, cNegative);\n" +
+               "            return result;\n" +
+               "        }\n" +
+               "        if (productZero) {\n" +
+               "            //Exact zero sums are positive except when rounding towards negative infinity\n" +
+               "            if (productNegative == cNegative ? cNegative : mode == RoundingMode.FLOOR) {\n" +
+               "                result.negate();\n" +
+               "            }\n" +
+               "            return result;\n" +
+               "        }\n" +
+               "        //a and b are Normal or Subnormal and c is Normal, Subnormal or Zero\n" +
+               "\n" +
+               "        //The exact product and c both get a spare long above them and a long of guard bits below them\n" +
+               "        Scratch scratch = SCRATCH.get();\n" +
+               "        long[] big = scratch.wideSum;\n" +
+               "        long[] small = scratch.wideAddend;\n" +
+               "        big[0] = 0;\n" +
+               "        big[2 * FULL_MANTISSA_LONGS + 1] = 0;\n" +
+               "        a.getMantissaBitsExtra(scratch.thisMantissa, 0);\n" +
+               "        b.getMantissaBitsExtra(scratch.thatMantissa, 0);\n" +
+               "        CommonUtils.multiplySchoolbook(scratch.thisMantissa, 0, scratch.thatMantissa, 0, FULL_MANTISSA_LONGS, big, 1);\n" +
+               "        Arrays.fill(small, 0);\n" +
+               "        c.getMantissaBitsExtra(small, FULL_MANTISSA_LONGS + 1);\n" +
+               "        long bigExponent = a.getMantissaExponent() + b.getMantissaExponent() - 64;\n" +
+               "        long smallExponent = c.getMantissaExponent() - 64;\n" +
+               "        boolean bigNegative = productNegative;\n" +
+               "        boolean smallNegative = cNegative;\n" +
+               "        if (cType == Type.ZERO) {\n" +
+               "            result.roundAndSet(productNegative, bigExponent, big, false, mode);\n" +
+               "            return result;\n" +
+               "        }\n" +
+               "\n" +
+               "        //The operand whose top bit is higher goes first\n" +
+               "        if (smallExponent + CommonUtils.bitLength(small) > bigExponent + CommonUtils.bitLength(big)) {\n" +
+               "            long[] tempMantissa = big;\n" +
+               "            big = small;\n" +
+               "            small = tempMantissa;\n" +
+               "            long tempExponent = bigExponent;\n" +
+               "            bigExponent = smallExponent;\n" +
+               "            smallExponent = tempExponent;\n" +
+               "            bigNegative = cNegative;\n" +
+               "            smallNegative = productNegative;\n" +
+               "        }\n" +
+               "\n" +
+               "        //Move the first operand up against the spare long so that whenever the top bits are close enough for the\n" +
+               "        //sum to cancel, the whole second operand fits below it\n" +
+               "        int bits = big.length * 64;\n" +
+               "        int align = bits - 64 - CommonUtils.bitLength(big);\n" +
+               "        CommonUtils.shiftLeftInPlace(big, align);\n" +
+               "        bigExponent -= align;\n" +
+               "\n" +
+               "        //Align the second operand, anything shifted past the end only matters as the sticky bit\n" +
+               "        //It can need to move left, but its top bit still ends up at or below the first one's\n" +
+               "        long shift = bigExponent - smallExponent;\n" +
+               "        boolean sticky = false;\n" +
+               "        if (shift > 0) {\n" +
+               "            sticky = CommonUtils.hasLowBits(small, (int) Math.min(shift, bits));\n" +
+               "            CommonUtils.shiftRightUnsignedInPlace(small, (int) Math.min(shift, bits));\n" +
+               "        } else if (shift < 0) {\n" +
+               "            CommonUtils.shiftLeftInPlace(small, (int) -shift);\n" +
+               "        }\n" +
+               "\n" +
+               "        if (bigNegative == smallNegative) {\n" +
+               "            CommonUtils.add(big, small, big, 0);\n" +
+               "        } else {\n" +
+               "            //The second operand is really a little larger than what is left of it after the alignment\n" +
+               "            if (CommonUtils.subtract(big, small, big, sticky ? 1 : 0) != 0) {\n" +
+               "                //Only possible when both top bits were in the same place, in which case nothing was cut off\n" +
+               "                CommonUtils.negateInPlace(big);\n" +
+               "                bigNegative = !bigNegative;\n" +
+               "            }\n" +
+               "            if (!sticky && CommonUtils.bitLength(big) == 0) {\n" +
+               "                //Exact zero sums are positive except when rounding towards negative infinity\n" +
+               "                if (mode == RoundingMode.FLOOR) {\n" +
+               "                    result.negate();\n" +
+               "                }\n" +
+               "                return result;\n" +
+               "            }\n" +
+               "        }\n" +
+               "        result.roundAndSet(bigNegative, bigExponent, big, sticky, mode);\n" +
                "\n" +
-               "                long carry = 0;\n" +
+               "        return result;\n" +
+               "    }\n" +
                "\n" +
-               "                for (int j = toSubtract.length - 1; j >= 0; j--) {\n" +
-               "                    long temp = nn[j] + toSubtract[j] + carry;\n" +
+               "    /**\n" +
+               "     * Approximate the reciprocal of a full mantissa using Newton-Raphson iteration\n" +
+               "     *\n" +
+               "     * With W the number of bits in a full mantissa array, the result is roughly 2^(2W - 1) / divisor\n" +
+               "     * (within a few units of its last place) clamped to W bits\n" +
+               "     *\n" +
+               "     * @param divisor the divisor shifted so that its top bit is set\n" +
+               "     * @param x the array to store the reciprocal in\n" +
+               "     * @param scratch the working space to use\n" +
+               "     */\n" +
+               "    private static void reciprocal(long[] divisor, long[] x, Scratch scratch) {\n" +
+               "        int bits = FULL_MANTISSA_LONGS * 64;\n" +
+               "\n" +
+               "        //Seed with the reciprocal of the top 53 bits: the top long of the result is about 2^116 / top\n" +
+               "        Arrays.fill(x, 0);\n" +
+               "        x[0] = (long) (0x1p115 / (divisor[0] >>> 11)) << 1;\n" +
+               "\n" +
+               "        long[] product = scratch.product;\n" +
+               "        long[] correction = scratch.wide;\n" +
+               "        long[] delta = scratch.delta;\n" +
+               "        for (int step = 0; step < RECIPROCAL_STEPS; step++) {\n" +
+               "            //x += x * (2^(2W - 1) - divisor * x) / 2^(2W - 1), which doubles the number of correct bits\n" +
+               "            CommonUtils.multiplySchoolbook(divisor, 0, x, 0, FULL_MANTISSA_LONGS, product, 0);\n" +
+               "            boolean tooLarge = product[0] < 0;\n" +
+               "            if (!tooLarge) {\n" +
+               "                CommonUtils.negateInPlace(product);\n" +
+               "            }\n" +
+               "            product[0] &= Long.MAX_VALUE; //|2^(2W - 1) - divisor * x|\n" +
                "\n" +
-               "                    if (carry == 1) {\n" +
-               "                        carry = (Long.compareUnsigned(temp, nn[j]) <= 0 &&\n" +
-               "                                 Long.compareUnsigned(temp, toSubtract[j]) <= 0) ? 1 : 0;\n" +
-               "                    } else {\n" +
-               "                        carry = (Long.compareUnsigned(temp, nn[j]) < 0 &&\n" +
-               "                                 Long.compareUnsigned(temp, toSubtract[j]) < 0) ? 1 : 0;\n" +
-               "                    }\n" +
+               "            //The error is tiny so its low half can be dropped at the cost of a unit or two\n" +
+               "            CommonUtils.multiplySchoolbook(x, 0, product, 0, FULL_MANTISSA_LONGS, correction, 0);\n" +
+               "            CommonUtils.shiftRightUnsignedInPlace(correction, bits - 1);\n" +
+               "            System.arraycopy(correction, FULL_MANTISSA_LONGS, delta, 0, FULL_MANTISSA_LONGS);\n" +
                "\n" +
-               "                    nn[j] = temp;\n" +
-               "                }\n" +
-               "                nn[0] = nn[0] & ~(-1L << (64 - ((MANTISSA_START - 1) % 64)));\n" +
-               "                notEmpty = compareMantissas(nn, ZERO_MANTISSA_FULL) != 0;\n" +
-               "            }\n" +
-               "            if (notEmpty) {\n" +
-               "                d = CommonUtils.shiftRightUnsigned(d, 1);\n" +
+               "            if (tooLarge) {\n" +
+               "                CommonUtils.subtract(x, delta, x, 0);\n" +
+               "            } else if (CommonUtils.add(x, delta, x, 0) != 0) {\n" +
+               "                Arrays.fill(x, -1L);\n" +
                "            }\n" +
                "        }\n" +
+               "    }\n" +
                "\n" +
-               "        return q;\n" +
+               "    /**\n" +
+               "     * Divide two full mantissas\n" +
+               "     *\n" +
+               "     * The quotient is multiplied by 2^(PRECISION + 1) so that it has at least one bit more than the precision\n" +
+               "     *\n" +
+               "     * @param n the dividend with its top bit at the implicit one's position\n" +
+               "     * @param d the divisor with its top bit at the implicit one's position\n" +
+               "     * @param q the array to store floor(n * 2^(PRECISION + 1) / d) in\n" +
+               "     * @param scratch the working space to use\n" +
+               "     * @return whether the division had a nonzero remainder\n" +
+               "     */\n" +
+               "    private static boolean mantissaDivision(long[] n, long[] d, long[] q, Scratch scratch) {\n" +
+               "        int bits = FULL_MANTISSA_LONGS * 64;\n" +
+               "\n" +
+               "        long[] divisor = scratch.divisor;\n" +
+               "        long[] x = scratch.reciprocal;\n" +
+               "        CommonUtils.shiftLeft(d, bits - PRECISION, divisor);\n" +
+               "        reciprocal(divisor, x, scratch);\n" +
+               "\n" +
+               "        //n * 2^(P + 1) / d = n * 2^(W + 1) / divisor = n * x / 2^(W - 2)\n" +
+               "        long[] wide = scratch.wide;\n" +
+               "        CommonUtils.multiplySchoolbook(n, 0, x, 0, FULL_MANTISSA_LONGS, wide, 0);\n" +
+               "        CommonUtils.shiftRightUnsignedInPlace(wide, bits - 2);\n" +
+               "        System.arraycopy(wide, FULL_MANTISSA_LONGS, q, 0, FULL_MANTISSA_LONGS);\n" +
+               "\n" +
+               "        //The estimate is off by at most a few units so fix it using the exact remainder n * 2^(P + 1) - q * d\n" +
+               "        long[] remainder = scratch.remainder;\n" +
+               "        Arrays.fill(remainder, 0, FULL_MANTISSA_LONGS, 0);\n" +
+               "        System.arraycopy(n, 0, remainder, FULL_MANTISSA_LONGS, FULL_MANTISSA_LONGS);\n" +
+               "        CommonUtils.shiftLeftInPlace(remainder, PRECISION + 1);\n" +
+               "        CommonUtils.multiplySchoolbook(q, 0, d, 0, FULL_MANTISSA_LONGS, wide, 0);\n" +
+               "        CommonUtils.subtract(remainder, wide, remainder, 0);\n" +
+               "\n" +
+               "        long[] divisorWide = scratch.product;\n" +
+               "        Arrays.fill(divisorWide, 0, FULL_MANTISSA_LONGS, 0);\n" +
+               "        System.arraycopy(d, 0, divisorWide, FULL_MANTISSA_LONGS, FULL_MANTISSA_LONGS);\n" +
+               "        while (remainder[0] < 0) {\n" +
+               "            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && q[i]-- == 0; i--);\n" +
+               "            CommonUtils.add(remainder, divisorWide, remainder, 0);\n" +
+               "        }\n" +
+               "        while (compareMantissas(remainder, divisorWide) >= 0) {\n" +
+               "            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && ++q[i] == 0; i--);\n" +
+               "            CommonUtils.subtract(remainder, divisorWide, remainder, 0);\n" +
+               "        }\n" +
+               "\n" +
+               "        return CommonUtils.bitLength(remainder) != 0;\n" +
                "    }\n" +
                "\n" +
                "    @Override\n" +
                "    public Float" + bits + " divide(Float" + bits + " that) {\n" +
+               "        return divide(that, RoundingMode.HALF_EVEN);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Divide this floating point by another one rounding the result with the given rounding mode\n" +
+               "     *\n" +
+               "     * @param that the floating point to divide by\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return this for chaining\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    public Float" + bits + " divide(Float" + bits + " that, RoundingMode mode) {\n" +
+               "        boolean sign = this.isNegative() ^ that.isNegative();\n" +
                "        Type thisType = getType();\n" +
                "        if (thisType == Type.NAN) {\n" +
                "            return this;\n" +
                "        }\n" +
                "        Type thatType = that.getType();\n" +
                "        if (thatType == Type.NAN) {\n" +
-               "            System.arraycopy(that.data, 0, this.data, 0, LONGS);\n" +
+               "            set(that);\n" +
                "            return this;\n" +
                "        }\n" +
-               "        if (thatType == Type.ZERO) {\n" +
-               "            setExponentBits(EXPONENT_FULL_MASK);\n" +
-               "            if (thisType == Type.ZERO) {\n" +
-               "                CommonUtils.setBit(data,0, 1); //NaN\n" +
-               "            } else {\n" +
-               "                setMantissaBits(new long[MANTISSA_BITS/64 + 1]); //Infinity\n" +
-               "            }\n" +
-               "            return this;\n" +
+               "        if ((thisType == Type.ZERO && thatType == Type.ZERO) || (thisType == Type.INFINITY && thatType == Type.INFINITY)) {\n" +
+               "            setNaN();\n" +
+               "        } else if (thisType == Type.INFINITY || thatType == Type.ZERO) {\n" +
+               "            setInfinity();\n" +
+               "        } else if (thisType == Type.ZERO || thatType == Type.INFINITY) {\n" +
+               "            setZero();\n" +
+               "        } else {\n" +
+               "            //Both this and that are either Normal or Subnormal\n" +
+               "            //Subnormal mantissas are normalized first so the quotient always has enough bits to round\n" +
+               "            Scratch scratch = SCRATCH.get();\n" +
+               "            long[] thisMantissa = scratch.thisMantissa;\n" +
+               "            long[] thatMantissa = scratch.thatMantissa;\n" +
+               "            this.getMantissaBitsExtra(thisMantissa, 0);\n" +
+               "            that.getMantissaBitsExtra(thatMantissa, 0);\n" +
+               "            int thisShift = PRECISION - CommonUtils.bitLength(thisMantissa);\n" +
+               "            int thatShift = PRECISION - CommonUtils.bitLength(thatMantissa);\n" +
+               "            CommonUtils.shiftLeftInPlace(thisMantissa, thisShift);\n" +
+               "            CommonUtils.shiftLeftInPlace(thatMantissa, thatShift);\n" +
+               "\n" +
+               "            long[] quotient = scratch.quotient;\n" +
+               "            boolean sticky = mantissaDivision(thisMantissa, thatMantissa, quotient, scratch);\n" +
+               "            long exponent = (this.getMantissaExponent() - thisShift) - (that.getMantissaExponent() - thatShift) - PRECISION - 1;\n" +
+               "            roundAndSet(sign, exponent, quotient, sticky, mode);\n" +
                "        }\n" +
-               "        if (thatType == Type.INFINITY) {\n" +
-               "            if (thisType == Type.INFINITY) {\n" +
-               "                setExponentBits(EXPONENT_FULL_MASK);\n" +
-               "                CommonUtils.setBit(data,0, 1); //NaN\n" +
-               "            } else {\n" +
-               "                setExponentBits(0);\n" +
-               "                setMantissaBits(new long[MANTISSA_BITS/64 + 1]); //Zero\n" +
-               "            }\n" +
-               "            return this;\n" +
+               "        if (this.isNegative() != sign) {\n" +
+               "            negate();\n" +
                "        }\n" +
                "\n" +
-               "        long thisExp;\n" +
-               "        if (thisType == Type.SUBNORMAL) {\n" +
-               "            thisExp = 1;\n" +
-               "        } else {\n" +
-               "            thisExp = this.getExponentBits();\n" +
+               "        return this;\n" +
+               "    }\n" +
+               "\n" +
+               "    public static Float" + bits + " divide(Float" + bits + " a,  Float" + bits + " b) {\n" +
+               "        return new Float" + bits + "(a).divide(b);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Approximate the reciprocal square root of a full mantissa using Newton-Raphson iteration\n" +
+               "     *\n" +
+               "     * With W the number of bits in a full mantissa array, the result is roughly 2^(3W / 2 - 1) / sqrt(a)\n" +
+               "     * (within a few units of its last place) clamped to W bits\n" +
+               "     *\n" +
+               "     * @param a the radicand with its top bit in one of the two highest places of the array\n" +
+               "     * @param y the array to store the reciprocal square root in\n" +
+               "     * @param scratch the working space to use\n" +
+               "     */\n" +
+               "    private static void reciprocalSquareRoot(long[] a, long[] y, Scratch scratch) {\n" +
+               "        int bits = FULL_MANTISSA_LONGS * 64;\n" +
+               "\n" +
+               "        //Seed with the reciprocal square root of the top 53 bits: the top long of the result is about 2^63 / sqrt(top / 2^53)\n" +
+               "        Arrays.fill(y, 0);\n" +
+               "        y[0] = (long) (0x1p62 / Math.sqrt((a[0] >>> 11) * 0x1p-53)) << 1;\n" +
+               "\n" +
+               "        long[] product = scratch.product;\n" +
+               "        long[] square = scratch.remainder;\n" +
+               "        long[] correction = scratch.wide;\n" +
+               "        long[] delta = scratch.delta;\n" +
+               "        for (int step = 0; step < RECIPROCAL_SQRT_STEPS; step++) {\n" +
+               "            //y += y * (2^(2W - 2) - a * y^2 / 2^W) / 2^(2W - 1), which doubles the number of correct bits\n" +
+               "            CommonUtils.multiplySchoolbook(y, 0, y, 0, FULL_MANTISSA_LONGS, product, 0);\n" +
+               "            CommonUtils.multiplySchoolbook(a, 0, product, 0, FULL_MANTISSA_LONGS, square, 0);\n" +
+               "            boolean tooLarge = (square[0] >>> 62) != 0;\n" +
+               "            if (!tooLarge) {\n" +
+               "                CommonUtils.negateInPlace(square);\n" +
+               "            }\n" +
+               "            square[0] &= Long.MAX_VALUE >>> 1; //|2^(2W - 2) - a * y^2 / 2^W|\n" +
+               "\n" +
+               "            //The error is tiny so its low half can be dropped at the cost of a unit or two\n" +
+               "            CommonUtils.multiplySchoolbook(y, 0, square, 0, FULL_MANTISSA_LONGS, correction, 0);\n" +
+               "            CommonUtils.shiftRightUnsignedInPlace(correction, bits - 1);\n" +
+               "            System.arraycopy(correction, FULL_MANTISSA_LONGS, delta, 0, FULL_MANTISSA_LONGS);\n" +
+               "\n" +
+               "            if (tooLarge) {\n" +
+               "                CommonUtils.subtract(y, delta, y, 0);\n" +
+               "            } else if (CommonUtils.add(y, delta, y, 0) != 0) {\n" +
+               "                Arrays.fill(y, -1L);\n" +
+               "            }\n" +
                "        }\n" +
-               "        long thatExp;\n" +
-               "        if (thatType == Type.SUBNORMAL) {\n" +
-               "            thatExp = 1;\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Take the square root of a full mantissa\n" +
+               "     *\n" +
+               "     * With W the number of bits in a full mantissa array, the root of a * 2^W has exactly W bits\n" +
+               "     *\n" +
+               "     * @param a the radicand with its top bit in one of the two highest places of the array\n" +
+               "     * @param r the array to store floor(sqrt(a * 2^W)) in\n" +
+               "     * @param scratch the working space to use\n" +
+               "     * @return whether the square root was inexact\n" +
+               "     */\n" +
+               "    private static boolean mantissaSquareRoot(long[] a, long[] r, Scratch scratch) {\n" +
+               "        int bits = FULL_MANTISSA_LONGS * 64;\n" +
+               "\n" +
+               "        long[] y = scratch.reciprocal;\n" +
+               "        reciprocalSquareRoot(a, y, scratch);\n" +
+               "\n" +
+               "        //sqrt(a * 2^W) = a / sqrt(a / 2^W) = a * y / 2^(W - 1)\n" +
+               "        long[] wide = scratch.wide;\n" +
+               "        CommonUtils.multiplySchoolbook(a, 0, y, 0, FULL_MANTISSA_LONGS, wide, 0);\n" +
+               "        CommonUtils.shiftRightUnsignedInPlace(wide, bits - 1);\n" +
+               "        if ((wide[FULL_MANTISSA_LONGS - 1] & 1) != 0) {\n" +
+               "            //The estimate reached 2^W but the root is always below it\n" +
+               "            Arrays.fill(r, -1L);\n" +
                "        } else {\n" +
-               "            thatExp = that.getExponentBits();\n" +
+               "            System.arraycopy(wide, FULL_MANTISSA_LONGS, r, 0, FULL_MANTISSA_LONGS);\n" +
                "        }\n" +
                "\n" +
-               "        long finalExp = thisExp + EXPONENT_OFFSET - thatExp;\n" +
+               "        //The estimate is off by at most a few units so fix it using the exact remainder a * 2^W - r^2\n" +
+               "        //That remainder is small enough for its top bit to be its sign\n" +
+               "        long[] remainder = scratch.remainder;\n" +
+               "        System.arraycopy(a, 0, remainder, 0, FULL_MANTISSA_LONGS);\n" +
+               "        Arrays.fill(remainder, FULL_MANTISSA_LONGS, 2 * FULL_MANTISSA_LONGS, 0);\n" +
+               "        CommonUtils.multiplySchoolbook(r, 0, r, 0, FULL_MANTISSA_LONGS, wide, 0);\n" +
+               "        CommonUtils.subtract(remainder, wide, remainder, 0);\n" +
                "\n" +
-               "        long[] thisMantissa = this.getMantissaBitsExtra();\n" +
-               "        long[] thatMantissa = that.getMantissaBitsExtra();\n" +
+               "        long[] step = scratch.product;\n" +
+               "        while (remainder[0] < 0) {\n" +
+               "            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && r[i]-- == 0; i--);\n" +
+               "            squareStep(r, step);\n" +
+               "            CommonUtils.add(remainder, step, remainder, 0);\n" +
+               "        }\n" +
+               "        squareStep(r, step);\n" +
+               "        while (compareMantissas(remainder, step) >= 0) {\n" +
+               "            CommonUtils.subtract(remainder, step, remainder, 0);\n" +
+               "            for (int i = FULL_MANTISSA_LONGS - 1; i >= 0 && ++r[i] == 0; i--);\n" +
+               "            squareStep(r, step);\n" +
+               "        }\n" +
                "\n" +
-               "        boolean sign = this.isNegative() ^ that.isNegative();\n" +
+               "        return CommonUtils.bitLength(remainder) != 0;\n" +
+               "    }\n" +
                "\n" +
-               "        long[] newMantissa = mantissaDivision(thisMantissa, thatMantissa);\n" +
+               "    /**\n" +
+               "     * Store the difference between (r + 1)^2 and r^2 (which is 2r + 1)\n" +
+               "     *\n" +
+               "     * @param r the root\n" +
+               "     * @param step the array twice as long as the root to store the difference in\n" +
+               "     */\n" +
+               "    private static void squareStep(long[] r, long[] step) {\n" +
+               "        Arrays.fill(step, 0, FULL_MANTISSA_LONGS, 0);\n" +
+               "        System.arraycopy(r, 0, step, FULL_MANTISSA_LONGS, FULL_MANTISSA_LONGS);\n" +
+               "        CommonUtils.shiftLeftInPlace(step, 1);\n" +
+               "        step[2 * FULL_MANTISSA_LONGS - 1] |= 1;\n" +
+               "    }\n" +
                "\n" +
-               "        int firstOne = 0;\n" +
-               "        int i;\n" +
-               "        for (i = newMantissa.length * 64 - 1; i >= 0 && CommonUtils.getBit(newMantissa, i) == 0; i--, firstOne++);\n" +
-               "        long shiftRight = (newMantissa.length * 64) - MANTISSA_BITS - firstOne - 1;\n" +
-               "        if (shiftRight > 0) {\n" +
-               "            newMantissa = CommonUtils.shiftRightUnsigned(newMantissa, (int) shiftRight);\n" +
-               "            finalExp += shiftRight;\n" +
-               "        } else if (shiftRight < 0) {\n" +
-               "            shiftRight = -shiftRight;\n" +
-               "            if (shiftRight <= MANTISSA_BITS) {\n" +
-               "                if (Long.compareUnsigned(shiftRight, finalExp) > 0) {\n" +
-               "                    shiftRight = finalExp;\n" +
-               "                }\n" +
-               "                newMantissa = CommonUtils.shiftLeft(newMantissa, (int) shiftRight);\n" +
-               "                finalExp -= shiftRight;\n" +
-               "            } else {\n" +
-               "                finalExp = 0;\n" +
-               "            }\n" +
+               "    /**\n" +
+               "     * Take the square root of this floating point\n" +
+               "     *\n" +
+               "     * @return this for chaining\n" +
+               "     */\n" +
+               "    public Float" + bits + " sqrt() {\n" +
+               "        return sqrt(RoundingMode.HALF_EVEN);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Take the square root of this floating point rounding the result with the given rounding mode\n" +
+               "     *\n" +
+               "     * The square root of -0 is -0 and the square root of any other negative number is NaN\n" +
+               "     *\n" +
+               "     * @param mode how to round a result that cannot be represented exactly\n" +
+               "     * @return this for chaining\n" +
+               "     * @throws ArithmeticException if the mode is UNNECESSARY and the result must be rounded\n" +
+               "     */\n" +
+               "    public Float" + bits + " sqrt(RoundingMode mode) {\n" +
+               "        Type type = getType();\n" +
+               "        if (type == Type.NAN || type == Type.ZERO) {\n" +
+               "            return this;\n" +
                "        }\n" +
+               "        if (isNegative()) {\n" +
+               "            setNaN();\n" +
+               "        } else if (type != Type.INFINITY) {\n" +
+               "            //Normal or Subnormal\n" +
+               "            //The mantissa moves to the top of its array with an even exponent so that the root fills a whole array\n" +
+               "            Scratch scratch = SCRATCH.get();\n" +
+               "            long[] mantissa = scratch.thisMantissa;\n" +
+               "            getMantissaBitsExtra(mantissa, 0);\n" +
+               "            int shift = FULL_MANTISSA_LONGS * 64 - CommonUtils.bitLength(mantissa);\n" +
+               "            long exponent = getMantissaExponent() - shift;\n" +
+               "            if ((exponent & 1) != 0) {\n" +
+               "                shift--;\n" +
+               "                exponent++;\n" +
+               "            }\n" +
+               "            CommonUtils.shiftLeftInPlace(mantissa, shift);\n" +
                "\n" +
-               "        setMantissaBitsExtra(newMantissa);\n" +
-               "        setExponentBits(finalExp);\n" +
-               "        if (this.isNegative() != sign) {\n" +
-               "            negate();\n" +
+               "            //sqrt(a * 2^e) = sqrt(a * 2^W) * 2^((e - W) / 2)\n" +
+               "            long[] root = scratch.quotient;\n" +
+               "            boolean sticky = mantissaSquareRoot(mantissa, root, scratch);\n" +
+               "            roundAndSet(false, (exponent - FULL_MANTISSA_LONGS * 64) / 2, root, sticky, mode);\n" +
                "        }\n" +
                "\n" +
                "        return this;\n" +
                "    }\n" +
                "\n" +
-               "    public static Float" + bits + " divide(Float" + bits + " a,  Float" + bits + " b) {\n" +
-               "        return new Float" + bits + "(a).divide(b);\n" +
+               "    public static Float" + bits + " sqrt(Float" + bits + " a) {\n" +
+               "        return new Float" + bits + "(a).sqrt();\n" +
                "    }\n" +
                "\n" +
                "    private static long[] mantissaModulo(long[] n, long[] d) {\n" +
                "        long[] q = new long[n.length];\n" +
                "        long[] r = new long[n.length];\n" +
-               "        long[] t = new long[n.length];\n" +
                "\n" +
                "        boolean isFirstN = false;\n" +
                "\n" +
                "        for (int i = n.length * 64 - 1; i >= 0; i--) {\n" +
                "            if (isFirstN || CommonUtils.getBit(n, i) != 0) {\n" +
                "                isFirstN = true;\n" +
-               "                r = CommonUtils.shiftLeft(r, 1);\n" +
+               "                CommonUtils.shiftLeftInPlace(r, 1);\n" +
                "                CommonUtils.setBit(r, 0, CommonUtils.getBit(n, i));\n" +
                "                if (compareMantissas(r, d) >= 0) {\n" +
-               "                    for (int j = 0; j < d.length; j++) {\n" +
-               "                        t[j] = ~d[j];\n" +
-               "                    }\n" +
-               "\n" +
-               "                    long carry = 1;\n" +
-               "\n" +
-               "                    for (int j = n.length - 1; j >= 0; j--) {\n" +
-               "                        long temp = r[j] + t[j] + carry;\n" +
-               "\n" +
-               "                        if (carry == 1) {\n" +
-               "                            carry = (Long.compareUnsigned(temp, r[j]) <= 0 &&\n" +
-               "                                     Long.compareUnsigned(temp, t[j]) <= 0) ? 1 : 0;\n" +
-               "                        } else {\n" +
-               "                            carry = (Long.compareUnsigned(temp, r[j]) < 0 &&\n" +
-               "                                     Long.compareUnsigned(temp, t[j]) < 0) ? 1 : 0;\n" +
-               "                        }\n" +
-               "\n" +
-               "                        r[j] = temp;\n" +
-               "                    }\n" +
+               "                    CommonUtils.subtract(r, d, r, 0);\n" +
                "                    r[0] = r[0] & ~(-1L << (64 - ((MANTISSA_START - 1) % 64)));\n" +
                "\n" +
                "                    CommonUtils.setBit(q, i, 1);\n" +
@@ -1040,12 +1506,11 @@ public class FloatXGenerator {
                "        }\n" +
                "        Type thatType = that.getType();\n" +
                "        if (thatType == Type.NAN) {\n" +
-               "            System.arraycopy(that.data, 0, this.data, 0, LONGS);\n" +
+               "            set(that);\n" +
                "            return this;\n" +
                "        }\n" +
                "        if (thatType == Type.ZERO || thisType == Type.INFINITY) {\n" +
-               "            setExponentBits(EXPONENT_FULL_MASK);\n" +
-               "            CommonUtils.setBit(data,0, 1); //NaN\n" +
+               "            setNaN();\n" +
                "            return this;\n" +
                "        }\n" +
                "        if (thatType == Type.INFINITY) {\n" +
@@ -1073,7 +1538,7 @@ public class FloatXGenerator {
                "            if (thisExp - thatExp > MANTISSA_BITS + 1) {\n" +
                "                Arrays.fill(thisMantissa, 0);\n" +
                "            } else {\n" +
-               "                thatMantissa = CommonUtils.shiftRightUnsigned(thatMantissa, (int) (thisExp - thatExp));\n" +
+               "                CommonUtils.shiftRightUnsignedInPlace(thatMantissa, (int) (thisExp - thatExp));\n" +
                "            }\n" +
                "        }\n" +
                "        if (thisExp < thatExp) {\n" +
@@ -1081,7 +1546,7 @@ public class FloatXGenerator {
                "            if (thatExp - thisExp > MANTISSA_BITS + 1) {\n" +
                "                Arrays.fill(thatMantissa, 0);\n" +
                "            } else {\n" +
-               "                thisMantissa = CommonUtils.shiftRightUnsigned(thisMantissa, (int) (thatExp - thisExp));\n" +
+               "                CommonUtils.shiftRightUnsignedInPlace(thisMantissa, (int) (thatExp - thisExp));\n" +
                "            }\n" +
                "        }\n" +
                "\n" +
@@ -1094,7 +1559,7 @@ public class FloatXGenerator {
                "        for (i = newMantissa.length * 64 - 1; i >= 0 && CommonUtils.getBit(newMantissa, i) == 0; i--, firstOne++);\n" +
                "        long shiftRight = (newMantissa.length * 64) - MANTISSA_BITS - firstOne - 1;\n" +
                "        if (shiftRight > 0) {\n" +
-               "            newMantissa = CommonUtils.shiftRightUnsigned(newMantissa, (int) shiftRight);\n" +
+               "            CommonUtils.shiftRightUnsignedInPlace(newMantissa, (int) shiftRight);\n" +
                "            finalExp += shiftRight;\n" +
                "        } else if (shiftRight < 0) {\n" +
                "            shiftRight = -shiftRight;\n" +
@@ -1102,7 +1567,7 @@ public class FloatXGenerator {
                "                if (Long.compareUnsigned(shiftRight, finalExp) > 0) {\n" +
                "                    shiftRight = finalExp;\n" +
                "                }\n" +
-               "                newMantissa = CommonUtils.shiftLeft(newMantissa, (int) shiftRight);\n" +
+               "                CommonUtils.shiftLeftInPlace(newMantissa, (int) shiftRight);\n" +
                "                finalExp -= shiftRight;\n" +
                "            } else {\n" +
                "                finalExp = 0;\n" +
@@ -1122,108 +1587,127 @@ public class FloatXGenerator {
                "        return new Float" + bits + "(a).modulo(b);\n" +
                "    }\n" +
                "\n" +
+               "    /**\n" +
+               "     * Compares like Double.equals so that it agrees with compareTo: -0 and +0 are different and every NaN\n" +
+               "     * equals every other NaN\n" +
+               "     */\n" +
                "    @Override\n" +
                "    public boolean equals(Object o) {\n" +
                "        if (this == o) return true;\n" +
                "        if (o == null || getClass() != o.getClass()) return false;\n" +
-               "        Float" + bits + " float128 = (Float" + bits + ") o;\n" +
-               "        if (float128.getType() == Type.NAN || this.getType() == Type.NAN || float128.getType() == Type.INFINITY || this.getType() == Type.INFINITY) {\n" +
-               "            return false;\n" +
-               "        }\n" +
-               "        if (float128.getType() == Type.ZERO && this.getType() == Type.ZERO) {\n" +
-               "            return true;\n" +
-               "        }\n" +
-               "        return Arrays.equals(data, float128.data);\n" +
+               "        Float" + bits + " float" + bits + " = (Float" + bits + ") o;\n" +
+               "        boolean thisNaN = this.getType() == Type.NAN;\n" +
+               "        boolean thatNaN = float" + bits + ".getType() == Type.NAN;\n" +
+               "        if (thisNaN || thatNaN) {\n" +
+               "            return thisNaN == thatNaN;\n" +
+               "        }\n" +
+               "        return negative == float" + bits + ".negative && exponent == float" + bits + ".exponent &&\n" +
+               "               " + joinLimbs("m# == float" + bits + ".m#", " && ") + ";\n" +
                "    }\n" +
                "\n" +
                "    @Override\n" +
                "    public int hashCode() {\n" +
-               "        if (this.getType() == Type.ZERO) {\n" +
-               "            return Type.ZERO.hashCode(); // Since ZEROs are always equal: they all share the same hashcode\n" +
+               "        if (this.getType() == Type.NAN) {\n" +
+               "            return Type.NAN.hashCode(); // Since NaNs are always equal: they all share the same hashcode\n" +
                "        }\n" +
-               "        return Arrays.hashCode(data);\n" +
+               "        int result = 31 * Boolean.hashCode(negative) + exponent;\n" +
+               limbs("        result = 31 * result + Long.hashCode(m#);\n") +
+               "        return result;\n" +
                "    }\n" +
                "\n" +
-               "\n" +
+               "    /**\n" +
+               "     * Compares in the same total order as Double.compare: -0 is below +0 and every NaN is above positive\n" +
+               "     * infinity and equal to every other NaN. This is consistent with equals.\n" +
+               "     */\n" +
                "    @Override\n" +
                "    public int compareTo(Float" + bits + " o) {\n" +
-               "        Float" + bits + " a = this;\n" +
-               "        Float" + bits + " b = o;\n" +
-               "        Type aType = a.getType();\n" +
-               "        Type bType = b.getType();\n" +
-               "        if (aType == bType) {\n" +
-               "            if (aType == Type.ZERO) {\n" +
-               "                return 0;\n" +
-               "            } else if (aType == Type.INFINITY) {\n" +
-               "                return a.isNegative() ? (b.isNegative() ? 0 : -1) : (b.isNegative() ? 1 : 0);\n" +
-               "            } else if (aType == Type.NAN) {\n" +
-               "                return 0;\n" +
-               "            } else {\n" +
-               "                return a.isNegative() ?\n" +
-               "                        (b.isNegative() ? NEGATIVE_COMPARATOR.compare(a, b) : -1) :\n" +
-               "                        (b.isNegative() ? 1 : POSITIVE_COMPARATOR.compare(a, b));\n" +
-               "            }\n" +
-               "        } else {\n" +
-               "            if (bType == Type.NAN) {\n" +
-               "                return 0;\n" +
-               "            }\n" +
-               "            // Types are different\n" +
-               "            if (aType == Type.ZERO) {\n" +
-               "                return b.isNegative() ? 1 : -1;\n" +
-               "            } else if (aType == Type.INFINITY) {\n" +
-               "                return a.isNegative() ? -1 : 1;\n" +
-               "            } else if (aType == Type.NAN) {\n" +
-               "                return 0;\n" +
-               "            } else if (bType == Type.INFINITY) {\n" +
-               "                return b.isNegative() ? 1 : -1;\n" +
-               "            } else { // SUBNORMAL | NORMAL\n" +
-               "                if (bType == Type.ZERO) {\n" +
-               "                    return a.isNegative() ? -1 : 1;\n" +
-               "                } else { // SUBNORMAL | NORMAL\n" +
-               "                    return a.isNegative() ?\n" +
-               "                            (b.isNegative() ? NEGATIVE_COMPARATOR.compare(a, b) : -1) :\n" +
-               "                            (b.isNegative() ? 1 : POSITIVE_COMPARATOR.compare(a, b));\n" +
-               "                }\n" +
-               "            }\n" +
+               "        boolean thisNaN = this.getType() == Type.NAN;\n" +
+               "        boolean thatNaN = o.getType() == Type.NAN;\n" +
+               "        if (thisNaN || thatNaN) {\n" +
+               "            return Boolean.compare(thisNaN, thatNaN);\n" +
+               "        }\n" +
+               "        //Different signs also put -0 below +0\n" +
+               "        if (this.negative != o.negative) {\n" +
+               "            return this.negative ? -1 : 1;\n" +
+               "        }\n" +
+               "        int compare = compareMagnitudes(this, o);\n" +
+               "        return this.negative ? -compare : compare;\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Compare the absolute values of two floating points that are not NaN\n" +
+               "     *\n" +
+               "     * @param a the first floating point\n" +
+               "     * @param b the second floating point\n" +
+               "     * @return a negative number, zero or a positive number as |a| is less than, equal to or greater than |b|\n" +
+               "     */\n" +
+               "    private static int compareMagnitudes(Float" + bits + " a, Float" + bits + " b) {\n" +
+               "        //A larger exponent always means a larger magnitude (subnormals and zero have exponent 0 and infinity the\n" +
+               "        //largest one), equal exponents are ordered by the full mantissas as unsigned numbers\n" +
+               "        if (a.exponent != b.exponent) {\n" +
+               "            return Integer.compare(a.exponent, b.exponent);\n" +
+               "        }\n" +
+               "        if (a.m0 != b.m0) {\n" +
+               "            return Long.compareUnsigned(a.m0, b.m0);\n" +
                "        }\n" +
+               limbs("        if (a.m# != b.m#) {\n            return Long.compareUnsigned(a.m#, b.m#);\n        }\n", 1, mantissaLongs() - 1) +
+               limb("        return Long.compareUnsigned(a.m#, b.m#);\n", mantissaLongs() - 1) +
                "    }\n" +
                "\n" +
                "    @Override\n" +
                "    public String toString() {\n" +
-               "        StringBuilder builder = new StringBuilder();\n" +
+               "        return appendTo(new StringBuilder()).toString();\n" +
+               "    }\n" +
                "\n" +
-               "        String negative = \"\";\n" +
+               "    /**\n" +
+               "     * Append the shortest decimal representation that reads back as exactly this floating point\n" +
+               "     *\n" +
+               "     * Values from 10^-3 up to 10^8 are written out in full and the rest in scientific notation\n" +
+               "     *\n" +
+               "     * @param builder the builder to append to\n" +
+               "     * @return the builder for chaining\n" +
+               "     */\n" +
+               "    public StringBuilder appendTo(StringBuilder builder) {\n" +
+               "        Type type = getType();\n" +
+               "        if (type == Type.NAN) {\n" +
+               "            return builder.append(\"NAN\");\n" +
+               "        }\n" +
                "        if (isNegative()) {\n" +
-               "            negative = \"-\";\n" +
+               "            builder.append('-');\n" +
+               "        }\n" +
+               "        if (type == Type.INFINITY) {\n" +
+               "            return builder.append(\"INFINITY\");\n" +
                "        }\n" +
-               "\n" +
-               "        Type type = getType();\n" +
-               "\n" +
                "        if (type == Type.ZERO) {\n" +
-               "            builder.append('0');\n" +
-               "        } else if (type == Type.SUBNORMAL || type == Type.NORMAL) {\n" +
-               "            double base10s = base2To10Exp(getExponentBits() - EXPONENT_OFFSET);\n" +
-               "            long base10 = (long) Math.floor(base10s);\n" +
-               "            if (base10 <= 7 && base10 >= -3) {\n" +
-               "                StringBuilder fullString = new StringBuilder(toFullString(10));\n" +
-               "                while (fullString.charAt(fullString.length() - 1) == '0') {\n" +
-               "                    fullString.deleteCharAt(fullString.length() - 1);\n" +
-               "                }\n" +
-               "                if (fullString.charAt(fullString.length() - 1) == '.') {\n" +
-               "                    fullString.deleteCharAt(fullString.length() - 1);\n" +
-               "                }\n" +
-               "                return fullString.toString();\n" +
-               "            } else {\n" +
-               "                return toSciString(10);\n" +
+               "            return builder.append('0');\n" +
+               "        }\n" +
+               "\n" +
+               "        long[] mantissa = SCRATCH.get().thisMantissa;\n" +
+               "        getMantissaBitsExtra(mantissa, 0);\n" +
+               "        int start = builder.length();\n" +
+               "        //The digits are 0.d1d2d3... * 10^k so the first one is worth 10^(k - 1)\n" +
+               "        int base10 = CommonUtils.shortestDigits(mantissa, getMantissaExponent(),\n" +
+               "                                                getExponentBits() > 1 && isMantissaZero(), builder) - 1;\n" +
+               "        int digits = builder.length() - start;\n" +
+               "        if (base10 >= 0 && base10 <= 7) {\n" +
+               "            for (int i = digits; i <= base10; i++) {\n" +
+               "                builder.append('0');\n" +
                "            }\n" +
-               "        } else  if (type == Type.INFINITY) {\n" +
-               "            builder.append(negative);\n" +
-               "            builder.append(\"INFINITY\");\n" +
-               "        } else if (type == Type.NAN) {\n" +
-               "            builder.append(\"NAN\");\n" +
+               "            if (digits > base10 + 1) {\n" +
+               "                builder.insert(start + base10 + 1, '.');\n" +
+               "            }\n" +
+               "        } else if (base10 < 0 && base10 >= -3) {\n" +
+               "            builder.insert(start, \"0.000\", 0, 1 - base10);\n" +
+               "        } else {\n" +
+               "            if (digits == 1) {\n" +
+               "                builder.append('0');\n" +
+               "            }\n" +
+               "            builder.insert(start + 1, '.');\n" +
+               "            builder.append('E');\n" +
+               "            builder.append(base10);\n" +
                "        }\n" +
                "\n" +
-               "        return builder.toString();\n" +
+               "        return builder;\n" +
                "    }\n" +
                "\n" +
                "    public String toSciString(int precision) {\n" +
@@ -1414,6 +1898,25 @@ public class FloatXGenerator {
                "        return base2Exponent * LOG_10_OF_2;\n" +
                "    }\n" +
                "\n" +
+               "    /**\n" +
+               "     * Per thread arrays used by the arithmetic instead of allocating new ones\n" +
+               "     */\n" +
+               "    private static final class Scratch {\n" +
+               "        private final long[] thisMantissa = new long[FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] thatMantissa = new long[FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] sum = new long[FULL_MANTISSA_LONGS + 2];\n" +
+               "        private final long[] addend = new long[FULL_MANTISSA_LONGS + 2];\n" +
+               "        private final long[] wideSum = new long[2 * FULL_MANTISSA_LONGS + 2];\n" +
+               "        private final long[] wideAddend = new long[2 * FULL_MANTISSA_LONGS + 2];\n" +
+               "        private final long[] product = new long[2 * FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] wide = new long[2 * FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] remainder = new long[2 * FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] divisor = new long[FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] reciprocal = new long[FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] delta = new long[FULL_MANTISSA_LONGS];\n" +
+               "        private final long[] quotient = new long[FULL_MANTISSA_LONGS];\n" +
+               "    }\n" +
+               "\n" +
                "    private enum Type {\n" +
                "        ZERO, SUBNORMAL, NORMAL, INFINITY, NAN\n" +
                "    }\n" +
@@ -1429,4 +1932,70 @@ public class FloatXGenerator {
                "    }\n" +
                "}\n";
     }
+
+    /**
+     * Get the number of longs in a full mantissa (one including the implicit leading one)
+     *
+     * @return the number of longs used to store the mantissa
+     */
+    private int mantissaLongs() {
+        return mantissaBits / 64 + 1;
+    }
+
+    /**
+     * Get the number of longs holding just the mantissa section (without the implicit leading one)
+     *
+     * @return the number of longs in the arrays passed to setMantissaBits
+     */
+    private int shortMantissaLongs() {
+        return (mantissaBits - 1) / 64 + 1;
+    }
+
+    /**
+     * Write a template once for a single long of the mantissa
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param index the index of the long (0 is the most significant)
+     * @return the code for that long
+     */
+    private String limb(String template, int index) {
+        return template.replace("#", Integer.toString(index));
+    }
+
+    /**
+     * Write a template once for every long of the mantissa from the most significant one down
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @return the code for all of the longs
+     */
+    private String limbs(String template) {
+        return limbs(template, 0, mantissaLongs());
+    }
+
+    /**
+     * Write a template once for a range of the mantissa's longs from the most significant one down
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param from the first index (INCLUSIVE)
+     * @param to the last index (EXCLUSIVE)
+     * @return the code for the longs in the range
+     */
+    private String limbs(String template, int from, int to) {
+        return IntStream.range(from, to)
+                        .mapToObj((index) -> limb(template, index))
+                        .collect(Collectors.joining());
+    }
+
+    /**
+     * Write a template once for every long of the mantissa and join the results
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param separator the code to put between the longs
+     * @return the joined code for all of the longs
+     */
+    private String joinLimbs(String template, String separator) {
+        return IntStream.range(0, mantissaLongs())
+                        .mapToObj((index) -> limb(template, index))
+                        .collect(Collectors.joining(separator));
+    }
 }
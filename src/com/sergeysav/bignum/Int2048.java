@@ -37,15 +37,36 @@ public final class Int2048 implements Comparable<Int2048> {
     public static final Int2048 MIN_VALUE = Int2048.bytesOf(Long.MIN_VALUE, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
 
     /**
-     * The backing bits (stored as longs)
+     * Arrays that the limbs are copied into for the algorithms that work on arrays of longs
      */
-    private long[] data;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * The largest power of ten that fits into a long, used to convert to decimal 18 digits at a time
+     */
+    private static final long DECIMAL_CHUNK = 1_000_000_000_000_000_000L;
+    private static final int DECIMAL_CHUNK_DIGITS = 18;
+
+    /**
+     * An upper bound on the number of decimal digits (log10(2) is just below 0.30103)
+     */
+    private static final int MAX_DIGITS = (LONGS * 64 * 30103 + 99999) / 100000;
+
+    /**
+     * Buffer for building decimal strings (room for the digits, the commas and a sign)
+     */
+    private static final ThreadLocal<char[]> DIGITS =
+            ThreadLocal.withInitial(() -> new char[MAX_DIGITS + MAX_DIGITS / 3 + 1]);
+
+    /**
+     * The backing bits (stored as longs with the most significant one first)
+     */
+    private long l0, l1, l2, l3, l4, l5, l6, l7, l8, l9, l10, l11, l12, l13, l14, l15, l16, l17, l18, l19, l20, l21, l22, l23, l24, l25, l26, l27, l28, l29, l30, l31;
 
     /**
      * Create a new integer equaling zero
      */
     public Int2048() {
-        data = new long[LONGS];
     }
 
     /**
@@ -54,9 +75,38 @@ public final class Int2048 implements Comparable<Int2048> {
      * @param other the integer value to copy
      */
     public Int2048(Int2048 other) {
-        this();
-        
-        System.arraycopy(other.data, 0, this.data, 0, LONGS);
+        this.l0 = other.l0;
+        this.l1 = other.l1;
+        this.l2 = other.l2;
+        this.l3 = other.l3;
+        this.l4 = other.l4;
+        this.l5 = other.l5;
+        this.l6 = other.l6;
+        this.l7 = other.l7;
+        this.l8 = other.l8;
+        this.l9 = other.l9;
+        this.l10 = other.l10;
+        this.l11 = other.l11;
+        this.l12 = other.l12;
+        this.l13 = other.l13;
+        this.l14 = other.l14;
+        this.l15 = other.l15;
+        this.l16 = other.l16;
+        this.l17 = other.l17;
+        this.l18 = other.l18;
+        this.l19 = other.l19;
+        this.l20 = other.l20;
+        this.l21 = other.l21;
+        this.l22 = other.l22;
+        this.l23 = other.l23;
+        this.l24 = other.l24;
+        this.l25 = other.l25;
+        this.l26 = other.l26;
+        this.l27 = other.l27;
+        this.l28 = other.l28;
+        this.l29 = other.l29;
+        this.l30 = other.l30;
+        this.l31 = other.l31;
     }
 
     /**
@@ -70,15 +120,42 @@ public final class Int2048 implements Comparable<Int2048> {
     public static Int2048 from(long num) {
         Int2048 val = new Int2048();
 
-        //Copy the long
-        val.data[LONGS - 1] = num;
-
         //Sign extension
-        if (num < 0) {
-            for (int i = 0; i < LONGS - 1; i++) {
-                val.data[i] = -1L;
-            }
-        }
+        long extension = num >> 63;
+        val.l0 = extension;
+        val.l1 = extension;
+        val.l2 = extension;
+        val.l3 = extension;
+        val.l4 = extension;
+        val.l5 = extension;
+        val.l6 = extension;
+        val.l7 = extension;
+        val.l8 = extension;
+        val.l9 = extension;
+        val.l10 = extension;
+        val.l11 = extension;
+        val.l12 = extension;
+        val.l13 = extension;
+        val.l14 = extension;
+        val.l15 = extension;
+        val.l16 = extension;
+        val.l17 = extension;
+        val.l18 = extension;
+        val.l19 = extension;
+        val.l20 = extension;
+        val.l21 = extension;
+        val.l22 = extension;
+        val.l23 = extension;
+        val.l24 = extension;
+        val.l25 = extension;
+        val.l26 = extension;
+        val.l27 = extension;
+        val.l28 = extension;
+        val.l29 = extension;
+        val.l30 = extension;
+
+        //Copy the long
+        val.l31 = num;
         
         return val;
     }
@@ -98,11 +175,100 @@ public final class Int2048 implements Comparable<Int2048> {
 
         Int2048 val = new Int2048();
 
-        System.arraycopy(parts, 0, val.data, 0, LONGS);
+        val.setLongs(parts);
 
         return val;
     }
 
+    /**
+     * Parses a decimal integer
+     *
+     * @param s the characters to parse (an optional sign followed by decimal digits)
+     * @return the parsed integer
+     * @throws NumberFormatException if the characters are not an integer or the value does not fit in 2048 bits
+     */
+    public static Int2048 parse(CharSequence s) {
+        return parse(s, 0, s.length(), 10);
+    }
+
+    /**
+     * Parses an integer in the given radix
+     *
+     * @param s the characters to parse (an optional sign followed by digits)
+     * @param radix the radix of the digits
+     * @return the parsed integer
+     * @throws NumberFormatException if the characters are not an integer or the value does not fit in 2048 bits
+     */
+    public static Int2048 parse(CharSequence s, int radix) {
+        return parse(s, 0, s.length(), radix);
+    }
+
+    /**
+     * Parses an integer in the given radix from part of a sequence of characters without copying it
+     *
+     * @param s the characters containing the integer (an optional sign followed by digits)
+     * @param beginIndex the index of the first character to parse
+     * @param endIndex the index after the last character to parse
+     * @param radix the radix of the digits
+     * @return the parsed integer
+     * @throws NumberFormatException if the characters are not an integer or the value does not fit in 2048 bits
+     */
+    public static Int2048 parse(CharSequence s, int beginIndex, int endIndex, int radix) {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException("Range [" + beginIndex + ", " + endIndex + ") out of bounds for length " + s.length());
+        }
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("Radix " + radix + " out of range");
+        }
+
+        int i = beginIndex;
+        boolean negative = false;
+        if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (i == endIndex) {
+            throw parseException("No digits", s, beginIndex, endIndex);
+        }
+
+        //Accumulate as many digits as fit into a long at once, the leftover digits go first so the rest are full chunks
+        long[] magnitude = SCRATCH.get().left;
+        Arrays.fill(magnitude, 0);
+        int chunkDigits = CommonUtils.radixChunkDigits(radix);
+        long chunkMultiplier = CommonUtils.radixChunk(radix);
+        int chunkEnd = i + (endIndex - i - 1) % chunkDigits + 1;
+        while (i < endIndex) {
+            long chunk = 0;
+            for (; i < chunkEnd; i++) {
+                int digit = Character.digit(s.charAt(i), radix);
+                if (digit < 0) {
+                    throw parseException("Invalid digit", s, beginIndex, endIndex);
+                }
+                chunk = chunk * radix + digit;
+            }
+            if (CommonUtils.multiplyAddInPlace(magnitude, chunkMultiplier, chunk) != 0) {
+                throw parseException("Value out of range", s, beginIndex, endIndex);
+            }
+            chunkEnd += chunkDigits;
+        }
+
+        //The magnitude has to leave the sign bit clear, except for MIN_VALUE whose magnitude is only the sign bit
+        Int2048 val = new Int2048();
+        val.setLongs(magnitude);
+        if (val.l0 < 0 && !(negative && val.equals(MIN_VALUE))) {
+            throw parseException("Value out of range", s, beginIndex, endIndex);
+        }
+        if (negative) {
+            val.negate();
+        }
+
+        return val;
+    }
+
+    private static NumberFormatException parseException(String reason, CharSequence s, int beginIndex, int endIndex) {
+        return new NumberFormatException(reason + " for Int2048: \"" + s.subSequence(beginIndex, endIndex) + "\"");
+    }
+
     /**
      * Add two integers returning a new integer object
      *
@@ -123,22 +289,101 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 add(Int2048 b) {
-        long carry = 0;
-    
-        for (int i = LONGS - 1; i >= 0; i--) {
-            long temp = this.data[i] + b.data[i] + carry;
-
-            if (carry == 1){
-                carry = (Long.compareUnsigned(temp, this.data[i]) <= 0 && Long.compareUnsigned(temp, b.data[i]) <= 0)
-                                        ? 1 : 0;
-            } else {
-                carry = (Long.compareUnsigned(temp, this.data[i]) < 0 && Long.compareUnsigned(temp, b.data[i]) < 0)
-                                        ? 1 : 0;
-            }
-            
-            data[i] = temp;
-        }
-        
+        //Ripple the carry up from the least significant long
+        long sum = l31 + b.l31;
+        long carry = CommonUtils.carryOut(l31, b.l31, sum);
+        l31 = sum;
+        sum = l30 + b.l30 + carry;
+        carry = CommonUtils.carryOut(l30, b.l30, sum);
+        l30 = sum;
+        sum = l29 + b.l29 + carry;
+        carry = CommonUtils.carryOut(l29, b.l29, sum);
+        l29 = sum;
+        sum = l28 + b.l28 + carry;
+        carry = CommonUtils.carryOut(l28, b.l28, sum);
+        l28 = sum;
+        sum = l27 + b.l27 + carry;
+        carry = CommonUtils.carryOut(l27, b.l27, sum);
+        l27 = sum;
+        sum = l26 + b.l26 + carry;
+        carry = CommonUtils.carryOut(l26, b.l26, sum);
+        l26 = sum;
+        sum = l25 + b.l25 + carry;
+        carry = CommonUtils.carryOut(l25, b.l25, sum);
+        l25 = sum;
+        sum = l24 + b.l24 + carry;
+        carry = CommonUtils.carryOut(l24, b.l24, sum);
+        l24 = sum;
+        sum = l23 + b.l23 + carry;
+        carry = CommonUtils.carryOut(l23, b.l23, sum);
+        l23 = sum;
+        sum = l22 + b.l22 + carry;
+        carry = CommonUtils.carryOut(l22, b.l22, sum);
+        l22 = sum;
+        sum = l21 + b.l21 + carry;
+        carry = CommonUtils.carryOut(l21, b.l21, sum);
+        l21 = sum;
+        sum = l20 + b.l20 + carry;
+        carry = CommonUtils.carryOut(l20, b.l20, sum);
+        l20 = sum;
+        sum = l19 + b.l19 + carry;
+        carry = CommonUtils.carryOut(l19, b.l19, sum);
+        l19 = sum;
+        sum = l18 + b.l18 + carry;
+        carry = CommonUtils.carryOut(l18, b.l18, sum);
+        l18 = sum;
+        sum = l17 + b.l17 + carry;
+        carry = CommonUtils.carryOut(l17, b.l17, sum);
+        l17 = sum;
+        sum = l16 + b.l16 + carry;
+        carry = CommonUtils.carryOut(l16, b.l16, sum);
+        l16 = sum;
+        sum = l15 + b.l15 + carry;
+        carry = CommonUtils.carryOut(l15, b.l15, sum);
+        l15 = sum;
+        sum = l14 + b.l14 + carry;
+        carry = CommonUtils.carryOut(l14, b.l14, sum);
+        l14 = sum;
+        sum = l13 + b.l13 + carry;
+        carry = CommonUtils.carryOut(l13, b.l13, sum);
+        l13 = sum;
+        sum = l12 + b.l12 + carry;
+        carry = CommonUtils.carryOut(l12, b.l12, sum);
+        l12 = sum;
+        sum = l11 + b.l11 + carry;
+        carry = CommonUtils.carryOut(l11, b.l11, sum);
+        l11 = sum;
+        sum = l10 + b.l10 + carry;
+        carry = CommonUtils.carryOut(l10, b.l10, sum);
+        l10 = sum;
+        sum = l9 + b.l9 + carry;
+        carry = CommonUtils.carryOut(l9, b.l9, sum);
+        l9 = sum;
+        sum = l8 + b.l8 + carry;
+        carry = CommonUtils.carryOut(l8, b.l8, sum);
+        l8 = sum;
+        sum = l7 + b.l7 + carry;
+        carry = CommonUtils.carryOut(l7, b.l7, sum);
+        l7 = sum;
+        sum = l6 + b.l6 + carry;
+        carry = CommonUtils.carryOut(l6, b.l6, sum);
+        l6 = sum;
+        sum = l5 + b.l5 + carry;
+        carry = CommonUtils.carryOut(l5, b.l5, sum);
+        l5 = sum;
+        sum = l4 + b.l4 + carry;
+        carry = CommonUtils.carryOut(l4, b.l4, sum);
+        l4 = sum;
+        sum = l3 + b.l3 + carry;
+        carry = CommonUtils.carryOut(l3, b.l3, sum);
+        l3 = sum;
+        sum = l2 + b.l2 + carry;
+        carry = CommonUtils.carryOut(l2, b.l2, sum);
+        l2 = sum;
+        sum = l1 + b.l1 + carry;
+        carry = CommonUtils.carryOut(l1, b.l1, sum);
+        l1 = sum;
+        l0 += b.l0 + carry;
         return this;
     }
 
@@ -160,11 +405,72 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 negate() {
-        for (int i = 0; i < LONGS; i++) {
-            data[i] = ~data[i];
-        }
-        
-        return add(ONE);
+        //Two's complement is invert and add one, and the one only carries through longs that are zero
+        l31 = -l31;
+        long carry = l31 == 0 ? 1 : 0;
+        l30 = ~l30 + carry;
+        carry &= l30 == 0 ? 1 : 0;
+        l29 = ~l29 + carry;
+        carry &= l29 == 0 ? 1 : 0;
+        l28 = ~l28 + carry;
+        carry &= l28 == 0 ? 1 : 0;
+        l27 = ~l27 + carry;
+        carry &= l27 == 0 ? 1 : 0;
+        l26 = ~l26 + carry;
+        carry &= l26 == 0 ? 1 : 0;
+        l25 = ~l25 + carry;
+        carry &= l25 == 0 ? 1 : 0;
+        l24 = ~l24 + carry;
+        carry &= l24 == 0 ? 1 : 0;
+        l23 = ~l23 + carry;
+        carry &= l23 == 0 ? 1 : 0;
+        l22 = ~l22 + carry;
+        carry &= l22 == 0 ? 1 : 0;
+        l21 = ~l21 + carry;
+        carry &= l21 == 0 ? 1 : 0;
+        l20 = ~l20 + carry;
+        carry &= l20 == 0 ? 1 : 0;
+        l19 = ~l19 + carry;
+        carry &= l19 == 0 ? 1 : 0;
+        l18 = ~l18 + carry;
+        carry &= l18 == 0 ? 1 : 0;
+        l17 = ~l17 + carry;
+        carry &= l17 == 0 ? 1 : 0;
+        l16 = ~l16 + carry;
+        carry &= l16 == 0 ? 1 : 0;
+        l15 = ~l15 + carry;
+        carry &= l15 == 0 ? 1 : 0;
+        l14 = ~l14 + carry;
+        carry &= l14 == 0 ? 1 : 0;
+        l13 = ~l13 + carry;
+        carry &= l13 == 0 ? 1 : 0;
+        l12 = ~l12 + carry;
+        carry &= l12 == 0 ? 1 : 0;
+        l11 = ~l11 + carry;
+        carry &= l11 == 0 ? 1 : 0;
+        l10 = ~l10 + carry;
+        carry &= l10 == 0 ? 1 : 0;
+        l9 = ~l9 + carry;
+        carry &= l9 == 0 ? 1 : 0;
+        l8 = ~l8 + carry;
+        carry &= l8 == 0 ? 1 : 0;
+        l7 = ~l7 + carry;
+        carry &= l7 == 0 ? 1 : 0;
+        l6 = ~l6 + carry;
+        carry &= l6 == 0 ? 1 : 0;
+        l5 = ~l5 + carry;
+        carry &= l5 == 0 ? 1 : 0;
+        l4 = ~l4 + carry;
+        carry &= l4 == 0 ? 1 : 0;
+        l3 = ~l3 + carry;
+        carry &= l3 == 0 ? 1 : 0;
+        l2 = ~l2 + carry;
+        carry &= l2 == 0 ? 1 : 0;
+        l1 = ~l1 + carry;
+        carry &= l1 == 0 ? 1 : 0;
+        l0 = ~l0 + carry;
+
+        return this;
     }
 
     /**
@@ -187,7 +493,102 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 subtract(Int2048 b) {
-        return add(Int2048.negate(b));
+        //Ripple the borrow up from the least significant long
+        long difference = l31 - b.l31;
+        long borrow = CommonUtils.borrowOut(l31, b.l31, difference);
+        l31 = difference;
+        difference = l30 - b.l30 - borrow;
+        borrow = CommonUtils.borrowOut(l30, b.l30, difference);
+        l30 = difference;
+        difference = l29 - b.l29 - borrow;
+        borrow = CommonUtils.borrowOut(l29, b.l29, difference);
+        l29 = difference;
+        difference = l28 - b.l28 - borrow;
+        borrow = CommonUtils.borrowOut(l28, b.l28, difference);
+        l28 = difference;
+        difference = l27 - b.l27 - borrow;
+        borrow = CommonUtils.borrowOut(l27, b.l27, difference);
+        l27 = difference;
+        difference = l26 - b.l26 - borrow;
+        borrow = CommonUtils.borrowOut(l26, b.l26, difference);
+        l26 = difference;
+        difference = l25 - b.l25 - borrow;
+        borrow = CommonUtils.borrowOut(l25, b.l25, difference);
+        l25 = difference;
+        difference = l24 - b.l24 - borrow;
+        borrow = CommonUtils.borrowOut(l24, b.l24, difference);
+        l24 = difference;
+        difference = l23 - b.l23 - borrow;
+        borrow = CommonUtils.borrowOut(l23, b.l23, difference);
+        l23 = difference;
+        difference = l22 - b.l22 - borrow;
+        borrow = CommonUtils.borrowOut(l22, b.l22, difference);
+        l22 = difference;
+        difference = l21 - b.l21 - borrow;
+        borrow = CommonUtils.borrowOut(l21, b.l21, difference);
+        l21 = difference;
+        difference = l20 - b.l20 - borrow;
+        borrow = CommonUtils.borrowOut(l20, b.l20, difference);
+        l20 = difference;
+        difference = l19 - b.l19 - borrow;
+        borrow = CommonUtils.borrowOut(l19, b.l19, difference);
+        l19 = difference;
+        difference = l18 - b.l18 - borrow;
+        borrow = CommonUtils.borrowOut(l18, b.l18, difference);
+        l18 = difference;
+        difference = l17 - b.l17 - borrow;
+        borrow = CommonUtils.borrowOut(l17, b.l17, difference);
+        l17 = difference;
+        difference = l16 - b.l16 - borrow;
+        borrow = CommonUtils.borrowOut(l16, b.l16, difference);
+        l16 = difference;
+        difference = l15 - b.l15 - borrow;
+        borrow = CommonUtils.borrowOut(l15, b.l15, difference);
+        l15 = difference;
+        difference = l14 - b.l14 - borrow;
+        borrow = CommonUtils.borrowOut(l14, b.l14, difference);
+        l14 = difference;
+        difference = l13 - b.l13 - borrow;
+        borrow = CommonUtils.borrowOut(l13, b.l13, difference);
+        l13 = difference;
+        difference = l12 - b.l12 - borrow;
+        borrow = CommonUtils.borrowOut(l12, b.l12, difference);
+        l12 = difference;
+        difference = l11 - b.l11 - borrow;
+        borrow = CommonUtils.borrowOut(l11, b.l11, difference);
+        l11 = difference;
+        difference = l10 - b.l10 - borrow;
+        borrow = CommonUtils.borrowOut(l10, b.l10, difference);
+        l10 = difference;
+        difference = l9 - b.l9 - borrow;
+        borrow = CommonUtils.borrowOut(l9, b.l9, difference);
+        l9 = difference;
+        difference = l8 - b.l8 - borrow;
+        borrow = CommonUtils.borrowOut(l8, b.l8, difference);
+        l8 = difference;
+        difference = l7 - b.l7 - borrow;
+        borrow = CommonUtils.borrowOut(l7, b.l7, difference);
+        l7 = difference;
+        difference = l6 - b.l6 - borrow;
+        borrow = CommonUtils.borrowOut(l6, b.l6, difference);
+        l6 = difference;
+        difference = l5 - b.l5 - borrow;
+        borrow = CommonUtils.borrowOut(l5, b.l5, difference);
+        l5 = difference;
+        difference = l4 - b.l4 - borrow;
+        borrow = CommonUtils.borrowOut(l4, b.l4, difference);
+        l4 = difference;
+        difference = l3 - b.l3 - borrow;
+        borrow = CommonUtils.borrowOut(l3, b.l3, difference);
+        l3 = difference;
+        difference = l2 - b.l2 - borrow;
+        borrow = CommonUtils.borrowOut(l2, b.l2, difference);
+        l2 = difference;
+        difference = l1 - b.l1 - borrow;
+        borrow = CommonUtils.borrowOut(l1, b.l1, difference);
+        l1 = difference;
+        l0 -= b.l0 + borrow;
+        return this;
     }
 
     /**
@@ -197,8 +598,12 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 shiftLeft(int bits) {
-        this.data = com.sergeysav.bignum.CommonUtils.shiftLeft(this.data, bits);
-        return this;    }
+        long[] longs = SCRATCH.get().left;
+        getLongs(longs);
+        CommonUtils.shiftLeftInPlace(longs, bits);
+        setLongs(longs);
+        return this;
+    }
 
     /**
      * Shift this integer right by a given number of bits
@@ -209,8 +614,12 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 shiftRightUnsigned(int bits) {
-        this.data = com.sergeysav.bignum.CommonUtils.shiftRightUnsigned(this.data, bits);
-        return this;    }
+        long[] longs = SCRATCH.get().left;
+        getLongs(longs);
+        CommonUtils.shiftRightUnsignedInPlace(longs, bits);
+        setLongs(longs);
+        return this;
+    }
 
     /**
      * Shift this integer right by a given number of bits
@@ -221,7 +630,10 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 shiftRightSigned(int bits) {
-        this.data = com.sergeysav.bignum.CommonUtils.shiftRightSigned(this.data, bits);
+        long[] longs = SCRATCH.get().left;
+        getLongs(longs);
+        CommonUtils.shiftRightSignedInPlace(longs, bits);
+        setLongs(longs);
         return this;
     }
 
@@ -269,7 +681,7 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return 0 if the bit is 0, 1 if the bit is 1
      */
     public int getBit(int bit) {
-        return getBit(data, bit);
+        return (int) (getLong(LONGS - 1 - (bit / 64)) >>> (bit % 64)) & 1;
     }
 
     /**
@@ -279,21 +691,280 @@ public final class Int2048 implements Comparable<Int2048> {
      * @param val the value to set (either 0 or 1)
      */
     public void setBit(int bit, int val) {
-        setBit(data, bit, val);
+        int index = LONGS - 1 - (bit / 64);
+        if (val == 0) {
+            setLong(index, getLong(index) & ~(1L << (bit % 64)));
+        } else {
+            setLong(index, getLong(index) | (1L << (bit % 64)));
+        }
     }
 
-    private static int getBit(long[] longs, int bit) {
-        return (longs[longs.length - 1 - (bit / 64)] & (1L << (bit % 64))) != 0 ? 1 : 0;
+    /**
+     * Get one of the longs storing this integer
+     *
+     * @param index the index of the long (0 is the most significant)
+     * @return the long at that index
+     */
+    private long getLong(int index) {
+        switch (index) {
+            case 0:
+                return l0;
+            case 1:
+                return l1;
+            case 2:
+                return l2;
+            case 3:
+                return l3;
+            case 4:
+                return l4;
+            case 5:
+                return l5;
+            case 6:
+                return l6;
+            case 7:
+                return l7;
+            case 8:
+                return l8;
+            case 9:
+                return l9;
+            case 10:
+                return l10;
+            case 11:
+                return l11;
+            case 12:
+                return l12;
+            case 13:
+                return l13;
+            case 14:
+                return l14;
+            case 15:
+                return l15;
+            case 16:
+                return l16;
+            case 17:
+                return l17;
+            case 18:
+                return l18;
+            case 19:
+                return l19;
+            case 20:
+                return l20;
+            case 21:
+                return l21;
+            case 22:
+                return l22;
+            case 23:
+                return l23;
+            case 24:
+                return l24;
+            case 25:
+                return l25;
+            case 26:
+                return l26;
+            case 27:
+                return l27;
+            case 28:
+                return l28;
+            case 29:
+                return l29;
+            case 30:
+                return l30;
+            case 31:
+                return l31;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + LONGS);
+        }
     }
 
-    private static void setBit(long[] longs, int bit, int val) {
-        if (val == 0) {
-            longs[longs.length - 1 - (bit / 64)] &= ~(1L << (bit % 64));
-        } else {
-            longs[longs.length - 1 - (bit / 64)] |= (1L << (bit % 64));
+    /**
+     * Set one of the longs storing this integer
+     *
+     * @param index the index of the long (0 is the most significant)
+     * @param value the new value of the long
+     */
+    private void setLong(int index, long value) {
+        switch (index) {
+            case 0:
+                l0 = value;
+                break;
+            case 1:
+                l1 = value;
+                break;
+            case 2:
+                l2 = value;
+                break;
+            case 3:
+                l3 = value;
+                break;
+            case 4:
+                l4 = value;
+                break;
+            case 5:
+                l5 = value;
+                break;
+            case 6:
+                l6 = value;
+                break;
+            case 7:
+                l7 = value;
+                break;
+            case 8:
+                l8 = value;
+                break;
+            case 9:
+                l9 = value;
+                break;
+            case 10:
+                l10 = value;
+                break;
+            case 11:
+                l11 = value;
+                break;
+            case 12:
+                l12 = value;
+                break;
+            case 13:
+                l13 = value;
+                break;
+            case 14:
+                l14 = value;
+                break;
+            case 15:
+                l15 = value;
+                break;
+            case 16:
+                l16 = value;
+                break;
+            case 17:
+                l17 = value;
+                break;
+            case 18:
+                l18 = value;
+                break;
+            case 19:
+                l19 = value;
+                break;
+            case 20:
+                l20 = value;
+                break;
+            case 21:
+                l21 = value;
+                break;
+            case 22:
+                l22 = value;
+                break;
+            case 23:
+                l23 = value;
+                break;
+            case 24:
+                l24 = value;
+                break;
+            case 25:
+                l25 = value;
+                break;
+            case 26:
+                l26 = value;
+                break;
+            case 27:
+                l27 = value;
+                break;
+            case 28:
+                l28 = value;
+                break;
+            case 29:
+                l29 = value;
+                break;
+            case 30:
+                l30 = value;
+                break;
+            case 31:
+                l31 = value;
+                break;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + LONGS);
         }
     }
 
+    /**
+     * Copy the longs storing this integer into an array
+     *
+     * @param longs the array to copy into (most significant long first)
+     */
+    private void getLongs(long[] longs) {
+        longs[0] = l0;
+        longs[1] = l1;
+        longs[2] = l2;
+        longs[3] = l3;
+        longs[4] = l4;
+        longs[5] = l5;
+        longs[6] = l6;
+        longs[7] = l7;
+        longs[8] = l8;
+        longs[9] = l9;
+        longs[10] = l10;
+        longs[11] = l11;
+        longs[12] = l12;
+        longs[13] = l13;
+        longs[14] = l14;
+        longs[15] = l15;
+        longs[16] = l16;
+        longs[17] = l17;
+        longs[18] = l18;
+        longs[19] = l19;
+        longs[20] = l20;
+        longs[21] = l21;
+        longs[22] = l22;
+        longs[23] = l23;
+        longs[24] = l24;
+        longs[25] = l25;
+        longs[26] = l26;
+        longs[27] = l27;
+        longs[28] = l28;
+        longs[29] = l29;
+        longs[30] = l30;
+        longs[31] = l31;
+    }
+
+    /**
+     * Set the longs storing this integer from an array
+     *
+     * @param longs the array to copy from (most significant long first)
+     */
+    private void setLongs(long[] longs) {
+        l0 = longs[0];
+        l1 = longs[1];
+        l2 = longs[2];
+        l3 = longs[3];
+        l4 = longs[4];
+        l5 = longs[5];
+        l6 = longs[6];
+        l7 = longs[7];
+        l8 = longs[8];
+        l9 = longs[9];
+        l10 = longs[10];
+        l11 = longs[11];
+        l12 = longs[12];
+        l13 = longs[13];
+        l14 = longs[14];
+        l15 = longs[15];
+        l16 = longs[16];
+        l17 = longs[17];
+        l18 = longs[18];
+        l19 = longs[19];
+        l20 = longs[20];
+        l21 = longs[21];
+        l22 = longs[22];
+        l23 = longs[23];
+        l24 = longs[24];
+        l25 = longs[25];
+        l26 = longs[26];
+        l27 = longs[27];
+        l28 = longs[28];
+        l29 = longs[29];
+        l30 = longs[30];
+        l31 = longs[31];
+    }
+
     /**
      * Multiply a given integer by this one
      *
@@ -303,22 +974,16 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 multiply(Int2048 b) {
-        long[] oldData = data;
-        this.data = new long[LONGS];
-
-        Int2048 shifting = new Int2048(b);
-        int shiftAmount = 0;
-
-        for (int i = LONGS - 1; i >= 0; i--) {
-            for (int j = 0; j < 64; j++) {
-                if (getBit(oldData, j +  64 * (LONGS - 1 - i)) != 0) {
-                    shifting.shiftLeft(shiftAmount);
-                    add(shifting);
-                    shiftAmount = 0;
-                }
-                shiftAmount++;
-            }
+        Scratch scratch = SCRATCH.get();
+        getLongs(scratch.left);
+        b.getLongs(scratch.right);
+        if (LONGS > CommonUtils.KARATSUBA_THRESHOLD) {
+            CommonUtils.multiplyLowKaratsuba(scratch.left, 0, scratch.right, 0, LONGS, scratch.product, 0,
+                                             scratch.karatsuba, 0, CommonUtils.KARATSUBA_THRESHOLD);
+        } else {
+            CommonUtils.multiplyLowSchoolbook(scratch.left, 0, scratch.right, 0, LONGS, scratch.product, 0);
         }
+        setLongs(scratch.product);
 
         return this;
     }
@@ -343,7 +1008,7 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 divide(Int2048 divisor) {
-        this.data = division(this, divisor)[0].data;
+        setLongs(divideInScratch(this, divisor).left);
         return this;
     }
 
@@ -355,7 +1020,7 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return the result of the division
      */
     public static Int2048 divide(Int2048 dividend, Int2048 divisor) {
-        return division(dividend, divisor)[0];
+        return new Int2048(dividend).divide(divisor);
     }
 
     /**
@@ -367,7 +1032,7 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 remainder(Int2048 divisor) {
-        this.data = division(this, divisor)[1].data;
+        setLongs(divideInScratch(this, divisor).right);
         return this;
     }
 
@@ -379,48 +1044,62 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return the remainder of the division
      */
     public static Int2048 remainder(Int2048 dividend, Int2048 divisor) {
-        return division(dividend, divisor)[1];
+        return new Int2048(dividend).remainder(divisor);
     }
 
     /**
      * Combined division and remainder method
      *
+     * The quotient is rounded towards zero and the remainder has the same sign as the dividend
+     *
      * @param n the numerator or dividend integer
      * @param d the denominator or divisor integer
      * @return an array where the first element is the quotient and the second is the remainder
+     * @throws ArithmeticException if the divisor is zero
      */
     public static Int2048[] division(Int2048 n, Int2048 d) {
-        Int2048 q = new Int2048(); //q = 0
-        Int2048 r = new Int2048(); //r = 0
+        Scratch scratch = divideInScratch(n, d);
+        Int2048 q = new Int2048();
+        Int2048 r = new Int2048();
+        q.setLongs(scratch.left);
+        r.setLongs(scratch.right);
+        return new Int2048[] {q, r};
+    }
 
-        boolean isFirstN = false;
+    /**
+     * Divide two integers leaving the quotient in the left scratch array and the remainder in the right one
+     *
+     * @param n the numerator or dividend integer
+     * @param d the denominator or divisor integer
+     * @return this thread's scratch space
+     * @throws ArithmeticException if the divisor is zero
+     */
+    private static Scratch divideInScratch(Int2048 n, Int2048 d) {
+        boolean negativeN = n.l0 < 0;
+        boolean negativeD = d.l0 < 0;
 
-        boolean flipSigns = false;
-        if (n.compareTo(ZERO) < 0) {
-            flipSigns = true;
-            n = Int2048.negate(n);
+        //Divide the magnitudes in place (the magnitude of MIN_VALUE is still correct when treated as unsigned)
+        Scratch scratch = SCRATCH.get();
+        long[] q = scratch.left;
+        long[] r = scratch.right;
+        n.getLongs(q);
+        d.getLongs(r);
+        if (negativeN) {
+            CommonUtils.negateInPlace(q);
         }
-        if (d.compareTo(ZERO) < 0) {
-            flipSigns = !flipSigns;
-            d = Int2048.negate(d);
+        if (negativeD) {
+            CommonUtils.negateInPlace(r);
         }
 
-        for (int i = LONGS * 64 - 1; i >= 0; i--) {
-            if (isFirstN || n.getBit(i) != 0) {
-                isFirstN = true;
-                r.shiftLeft(1);
-                r.setBit(0, n.getBit(i));
-                if (r.compareTo(d) >= 0) {
-                    r.subtract(d);
-                    q.setBit(i, 1);
-                }
-            }
-        }
+        CommonUtils.divideUnsigned(q, r, q, r, scratch.normalizedDividend, scratch.normalizedDivisor);
 
-        if (flipSigns) {
-            return new Int2048[] {q.negate(), r.negate()};
+        if (negativeN != negativeD) {
+            CommonUtils.negateInPlace(q);
         }
-        return new Int2048[] {q, r};
+        if (negativeN) {
+            CommonUtils.negateInPlace(r);
+        }
+        return scratch;
     }
 
     /**
@@ -431,7 +1110,7 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return this for chaining
      */
     public Int2048 abs() {
-        if (compareTo(ZERO) < 0) {
+        if (l0 < 0) {
             return negate();
         }
         return this;
@@ -452,33 +1131,50 @@ public final class Int2048 implements Comparable<Int2048> {
         if (this == o) return true;
         if (!(o instanceof Int2048)) return false;
         Int2048 int128 = (Int2048) o;
-        return Arrays.equals(data, int128.data);
+        return l0 == int128.l0 && l1 == int128.l1 && l2 == int128.l2 && l3 == int128.l3 && l4 == int128.l4 && l5 == int128.l5 && l6 == int128.l6 && l7 == int128.l7 && l8 == int128.l8 && l9 == int128.l9 && l10 == int128.l10 && l11 == int128.l11 && l12 == int128.l12 && l13 == int128.l13 && l14 == int128.l14 && l15 == int128.l15 && l16 == int128.l16 && l17 == int128.l17 && l18 == int128.l18 && l19 == int128.l19 && l20 == int128.l20 && l21 == int128.l21 && l22 == int128.l22 && l23 == int128.l23 && l24 == int128.l24 && l25 == int128.l25 && l26 == int128.l26 && l27 == int128.l27 && l28 == int128.l28 && l29 == int128.l29 && l30 == int128.l30 && l31 == int128.l31;
     }
     
     @Override
     public int hashCode() {
-        return Arrays.hashCode(data);
+        int result = 1;
+        result = 31 * result + Long.hashCode(l0);
+        result = 31 * result + Long.hashCode(l1);
+        result = 31 * result + Long.hashCode(l2);
+        result = 31 * result + Long.hashCode(l3);
+        result = 31 * result + Long.hashCode(l4);
+        result = 31 * result + Long.hashCode(l5);
+        result = 31 * result + Long.hashCode(l6);
+        result = 31 * result + Long.hashCode(l7);
+        result = 31 * result + Long.hashCode(l8);
+        result = 31 * result + Long.hashCode(l9);
+        result = 31 * result + Long.hashCode(l10);
+        result = 31 * result + Long.hashCode(l11);
+        result = 31 * result + Long.hashCode(l12);
+        result = 31 * result + Long.hashCode(l13);
+        result = 31 * result + Long.hashCode(l14);
+        result = 31 * result + Long.hashCode(l15);
+        result = 31 * result + Long.hashCode(l16);
+        result = 31 * result + Long.hashCode(l17);
+        result = 31 * result + Long.hashCode(l18);
+        result = 31 * result + Long.hashCode(l19);
+        result = 31 * result + Long.hashCode(l20);
+        result = 31 * result + Long.hashCode(l21);
+        result = 31 * result + Long.hashCode(l22);
+        result = 31 * result + Long.hashCode(l23);
+        result = 31 * result + Long.hashCode(l24);
+        result = 31 * result + Long.hashCode(l25);
+        result = 31 * result + Long.hashCode(l26);
+        result = 31 * result + Long.hashCode(l27);
+        result = 31 * result + Long.hashCode(l28);
+        result = 31 * result + Long.hashCode(l29);
+        result = 31 * result + Long.hashCode(l30);
+        result = 31 * result + Long.hashCode(l31);
+        return result;
     }
     
     @Override
     public String toString() {
-        if (this.equals(ZERO)) {
-            return "0";
-        }
-
-        StringBuilder builder = new StringBuilder();
-
-        Int2048[] divisionResults = new Int2048[] {this};
-        do {
-            divisionResults = division(divisionResults[0], TEN);
-            builder.append(Math.abs(divisionResults[1].data[LONGS - 1]));
-        } while (!divisionResults[0].equals(ZERO));
-
-        if (compareTo(ZERO) < 0) {
-            builder.append('-');
-        }
-
-        return builder.reverse().toString();
+        return toDecimalString(false);
     }
 
     /**
@@ -487,42 +1183,171 @@ public final class Int2048 implements Comparable<Int2048> {
      * @return a decimal representation of this number
      */
     public String toStringCommas() {
-        if (this.equals(ZERO)) {
-            return "0";
+        return toDecimalString(true);
+    }
+
+    /**
+     * Convert this number to decimal by repeatedly dividing its magnitude by 10^18
+     *
+     * @param commas whether to separate each group of three digits with a comma
+     * @return a decimal representation of this number
+     */
+    private String toDecimalString(boolean commas) {
+        boolean negative = l0 < 0;
+        //The magnitude of MIN_VALUE is still correct when treated as unsigned
+        long[] magnitude = SCRATCH.get().left;
+        getLongs(magnitude);
+        if (negative) {
+            CommonUtils.negateInPlace(magnitude);
         }
 
-        StringBuilder builder = new StringBuilder();
+        //Digits are written from the end of the buffer backwards
+        char[] buffer = DIGITS.get();
+        int pos = buffer.length;
+        int digits = 0;
 
-        Int2048[] divisionResults = new Int2048[] {this};
-        int seps = 0;
-        do {
-            if (seps == 3) {
-                seps = 0;
-                builder.append(',');
+        int from = 0;
+        while (from < LONGS && magnitude[from] == 0) {
+            from++;
+        }
+        while (from < LONGS) {
+            long chunk = CommonUtils.divideInPlace(magnitude, from, DECIMAL_CHUNK);
+            while (from < LONGS && magnitude[from] == 0) {
+                from++;
             }
-            divisionResults = division(divisionResults[0], TEN);
-            builder.append(Math.abs(divisionResults[1].data[LONGS - 1]));
-            seps++;
-        } while (!divisionResults[0].equals(ZERO));
 
-        if (compareTo(ZERO) < 0) {
-            builder.append('-');
+            //Every chunk but the most significant one is padded with zeros to its full width
+            int chunkDigits = 0;
+            do {
+                if (commas && digits > 0 && digits % 3 == 0) {
+                    buffer[--pos] = ',';
+                }
+                buffer[--pos] = (char) ('0' + chunk % 10);
+                chunk /= 10;
+                digits++;
+                chunkDigits++;
+            } while (from < LONGS ? chunkDigits < DECIMAL_CHUNK_DIGITS : chunk != 0);
         }
 
-        return builder.reverse().toString();
+        if (digits == 0) {
+            buffer[--pos] = '0';
+        }
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+
+        return new String(buffer, pos, buffer.length - pos);
     }
 
     @Override
     public int compareTo(Int2048 o) {
-        if (this.equals(o)) {
-            return 0;
+        //The most significant long carries the sign so it is compared signed, the rest are compared unsigned
+        if (l0 != o.l0) {
+            return Long.compare(l0, o.l0);
         }
-        if (o.equals(ZERO)) {
-            if (this.getBit(64 * LONGS - 1) != 0) { //If negative
-                return -1;
-            }
-            return 1;
+        if (l1 != o.l1) {
+            return Long.compareUnsigned(l1, o.l1);
+        }
+        if (l2 != o.l2) {
+            return Long.compareUnsigned(l2, o.l2);
+        }
+        if (l3 != o.l3) {
+            return Long.compareUnsigned(l3, o.l3);
+        }
+        if (l4 != o.l4) {
+            return Long.compareUnsigned(l4, o.l4);
+        }
+        if (l5 != o.l5) {
+            return Long.compareUnsigned(l5, o.l5);
+        }
+        if (l6 != o.l6) {
+            return Long.compareUnsigned(l6, o.l6);
+        }
+        if (l7 != o.l7) {
+            return Long.compareUnsigned(l7, o.l7);
+        }
+        if (l8 != o.l8) {
+            return Long.compareUnsigned(l8, o.l8);
+        }
+        if (l9 != o.l9) {
+            return Long.compareUnsigned(l9, o.l9);
+        }
+        if (l10 != o.l10) {
+            return Long.compareUnsigned(l10, o.l10);
+        }
+        if (l11 != o.l11) {
+            return Long.compareUnsigned(l11, o.l11);
+        }
+        if (l12 != o.l12) {
+            return Long.compareUnsigned(l12, o.l12);
+        }
+        if (l13 != o.l13) {
+            return Long.compareUnsigned(l13, o.l13);
+        }
+        if (l14 != o.l14) {
+            return Long.compareUnsigned(l14, o.l14);
+        }
+        if (l15 != o.l15) {
+            return Long.compareUnsigned(l15, o.l15);
         }
-        return subtract(this, o).compareTo(ZERO);
+        if (l16 != o.l16) {
+            return Long.compareUnsigned(l16, o.l16);
+        }
+        if (l17 != o.l17) {
+            return Long.compareUnsigned(l17, o.l17);
+        }
+        if (l18 != o.l18) {
+            return Long.compareUnsigned(l18, o.l18);
+        }
+        if (l19 != o.l19) {
+            return Long.compareUnsigned(l19, o.l19);
+        }
+        if (l20 != o.l20) {
+            return Long.compareUnsigned(l20, o.l20);
+        }
+        if (l21 != o.l21) {
+            return Long.compareUnsigned(l21, o.l21);
+        }
+        if (l22 != o.l22) {
+            return Long.compareUnsigned(l22, o.l22);
+        }
+        if (l23 != o.l23) {
+            return Long.compareUnsigned(l23, o.l23);
+        }
+        if (l24 != o.l24) {
+            return Long.compareUnsigned(l24, o.l24);
+        }
+        if (l25 != o.l25) {
+            return Long.compareUnsigned(l25, o.l25);
+        }
+        if (l26 != o.l26) {
+            return Long.compareUnsigned(l26, o.l26);
+        }
+        if (l27 != o.l27) {
+            return Long.compareUnsigned(l27, o.l27);
+        }
+        if (l28 != o.l28) {
+            return Long.compareUnsigned(l28, o.l28);
+        }
+        if (l29 != o.l29) {
+            return Long.compareUnsigned(l29, o.l29);
+        }
+        if (l30 != o.l30) {
+            return Long.compareUnsigned(l30, o.l30);
+        }
+        return Long.compareUnsigned(l31, o.l31);
+    }
+
+    /**
+     * Per thread arrays used by the algorithms that work on arrays of longs
+     */
+    private static final class Scratch {
+        private final long[] left = new long[LONGS];
+        private final long[] right = new long[LONGS];
+        private final long[] product = new long[LONGS];
+        private final long[] karatsuba = new long[LONGS > CommonUtils.KARATSUBA_THRESHOLD ?
+                                                  CommonUtils.karatsubaScratchSize(LONGS) : 0];
+        private final long[] normalizedDivisor = new long[LONGS];
+        private final long[] normalizedDividend = new long[LONGS + 1];
     }
 }
@@ -37,15 +37,36 @@ public final class Int512 implements Comparable<Int512> {
     public static final Int512 MIN_VALUE = Int512.bytesOf(Long.MIN_VALUE, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
 
     /**
-     * The backing bits (stored as longs)
+     * Arrays that the limbs are copied into for the algorithms that work on arrays of longs
      */
-    private long[] data;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * The largest power of ten that fits into a long, used to convert to decimal 18 digits at a time
+     */
+    private static final long DECIMAL_CHUNK = 1_000_000_000_000_000_000L;
+    private static final int DECIMAL_CHUNK_DIGITS = 18;
+
+    /**
+     * An upper bound on the number of decimal digits (log10(2) is just below 0.30103)
+     */
+    private static final int MAX_DIGITS = (LONGS * 64 * 30103 + 99999) / 100000;
+
+    /**
+     * Buffer for building decimal strings (room for the digits, the commas and a sign)
+     */
+    private static final ThreadLocal<char[]> DIGITS =
+            ThreadLocal.withInitial(() -> new char[MAX_DIGITS + MAX_DIGITS / 3 + 1]);
+
+    /**
+     * The backing bits (stored as longs with the most significant one first)
+     */
+    private long l0, l1, l2, l3, l4, l5, l6, l7;
 
     /**
      * Create a new integer equaling zero
      */
     public Int512() {
-        data = new long[LONGS];
     }
 
     /**
@@ -54,9 +75,14 @@ public final class Int512 implements Comparable<Int512> {
      * @param other the integer value to copy
      */
     public Int512(Int512 other) {
-        this();
-        
-        System.arraycopy(other.data, 0, this.data, 0, LONGS);
+        this.l0 = other.l0;
+        this.l1 = other.l1;
+        this.l2 = other.l2;
+        this.l3 = other.l3;
+        this.l4 = other.l4;
+        this.l5 = other.l5;
+        this.l6 = other.l6;
+        this.l7 = other.l7;
     }
 
     /**
@@ -70,15 +96,18 @@ public final class Int512 implements Comparable<Int512> {
     public static Int512 from(long num) {
         Int512 val = new Int512();
 
-        //Copy the long
-        val.data[LONGS - 1] = num;
-
         //Sign extension
-        if (num < 0) {
-            for (int i = 0; i < LONGS - 1; i++) {
-                val.data[i] = -1L;
-            }
-        }
+        long extension = num >> 63;
+        val.l0 = extension;
+        val.l1 = extension;
+        val.l2 = extension;
+        val.l3 = extension;
+        val.l4 = extension;
+        val.l5 = extension;
+        val.l6 = extension;
+
+        //Copy the long
+        val.l7 = num;
         
         return val;
     }
@@ -98,11 +127,100 @@ public final class Int512 implements Comparable<Int512> {
 
         Int512 val = new Int512();
 
-        System.arraycopy(parts, 0, val.data, 0, LONGS);
+        val.setLongs(parts);
 
         return val;
     }
 
+    /**
+     * Parses a decimal integer
+     *
+     * @param s the characters to parse (an optional sign followed by decimal digits)
+     * @return the parsed integer
+     * @throws NumberFormatException if the characters are not an integer or the value does not fit in 512 bits
+     */
+    public static Int512 parse(CharSequence s) {
+        return parse(s, 0, s.length(), 10);
+    }
+
+    /**
+     * Parses an integer in the given radix
+     *
+     * @param s the characters to parse (an optional sign followed by digits)
+     * @param radix the radix of the digits
+     * @return the parsed integer
+     * @throws NumberFormatException if the characters are not an integer or the value does not fit in 512 bits
+     */
+    public static Int512 parse(CharSequence s, int radix) {
+        return parse(s, 0, s.length(), radix);
+    }
+
+    /**
+     * Parses an integer in the given radix from part of a sequence of characters without copying it
+     *
+     * @param s the characters containing the integer (an optional sign followed by digits)
+     * @param beginIndex the index of the first character to parse
+     * @param endIndex the index after the last character to parse
+     * @param radix the radix of the digits
+     * @return the parsed integer
+     * @throws NumberFormatException if the characters are not an integer or the value does not fit in 512 bits
+     */
+    public static Int512 parse(CharSequence s, int beginIndex, int endIndex, int radix) {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException("Range [" + beginIndex + ", " + endIndex + ") out of bounds for length " + s.length());
+        }
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("Radix " + radix + " out of range");
+        }
+
+        int i = beginIndex;
+        boolean negative = false;
+        if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (i == endIndex) {
+            throw parseException("No digits", s, beginIndex, endIndex);
+        }
+
+        //Accumulate as many digits as fit into a long at once, the leftover digits go first so the rest are full chunks
+        long[] magnitude = SCRATCH.get().left;
+        Arrays.fill(magnitude, 0);
+        int chunkDigits = CommonUtils.radixChunkDigits(radix);
+        long chunkMultiplier = CommonUtils.radixChunk(radix);
+        int chunkEnd = i + (endIndex - i - 1) % chunkDigits + 1;
+        while (i < endIndex) {
+            long chunk = 0;
+            for (; i < chunkEnd; i++) {
+                int digit = Character.digit(s.charAt(i), radix);
+                if (digit < 0) {
+                    throw parseException("Invalid digit", s, beginIndex, endIndex);
+                }
+                chunk = chunk * radix + digit;
+            }
+            if (CommonUtils.multiplyAddInPlace(magnitude, chunkMultiplier, chunk) != 0) {
+                throw parseException("Value out of range", s, beginIndex, endIndex);
+            }
+            chunkEnd += chunkDigits;
+        }
+
+        //The magnitude has to leave the sign bit clear, except for MIN_VALUE whose magnitude is only the sign bit
+        Int512 val = new Int512();
+        val.setLongs(magnitude);
+        if (val.l0 < 0 && !(negative && val.equals(MIN_VALUE))) {
+            throw parseException("Value out of range", s, beginIndex, endIndex);
+        }
+        if (negative) {
+            val.negate();
+        }
+
+        return val;
+    }
+
+    private static NumberFormatException parseException(String reason, CharSequence s, int beginIndex, int endIndex) {
+        return new NumberFormatException(reason + " for Int512: \"" + s.subSequence(beginIndex, endIndex) + "\"");
+    }
+
     /**
      * Add two integers returning a new integer object
      *
@@ -123,22 +241,29 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 add(Int512 b) {
-        long carry = 0;
-    
-        for (int i = LONGS - 1; i >= 0; i--) {
-            long temp = this.data[i] + b.data[i] + carry;
-
-            if (carry == 1){
-                carry = (Long.compareUnsigned(temp, this.data[i]) <= 0 && Long.compareUnsigned(temp, b.data[i]) <= 0)
-                                        ? 1 : 0;
-            } else {
-                carry = (Long.compareUnsigned(temp, this.data[i]) < 0 && Long.compareUnsigned(temp, b.data[i]) < 0)
-                                        ? 1 : 0;
-            }
-            
-            data[i] = temp;
-        }
-        
+        //Ripple the carry up from the least significant long
+        long sum = l7 + b.l7;
+        long carry = CommonUtils.carryOut(l7, b.l7, sum);
+        l7 = sum;
+        sum = l6 + b.l6 + carry;
+        carry = CommonUtils.carryOut(l6, b.l6, sum);
+        l6 = sum;
+        sum = l5 + b.l5 + carry;
+        carry = CommonUtils.carryOut(l5, b.l5, sum);
+        l5 = sum;
+        sum = l4 + b.l4 + carry;
+        carry = CommonUtils.carryOut(l4, b.l4, sum);
+        l4 = sum;
+        sum = l3 + b.l3 + carry;
+        carry = CommonUtils.carryOut(l3, b.l3, sum);
+        l3 = sum;
+        sum = l2 + b.l2 + carry;
+        carry = CommonUtils.carryOut(l2, b.l2, sum);
+        l2 = sum;
+        sum = l1 + b.l1 + carry;
+        carry = CommonUtils.carryOut(l1, b.l1, sum);
+        l1 = sum;
+        l0 += b.l0 + carry;
         return this;
     }
 
@@ -160,11 +285,24 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 negate() {
-        for (int i = 0; i < LONGS; i++) {
-            data[i] = ~data[i];
-        }
-        
-        return add(ONE);
+        //Two's complement is invert and add one, and the one only carries through longs that are zero
+        l7 = -l7;
+        long carry = l7 == 0 ? 1 : 0;
+        l6 = ~l6 + carry;
+        carry &= l6 == 0 ? 1 : 0;
+        l5 = ~l5 + carry;
+        carry &= l5 == 0 ? 1 : 0;
+        l4 = ~l4 + carry;
+        carry &= l4 == 0 ? 1 : 0;
+        l3 = ~l3 + carry;
+        carry &= l3 == 0 ? 1 : 0;
+        l2 = ~l2 + carry;
+        carry &= l2 == 0 ? 1 : 0;
+        l1 = ~l1 + carry;
+        carry &= l1 == 0 ? 1 : 0;
+        l0 = ~l0 + carry;
+
+        return this;
     }
 
     /**
@@ -187,7 +325,30 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 subtract(Int512 b) {
-        return add(Int512.negate(b));
+        //Ripple the borrow up from the least significant long
+        long difference = l7 - b.l7;
+        long borrow = CommonUtils.borrowOut(l7, b.l7, difference);
+        l7 = difference;
+        difference = l6 - b.l6 - borrow;
+        borrow = CommonUtils.borrowOut(l6, b.l6, difference);
+        l6 = difference;
+        difference = l5 - b.l5 - borrow;
+        borrow = CommonUtils.borrowOut(l5, b.l5, difference);
+        l5 = difference;
+        difference = l4 - b.l4 - borrow;
+        borrow = CommonUtils.borrowOut(l4, b.l4, difference);
+        l4 = difference;
+        difference = l3 - b.l3 - borrow;
+        borrow = CommonUtils.borrowOut(l3, b.l3, difference);
+        l3 = difference;
+        difference = l2 - b.l2 - borrow;
+        borrow = CommonUtils.borrowOut(l2, b.l2, difference);
+        l2 = difference;
+        difference = l1 - b.l1 - borrow;
+        borrow = CommonUtils.borrowOut(l1, b.l1, difference);
+        l1 = difference;
+        l0 -= b.l0 + borrow;
+        return this;
     }
 
     /**
@@ -197,8 +358,12 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 shiftLeft(int bits) {
-        this.data = com.sergeysav.bignum.CommonUtils.shiftLeft(this.data, bits);
-        return this;    }
+        long[] longs = SCRATCH.get().left;
+        getLongs(longs);
+        CommonUtils.shiftLeftInPlace(longs, bits);
+        setLongs(longs);
+        return this;
+    }
 
     /**
      * Shift this integer right by a given number of bits
@@ -209,8 +374,12 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 shiftRightUnsigned(int bits) {
-        this.data = com.sergeysav.bignum.CommonUtils.shiftRightUnsigned(this.data, bits);
-        return this;    }
+        long[] longs = SCRATCH.get().left;
+        getLongs(longs);
+        CommonUtils.shiftRightUnsignedInPlace(longs, bits);
+        setLongs(longs);
+        return this;
+    }
 
     /**
      * Shift this integer right by a given number of bits
@@ -221,7 +390,10 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 shiftRightSigned(int bits) {
-        this.data = com.sergeysav.bignum.CommonUtils.shiftRightSigned(this.data, bits);
+        long[] longs = SCRATCH.get().left;
+        getLongs(longs);
+        CommonUtils.shiftRightSignedInPlace(longs, bits);
+        setLongs(longs);
         return this;
     }
 
@@ -269,7 +441,7 @@ public final class Int512 implements Comparable<Int512> {
      * @return 0 if the bit is 0, 1 if the bit is 1
      */
     public int getBit(int bit) {
-        return getBit(data, bit);
+        return (int) (getLong(LONGS - 1 - (bit / 64)) >>> (bit % 64)) & 1;
     }
 
     /**
@@ -279,21 +451,112 @@ public final class Int512 implements Comparable<Int512> {
      * @param val the value to set (either 0 or 1)
      */
     public void setBit(int bit, int val) {
-        setBit(data, bit, val);
+        int index = LONGS - 1 - (bit / 64);
+        if (val == 0) {
+            setLong(index, getLong(index) & ~(1L << (bit % 64)));
+        } else {
+            setLong(index, getLong(index) | (1L << (bit % 64)));
+        }
     }
 
-    private static int getBit(long[] longs, int bit) {
-        return (longs[longs.length - 1 - (bit / 64)] & (1L << (bit % 64))) != 0 ? 1 : 0;
+    /**
+     * Get one of the longs storing this integer
+     *
+     * @param index the index of the long (0 is the most significant)
+     * @return the long at that index
+     */
+    private long getLong(int index) {
+        switch (index) {
+            case 0:
+                return l0;
+            case 1:
+                return l1;
+            case 2:
+                return l2;
+            case 3:
+                return l3;
+            case 4:
+                return l4;
+            case 5:
+                return l5;
+            case 6:
+                return l6;
+            case 7:
+                return l7;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + LONGS);
+        }
     }
 
-    private static void setBit(long[] longs, int bit, int val) {
-        if (val == 0) {
-            longs[longs.length - 1 - (bit / 64)] &= ~(1L << (bit % 64));
-        } else {
-            longs[longs.length - 1 - (bit / 64)] |= (1L << (bit % 64));
+    /**
+     * Set one of the longs storing this integer
+     *
+     * @param index the index of the long (0 is the most significant)
+     * @param value the new value of the long
+     */
+    private void setLong(int index, long value) {
+        switch (index) {
+            case 0:
+                l0 = value;
+                break;
+            case 1:
+                l1 = value;
+                break;
+            case 2:
+                l2 = value;
+                break;
+            case 3:
+                l3 = value;
+                break;
+            case 4:
+                l4 = value;
+                break;
+            case 5:
+                l5 = value;
+                break;
+            case 6:
+                l6 = value;
+                break;
+            case 7:
+                l7 = value;
+                break;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + LONGS);
         }
     }
 
+    /**
+     * Copy the longs storing this integer into an array
+     *
+     * @param longs the array to copy into (most significant long first)
+     */
+    private void getLongs(long[] longs) {
+        longs[0] = l0;
+        longs[1] = l1;
+        longs[2] = l2;
+        longs[3] = l3;
+        longs[4] = l4;
+        longs[5] = l5;
+        longs[6] = l6;
+        longs[7] = l7;
+    }
+
+    /**
+     * Set the longs storing this integer from an array
+     *
+     * @param longs the array to copy from (most significant long first)
+     */
+    private void setLongs(long[] longs) {
+        l0 = longs[0];
+        l1 = longs[1];
+        l2 = longs[2];
+        l3 = longs[3];
+        l4 = longs[4];
+        l5 = longs[5];
+        l6 = longs[6];
+        l7 = longs[7];
+    }
+
     /**
      * Multiply a given integer by this one
      *
@@ -303,22 +566,11 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 multiply(Int512 b) {
-        long[] oldData = data;
-        this.data = new long[LONGS];
-
-        Int512 shifting = new Int512(b);
-        int shiftAmount = 0;
-
-        for (int i = LONGS - 1; i >= 0; i--) {
-            for (int j = 0; j < 64; j++) {
-                if (getBit(oldData, j +  64 * (LONGS - 1 - i)) != 0) {
-                    shifting.shiftLeft(shiftAmount);
-                    add(shifting);
-                    shiftAmount = 0;
-                }
-                shiftAmount++;
-            }
-        }
+        Scratch scratch = SCRATCH.get();
+        getLongs(scratch.left);
+        b.getLongs(scratch.right);
+        CommonUtils.multiplyLowSchoolbook(scratch.left, 0, scratch.right, 0, LONGS, scratch.product, 0);
+        setLongs(scratch.product);
 
         return this;
     }
@@ -343,7 +595,7 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 divide(Int512 divisor) {
-        this.data = division(this, divisor)[0].data;
+        setLongs(divideInScratch(this, divisor).left);
         return this;
     }
 
@@ -355,7 +607,7 @@ public final class Int512 implements Comparable<Int512> {
      * @return the result of the division
      */
     public static Int512 divide(Int512 dividend, Int512 divisor) {
-        return division(dividend, divisor)[0];
+        return new Int512(dividend).divide(divisor);
     }
 
     /**
@@ -367,7 +619,7 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 remainder(Int512 divisor) {
-        this.data = division(this, divisor)[1].data;
+        setLongs(divideInScratch(this, divisor).right);
         return this;
     }
 
@@ -379,48 +631,62 @@ public final class Int512 implements Comparable<Int512> {
      * @return the remainder of the division
      */
     public static Int512 remainder(Int512 dividend, Int512 divisor) {
-        return division(dividend, divisor)[1];
+        return new Int512(dividend).remainder(divisor);
     }
 
     /**
      * Combined division and remainder method
      *
+     * The quotient is rounded towards zero and the remainder has the same sign as the dividend
+     *
      * @param n the numerator or dividend integer
      * @param d the denominator or divisor integer
      * @return an array where the first element is the quotient and the second is the remainder
+     * @throws ArithmeticException if the divisor is zero
      */
     public static Int512[] division(Int512 n, Int512 d) {
-        Int512 q = new Int512(); //q = 0
-        Int512 r = new Int512(); //r = 0
-
-        boolean isFirstN = false;
+        Scratch scratch = divideInScratch(n, d);
+        Int512 q = new Int512();
+        Int512 r = new Int512();
+        q.setLongs(scratch.left);
+        r.setLongs(scratch.right);
+        return new Int512[] {q, r};
+    }
 
-        boolean flipSigns = false;
-        if (n.compareTo(ZERO) < 0) {
-            flipSigns = true;
-            n = Int512.negate(n);
+    /**
+     * Divide two integers leaving the quotient in the left scratch array and the remainder in the right one
+     *
+     * @param n the numerator or dividend integer
+     * @param d the denominator or divisor integer
+     * @return this thread's scratch space
+     * @throws ArithmeticException if the divisor is zero
+     */
+    private static Scratch divideInScratch(Int512 n, Int512 d) {
+        boolean negativeN = n.l0 < 0;
+        boolean negativeD = d.l0 < 0;
+
+        //Divide the magnitudes in place (the magnitude of MIN_VALUE is still correct when treated as unsigned)
+        Scratch scratch = SCRATCH.get();
+        long[] q = scratch.left;
+        long[] r = scratch.right;
+        n.getLongs(q);
+        d.getLongs(r);
+        if (negativeN) {
+            CommonUtils.negateInPlace(q);
         }
-        if (d.compareTo(ZERO) < 0) {
-            flipSigns = !flipSigns;
-            d = Int512.negate(d);
+        if (negativeD) {
+            CommonUtils.negateInPlace(r);
         }
 
-        for (int i = LONGS * 64 - 1; i >= 0; i--) {
-            if (isFirstN || n.getBit(i) != 0) {
-                isFirstN = true;
-                r.shiftLeft(1);
-                r.setBit(0, n.getBit(i));
-                if (r.compareTo(d) >= 0) {
-                    r.subtract(d);
-                    q.setBit(i, 1);
-                }
-            }
-        }
+        CommonUtils.divideUnsigned(q, r, q, r, scratch.normalizedDividend, scratch.normalizedDivisor);
 
-        if (flipSigns) {
-            return new Int512[] {q.negate(), r.negate()};
+        if (negativeN != negativeD) {
+            CommonUtils.negateInPlace(q);
         }
-        return new Int512[] {q, r};
+        if (negativeN) {
+            CommonUtils.negateInPlace(r);
+        }
+        return scratch;
     }
 
     /**
@@ -431,7 +697,7 @@ public final class Int512 implements Comparable<Int512> {
      * @return this for chaining
      */
     public Int512 abs() {
-        if (compareTo(ZERO) < 0) {
+        if (l0 < 0) {
             return negate();
         }
         return this;
@@ -452,33 +718,26 @@ public final class Int512 implements Comparable<Int512> {
         if (this == o) return true;
         if (!(o instanceof Int512)) return false;
         Int512 int128 = (Int512) o;
-        return Arrays.equals(data, int128.data);
+        return l0 == int128.l0 && l1 == int128.l1 && l2 == int128.l2 && l3 == int128.l3 && l4 == int128.l4 && l5 == int128.l5 && l6 == int128.l6 && l7 == int128.l7;
     }
     
     @Override
     public int hashCode() {
-        return Arrays.hashCode(data);
+        int result = 1;
+        result = 31 * result + Long.hashCode(l0);
+        result = 31 * result + Long.hashCode(l1);
+        result = 31 * result + Long.hashCode(l2);
+        result = 31 * result + Long.hashCode(l3);
+        result = 31 * result + Long.hashCode(l4);
+        result = 31 * result + Long.hashCode(l5);
+        result = 31 * result + Long.hashCode(l6);
+        result = 31 * result + Long.hashCode(l7);
+        return result;
     }
     
     @Override
     public String toString() {
-        if (this.equals(ZERO)) {
-            return "0";
-        }
-
-        StringBuilder builder = new StringBuilder();
-
-        Int512[] divisionResults = new Int512[] {this};
-        do {
-            divisionResults = division(divisionResults[0], TEN);
-            builder.append(Math.abs(divisionResults[1].data[LONGS - 1]));
-        } while (!divisionResults[0].equals(ZERO));
-
-        if (compareTo(ZERO) < 0) {
-            builder.append('-');
-        }
-
-        return builder.reverse().toString();
+        return toDecimalString(false);
     }
 
     /**
@@ -487,42 +746,97 @@ public final class Int512 implements Comparable<Int512> {
      * @return a decimal representation of this number
      */
     public String toStringCommas() {
-        if (this.equals(ZERO)) {
-            return "0";
+        return toDecimalString(true);
+    }
+
+    /**
+     * Convert this number to decimal by repeatedly dividing its magnitude by 10^18
+     *
+     * @param commas whether to separate each group of three digits with a comma
+     * @return a decimal representation of this number
+     */
+    private String toDecimalString(boolean commas) {
+        boolean negative = l0 < 0;
+        //The magnitude of MIN_VALUE is still correct when treated as unsigned
+        long[] magnitude = SCRATCH.get().left;
+        getLongs(magnitude);
+        if (negative) {
+            CommonUtils.negateInPlace(magnitude);
         }
 
-        StringBuilder builder = new StringBuilder();
+        //Digits are written from the end of the buffer backwards
+        char[] buffer = DIGITS.get();
+        int pos = buffer.length;
+        int digits = 0;
 
-        Int512[] divisionResults = new Int512[] {this};
-        int seps = 0;
-        do {
-            if (seps == 3) {
-                seps = 0;
-                builder.append(',');
+        int from = 0;
+        while (from < LONGS && magnitude[from] == 0) {
+            from++;
+        }
+        while (from < LONGS) {
+            long chunk = CommonUtils.divideInPlace(magnitude, from, DECIMAL_CHUNK);
+            while (from < LONGS && magnitude[from] == 0) {
+                from++;
             }
-            divisionResults = division(divisionResults[0], TEN);
-            builder.append(Math.abs(divisionResults[1].data[LONGS - 1]));
-            seps++;
-        } while (!divisionResults[0].equals(ZERO));
 
-        if (compareTo(ZERO) < 0) {
-            builder.append('-');
+            //Every chunk but the most significant one is padded with zeros to its full width
+            int chunkDigits = 0;
+            do {
+                if (commas && digits > 0 && digits % 3 == 0) {
+                    buffer[--pos] = ',';
+                }
+                buffer[--pos] = (char) ('0' + chunk % 10);
+                chunk /= 10;
+                digits++;
+                chunkDigits++;
+            } while (from < LONGS ? chunkDigits < DECIMAL_CHUNK_DIGITS : chunk != 0);
+        }
+
+        if (digits == 0) {
+            buffer[--pos] = '0';
+        }
+        if (negative) {
+            buffer[--pos] = '-';
         }
 
-        return builder.reverse().toString();
+        return new String(buffer, pos, buffer.length - pos);
     }
 
     @Override
     public int compareTo(Int512 o) {
-        if (this.equals(o)) {
-            return 0;
+        //The most significant long carries the sign so it is compared signed, the rest are compared unsigned
+        if (l0 != o.l0) {
+            return Long.compare(l0, o.l0);
         }
-        if (o.equals(ZERO)) {
-            if (this.getBit(64 * LONGS - 1) != 0) { //If negative
-                return -1;
-            }
-            return 1;
+        if (l1 != o.l1) {
+            return Long.compareUnsigned(l1, o.l1);
+        }
+        if (l2 != o.l2) {
+            return Long.compareUnsigned(l2, o.l2);
+        }
+        if (l3 != o.l3) {
+            return Long.compareUnsigned(l3, o.l3);
         }
-        return subtract(this, o).compareTo(ZERO);
+        if (l4 != o.l4) {
+            return Long.compareUnsigned(l4, o.l4);
+        }
+        if (l5 != o.l5) {
+            return Long.compareUnsigned(l5, o.l5);
+        }
+        if (l6 != o.l6) {
+            return Long.compareUnsigned(l6, o.l6);
+        }
+        return Long.compareUnsigned(l7, o.l7);
+    }
+
+    /**
+     * Per thread arrays used by the algorithms that work on arrays of longs
+     */
+    private static final class Scratch {
+        private final long[] left = new long[LONGS];
+        private final long[] right = new long[LONGS];
+        private final long[] product = new long[LONGS];
+        private final long[] normalizedDivisor = new long[LONGS];
+        private final long[] normalizedDividend = new long[LONGS + 1];
     }
 }
@@ -8,6 +8,14 @@ import java.util.stream.IntStream;
  */
 public class IntXGenerator {
 
+    /**
+     * The narrowest integer (in longs) that gets a Karatsuba path in multiply
+     *
+     * Schoolbook multiplication still wins at 32 limbs for every threshold KaratsubaTiming tries, so below this the
+     * Karatsuba path could never be worth taking and only the schoolbook call is generated
+     */
+    private static final int KARATSUBA_MIN_LONGS = 32;
+
     private int longs;
     private int bits;
 
@@ -15,6 +23,9 @@ public class IntXGenerator {
         if (x % 64 != 0) {
             throw new IllegalArgumentException("Parameter must be a multiple of 64");
         }
+        if (x < 128) {
+            throw new IllegalArgumentException("Parameter must be at least 128");
+        }
 
         longs = x / 64;
         bits = x;
@@ -62,15 +73,36 @@ public class IntXGenerator {
                 Collectors.joining(", ")) + ");\n" +
                "\n" +
                "    /**\n" +
-               "     * The backing bits (stored as longs)\n" +
+               "     * Arrays that the limbs are copied into for the algorithms that work on arrays of longs\n" +
+               "     */\n" +
+               "    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);\n" +
+               "\n" +
+               "    /**\n" +
+               "     * The largest power of ten that fits into a long, used to convert to decimal 18 digits at a time\n" +
+               "     */\n" +
+               "    private static final long DECIMAL_CHUNK = 1_000_000_000_000_000_000L;\n" +
+               "    private static final int DECIMAL_CHUNK_DIGITS = 18;\n" +
+               "\n" +
+               "    /**\n" +
+               "     * An upper bound on the number of decimal digits (log10(2) is just below 0.30103)\n" +
+               "     */\n" +
+               "    private static final int MAX_DIGITS = (LONGS * 64 * 30103 + 99999) / 100000;\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Buffer for building decimal strings (room for the digits, the commas and a sign)\n" +
+               "     */\n" +
+               "    private static final ThreadLocal<char[]> DIGITS =\n" +
+               "            ThreadLocal.withInitial(() -> new char[MAX_DIGITS + MAX_DIGITS / 3 + 1]);\n" +
+               "\n" +
+               "    /**\n" +
+               "     * The backing bits (stored as longs with the most significant one first)\n" +
                "     */\n" +
-               "    private long[] data;\n" +
+               "    private long " + joinLimbs("l#", ", ") + ";\n" +
                "\n" +
                "    /**\n" +
                "     * Create a new integer equaling zero\n" +
                "     */\n" +
                "    public Int" + bits + "() {\n" +
-               "        data = new long[LONGS];\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -79,9 +111,7 @@ public class IntXGenerator {
                "     * @param other the integer value to copy\n" +
                "     */\n" +
                "    public Int" + bits + "(Int" + bits + " other) {\n" +
-               "        this();\n" +
-               "        \n" +
-               "        System.arraycopy(other.data, 0, this.data, 0, LONGS);\n" +
+               limbs("        this.l# = other.l#;\n") +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -95,15 +125,12 @@ public class IntXGenerator {
                "    public static Int" + bits + " from(long num) {\n" +
                "        Int" + bits + " val = new Int" + bits + "();\n" +
                "\n" +
-               "        //Copy the long\n" +
-               "        val.data[LONGS - 1] = num;\n" +
-               "\n" +
                "        //Sign extension\n" +
-               "        if (num < 0) {\n" +
-               "            for (int i = 0; i < LONGS - 1; i++) {\n" +
-               "                val.data[i] = -1L;\n" +
-               "            }\n" +
-               "        }\n" +
+               "        long extension = num >> 63;\n" +
+               limbs("        val.l# = extension;\n", 0, longs - 1) +
+               "\n" +
+               "        //Copy the long\n" +
+               limb("        val.l# = num;\n", longs - 1) +
                "        \n" +
                "        return val;\n" +
                "    }\n" +
@@ -123,12 +150,101 @@ public class IntXGenerator {
                "\n" +
                "        Int" + bits + " val = new Int" + bits + "();\n" +
                "\n" +
-               "        System.arraycopy(parts, 0, val.data, 0, LONGS);\n" +
+               "        val.setLongs(parts);\n" +
                "\n" +
                "        return val;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
+               "     * Parses a decimal integer\n" +
+               "     *\n" +
+               "     * @param s the characters to parse (an optional sign followed by decimal digits)\n" +
+               "     * @return the parsed integer\n" +
+               "     * @throws NumberFormatException if the characters are not an integer or the value does not fit in " + bits + " bits\n" +
+               "     */\n" +
+               "    public static Int" + bits + " parse(CharSequence s) {\n" +
+               "        return parse(s, 0, s.length(), 10);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Parses an integer in the given radix\n" +
+               "     *\n" +
+               "     * @param s the characters to parse (an optional sign followed by digits)\n" +
+               "     * @param radix the radix of the digits\n" +
+               "     * @return the parsed integer\n" +
+               "     * @throws NumberFormatException if the characters are not an integer or the value does not fit in " + bits + " bits\n" +
+               "     */\n" +
+               "    public static Int" + bits + " parse(CharSequence s, int radix) {\n" +
+               "        return parse(s, 0, s.length(), radix);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Parses an integer in the given radix from part of a sequence of characters without copying it\n" +
+               "     *\n" +
+               "     * @param s the characters containing the integer (an optional sign followed by digits)\n" +
+               "     * @param beginIndex the index of the first character to parse\n" +
+               "     * @param endIndex the index after the last character to parse\n" +
+               "     * @param radix the radix of the digits\n" +
+               "     * @return the parsed integer\n" +
+               "     * @throws NumberFormatException if the characters are not an integer or the value does not fit in " + bits + " bits\n" +
+               "     */\n" +
+               "    public static Int" + bits + " parse(CharSequence s, int beginIndex, int endIndex, int radix) {\n" +
+               "        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {\n" +
+               "            throw new IndexOutOfBoundsException(\"Range [\" + beginIndex + \", \" + endIndex + \") out of bounds for length \" + s.length());\n" +
+               "        }\n" +
+               "        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {\n" +
+               "            throw new NumberFormatException(\"Radix \" + radix + \" out of range\");\n" +
+               "        }\n" +
+               "\n" +
+               "        int i = beginIndex;\n" +
+               "        boolean negative = false;\n" +
+               "        if (i < endIndex && (s.charAt(i) == '-' || s.charAt(i) == '+')) {\n" +
+               "            negative = s.charAt(i) == '-';\n" +
+               "            i++;\n" +
+               "        }\n" +
+               "        if (i == endIndex) {\n" +
+               "            throw parseException(\"No digits\", s, beginIndex, endIndex);\n" +
+               "        }\n" +
+               "\n" +
+               "        //Accumulate as many digits as fit into a long at once, the leftover digits go first so the rest are full chunks\n" +
+               "        long[] magnitude = SCRATCH.get().left;\n" +
+               "        Arrays.fill(magnitude, 0);\n" +
+               "        int chunkDigits = CommonUtils.radixChunkDigits(radix);\n" +
+               "        long chunkMultiplier = CommonUtils.radixChunk(radix);\n" +
+               "        int chunkEnd = i + (endIndex - i - 1) % chunkDigits + 1;\n" +
+               "        while (i < endIndex) {\n" +
+               "            long chunk = 0;\n" +
+               "            for (; i < chunkEnd; i++) {\n" +
+               "                int digit = Character.digit(s.charAt(i), radix);\n" +
+               "                if (digit < 0) {\n" +
+               "                    throw parseException(\"Invalid digit\", s, beginIndex, endIndex);\n" +
+               "                }\n" +
+               "                chunk = chunk * radix + digit;\n" +
+               "            }\n" +
+               "            if (CommonUtils.multiplyAddInPlace(magnitude, chunkMultiplier, chunk) != 0) {\n" +
+               "                throw parseException(\"Value out of range\", s, beginIndex, endIndex);\n" +
+               "            }\n" +
+               "            chunkEnd += chunkDigits;\n" +
+               "        }\n" +
+               "\n" +
+               "        //The magnitude has to leave the sign bit clear, except for MIN_VALUE whose magnitude is only the sign bit\n" +
+               "        Int" + bits + " val = new Int" + bits + "();\n" +
+               "        val.setLongs(magnitude);\n" +
+               "        if (val.l0 < 0 && !(negative && val.equals(MIN_VALUE))) {\n" +
+               "            throw parseException(\"Value out of range\", s, beginIndex, endIndex);\n" +
+               "        }\n" +
+               "        if (negative) {\n" +
+               "            val.negate();\n" +
+               "        }\n" +
+               "\n" +
+               "        return val;\n" +
+               "    }\n" +
+               "\n" +
+               "    private static NumberFormatException parseException(String reason, CharSequence s, int beginIndex, int endIndex) {\n" +
+               "        return new NumberFormatException(reason + \" for Int" + bits + ": \\\"\" + s.subSequence(beginIndex, endIndex) + \"\\\"\");\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
                "     * Add two integers returning a new integer object\n" +
                "     *\n" +
                "     * @param a the first integer\n" +
@@ -148,22 +264,10 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " add(Int" + bits + " b) {\n" +
-               "        long carry = 0;\n" +
-               "    \n" +
-               "        for (int i = LONGS - 1; i >= 0; i--) {\n" +
-               "            long temp = this.data[i] + b.data[i] + carry;\n" +
-               "\n" +
-               "            if (carry == 1){\n" +
-               "                carry = (Long.compareUnsigned(temp, this.data[i]) <= 0 && Long.compareUnsigned(temp, b.data[i]) <= 0)\n" +
-               "                                        ? 1 : 0;\n" +
-               "            } else {\n" +
-               "                carry = (Long.compareUnsigned(temp, this.data[i]) < 0 && Long.compareUnsigned(temp, b.data[i]) < 0)\n" +
-               "                                        ? 1 : 0;\n" +
-               "            }\n" +
-               "            \n" +
-               "            data[i] = temp;\n" +
-               "        }\n" +
-               "        \n" +
+               "        //Ripple the carry up from the least significant long\n" +
+               limb("        long sum = l# + b.l#;\n        long carry = CommonUtils.carryOut(l#, b.l#, sum);\n        l# = sum;\n", longs - 1) +
+               limbsReversed("        sum = l# + b.l# + carry;\n        carry = CommonUtils.carryOut(l#, b.l#, sum);\n        l# = sum;\n", 1, longs - 1) +
+               "        l0 += b.l0 + carry;\n" +
                "        return this;\n" +
                "    }\n" +
                "\n" +
@@ -185,11 +289,12 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " negate() {\n" +
-               "        for (int i = 0; i < LONGS; i++) {\n" +
-               "            data[i] = ~data[i];\n" +
-               "        }\n" +
-               "        \n" +
-               "        return add(ONE);\n" +
+               "        //Two's complement is invert and add one, and the one only carries through longs that are zero\n" +
+               limb("        l# = -l#;\n        long carry = l# == 0 ? 1 : 0;\n", longs - 1) +
+               limbsReversed("        l# = ~l# + carry;\n        carry &= l# == 0 ? 1 : 0;\n", 1, longs - 1) +
+               "        l0 = ~l0 + carry;\n" +
+               "\n" +
+               "        return this;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -212,7 +317,11 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " subtract(Int" + bits + " b) {\n" +
-               "        return add(Int" + bits + ".negate(b));\n" +
+               "        //Ripple the borrow up from the least significant long\n" +
+               limb("        long difference = l# - b.l#;\n        long borrow = CommonUtils.borrowOut(l#, b.l#, difference);\n        l# = difference;\n", longs - 1) +
+               limbsReversed("        difference = l# - b.l# - borrow;\n        borrow = CommonUtils.borrowOut(l#, b.l#, difference);\n        l# = difference;\n", 1, longs - 1) +
+               "        l0 -= b.l0 + borrow;\n" +
+               "        return this;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -222,8 +331,11 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " shiftLeft(int bits) {\n" +
-               "        this.data = com.sergeysav.bignum.CommonUtils.shiftLeft(this.data, bits);\n" +
-               "        return this;" +
+               "        long[] longs = SCRATCH.get().left;\n" +
+               "        getLongs(longs);\n" +
+               "        CommonUtils.shiftLeftInPlace(longs, bits);\n" +
+               "        setLongs(longs);\n" +
+               "        return this;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -235,8 +347,11 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " shiftRightUnsigned(int bits) {\n" +
-               "        this.data = com.sergeysav.bignum.CommonUtils.shiftRightUnsigned(this.data, bits);\n" +
-               "        return this;" +
+               "        long[] longs = SCRATCH.get().left;\n" +
+               "        getLongs(longs);\n" +
+               "        CommonUtils.shiftRightUnsignedInPlace(longs, bits);\n" +
+               "        setLongs(longs);\n" +
+               "        return this;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -248,7 +363,10 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " shiftRightSigned(int bits) {\n" +
-               "        this.data = com.sergeysav.bignum.CommonUtils.shiftRightSigned(this.data, bits);\n" +
+               "        long[] longs = SCRATCH.get().left;\n" +
+               "        getLongs(longs);\n" +
+               "        CommonUtils.shiftRightSignedInPlace(longs, bits);\n" +
+               "        setLongs(longs);\n" +
                "        return this;\n" +
                "    }\n" +
                "\n" +
@@ -296,7 +414,7 @@ public class IntXGenerator {
                "     * @return 0 if the bit is 0, 1 if the bit is 1\n" +
                "     */\n" +
                "    public int getBit(int bit) {\n" +
-               "        return getBit(data, bit);\n" +
+               "        return (int) (getLong(LONGS - 1 - (bit / 64)) >>> (bit % 64)) & 1;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -306,22 +424,61 @@ public class IntXGenerator {
                "     * @param val the value to set (either 0 or 1)\n" +
                "     */\n" +
                "    public void setBit(int bit, int val) {\n" +
-               "        setBit(data, bit, val);\n" +
+               "        int index = LONGS - 1 - (bit / 64);\n" +
+               "        if (val == 0) {\n" +
+               "            setLong(index, getLong(index) & ~(1L << (bit % 64)));\n" +
+               "        } else {\n" +
+               "            setLong(index, getLong(index) | (1L << (bit % 64)));\n" +
+               "        }\n" +
                "    }\n" +
                "\n" +
-               "    private static int getBit(long[] longs, int bit) {\n" +
-               "        return (longs[longs.length - 1 - (bit / 64)] & (1L << (bit % 64))) != 0 ? 1 : 0;\n" +
+               "    /**\n" +
+               "     * Get one of the longs storing this integer\n" +
+               "     *\n" +
+               "     * @param index the index of the long (0 is the most significant)\n" +
+               "     * @return the long at that index\n" +
+               "     */\n" +
+               "    private long getLong(int index) {\n" +
+               "        switch (index) {\n" +
+               limbs("            case #:\n                return l#;\n") +
+               "            default:\n" +
+               "                throw new IndexOutOfBoundsException(\"Index \" + index + \" out of bounds for length \" + LONGS);\n" +
+               "        }\n" +
                "    }\n" +
                "\n" +
-               "    private static void setBit(long[] longs, int bit, int val) {\n" +
-               "        if (val == 0) {\n" +
-               "            longs[longs.length - 1 - (bit / 64)] &= ~(1L << (bit % 64));\n" +
-               "        } else {\n" +
-               "            longs[longs.length - 1 - (bit / 64)] |= (1L << (bit % 64));\n" +
+               "    /**\n" +
+               "     * Set one of the longs storing this integer\n" +
+               "     *\n" +
+               "     * @param index the index of the long (0 is the most significant)\n" +
+               "     * @param value the new value of the long\n" +
+               "     */\n" +
+               "    private void setLong(int index, long value) {\n" +
+               "        switch (index) {\n" +
+               limbs("            case #:\n                l# = value;\n                break;\n") +
+               "            default:\n" +
+               "                throw new IndexOutOfBoundsException(\"Index \" + index + \" out of bounds for length \" + LONGS);\n" +
                "        }\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
+               "     * Copy the longs storing this integer into an array\n" +
+               "     *\n" +
+               "     * @param longs the array to copy into (most significant long first)\n" +
+               "     */\n" +
+               "    private void getLongs(long[] longs) {\n" +
+               limbs("        longs[#] = l#;\n") +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Set the longs storing this integer from an array\n" +
+               "     *\n" +
+               "     * @param longs the array to copy from (most significant long first)\n" +
+               "     */\n" +
+               "    private void setLongs(long[] longs) {\n" +
+               limbs("        l# = longs[#];\n") +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
                "     * Multiply a given integer by this one\n" +
                "     *\n" +
                "     * This modifies the current integer\n" +
@@ -330,22 +487,18 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " multiply(Int" + bits + " b) {\n" +
-               "        long[] oldData = data;\n" +
-               "        this.data = new long[LONGS];\n" +
-               "\n" +
-               "        Int" + bits + " shifting = new Int" + bits + "(b);\n" +
-               "        int shiftAmount = 0;\n" +
-               "\n" +
-               "        for (int i = LONGS - 1; i >= 0; i--) {\n" +
-               "            for (int j = 0; j < 64; j++) {\n" +
-               "                if (getBit(oldData, j +  64 * (LONGS - 1 - i)) != 0) {\n" +
-               "                    shifting.shiftLeft(shiftAmount);\n" +
-               "                    add(shifting);\n" +
-               "                    shiftAmount = 0;\n" +
-               "                }\n" +
-               "                shiftAmount++;\n" +
-               "            }\n" +
-               "        }\n" +
+               "        Scratch scratch = SCRATCH.get();\n" +
+               "        getLongs(scratch.left);\n" +
+               "        b.getLongs(scratch.right);\n" +
+               (longs >= KARATSUBA_MIN_LONGS ?
+               "        if (LONGS > CommonUtils.KARATSUBA_THRESHOLD) {\n" +
+               "            CommonUtils.multiplyLowKaratsuba(scratch.left, 0, scratch.right, 0, LONGS, scratch.product, 0,\n" +
+               "                                             scratch.karatsuba, 0, CommonUtils.KARATSUBA_THRESHOLD);\n" +
+               "        } else {\n" +
+               "            CommonUtils.multiplyLowSchoolbook(scratch.left, 0, scratch.right, 0, LONGS, scratch.product, 0);\n" +
+               "        }\n" :
+               "        CommonUtils.multiplyLowSchoolbook(scratch.left, 0, scratch.right, 0, LONGS, scratch.product, 0);\n") +
+               "        setLongs(scratch.product);\n" +
                "\n" +
                "        return this;\n" +
                "    }\n" +
@@ -370,7 +523,7 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " divide(Int" + bits + " divisor) {\n" +
-               "        this.data = division(this, divisor)[0].data;\n" +
+               "        setLongs(divideInScratch(this, divisor).left);\n" +
                "        return this;\n" +
                "    }\n" +
                "\n" +
@@ -382,7 +535,7 @@ public class IntXGenerator {
                "     * @return the result of the division\n" +
                "     */\n" +
                "    public static Int" + bits + " divide(Int" + bits + " dividend, Int" + bits + " divisor) {\n" +
-               "        return division(dividend, divisor)[0];\n" +
+               "        return new Int" + bits + "(dividend).divide(divisor);\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -394,7 +547,7 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " remainder(Int" + bits + " divisor) {\n" +
-               "        this.data = division(this, divisor)[1].data;\n" +
+               "        setLongs(divideInScratch(this, divisor).right);\n" +
                "        return this;\n" +
                "    }\n" +
                "\n" +
@@ -406,48 +559,62 @@ public class IntXGenerator {
                "     * @return the remainder of the division\n" +
                "     */\n" +
                "    public static Int" + bits + " remainder(Int" + bits + " dividend, Int" + bits + " divisor) {\n" +
-               "        return division(dividend, divisor)[1];\n" +
+               "        return new Int" + bits + "(dividend).remainder(divisor);\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
                "     * Combined division and remainder method\n" +
                "     *\n" +
+               "     * The quotient is rounded towards zero and the remainder has the same sign as the dividend\n" +
+               "     *\n" +
                "     * @param n the numerator or dividend integer\n" +
                "     * @param d the denominator or divisor integer\n" +
                "     * @return an array where the first element is the quotient and the second is the remainder\n" +
+               "     * @throws ArithmeticException if the divisor is zero\n" +
                "     */\n" +
                "    public static Int" + bits + "[] division(Int" + bits + " n, Int" + bits + " d) {\n" +
-               "        Int" + bits + " q = new Int" + bits + "(); //q = 0\n" +
-               "        Int" + bits + " r = new Int" + bits + "(); //r = 0\n" +
-               "\n" +
-               "        boolean isFirstN = false;\n" +
+               "        Scratch scratch = divideInScratch(n, d);\n" +
+               "        Int" + bits + " q = new Int" + bits + "();\n" +
+               "        Int" + bits + " r = new Int" + bits + "();\n" +
+               "        q.setLongs(scratch.left);\n" +
+               "        r.setLongs(scratch.right);\n" +
+               "        return new Int" + bits + "[] {q, r};\n" +
+               "    }\n" +
                "\n" +
-               "        boolean flipSigns = false;\n" +
-               "        if (n.compareTo(ZERO) < 0) {\n" +
-               "            flipSigns = true;\n" +
-               "            n = Int" + bits + ".negate(n);\n" +
+               "    /**\n" +
+               "     * Divide two integers leaving the quotient in the left scratch array and the remainder in the right one\n" +
+               "     *\n" +
+               "     * @param n the numerator or dividend integer\n" +
+               "     * @param d the denominator or divisor integer\n" +
+               "     * @return this thread's scratch space\n" +
+               "     * @throws ArithmeticException if the divisor is zero\n" +
+               "     */\n" +
+               "    private static Scratch divideInScratch(Int" + bits + " n, Int" + bits + " d) {\n" +
+               "        boolean negativeN = n.l0 < 0;\n" +
+               "        boolean negativeD = d.l0 < 0;\n" +
+               "\n" +
+               "        //Divide the magnitudes in place (the magnitude of MIN_VALUE is still correct when treated as unsigned)\n" +
+               "        Scratch scratch = SCRATCH.get();\n" +
+               "        long[] q = scratch.left;\n" +
+               "        long[] r = scratch.right;\n" +
+               "        n.getLongs(q);\n" +
+               "        d.getLongs(r);\n" +
+               "        if (negativeN) {\n" +
+               "            CommonUtils.negateInPlace(q);\n" +
                "        }\n" +
-               "        if (d.compareTo(ZERO) < 0) {\n" +
-               "            flipSigns = !flipSigns;\n" +
-               "            d = Int" + bits + ".negate(d);\n" +
+               "        if (negativeD) {\n" +
+               "            CommonUtils.negateInPlace(r);\n" +
                "        }\n" +
                "\n" +
-               "        for (int i = LONGS * 64 - 1; i >= 0; i--) {\n" +
-               "            if (isFirstN || n.getBit(i) != 0) {\n" +
-               "                isFirstN = true;\n" +
-               "                r.shiftLeft(1);\n" +
-               "                r.setBit(0, n.getBit(i));\n" +
-               "                if (r.compareTo(d) >= 0) {\n" +
-               "                    r.subtract(d);\n" +
-               "                    q.setBit(i, 1);\n" +
-               "                }\n" +
-               "            }\n" +
-               "        }\n" +
+               "        CommonUtils.divideUnsigned(q, r, q, r, scratch.normalizedDividend, scratch.normalizedDivisor);\n" +
                "\n" +
-               "        if (flipSigns) {\n" +
-               "            return new Int" + bits + "[] {q.negate(), r.negate()};\n" +
+               "        if (negativeN != negativeD) {\n" +
+               "            CommonUtils.negateInPlace(q);\n" +
                "        }\n" +
-               "        return new Int" + bits + "[] {q, r};\n" +
+               "        if (negativeN) {\n" +
+               "            CommonUtils.negateInPlace(r);\n" +
+               "        }\n" +
+               "        return scratch;\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -458,7 +625,7 @@ public class IntXGenerator {
                "     * @return this for chaining\n" +
                "     */\n" +
                "    public Int" + bits + " abs() {\n" +
-               "        if (compareTo(ZERO) < 0) {\n" +
+               "        if (l0 < 0) {\n" +
                "            return negate();\n" +
                "        }\n" +
                "        return this;\n" +
@@ -479,33 +646,19 @@ public class IntXGenerator {
                "        if (this == o) return true;\n" +
                "        if (!(o instanceof Int" + bits + ")) return false;\n" +
                "        Int" + bits + " int128 = (Int" + bits + ") o;\n" +
-               "        return Arrays.equals(data, int128.data);\n" +
+               "        return " + joinLimbs("l# == int128.l#", " && ") + ";\n" +
                "    }\n" +
                "    \n" +
                "    @Override\n" +
                "    public int hashCode() {\n" +
-               "        return Arrays.hashCode(data);\n" +
+               "        int result = 1;\n" +
+               limbs("        result = 31 * result + Long.hashCode(l#);\n") +
+               "        return result;\n" +
                "    }\n" +
                "    \n" +
                "    @Override\n" +
                "    public String toString() {\n" +
-               "        if (this.equals(ZERO)) {\n" +
-               "            return \"0\";\n" +
-               "        }\n" +
-               "\n" +
-               "        StringBuilder builder = new StringBuilder();\n" +
-               "\n" +
-               "        Int" + bits + "[] divisionResults = new Int" + bits + "[] {this};\n" +
-               "        do {\n" +
-               "            divisionResults = division(divisionResults[0], TEN);\n" +
-               "            builder.append(Math.abs(divisionResults[1].data[LONGS - 1]));\n" +
-               "        } while (!divisionResults[0].equals(ZERO));\n" +
-               "\n" +
-               "        if (compareTo(ZERO) < 0) {\n" +
-               "            builder.append('-');\n" +
-               "        }\n" +
-               "\n" +
-               "        return builder.reverse().toString();\n" +
+               "        return toDecimalString(false);\n" +
                "    }\n" +
                "\n" +
                "    /**\n" +
@@ -514,44 +667,148 @@ public class IntXGenerator {
                "     * @return a decimal representation of this number\n" +
                "     */\n" +
                "    public String toStringCommas() {\n" +
-               "        if (this.equals(ZERO)) {\n" +
-               "            return \"0\";\n" +
+               "        return toDecimalString(true);\n" +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Convert this number to decimal by repeatedly dividing its magnitude by 10^18\n" +
+               "     *\n" +
+               "     * @param commas whether to separate each group of three digits with a comma\n" +
+               "     * @return a decimal representation of this number\n" +
+               "     */\n" +
+               "    private String toDecimalString(boolean commas) {\n" +
+               "        boolean negative = l0 < 0;\n" +
+               "        //The magnitude of MIN_VALUE is still correct when treated as unsigned\n" +
+               "        long[] magnitude = SCRATCH.get().left;\n" +
+               "        getLongs(magnitude);\n" +
+               "        if (negative) {\n" +
+               "            CommonUtils.negateInPlace(magnitude);\n" +
                "        }\n" +
                "\n" +
-               "        StringBuilder builder = new StringBuilder();\n" +
+               "        //Digits are written from the end of the buffer backwards\n" +
+               "        char[] buffer = DIGITS.get();\n" +
+               "        int pos = buffer.length;\n" +
+               "        int digits = 0;\n" +
                "\n" +
-               "        Int" + bits + "[] divisionResults = new Int" + bits + "[] {this};\n" +
-               "        int seps = 0;\n" +
-               "        do {\n" +
-               "            if (seps == 3) {\n" +
-               "                seps = 0;\n" +
-               "                builder.append(',');\n" +
+               "        int from = 0;\n" +
+               "        while (from < LONGS && magnitude[from] == 0) {\n" +
+               "            from++;\n" +
+               "        }\n" +
+               "        while (from < LONGS) {\n" +
+               "            long chunk = CommonUtils.divideInPlace(magnitude, from, DECIMAL_CHUNK);\n" +
+               "            while (from < LONGS && magnitude[from] == 0) {\n" +
+               "                from++;\n" +
                "            }\n" +
-               "            divisionResults = division(divisionResults[0], TEN);\n" +
-               "            builder.append(Math.abs(divisionResults[1].data[LONGS - 1]));\n" +
-               "            seps++;\n" +
-               "        } while (!divisionResults[0].equals(ZERO));\n" +
                "\n" +
-               "        if (compareTo(ZERO) < 0) {\n" +
-               "            builder.append('-');\n" +
+               "            //Every chunk but the most significant one is padded with zeros to its full width\n" +
+               "            int chunkDigits = 0;\n" +
+               "            do {\n" +
+               "                if (commas && digits > 0 && digits % 3 == 0) {\n" +
+               "                    buffer[--pos] = ',';\n" +
+               "                }\n" +
+               "                buffer[--pos] = (char) ('0' + chunk % 10);\n" +
+               "                chunk /= 10;\n" +
+               "                digits++;\n" +
+               "                chunkDigits++;\n" +
+               "            } while (from < LONGS ? chunkDigits < DECIMAL_CHUNK_DIGITS : chunk != 0);\n" +
+               "        }\n" +
+               "\n" +
+               "        if (digits == 0) {\n" +
+               "            buffer[--pos] = '0';\n" +
+               "        }\n" +
+               "        if (negative) {\n" +
+               "            buffer[--pos] = '-';\n" +
                "        }\n" +
                "\n" +
-               "        return builder.reverse().toString();\n" +
+               "        return new String(buffer, pos, buffer.length - pos);\n" +
                "    }\n" +
                "\n" +
                "    @Override\n" +
                "    public int compareTo(Int" + bits + " o) {\n" +
-               "        if (this.equals(o)) {\n" +
-               "            return 0;\n" +
-               "        }\n" +
-               "        if (o.equals(ZERO)) {\n" +
-               "            if (this.getBit(64 * LONGS - 1) != 0) { //If negative\n" +
-               "                return -1;\n" +
-               "            }\n" +
-               "            return 1;\n" +
+               "        //The most significant long carries the sign so it is compared signed, the rest are compared unsigned\n" +
+               "        if (l0 != o.l0) {\n" +
+               "            return Long.compare(l0, o.l0);\n" +
                "        }\n" +
-               "        return subtract(this, o).compareTo(ZERO);\n" +
+               limbs("        if (l# != o.l#) {\n            return Long.compareUnsigned(l#, o.l#);\n        }\n", 1, longs - 1) +
+               limb("        return Long.compareUnsigned(l#, o.l#);\n", longs - 1) +
+               "    }\n" +
+               "\n" +
+               "    /**\n" +
+               "     * Per thread arrays used by the algorithms that work on arrays of longs\n" +
+               "     */\n" +
+               "    private static final class Scratch {\n" +
+               "        private final long[] left = new long[LONGS];\n" +
+               "        private final long[] right = new long[LONGS];\n" +
+               "        private final long[] product = new long[LONGS];\n" +
+               (longs >= KARATSUBA_MIN_LONGS ?
+               "        private final long[] karatsuba = new long[LONGS > CommonUtils.KARATSUBA_THRESHOLD ?\n" +
+               "                                                  CommonUtils.karatsubaScratchSize(LONGS) : 0];\n" : "") +
+               "        private final long[] normalizedDivisor = new long[LONGS];\n" +
+               "        private final long[] normalizedDividend = new long[LONGS + 1];\n" +
                "    }\n" +
                "}\n";
     }
+
+    /**
+     * Write a template once for a single long of the integer
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param index the index of the long (0 is the most significant)
+     * @return the code for that long
+     */
+    private String limb(String template, int index) {
+        return template.replace("#", Integer.toString(index));
+    }
+
+    /**
+     * Write a template once for every long of the integer from the most significant one down
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @return the code for all of the longs
+     */
+    private String limbs(String template) {
+        return limbs(template, 0, longs);
+    }
+
+    /**
+     * Write a template once for a range of the integer's longs from the most significant one down
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param from the first index (INCLUSIVE)
+     * @param to the last index (EXCLUSIVE)
+     * @return the code for the longs in the range
+     */
+    private String limbs(String template, int from, int to) {
+        return IntStream.range(from, to)
+                        .mapToObj((index) -> limb(template, index))
+                        .collect(Collectors.joining());
+    }
+
+    /**
+     * Write a template once for a range of the integer's longs from the least significant one up
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param from the first index (INCLUSIVE)
+     * @param to the last index (EXCLUSIVE)
+     * @return the code for the longs in the range
+     */
+    private String limbsReversed(String template, int from, int to) {
+        return IntStream.range(from, to)
+                        .map((index) -> from + to - 1 - index)
+                        .mapToObj((index) -> limb(template, index))
+                        .collect(Collectors.joining());
+    }
+
+    /**
+     * Write a template once for every long of the integer and join the results
+     *
+     * @param template the code to write (each # is replaced with the index of the long)
+     * @param separator the code to put between the longs
+     * @return the joined code for all of the longs
+     */
+    private String joinLimbs(String template, String separator) {
+        return IntStream.range(0, longs)
+                        .mapToObj((index) -> limb(template, index))
+                        .collect(Collectors.joining(separator));
+    }
 }
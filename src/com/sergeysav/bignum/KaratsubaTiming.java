@@ -0,0 +1,67 @@
+package com.sergeysav.bignum;
+
+import java.util.Random;
+
+/**
+ * Finds the crossover between schoolbook and Karatsuba multiplication
+ *
+ * Times the low half product used by the IntN types for each operand length and threshold,
+ * the fastest threshold for the largest lengths is a good value for bignum.karatsubaThreshold
+ *
+ * @author sergeys
+ */
+public class KaratsubaTiming {
+
+    private static final int[] LENGTHS    = {4, 8, 16, 32, 64, 128};
+    private static final int[] THRESHOLDS = {2, 4, 8, 16, 32};
+    private static final int   ROUNDS     = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(0);
+
+        System.out.print("Limbs");
+        System.out.print("\tSchoolbook");
+        for (int threshold : THRESHOLDS) {
+            System.out.print("\tT=" + threshold);
+        }
+        System.out.println();
+
+        for (int n : LENGTHS) {
+            long[] a = new long[n];
+            long[] b = new long[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = random.nextLong();
+                b[i] = random.nextLong();
+            }
+            long[] out = new long[n];
+            long[] scratch = new long[CommonUtils.karatsubaScratchSize(n)];
+            int times = Math.max(1000, 20_000_000 / (n * n));
+
+            System.out.print(n);
+            System.out.printf("\t%.1f", time(a, b, out, scratch, n, n, times));
+            for (int threshold : THRESHOLDS) {
+                if (threshold < n) {
+                    System.out.printf("\t%.1f", time(a, b, out, scratch, n, threshold, times));
+                } else {
+                    System.out.print("\t-");
+                }
+            }
+            System.out.println();
+        }
+        System.out.println("(ns per multiplication)");
+    }
+
+    private static double time(long[] a, long[] b, long[] out, long[] scratch, int n, int threshold, int times) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                CommonUtils.multiplyLowKaratsuba(a, 0, b, 0, n, out, 0, scratch, 0, threshold);
+                a[n - 1] ^= out[0];
+            }
+            long after = System.nanoTime();
+            best = Math.min(best, after - before);
+        }
+        return best / (double) times;
+    }
+}
@@ -0,0 +1,377 @@
+package com.sergeysav.bignum;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author sergeys
+ */
+class CommonUtilsTest {
+
+    private static final int[] LENGTHS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 12, 15, 16, 24, 32};
+    private static final int[] THRESHOLDS = {1, 2, 4};
+
+    @Test
+    void multiplyKaratsuba() {
+        Random random = new Random(0);
+        for (int n : LENGTHS) {
+            for (int round = 0; round < 3; round++) {
+                //Operands sit after a few unrelated limbs to check that the offsets are respected
+                long[] a = new long[n + 3];
+                long[] b = new long[n + 5];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = round == 0 ? -1L : random.nextLong();
+                }
+                for (int i = 0; i < b.length; i++) {
+                    b[i] = round == 0 ? -1L : random.nextLong();
+                }
+                BigInteger expected = toBigInteger(a, 3, n).multiply(toBigInteger(b, 5, n));
+
+                long[] schoolbook = new long[2 * n];
+                CommonUtils.multiplySchoolbook(a, 3, b, 5, n, schoolbook, 0);
+                Assertions.assertEquals(expected, toBigInteger(schoolbook, 0, 2 * n), "schoolbook n=" + n);
+
+                for (int threshold : THRESHOLDS) {
+                    long[] out = new long[2 * n + 1];
+                    long[] scratch = new long[CommonUtils.karatsubaScratchSize(n)];
+                    Arrays.fill(scratch, 0x5555555555555555L);
+                    CommonUtils.multiplyKaratsuba(a, 3, b, 5, n, out, 1, scratch, 0, threshold);
+                    Assertions.assertEquals(expected, toBigInteger(out, 1, 2 * n), "n=" + n + " T=" + threshold);
+                }
+            }
+        }
+    }
+
+    @Test
+    void multiplyLowKaratsuba() {
+        Random random = new Random(1);
+        for (int n : LENGTHS) {
+            BigInteger modulus = BigInteger.ONE.shiftLeft(64 * n);
+            for (int round = 0; round < 3; round++) {
+                long[] a = new long[n];
+                long[] b = new long[n + 2];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = round == 0 ? -1L : random.nextLong();
+                }
+                for (int i = 0; i < b.length; i++) {
+                    b[i] = round == 0 ? -1L : random.nextLong();
+                }
+                BigInteger expected = toBigInteger(a, 0, n).multiply(toBigInteger(b, 2, n)).mod(modulus);
+
+                long[] schoolbook = new long[n];
+                CommonUtils.multiplyLowSchoolbook(a, 0, b, 2, n, schoolbook, 0);
+                Assertions.assertEquals(expected, toBigInteger(schoolbook, 0, n), "schoolbook n=" + n);
+
+                for (int threshold : THRESHOLDS) {
+                    long[] out = new long[n + 2];
+                    long[] scratch = new long[CommonUtils.karatsubaScratchSize(n) + 4];
+                    Arrays.fill(scratch, -1L);
+                    CommonUtils.multiplyLowKaratsuba(a, 0, b, 2, n, out, 2, scratch, 4, threshold);
+                    Assertions.assertEquals(expected, toBigInteger(out, 2, n), "n=" + n + " T=" + threshold);
+                }
+            }
+        }
+    }
+
+    @Test
+    void powerOfFive() {
+        BigInteger five = BigInteger.valueOf(5);
+        for (int power = 0; power < 300; power++) {
+            checkPowerOfFive(five, power);
+        }
+        for (int power : new int[]{1000, 1023, 1024, 4966, 16494, 78984}) {
+            checkPowerOfFive(five, power);
+        }
+    }
+
+    private static void checkPowerOfFive(BigInteger five, int power) {
+        //The power goes into the end of a dirty array and the longs before it are left alone
+        int longs = CommonUtils.powerOfFiveLongs(power);
+        long[] result = new long[longs + 3];
+        long[] square = new long[2 * longs];
+        Arrays.fill(result, -1L);
+        Arrays.fill(square, -1L);
+        CommonUtils.powerOfFive(power, result, 3, square);
+        Assertions.assertEquals(five.pow(power), toBigInteger(result, 3, longs), "5^" + power);
+        Assertions.assertEquals(-1L, result[2], "before 5^" + power);
+    }
+
+    @Test
+    void powerOfFiveInPlace() {
+        Random random = new Random(3);
+        BigInteger five = BigInteger.valueOf(5);
+        //Large powers before small ones so the reused buffers hold what is left of a larger power
+        int[] powers = {0, 1, 26, 27, 28, 54, 55, 100, 1000, 4966, 16494, 4966, 1000, 100, 28};
+        for (int power : powers) {
+            //Numbers shorter than the power and longer than it
+            for (int numberLength : new int[]{1, 2, 5, 40}) {
+                long[] longs = new long[numberLength + CommonUtils.powerOfFiveLongs(power)];
+                for (int i = longs.length - numberLength; i < longs.length; i++) {
+                    longs[i] = random.nextLong();
+                }
+                BigInteger number = toBigInteger(longs, 0, longs.length);
+                BigInteger expected = number.multiply(five.pow(power));
+                CommonUtils.multiplyPowerOfFiveInPlace(longs, power);
+                Assertions.assertEquals(expected, toBigInteger(longs, 0, longs.length), "* 5^" + power);
+
+                //Dividing the product and the product plus one gives back the number with the right remainder flag
+                long[] copy = longs.clone();
+                Assertions.assertFalse(CommonUtils.dividePowerOfFiveInPlace(copy, power), "/ 5^" + power);
+                Assertions.assertEquals(number, toBigInteger(copy, 0, copy.length), "/ 5^" + power);
+                CommonUtils.multiplyAddInPlace(longs, 1, 1);
+                Assertions.assertEquals(power > 0, CommonUtils.dividePowerOfFiveInPlace(longs, power), "+1 / 5^" + power);
+                Assertions.assertEquals(power > 0 ? number : number.add(BigInteger.ONE),
+                                        toBigInteger(longs, 0, longs.length), "+1 / 5^" + power);
+
+                //Only the end of the array is multiplied
+                long[] window = new long[longs.length + 2];
+                Arrays.fill(window, 0, 2, -1L);
+                System.arraycopy(copy, 0, window, 2, copy.length);
+                CommonUtils.multiplyPowerOfFiveInPlace(window, 2, power);
+                Assertions.assertEquals(expected, toBigInteger(window, 2, longs.length), "window * 5^" + power);
+                Assertions.assertEquals(-1L, window[1], "before window * 5^" + power);
+            }
+        }
+    }
+
+    @Test
+    void divideUnsigned() {
+        Random random = new Random(2);
+        for (int uLength : LENGTHS) {
+            for (int vLength : LENGTHS) {
+                for (int round = 0; round < 4; round++) {
+                    //All ones, a divisor whose top limb is small (the largest normalization shift) and random limbs
+                    long[] u = new long[uLength];
+                    long[] v = new long[vLength];
+                    for (int i = 0; i < uLength; i++) {
+                        u[i] = round == 0 ? -1L : random.nextLong();
+                    }
+                    for (int i = 0; i < vLength; i++) {
+                        v[i] = round == 0 ? -1L : random.nextLong();
+                    }
+                    if (round == 1) {
+                        v[0] = 1;
+                    } else if (round == 2 && vLength > 1) {
+                        //Leading zero limbs in the divisor
+                        v[0] = 0;
+                    }
+                    BigInteger dividend = toBigInteger(u, 0, uLength);
+                    BigInteger divisor = toBigInteger(v, 0, vLength);
+                    BigInteger[] expected = dividend.divideAndRemainder(divisor);
+                    String message = uLength + "/" + vLength;
+
+                    //Into separate arrays with dirty normalization buffers
+                    long[] q = new long[uLength];
+                    long[] r = new long[vLength];
+                    long[] un = new long[uLength + 1];
+                    long[] vn = new long[vLength];
+                    Arrays.fill(un, -1L);
+                    Arrays.fill(vn, -1L);
+                    boolean remainder = CommonUtils.divideUnsigned(u, v, q, r, un, vn);
+                    Assertions.assertEquals(expected[0], toBigInteger(q, 0, uLength), message);
+                    Assertions.assertEquals(expected[1], toBigInteger(r, 0, vLength), message);
+                    Assertions.assertEquals(expected[1].signum() != 0, remainder, message);
+
+                    //In place, reusing the same buffers
+                    CommonUtils.divideUnsigned(u, v, u, v, un, vn);
+                    Assertions.assertEquals(expected[0], toBigInteger(u, 0, uLength), message);
+                    Assertions.assertEquals(expected[1], toBigInteger(v, 0, vLength), message);
+                }
+            }
+        }
+
+        //Exact multiples leave no remainder even when the quotient estimate needs correcting
+        int longs = CommonUtils.powerOfFiveLongs(4966);
+        long[] power = new long[longs];
+        CommonUtils.powerOfFive(4966, power, 0, new long[2 * longs]);
+        BigInteger exact = toBigInteger(power, 0, power.length).multiply(BigInteger.valueOf(Long.MAX_VALUE));
+        long[] u = new long[power.length + 2];
+        for (int i = 0; i < u.length; i++) {
+            u[u.length - 1 - i] = exact.shiftRight(64 * i).longValue();
+        }
+        Assertions.assertFalse(CommonUtils.divideUnsigned(u, power, u, null, new long[u.length + 1], new long[longs]));
+        Assertions.assertEquals(BigInteger.valueOf(Long.MAX_VALUE), toBigInteger(u, 0, u.length));
+        Assertions.assertThrows(ArithmeticException.class,
+                                () -> CommonUtils.divideUnsigned(new long[2], new long[2], new long[2], null,
+                                                                 new long[3], new long[2]));
+    }
+
+    @Test
+    void shortestDigits() {
+        //Extreme values grow the reused buffers and the ordinary ones after them must not see anything left over
+        double[] values = {0.1, Double.MAX_VALUE, 0.3, Double.MIN_VALUE, 1.5, 1e300, 123.456, Double.MIN_NORMAL, 2.0,
+                           1e-300, 5e-324, 9007199254740993.0, 1e23, 8.41e21, 5.0e-310, 0.1, 1.0};
+        for (double value : values) {
+            checkShortestDigits(value);
+        }
+        //The extremes of Float256 need more than SCRATCH_LONGS so they work in buffers of their own
+        Float256[] wide = {Float256.MAX_VALUE, Float256.ONE.copy().divide(Float256.from(3)), Float256.MIN_VALUE,
+                           Float256.MIN_NORMAL, Float256.TEN};
+        for (Float256 value : wide) {
+            Assertions.assertEquals(value, Float256.parse(value.toString()), value::toString);
+        }
+        checkShortestDigits(0.1);
+
+        Random random = new Random(4);
+        for (int i = 0; i < 2_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE);
+            if (Double.isFinite(value) && value != 0) {
+                checkShortestDigits(value);
+            }
+        }
+    }
+
+    private static void checkShortestDigits(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int exponentBits = (int) (bits >>> 52);
+        long mantissa = exponentBits == 0 ? (bits & 0xFFFFFFFFFFFFFL) : (bits & 0xFFFFFFFFFFFFFL) | (1L << 52);
+        long exponent = Math.max(exponentBits, 1) - 1075;
+        boolean narrowBelow = exponentBits > 1 && (bits & 0xFFFFFFFFFFFFFL) == 0;
+
+        StringBuilder digits = new StringBuilder();
+        int k = CommonUtils.shortestDigits(new long[]{mantissa}, exponent, narrowBelow, digits);
+        BigDecimal decimal = new BigDecimal(new BigInteger(digits.toString()), digits.length() - k);
+        Assertions.assertEquals(value, decimal.doubleValue(), () -> value + " gave " + decimal);
+
+        //Neither neighbour with one digit fewer reads back as the same value
+        if (digits.length() > 1) {
+            BigDecimal exact = new BigDecimal(value);
+            MathContext shorter = new MathContext(digits.length() - 1, RoundingMode.FLOOR);
+            BigDecimal below = exact.round(shorter);
+            BigDecimal above = below.add(below.ulp());
+            Assertions.assertNotEquals(value, below.doubleValue(), () -> value + " could be " + below);
+            Assertions.assertNotEquals(value, above.doubleValue(), () -> value + " could be " + above);
+        }
+    }
+
+    @Test
+    void getExponentString() {
+        //Zero, the small steps (2^29 and 5^12), the halving limit (2^59), limb sizes, checkpoints and both float ranges
+        long[] exponents = {0, 1, 2, 28, 29, 30, 58, 59, 60, 63, 64, 65, 127, 128, 999, 1000, 1001, 1999, 2000, 2001,
+                            16383, 65536, -1, -2, -11, -12, -13, -59, -60, -64, -65, -999, -1000, -1001, -1999, -2000,
+                            -2001, -16494, -65536};
+        for (long exponent : exponents) {
+            checkExponentString(exponent, CommonUtils.getExponentString(exponent, null, 0));
+        }
+
+        //Walking down with the previous result halves it, across checkpoints and through zero
+        for (long top : new long[]{2010, 5, -990}) {
+            CommonUtils.ExpString last = null;
+            long lastExponent = 0;
+            for (long exponent = top; exponent >= top - 1100; exponent -= exponent % 7 == 0 ? 61 : 3) {
+                CommonUtils.ExpString current = CommonUtils.getExponentString(exponent, last, lastExponent);
+                checkExponentString(exponent, current);
+                last = current;
+                lastExponent = exponent;
+            }
+        }
+    }
+
+    @Test
+    void exponentStringCacheOverflow() {
+        //More distinct checkpoints than there are slots on both sides of zero, then again backwards after the evictions
+        int count = CommonUtils.EXPONENT_CACHE_SIZE + 5;
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < count; i++) {
+                long checkpoint = 1000L * (round == 0 ? i : count - 1 - i);
+                checkExponentString(checkpoint, CommonUtils.getExponentString(checkpoint, null, 0));
+                checkExponentString(checkpoint + 17, CommonUtils.getExponentString(checkpoint + 17, null, 0));
+                checkExponentString(-checkpoint - 17, CommonUtils.getExponentString(-checkpoint - 17, null, 0));
+            }
+        }
+    }
+
+    @Test
+    void exponentStringThreads() throws Exception {
+        //Enough checkpoints that the threads keep evicting each other's cache entries
+        List<Long> exponents = new ArrayList<>();
+        for (long i = -CommonUtils.EXPONENT_CACHE_SIZE - 2; i <= CommonUtils.EXPONENT_CACHE_SIZE + 2; i += 3) {
+            exponents.add(1000 * i);
+            exponents.add(1000 * i + (i < 0 ? -31 : 31));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                List<Long> order = new ArrayList<>(exponents);
+                Collections.shuffle(order, new Random(thread));
+                tasks.add(() -> {
+                    for (long exponent : order) {
+                        checkExponentString(exponent, CommonUtils.getExponentString(exponent, null, 0));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                //Rethrows any failed check
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void exponentStringCacheCounters() {
+        for (long checkpoint : new long[]{3000, -4000}) {
+            //The same slot a whole cache size of checkpoints away
+            long colliding = checkpoint + 1000L * CommonUtils.EXPONENT_CACHE_SIZE * Long.signum(checkpoint);
+            CommonUtils.ExpString first = CommonUtils.getExponentString(checkpoint, null, 0);
+
+            long hits = CommonUtils.getExponentCacheHits();
+            long misses = CommonUtils.getExponentCacheMisses();
+            Assertions.assertSame(first, CommonUtils.getExponentString(checkpoint, null, 0));
+            Assertions.assertEquals(hits + 1, CommonUtils.getExponentCacheHits(), "repeat is a hit");
+            Assertions.assertEquals(misses, CommonUtils.getExponentCacheMisses(), "repeat is a hit");
+
+            //Scaling from a cached checkpoint is a hit and halving a previous result does not look at the cache
+            long nearExponent = checkpoint + (checkpoint > 0 ? 5 : -2);
+            CommonUtils.ExpString near = CommonUtils.getExponentString(nearExponent, null, 0);
+            checkExponentString(nearExponent, near);
+            Assertions.assertEquals(hits + 2, CommonUtils.getExponentCacheHits(), "scaled from a hit");
+            checkExponentString(nearExponent - 3, CommonUtils.getExponentString(nearExponent - 3, near, nearExponent));
+            Assertions.assertEquals(hits + 2, CommonUtils.getExponentCacheHits(), "halved");
+            Assertions.assertEquals(misses, CommonUtils.getExponentCacheMisses(), "halved");
+
+            //The colliding checkpoint misses and evicts the first one, which then misses and is recomputed correctly
+            checkExponentString(colliding, CommonUtils.getExponentString(colliding, null, 0));
+            Assertions.assertEquals(misses + 1, CommonUtils.getExponentCacheMisses(), "collision is a miss");
+            CommonUtils.ExpString again = CommonUtils.getExponentString(checkpoint, null, 0);
+            Assertions.assertEquals(misses + 2, CommonUtils.getExponentCacheMisses(), "evicted is a miss");
+            Assertions.assertEquals(hits + 2, CommonUtils.getExponentCacheHits(), "evicted is a miss");
+            checkExponentString(checkpoint, again);
+            Assertions.assertEquals(first.string, again.string);
+            Assertions.assertEquals(first.zeroIndex, again.zeroIndex);
+        }
+    }
+
+    private static void checkExponentString(long exponent, CommonUtils.ExpString actual) {
+        BigDecimal expected = exponent >= 0 ? new BigDecimal(BigInteger.TWO.pow((int) exponent)) :
+                              new BigDecimal(BigInteger.valueOf(5).pow((int) -exponent), (int) -exponent);
+        //The string has no leading zeros and the zero index is the place of 10^0
+        Assertions.assertNotEquals('0', actual.string.charAt(0), () -> "2^" + exponent);
+        BigDecimal value = new BigDecimal(new BigInteger(actual.string), actual.string.length() - 1 - actual.zeroIndex);
+        Assertions.assertEquals(expected, value, () -> "2^" + exponent);
+    }
+
+    private static BigInteger toBigInteger(long[] longs, int off, int n) {
+        BigInteger result = BigInteger.ZERO;
+        for (int i = off; i < off + n; i++) {
+            result = result.shiftLeft(64).or(new BigInteger(Long.toUnsignedString(longs[i])));
+        }
+        return result;
+    }
+}
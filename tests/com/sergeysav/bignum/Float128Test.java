@@ -1,5 +1,14 @@
 package com.sergeysav.bignum;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -97,6 +106,60 @@ public class Float128Test {
         Assertions.assertEquals(sNormP1, Float128.add(smallest, smallestNormal));
     }
 
+    @Test
+    void subtract() {
+        Float128 zero = new Float128();
+        Float128 one = Float128.ONE;
+        Float128 two = Float128.bytesOf(4611686018427387904L, 0);
+        Float128 three = Float128.bytesOf(4611826755915743232L, 0);
+        Float128 negativeOne = Float128.bytesOf(-4611967493404098560L, 0);
+
+        Assertions.assertEquals(negativeOne, Float128.subtract(two, three));
+        Assertions.assertEquals(two, Float128.subtract(three, one));
+        Assertions.assertEquals(one, new Float128(three).add(Float128.from(-2.0)));
+        Assertions.assertEquals(three, Float128.subtract(two, negativeOne));
+        Assertions.assertEquals(zero, new Float128(one).subtract(one));
+        Assertions.assertEquals(negativeOne, new Float128(zero).subtract(one));
+        Assertions.assertEquals(Float128.NEGATIVE_INFINITY.toString(), new Float128(one).subtract(Float128.POSITIVE_INFINITY).toString());
+    }
+
+    @Test
+    void rounding() {
+        Float128 one = Float128.ONE;
+        Float128 three = Float128.bytesOf(4611826755915743232L, 0);
+        Float128 third = Float128.bytesOf(0x3FFD555555555555L, 0x5555555555555555L);
+        Float128 thirdUp = Float128.bytesOf(0x3FFD555555555555L, 0x5555555555555556L);
+        Assertions.assertEquals(third, new Float128(one).divide(three));
+        Assertions.assertEquals(third, new Float128(one).divide(three, RoundingMode.DOWN));
+        Assertions.assertEquals(thirdUp, new Float128(one).divide(three, RoundingMode.UP));
+        Assertions.assertEquals(thirdUp, new Float128(one).divide(three, RoundingMode.CEILING));
+        Assertions.assertEquals(Float128.negate(third), Float128.from(-1.0).divide(three, RoundingMode.CEILING));
+        Assertions.assertEquals(Float128.negate(thirdUp), Float128.from(-1.0).divide(three, RoundingMode.FLOOR));
+        Assertions.assertThrows(ArithmeticException.class, () -> new Float128(one).divide(three, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Float128.from(0.5), new Float128(one).divide(Float128.from(2.0), RoundingMode.UNNECESSARY));
+
+        //1 + 2^-113 is exactly halfway between 1 and the next value
+        Float128 halfUlp = Float128.bytesOf(0x3F8E000000000000L, 0);
+        Assertions.assertEquals(one, new Float128(one).add(halfUlp));
+        Assertions.assertEquals(Float128.bytesOf(0x3FFF000000000000L, 1), new Float128(one).add(halfUlp, RoundingMode.HALF_UP));
+        Assertions.assertEquals(one, new Float128(one).add(halfUlp, RoundingMode.HALF_DOWN));
+        Assertions.assertEquals(Float128.bytesOf(0x3FFEFFFFFFFFFFFFL, -1L), new Float128(one).subtract(halfUlp, RoundingMode.FLOOR));
+
+        Assertions.assertEquals(Float128.MAX_VALUE, new Float128(Float128.MAX_VALUE).multiply(three, RoundingMode.DOWN));
+        Assertions.assertTrue(new Float128(Float128.MAX_VALUE).multiply(three).isInfinite());
+        Assertions.assertEquals(Float128.negate(Float128.MAX_VALUE),
+                                Float128.negate(Float128.MAX_VALUE).multiply(three, RoundingMode.CEILING));
+        Assertions.assertEquals("-INFINITY", Float128.negate(Float128.MAX_VALUE).multiply(three, RoundingMode.FLOOR).toString());
+
+        //Special results keep the sign of the operation
+        Assertions.assertEquals("-0", new Float128().multiply(Float128.from(-1.0)).toString());
+        Assertions.assertEquals("-0", Float128.from(-1.0).divide(Float128.POSITIVE_INFINITY).toString());
+        Assertions.assertEquals("-INFINITY", new Float128(Float128.POSITIVE_INFINITY).multiply(Float128.from(-2.0)).toString());
+        Assertions.assertEquals("-INFINITY", Float128.from(-1.0).divide(Float128.ZERO).toString());
+        Assertions.assertEquals("-0", Float128.from(1.5).subtract(Float128.from(1.5), RoundingMode.FLOOR).toString());
+        Assertions.assertEquals("0", Float128.from(1.5).subtract(Float128.from(1.5)).toString());
+    }
+
     @Test
     void multiply() {
         Float128 zero = new Float128();
@@ -119,6 +182,37 @@ public class Float128Test {
         Float128 oneAndAHalf = Float128.bytesOf(4611545280939032576L, 0);
         Float128 twoAndTwoFive = Float128.bytesOf(4611721202799476736L, 0);
         Assertions.assertEquals(twoAndTwoFive, new Float128(oneAndAHalf).multiply(oneAndAHalf));
+
+        //(1 + 2^-112)^2 = 1 + 2^-111 + 2^-224 rounds down to 1 + 2^-111
+        Float128 onePlusUlp = Float128.bytesOf(4611404543450677248L, 1);
+        Assertions.assertEquals(Float128.bytesOf(4611404543450677248L, 2), new Float128(onePlusUlp).multiply(onePlusUlp));
+        //1.5 * (1 + 2^-112) = 1.5 + 1.5 * 2^-112 is a tie which rounds to the even 1.5 + 2 * 2^-112
+        Assertions.assertEquals(Float128.bytesOf(4611545280939032576L, 2), new Float128(oneAndAHalf).multiply(onePlusUlp));
+
+        Assertions.assertEquals(Float128.NEGATIVE_INFINITY.toString(), new Float128(Float128.POSITIVE_INFINITY).multiply(Float128.from(-2.0)).toString());
+        Assertions.assertEquals(Float128.POSITIVE_INFINITY.toString(), new Float128(Float128.MAX_VALUE).multiply(two).toString());
+        Assertions.assertTrue(new Float128(Float128.POSITIVE_INFINITY).multiply(zero).isNaN());
+    }
+
+    @Test
+    void fma() {
+        Float128 two = Float128.bytesOf(4611686018427387904L, 0);
+        Float128 three = Float128.bytesOf(4611826755915743232L, 0);
+        Float128 third = Float128.bytesOf(0x3FFD555555555555L, 0x5555555555555555L);
+        Float128 negativeOne = Float128.from(-1.0);
+        Assertions.assertEquals(Float128.from(7.0), Float128.fma(two, three, Float128.ONE));
+
+        //third * 3 is exactly 1 - 2^-114 which only survives when it is not rounded before adding -1
+        Assertions.assertEquals(Float128.ZERO, Float128.add(Float128.multiply(third, three), negativeOne));
+        Assertions.assertEquals(Float128.bytesOf(0xBF8D000000000000L, 0), Float128.fma(third, three, negativeOne));
+        Assertions.assertEquals(Float128.bytesOf(0x3FFEFFFFFFFFFFFFL, -1L),
+                                Float128.fma(third, three, Float128.ZERO, RoundingMode.DOWN));
+
+        Assertions.assertTrue(Float128.fma(Float128.POSITIVE_INFINITY, Float128.ZERO, Float128.ONE).isNaN());
+        Assertions.assertTrue(Float128.fma(Float128.POSITIVE_INFINITY, two, Float128.NEGATIVE_INFINITY).isNaN());
+        Assertions.assertEquals(Float128.NEGATIVE_INFINITY.toString(),
+                                Float128.fma(Float128.POSITIVE_INFINITY, negativeOne, Float128.ONE).toString());
+        Assertions.assertEquals(three, Float128.fma(Float128.ZERO, two, three));
     }
 
     @Test
@@ -131,6 +225,33 @@ public class Float128Test {
         Float128 oneAndAHalf = Float128.bytesOf(4611545280939032576L, 0);
         Float128 twoAndTwoFive = Float128.bytesOf(4611721202799476736L, 0);
         Assertions.assertEquals(oneAndAHalf, new Float128(twoAndTwoFive).divide(oneAndAHalf));
+
+        Float128 three = Float128.bytesOf(4611826755915743232L, 0);
+        Assertions.assertEquals(Float128.bytesOf(0x3FFE555555555555L, 0x5555555555555555L), new Float128(two).divide(three));
+        Assertions.assertEquals(Float128.ONE, new Float128(Float128.ONE).divide(three).multiply(three));
+        Assertions.assertEquals(Float128.MIN_VALUE, new Float128(Float128.MIN_NORMAL).divide(Float128.bytesOf(0x406F000000000000L, 0)));
+
+        Assertions.assertEquals(Float128.NEGATIVE_INFINITY.toString(), Float128.from(-1.0).divide(Float128.ZERO).toString());
+        Assertions.assertTrue(new Float128(Float128.ZERO).divide(Float128.ZERO).isNaN());
+        Assertions.assertTrue(new Float128(Float128.POSITIVE_INFINITY).divide(Float128.POSITIVE_INFINITY).isNaN());
+    }
+
+    @Test
+    void sqrt() {
+        Float128 two = Float128.bytesOf(4611686018427387904L, 0);
+        Float128 rootTwo = Float128.bytesOf(0x3FFF6A09E667F3BCL, 0xC908B2FB1366EA95L);
+        Assertions.assertEquals(rootTwo, new Float128(two).sqrt());
+        Assertions.assertEquals(rootTwo, new Float128(two).sqrt(RoundingMode.FLOOR));
+        Assertions.assertEquals(Float128.bytesOf(0x3FFF6A09E667F3BCL, 0xC908B2FB1366EA96L),
+                                new Float128(two).sqrt(RoundingMode.CEILING));
+        Assertions.assertEquals(Float128.from(1.5), Float128.from(2.25).sqrt(RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Float128.bytesOf(0x1FC8000000000000L, 0), Float128.sqrt(Float128.MIN_VALUE));
+        Assertions.assertThrows(ArithmeticException.class, () -> new Float128(two).sqrt(RoundingMode.UNNECESSARY));
+
+        Assertions.assertTrue(Float128.from(-4.0).sqrt().isNaN());
+        Assertions.assertEquals(Float128.from(-0.0), Float128.from(-0.0).sqrt());
+        Assertions.assertEquals(Float128.POSITIVE_INFINITY.toString(), Float128.POSITIVE_INFINITY.copy().sqrt().toString());
+        Assertions.assertTrue(Float128.NEGATIVE_INFINITY.copy().sqrt().isNaN());
     }
 
     @Test
@@ -163,6 +284,166 @@ public class Float128Test {
         Assertions.assertEquals(Float128.bytesOf(4611721202799476736L, 0), Float128.from(2.25));
     }
 
+    @Test
+    void mantissaLimbBoundaries() {
+        //The leading one and the top 48 mantissa bits share the first limb, the last 64 bits are the second limb
+        Float128[] values = {Float128.bytesOf(0x3FFF000000000001L, 0), Float128.bytesOf(0x3FFF000000000000L, Long.MIN_VALUE),
+                             Float128.bytesOf(0x3FFF000000000000L, 1), Float128.bytesOf(0xBFFF000000000001L, Long.MIN_VALUE | 1),
+                             Float128.bytesOf(0x4000FFFFFFFFFFFFL, -1L), Float128.bytesOf(0x3FFEFFFFFFFFFFFFL, Long.MAX_VALUE),
+                             Float128.bytesOf(0x3F80000000000001L, 1), Float128.bytesOf(0xC07FFFFFFFFFFFFFL, Long.MIN_VALUE)};
+        Float128[] subnormals = {Float128.bytesOf(0x0001000000000000L, 1), Float128.bytesOf(0, Long.MIN_VALUE),
+                                 Float128.bytesOf(1, 0), Float128.bytesOf(0x8000FFFFFFFFFFFFL, -1L)};
+        for (Float128 a : subnormals) {
+            Assertions.assertEquals(a, Float128.parse(a.toString()), a::toString);
+            Assertions.assertEquals(a, Float128.add(a, Float128.ZERO), a::toString);
+            Assertions.assertEquals(Float128.add(a, a), Float128.multiply(a, Float128.from(2.0)), a::toString);
+        }
+        for (Float128 a : values) {
+            BigDecimal exactA = new BigDecimal(a.toFullString(-1));
+            Assertions.assertEquals(a, Float128.parse(a.toFullString(-1)), a::toString);
+            Assertions.assertEquals(a, Float128.parse(a.toString()), a::toString);
+            for (Float128 b : values) {
+                BigDecimal exactB = new BigDecimal(b.toFullString(-1));
+                Assertions.assertEquals(Float128.parse(exactA.add(exactB).toString()), Float128.add(a, b), a + " + " + b);
+                Assertions.assertEquals(Float128.parse(exactA.subtract(exactB).toString()), Float128.subtract(a, b),
+                                        a + " - " + b);
+                Assertions.assertEquals(Float128.parse(exactA.multiply(exactB).toString()), Float128.multiply(a, b),
+                                        a + " * " + b);
+                Assertions.assertEquals(Float128.parse(exactA.multiply(exactB).add(exactA).toString()), Float128.fma(a, b, a),
+                                        a + " * " + b + " + " + a);
+            }
+        }
+    }
+
+    @Test
+    void classify() {
+        //Set mantissa bits only in the last limb, only in the first limb and in neither
+        Float128[] finite = {Float128.ZERO, Float128.bytesOf(Long.MIN_VALUE, 0), Float128.MIN_VALUE,
+                             Float128.bytesOf(1, 0), Float128.bytesOf(0x0000800000000000L, 0), Float128.MAX_SUBNORMAL,
+                             Float128.MIN_NORMAL, Float128.bytesOf(0x0001000000000000L, 1), Float128.ONE,
+                             Float128.MAX_VALUE, Float128.bytesOf(0xFFFEFFFFFFFFFFFFL, -1L)};
+        for (Float128 value : finite) {
+            Assertions.assertTrue(value.isFinite(), value::toString);
+            Assertions.assertFalse(value.isInfinite(), value::toString);
+            Assertions.assertFalse(value.isNaN(), value::toString);
+        }
+        Assertions.assertEquals("-0", Float128.bytesOf(Long.MIN_VALUE, 0).toString());
+        Assertions.assertNotEquals(Float128.ZERO, Float128.bytesOf(Long.MIN_VALUE, 0));
+        Assertions.assertNotEquals(Float128.ZERO, Float128.MIN_VALUE);
+        Assertions.assertNotEquals(Float128.ZERO, Float128.bytesOf(1, 0));
+        Assertions.assertNotEquals(Float128.MIN_VALUE, Float128.bytesOf(1, 0));
+
+        Float128[] infinite = {Float128.bytesOf(0x7FFF000000000000L, 0), Float128.bytesOf(0xFFFF000000000000L, 0)};
+        for (Float128 value : infinite) {
+            Assertions.assertFalse(value.isFinite());
+            Assertions.assertTrue(value.isInfinite());
+            Assertions.assertFalse(value.isNaN());
+        }
+        Assertions.assertEquals("INFINITY", infinite[0].toString());
+        Assertions.assertEquals("-INFINITY", infinite[1].toString());
+        Assertions.assertEquals(Float128.POSITIVE_INFINITY, infinite[0]);
+        Assertions.assertNotEquals(infinite[0], infinite[1]);
+
+        Float128[] nan = {Float128.bytesOf(0x7FFF000000000000L, 1), Float128.bytesOf(0x7FFF000000000001L, 0),
+                          Float128.bytesOf(0xFFFF800000000000L, 0), Float128.bytesOf(-1L, -1L)};
+        for (Float128 value : nan) {
+            Assertions.assertFalse(value.isFinite());
+            Assertions.assertFalse(value.isInfinite());
+            Assertions.assertTrue(value.isNaN());
+            Assertions.assertEquals("NAN", value.toString());
+            //Every NaN is equal to every other like Double.equals
+            Assertions.assertEquals(nan[0], value);
+            Assertions.assertEquals(nan[0].hashCode(), value.hashCode());
+        }
+    }
+
+    @Test
+    void parse() {
+        Float128 third = Float128.bytesOf(0x3FFD555555555555L, 0x5555555555555555L);
+        Float128 thirdUp = Float128.bytesOf(0x3FFD555555555555L, 0x5555555555555556L);
+        Assertions.assertEquals(Float128.from(12500), Float128.parse("+12.5E+3"));
+        Assertions.assertEquals(Float128.from(-0.375), Float128.parse("-.375"));
+        Assertions.assertEquals(Float128.from(1200), Float128.parse("1200."));
+        Assertions.assertEquals(third, Float128.parse("0.33333333333333333333333333333333333333"));
+        Assertions.assertEquals(thirdUp, Float128.parse("0.33333333333333333333333333333333333333", RoundingMode.CEILING));
+        Assertions.assertEquals(Float128.MIN_VALUE, Float128.parse("6.0E-4966"));
+        Assertions.assertEquals(Float128.MAX_VALUE, Float128.parse("1.189731495357231765085759326628007E4932"));
+        Assertions.assertThrows(ArithmeticException.class, () -> Float128.parse("0.1", RoundingMode.UNNECESSARY));
+
+        Assertions.assertEquals("INFINITY", Float128.parse("1e5000").toString());
+        Assertions.assertEquals(Float128.negate(Float128.MAX_VALUE), Float128.parse("-1e5000", RoundingMode.DOWN));
+        Assertions.assertEquals(Float128.ZERO, Float128.parse("1e-5000"));
+        Assertions.assertEquals("-0", Float128.parse("-0.000").toString());
+        Assertions.assertEquals("-INFINITY", Float128.parse("-Infinity").toString());
+        Assertions.assertTrue(Float128.parse("NaN").isNaN());
+
+        Assertions.assertThrows(NumberFormatException.class, () -> Float128.parse(""));
+        Assertions.assertThrows(NumberFormatException.class, () -> Float128.parse("."));
+        Assertions.assertThrows(NumberFormatException.class, () -> Float128.parse("1e"));
+        Assertions.assertThrows(NumberFormatException.class, () -> Float128.parse("1.2.3"));
+
+        for (int i = 0; i < 1000; i++) {
+            Float128 value = Float128.from(i * 0.37).divide(Float128.from(7));
+            Assertions.assertEquals(value, Float128.parse(value.toString()));
+        }
+    }
+
+    @Test
+    void parseExtremeExponents() {
+        BigDecimal minValue = new BigDecimal(Float128.MIN_VALUE.toFullString(-1));
+        BigDecimal maxValue = new BigDecimal(Float128.MAX_VALUE.toFullString(-1));
+        BigDecimal halfMin = minValue.divide(BigDecimal.valueOf(2));
+        //Half an ulp of MAX_VALUE is 2^16270
+        BigDecimal halfMaxUlp = new BigDecimal(BigInteger.TWO.pow(16270));
+        BigDecimal tiny = BigDecimal.ONE.movePointLeft(20000);
+
+        //Subnormal: the smallest values divide by the largest powers of five
+        Assertions.assertEquals(Float128.MIN_VALUE, Float128.parse("6.5E-4966"));
+        Assertions.assertEquals(Float128.MIN_VALUE, Float128.parse(minValue.toString()));
+        Assertions.assertEquals(Float128.MIN_VALUE, Float128.parse(minValue.toPlainString()));
+        Assertions.assertEquals(Float128.MAX_SUBNORMAL, Float128.parse(Float128.MAX_SUBNORMAL.toFullString(-1)));
+        Assertions.assertEquals(Float128.MIN_NORMAL, Float128.parse(Float128.MIN_NORMAL.toFullString(-1)));
+        Assertions.assertEquals(Float128.ZERO, Float128.parse(halfMin.toString()));
+        Assertions.assertEquals(Float128.MIN_VALUE, Float128.parse(halfMin.toString(), RoundingMode.UP));
+        Assertions.assertEquals(Float128.MIN_VALUE, Float128.parse(halfMin.add(tiny).toString()));
+        Assertions.assertEquals(Float128.ZERO, Float128.parse(halfMin.subtract(tiny).toString()));
+        Assertions.assertEquals(Float128.MIN_VALUE.copy().multiply(Float128.from(3)),
+                                Float128.parse(minValue.multiply(BigDecimal.valueOf(3)).toString()));
+
+        //Near overflow: MAX_VALUE is odd so the tie above it rounds to infinity
+        Assertions.assertEquals(Float128.MAX_VALUE, Float128.parse(maxValue.toString()));
+        Assertions.assertEquals(Float128.MAX_VALUE, Float128.parse(maxValue.toPlainString()));
+        Assertions.assertEquals(Float128.MAX_VALUE, Float128.parse(maxValue.add(halfMaxUlp).subtract(BigDecimal.ONE).toString()));
+        Assertions.assertEquals("INFINITY", Float128.parse(maxValue.add(halfMaxUlp).toString()).toString());
+        Assertions.assertEquals(Float128.MAX_VALUE, Float128.parse(maxValue.add(halfMaxUlp).toString(), RoundingMode.DOWN));
+        Assertions.assertEquals("INFINITY", Float128.parse("1.2E4932").toString());
+        Assertions.assertEquals("-INFINITY", Float128.parse("-1.2E4932").toString());
+
+        //Powers of ten across the whole range: the nearest value is the closer of the values rounded down and up
+        for (int exponent = -4965; exponent <= 4932; exponent += 331) {
+            String text = "1E" + exponent;
+            BigDecimal exact = BigDecimal.ONE.scaleByPowerOfTen(exponent);
+            BigDecimal below = new BigDecimal(Float128.parse(text, RoundingMode.FLOOR).toFullString(-1));
+            BigDecimal above = new BigDecimal(Float128.parse(text, RoundingMode.CEILING).toFullString(-1));
+            Assertions.assertTrue(below.compareTo(exact) <= 0 && exact.compareTo(above) <= 0, text);
+            BigDecimal nearest = exact.subtract(below).compareTo(above.subtract(exact)) <= 0 ? below : above;
+            Assertions.assertEquals(0, nearest.compareTo(new BigDecimal(Float128.parse(text).toFullString(-1))), text);
+        }
+    }
+
+    @Test
+    void base64() {
+        Float128[] values = {Float128.ZERO, Float128.ONE, Float128.from(-2.25), Float128.MAX_VALUE, Float128.MIN_VALUE,
+                             Float128.MAX_SUBNORMAL, Float128.MIN_NORMAL};
+        for (Float128 value : values) {
+            Assertions.assertEquals(value, Float128.fromBase64(value.toBase64()));
+        }
+        Assertions.assertEquals("P/8AAAAAAAAAAAAAAAAAAA==", Float128.ONE.toBase64());
+        Assertions.assertEquals("wAAgAAAAAAAAAAAAAAAAAA==", Float128.from(-2.25).toBase64());
+        Assertions.assertEquals("-INFINITY", Float128.fromBase64(Float128.NEGATIVE_INFINITY.toBase64()).toString());
+        Assertions.assertEquals("NAN", Float128.fromBase64(Float128.bytesOf(-1L >>> 1, -1L).toBase64()).toString());
+    }
+
     @Test
     void testToFullString() {
         for (int i = -10_000; i < 10_000; i++) {
@@ -175,6 +456,26 @@ public class Float128Test {
         }
     }
 
+    @Test
+    void testToString() {
+        for (int i = -10_000; i < 10_000; i++) {
+            Assertions.assertEquals(Integer.toString(i), Float128.from(i).toString());
+        }
+        Assertions.assertEquals("0.3333333333333333333333333333333333", Float128.ONE.copy().divide(Float128.from(3)).toString());
+        Assertions.assertEquals("0.1000000000000000055511151231257827", Float128.from(0.1).toString());
+        Assertions.assertEquals("0.0015", Float128.from(3).divide(Float128.from(2000)).toString());
+        Assertions.assertEquals("1.0E8", Float128.from(1e8).toString());
+        Assertions.assertEquals("-2.5E-4", Float128.from(-1).divide(Float128.from(4000)).toString());
+        Assertions.assertEquals("1.189731495357231765085759326628007E4932", Float128.MAX_VALUE.toString());
+        Assertions.assertEquals("6.0E-4966", Float128.MIN_VALUE.toString());
+        Assertions.assertEquals("-INFINITY", Float128.NEGATIVE_INFINITY.toString());
+        Assertions.assertEquals("NAN", Float128.NAN.toString());
+
+        StringBuilder builder = new StringBuilder("x = ");
+        Assertions.assertSame(builder, Float128.from(1.5).appendTo(builder));
+        Assertions.assertEquals("x = 1.5", builder.toString());
+    }
+
     @Test
     void testCompare() {
         for (int i = -100_000; i < 100_000; i++) {
@@ -183,4 +484,60 @@ public class Float128Test {
             Assertions.assertTrue(float128a.compareTo(float128b) < 0, i + " < " + (i + 1));
         }
     }
+
+    @Test
+    void compareTotalOrder() {
+        Float128 negativeNaN = Float128.NAN.copy().negate();
+        //Strictly increasing, matching the order Double.compare gives the corresponding doubles
+        Float128[] ordered = {
+                Float128.NEGATIVE_INFINITY,
+                Float128.MAX_VALUE.copy().negate(),
+                Float128.from(-2),
+                Float128.ONE.copy().negate(),
+                Float128.MIN_NORMAL.copy().negate(),
+                Float128.MAX_SUBNORMAL.copy().negate(),
+                Float128.MIN_VALUE.copy().negate(),
+                Float128.ZERO.copy().negate(),
+                Float128.ZERO,
+                Float128.MIN_VALUE,
+                Float128.MAX_SUBNORMAL,
+                Float128.MIN_NORMAL,
+                Float128.ONE,
+                Float128.from(2),
+                Float128.MAX_VALUE,
+                Float128.POSITIVE_INFINITY,
+                Float128.NAN,
+        };
+        for (int i = 0; i < ordered.length; i++) {
+            for (int j = 0; j < ordered.length; j++) {
+                int expected = Integer.signum(Integer.compare(i, j));
+                int fi = i;
+                int fj = j;
+                Assertions.assertEquals(expected, Integer.signum(ordered[i].compareTo(ordered[j])),
+                                        () -> ordered[fi] + " vs " + ordered[fj]);
+            }
+        }
+
+        Assertions.assertEquals(0, negativeNaN.compareTo(Float128.NAN));
+        Assertions.assertTrue(negativeNaN.compareTo(Float128.POSITIVE_INFINITY) > 0);
+        Assertions.assertTrue(Float128.NEGATIVE_INFINITY.compareTo(negativeNaN) < 0);
+        //equals and hashCode agree with compareTo like Double.equals
+        Assertions.assertEquals(Float128.NAN, negativeNaN);
+        Assertions.assertEquals(Float128.NAN.hashCode(), negativeNaN.hashCode());
+        for (Float128 a : ordered) {
+            for (Float128 b : ordered) {
+                Assertions.assertEquals(a.compareTo(b) == 0, a.equals(b), () -> a + " equals " + b);
+            }
+        }
+        List<Float128> zeros = List.of(Float128.ZERO, Float128.ZERO.copy().negate(), Float128.ZERO.copy());
+        Assertions.assertEquals(2, new TreeSet<>(zeros).size());
+        Assertions.assertEquals(2, new HashSet<>(zeros).size());
+
+        Float128[] shuffled = ordered.clone();
+        Collections.shuffle(Arrays.asList(shuffled), new Random(0));
+        Arrays.sort(shuffled);
+        for (int i = 0; i < ordered.length; i++) {
+            Assertions.assertEquals(0, ordered[i].compareTo(shuffled[i]), "sorted index " + i);
+        }
+    }
 }
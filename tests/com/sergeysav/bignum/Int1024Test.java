@@ -1,6 +1,7 @@
 package com.sergeysav.bignum;
 
 import com.sergeysav.bignum.Int1024;
+import java.math.BigInteger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -17,10 +18,22 @@ class Int1024Test {
                                 Int1024.add(Int1024.from(Long.MAX_VALUE), Int1024.from(1)));
     }
 
+    @Test
+    void subtract() {
+        Assertions.assertEquals(Int1024.from(-2), Int1024.subtract(Int1024.from(5), Int1024.from(7)));
+        Assertions.assertEquals(Int1024.from(2), Int1024.subtract(Int1024.from(-5), Int1024.from(-7)));
+        Assertions.assertEquals(Int1024.from(0), Int1024.from(Long.MIN_VALUE).subtract(Int1024.from(Long.MIN_VALUE)));
+        Assertions.assertEquals(Int1024.MAX_VALUE, Int1024.subtract(Int1024.MIN_VALUE, Int1024.ONE));
+    }
+
     @Test
     void negate() {
         Assertions.assertEquals(Int1024.from(-1), Int1024.from(1).negate());
         Assertions.assertEquals(Int1024.from(1), Int1024.from(-1).negate());
+        Assertions.assertEquals(Int1024.ZERO, Int1024.from(0).negate());
+        Assertions.assertEquals(Int1024.MIN_VALUE, Int1024.negate(Int1024.MIN_VALUE));
+        Assertions.assertEquals(Int1024.from(-1).shiftLeft(64), Int1024.from(1).shiftLeft(64).negate());
+        Assertions.assertEquals(Int1024.from(Long.MIN_VALUE).negate(), Int1024.abs(Int1024.from(Long.MIN_VALUE)));
     }
 
     @Test
@@ -32,6 +45,37 @@ class Int1024Test {
         Assertions.assertEquals("10", Int1024.from(10).toString());
         Assertions.assertEquals("19", Int1024.from(19).toString());
         Assertions.assertEquals("1241240003671", Int1024.from(1241240003671L).toString());
+        Assertions.assertEquals("1000000000000000000000", Int1024.from(1000000000000000000L).multiply(Int1024.from(1000)).toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(1024 - 1).negate().toString(), Int1024.MIN_VALUE.toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(1024 - 1).subtract(BigInteger.ONE).toString(), Int1024.MAX_VALUE.toString());
+    }
+
+    @Test
+    void toStringCommasTest() {
+        Assertions.assertEquals("0", Int1024.from(0).toStringCommas());
+        Assertions.assertEquals("100", Int1024.from(100).toStringCommas());
+        Assertions.assertEquals("-1,000", Int1024.from(-1000).toStringCommas());
+        Assertions.assertEquals("1,234,567", Int1024.from(1234567).toStringCommas());
+        Assertions.assertEquals("1,000,000,000,000,000,000,000", Int1024.from(1000000000000000000L).multiply(Int1024.from(1000)).toStringCommas());
+    }
+
+    @Test
+    void parse() {
+        Assertions.assertEquals(Int1024.from(0), Int1024.parse("0"));
+        Assertions.assertEquals(Int1024.from(-1241240003671L), Int1024.parse("-1241240003671"));
+        Assertions.assertEquals(Int1024.from(42), Int1024.parse("+42"));
+        Assertions.assertEquals(Int1024.from(1000000000000000000L).multiply(Int1024.from(1000)), Int1024.parse("1000000000000000000000"));
+        Assertions.assertEquals(Int1024.from(-255), Int1024.parse("-ff", 16));
+        Assertions.assertEquals(Int1024.from(123), Int1024.parse("id=123;", 3, 6, 10));
+        Assertions.assertEquals(Int1024.MAX_VALUE, Int1024.parse(Int1024.MAX_VALUE.toString()));
+        Assertions.assertEquals(Int1024.MIN_VALUE, Int1024.parse(Int1024.MIN_VALUE.toString()));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int1024.parse(""));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int1024.parse("-"));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int1024.parse("12a"));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int1024.parse(BigInteger.ONE.shiftLeft(1024 - 1).toString()));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int1024.parse(BigInteger.ONE.shiftLeft(1024 - 1).add(BigInteger.ONE).negate().toString()));
     }
 
     @Test
@@ -61,6 +105,9 @@ class Int1024Test {
                                 -1L & ~(0x1)),
                 Int1024.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L)
                         .shiftLeft(1));
+
+        Assertions.assertEquals(Int1024.from(1), Int1024.from(1).shiftLeft(64).shiftRightUnsigned(64));
+        Assertions.assertEquals(Int1024.from(6), Int1024.from(3).shiftLeft(64).shiftRightUnsigned(63));
     }
 
     @Test
@@ -86,6 +133,8 @@ class Int1024Test {
                                 -1L, -1L),
                 Int1024.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L)
                         .shiftRightUnsigned(2));
+
+        Assertions.assertEquals(Int1024.from(0), Int1024.from(Long.MAX_VALUE).shiftRightUnsigned(64));
     }
 
     @Test
@@ -109,6 +158,9 @@ class Int1024Test {
                 Int1024.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L), Int1024
                         .bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L)
                         .shiftRightSigned(2));
+
+        Assertions.assertEquals(Int1024.from(-1), Int1024.from(-5).shiftRightSigned(64));
+        Assertions.assertEquals(Int1024.from(1), Int1024.from(1).shiftLeft(64).shiftRightSigned(64));
     }
 
     @Test
@@ -139,6 +191,14 @@ class Int1024Test {
         Assertions.assertEquals(Int1024.bytesOf(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, -1 & ~(0x1)),
                                 Int1024.bytesOf(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -1)
                                         .multiply(Int1024.from(2)));
+
+        Assertions.assertEquals(Int1024.from(-6), Int1024.from(-2).multiply(Int1024.from(3)));
+        Assertions.assertEquals(Int1024.from(6), Int1024.from(-2).multiply(Int1024.from(-3)));
+        Assertions.assertEquals(Int1024.from(-255 * 255), Int1024.from(255).multiply(Int1024.from(-255)));
+
+        Assertions.assertEquals(Int1024.bytesOf(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -2, 1),
+                                Int1024.bytesOf(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -1)
+                                        .multiply(Int1024.bytesOf(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -1)));
     }
 
     @Test
@@ -148,5 +208,25 @@ class Int1024Test {
 
         Assertions.assertEquals(Int1024.from(1), Int1024.from(7).divide(Int1024.from(5)));
         Assertions.assertEquals(Int1024.from(2), Int1024.from(7).remainder(Int1024.from(5)));
+
+        Assertions.assertEquals(Int1024.from(-3), Int1024.from(7).divide(Int1024.from(-2)));
+        Assertions.assertEquals(Int1024.from(1), Int1024.from(7).remainder(Int1024.from(-2)));
+        Assertions.assertEquals(Int1024.from(-1), Int1024.from(-7).remainder(Int1024.from(-2)));
+
+        Assertions.assertThrows(ArithmeticException.class, () -> Int1024.from(1).divide(Int1024.ZERO));
+    }
+
+    @Test
+    void testCompareTo() {
+        Assertions.assertEquals(0, Int1024.from(5).compareTo(Int1024.from(5)));
+        Assertions.assertTrue(Int1024.from(-1).compareTo(Int1024.from(1)) < 0);
+        Assertions.assertTrue(Int1024.from(1).compareTo(Int1024.from(-1)) > 0);
+        Assertions.assertTrue(Int1024.from(-2).compareTo(Int1024.from(-1)) < 0);
+        Assertions.assertTrue(Int1024.from(Long.MAX_VALUE).compareTo(Int1024.from(Long.MIN_VALUE)) > 0);
+
+        Assertions.assertTrue(Int1024.MAX_VALUE.compareTo(Int1024.MIN_VALUE) > 0);
+        Assertions.assertTrue(Int1024.MIN_VALUE.compareTo(Int1024.MAX_VALUE) < 0);
+        Assertions.assertTrue(Int1024.MAX_VALUE.compareTo(Int1024.from(-1)) > 0);
+        Assertions.assertTrue(Int1024.MIN_VALUE.compareTo(Int1024.ONE) < 0);
     }
 }
\ No newline at end of file
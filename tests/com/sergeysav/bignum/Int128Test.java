@@ -1,6 +1,7 @@
 package com.sergeysav.bignum;
 
 import com.sergeysav.bignum.Int128;
+import java.math.BigInteger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -17,10 +18,22 @@ class Int128Test {
                                 Int128.add(Int128.from(Long.MAX_VALUE), Int128.from(1)));
     }
 
+    @Test
+    void subtract() {
+        Assertions.assertEquals(Int128.from(-2), Int128.subtract(Int128.from(5), Int128.from(7)));
+        Assertions.assertEquals(Int128.from(2), Int128.subtract(Int128.from(-5), Int128.from(-7)));
+        Assertions.assertEquals(Int128.from(0), Int128.from(Long.MIN_VALUE).subtract(Int128.from(Long.MIN_VALUE)));
+        Assertions.assertEquals(Int128.MAX_VALUE, Int128.subtract(Int128.MIN_VALUE, Int128.ONE));
+    }
+
     @Test
     void negate() {
         Assertions.assertEquals(Int128.from(-1), Int128.from(1).negate());
         Assertions.assertEquals(Int128.from(1), Int128.from(-1).negate());
+        Assertions.assertEquals(Int128.ZERO, Int128.from(0).negate());
+        Assertions.assertEquals(Int128.MIN_VALUE, Int128.negate(Int128.MIN_VALUE));
+        Assertions.assertEquals(Int128.from(-1).shiftLeft(64), Int128.from(1).shiftLeft(64).negate());
+        Assertions.assertEquals(Int128.from(Long.MIN_VALUE).negate(), Int128.abs(Int128.from(Long.MIN_VALUE)));
     }
 
     @Test
@@ -32,6 +45,37 @@ class Int128Test {
         Assertions.assertEquals("10", Int128.from(10).toString());
         Assertions.assertEquals("19", Int128.from(19).toString());
         Assertions.assertEquals("1241240003671", Int128.from(1241240003671L).toString());
+        Assertions.assertEquals("1000000000000000000000", Int128.from(1000000000000000000L).multiply(Int128.from(1000)).toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(128 - 1).negate().toString(), Int128.MIN_VALUE.toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(128 - 1).subtract(BigInteger.ONE).toString(), Int128.MAX_VALUE.toString());
+    }
+
+    @Test
+    void toStringCommasTest() {
+        Assertions.assertEquals("0", Int128.from(0).toStringCommas());
+        Assertions.assertEquals("100", Int128.from(100).toStringCommas());
+        Assertions.assertEquals("-1,000", Int128.from(-1000).toStringCommas());
+        Assertions.assertEquals("1,234,567", Int128.from(1234567).toStringCommas());
+        Assertions.assertEquals("1,000,000,000,000,000,000,000", Int128.from(1000000000000000000L).multiply(Int128.from(1000)).toStringCommas());
+    }
+
+    @Test
+    void parse() {
+        Assertions.assertEquals(Int128.from(0), Int128.parse("0"));
+        Assertions.assertEquals(Int128.from(-1241240003671L), Int128.parse("-1241240003671"));
+        Assertions.assertEquals(Int128.from(42), Int128.parse("+42"));
+        Assertions.assertEquals(Int128.from(1000000000000000000L).multiply(Int128.from(1000)), Int128.parse("1000000000000000000000"));
+        Assertions.assertEquals(Int128.from(-255), Int128.parse("-ff", 16));
+        Assertions.assertEquals(Int128.from(123), Int128.parse("id=123;", 3, 6, 10));
+        Assertions.assertEquals(Int128.MAX_VALUE, Int128.parse(Int128.MAX_VALUE.toString()));
+        Assertions.assertEquals(Int128.MIN_VALUE, Int128.parse(Int128.MIN_VALUE.toString()));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int128.parse(""));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int128.parse("-"));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int128.parse("12a"));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int128.parse(BigInteger.ONE.shiftLeft(128 - 1).toString()));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int128.parse(BigInteger.ONE.shiftLeft(128 - 1).add(BigInteger.ONE).negate().toString()));
     }
 
     @Test
@@ -57,6 +101,9 @@ class Int128Test {
         Assertions.assertEquals(Int128.from(255 * 256), Int128.from(255).shiftLeft(8));
 
         Assertions.assertEquals(Int128.bytesOf(-1L, -1L & ~(0x1)), Int128.bytesOf(-1L, -1L).shiftLeft(1));
+
+        Assertions.assertEquals(Int128.from(1), Int128.from(1).shiftLeft(64).shiftRightUnsigned(64));
+        Assertions.assertEquals(Int128.from(6), Int128.from(3).shiftLeft(64).shiftRightUnsigned(63));
     }
 
     @Test
@@ -75,6 +122,8 @@ class Int128Test {
         Assertions.assertEquals(Int128.bytesOf(Long.MAX_VALUE, -1L), Int128.bytesOf(-1L, -1L).shiftRightUnsigned(1));
         Assertions.assertEquals(Int128.bytesOf(Long.MAX_VALUE >> 1, -1L),
                                 Int128.bytesOf(-1L, -1L).shiftRightUnsigned(2));
+
+        Assertions.assertEquals(Int128.from(0), Int128.from(Long.MAX_VALUE).shiftRightUnsigned(64));
     }
 
     @Test
@@ -92,6 +141,9 @@ class Int128Test {
 
         Assertions.assertEquals(Int128.bytesOf(-1L, -1L), Int128.bytesOf(-1L, -1L).shiftRightSigned(1));
         Assertions.assertEquals(Int128.bytesOf(-1L, -1L), Int128.bytesOf(-1L, -1L).shiftRightSigned(2));
+
+        Assertions.assertEquals(Int128.from(-1), Int128.from(-5).shiftRightSigned(64));
+        Assertions.assertEquals(Int128.from(1), Int128.from(1).shiftLeft(64).shiftRightSigned(64));
     }
 
     @Test
@@ -120,6 +172,12 @@ class Int128Test {
         Assertions.assertEquals(Int128.from(255 * 255), Int128.from(255).multiply(Int128.from(255)));
 
         Assertions.assertEquals(Int128.bytesOf(1, -1 & ~(0x1)), Int128.bytesOf(0, -1).multiply(Int128.from(2)));
+
+        Assertions.assertEquals(Int128.from(-6), Int128.from(-2).multiply(Int128.from(3)));
+        Assertions.assertEquals(Int128.from(6), Int128.from(-2).multiply(Int128.from(-3)));
+        Assertions.assertEquals(Int128.from(-255 * 255), Int128.from(255).multiply(Int128.from(-255)));
+
+        Assertions.assertEquals(Int128.bytesOf(-2, 1), Int128.bytesOf(0, -1).multiply(Int128.bytesOf(0, -1)));
     }
 
     @Test
@@ -135,5 +193,28 @@ class Int128Test {
 
         Assertions.assertEquals(Int128.from(0), Int128.from(-1).remainder(Int128.from(1)));
         Assertions.assertEquals(Int128.from(-1), Int128.from(-3).remainder(Int128.from(2)));
+
+        Assertions.assertEquals(Int128.from(-3), Int128.from(7).divide(Int128.from(-2)));
+        Assertions.assertEquals(Int128.from(1), Int128.from(7).remainder(Int128.from(-2)));
+        Assertions.assertEquals(Int128.from(-1), Int128.from(-7).remainder(Int128.from(-2)));
+
+        Assertions.assertEquals(Int128.bytesOf(0, Long.MAX_VALUE), Int128.divide(Int128.MAX_VALUE, Int128.bytesOf(1, 0)));
+        Assertions.assertEquals(Int128.bytesOf(0, -1), Int128.remainder(Int128.MAX_VALUE, Int128.bytesOf(1, 0)));
+
+        Assertions.assertThrows(ArithmeticException.class, () -> Int128.from(1).divide(Int128.ZERO));
+    }
+
+    @Test
+    void testCompareTo() {
+        Assertions.assertEquals(0, Int128.from(5).compareTo(Int128.from(5)));
+        Assertions.assertTrue(Int128.from(-1).compareTo(Int128.from(1)) < 0);
+        Assertions.assertTrue(Int128.from(1).compareTo(Int128.from(-1)) > 0);
+        Assertions.assertTrue(Int128.from(-2).compareTo(Int128.from(-1)) < 0);
+        Assertions.assertTrue(Int128.from(Long.MAX_VALUE).compareTo(Int128.from(Long.MIN_VALUE)) > 0);
+
+        Assertions.assertTrue(Int128.MAX_VALUE.compareTo(Int128.MIN_VALUE) > 0);
+        Assertions.assertTrue(Int128.MIN_VALUE.compareTo(Int128.MAX_VALUE) < 0);
+        Assertions.assertTrue(Int128.MAX_VALUE.compareTo(Int128.from(-1)) > 0);
+        Assertions.assertTrue(Int128.MIN_VALUE.compareTo(Int128.ONE) < 0);
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.sergeysav.bignum;
 
 import com.sergeysav.bignum.Int256;
+import java.math.BigInteger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -17,10 +18,22 @@ class Int256Test {
                                 Int256.add(Int256.from(Long.MAX_VALUE), Int256.from(1)));
     }
 
+    @Test
+    void subtract() {
+        Assertions.assertEquals(Int256.from(-2), Int256.subtract(Int256.from(5), Int256.from(7)));
+        Assertions.assertEquals(Int256.from(2), Int256.subtract(Int256.from(-5), Int256.from(-7)));
+        Assertions.assertEquals(Int256.from(0), Int256.from(Long.MIN_VALUE).subtract(Int256.from(Long.MIN_VALUE)));
+        Assertions.assertEquals(Int256.MAX_VALUE, Int256.subtract(Int256.MIN_VALUE, Int256.ONE));
+    }
+
     @Test
     void negate() {
         Assertions.assertEquals(Int256.from(-1), Int256.from(1).negate());
         Assertions.assertEquals(Int256.from(1), Int256.from(-1).negate());
+        Assertions.assertEquals(Int256.ZERO, Int256.from(0).negate());
+        Assertions.assertEquals(Int256.MIN_VALUE, Int256.negate(Int256.MIN_VALUE));
+        Assertions.assertEquals(Int256.from(-1).shiftLeft(64), Int256.from(1).shiftLeft(64).negate());
+        Assertions.assertEquals(Int256.from(Long.MIN_VALUE).negate(), Int256.abs(Int256.from(Long.MIN_VALUE)));
     }
 
     @Test
@@ -32,6 +45,37 @@ class Int256Test {
         Assertions.assertEquals("10", Int256.from(10).toString());
         Assertions.assertEquals("19", Int256.from(19).toString());
         Assertions.assertEquals("1241240003671", Int256.from(1241240003671L).toString());
+        Assertions.assertEquals("1000000000000000000000", Int256.from(1000000000000000000L).multiply(Int256.from(1000)).toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(256 - 1).negate().toString(), Int256.MIN_VALUE.toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(256 - 1).subtract(BigInteger.ONE).toString(), Int256.MAX_VALUE.toString());
+    }
+
+    @Test
+    void toStringCommasTest() {
+        Assertions.assertEquals("0", Int256.from(0).toStringCommas());
+        Assertions.assertEquals("100", Int256.from(100).toStringCommas());
+        Assertions.assertEquals("-1,000", Int256.from(-1000).toStringCommas());
+        Assertions.assertEquals("1,234,567", Int256.from(1234567).toStringCommas());
+        Assertions.assertEquals("1,000,000,000,000,000,000,000", Int256.from(1000000000000000000L).multiply(Int256.from(1000)).toStringCommas());
+    }
+
+    @Test
+    void parse() {
+        Assertions.assertEquals(Int256.from(0), Int256.parse("0"));
+        Assertions.assertEquals(Int256.from(-1241240003671L), Int256.parse("-1241240003671"));
+        Assertions.assertEquals(Int256.from(42), Int256.parse("+42"));
+        Assertions.assertEquals(Int256.from(1000000000000000000L).multiply(Int256.from(1000)), Int256.parse("1000000000000000000000"));
+        Assertions.assertEquals(Int256.from(-255), Int256.parse("-ff", 16));
+        Assertions.assertEquals(Int256.from(123), Int256.parse("id=123;", 3, 6, 10));
+        Assertions.assertEquals(Int256.MAX_VALUE, Int256.parse(Int256.MAX_VALUE.toString()));
+        Assertions.assertEquals(Int256.MIN_VALUE, Int256.parse(Int256.MIN_VALUE.toString()));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int256.parse(""));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int256.parse("-"));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int256.parse("12a"));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int256.parse(BigInteger.ONE.shiftLeft(256 - 1).toString()));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int256.parse(BigInteger.ONE.shiftLeft(256 - 1).add(BigInteger.ONE).negate().toString()));
     }
 
     @Test
@@ -58,6 +102,9 @@ class Int256Test {
 
         Assertions.assertEquals(Int256.bytesOf(-1L, -1L, -1L, -1L & ~(0x1)),
                                 Int256.bytesOf(-1L, -1L, -1L, -1L).shiftLeft(1));
+
+        Assertions.assertEquals(Int256.from(1), Int256.from(1).shiftLeft(64).shiftRightUnsigned(64));
+        Assertions.assertEquals(Int256.from(6), Int256.from(3).shiftLeft(64).shiftRightUnsigned(63));
     }
 
     @Test
@@ -77,6 +124,8 @@ class Int256Test {
                                 Int256.bytesOf(-1L, -1L, -1L, -1L).shiftRightUnsigned(1));
         Assertions.assertEquals(Int256.bytesOf(Long.MAX_VALUE >> 1, -1L, -1L, -1L),
                                 Int256.bytesOf(-1L, -1L, -1L, -1L).shiftRightUnsigned(2));
+
+        Assertions.assertEquals(Int256.from(0), Int256.from(Long.MAX_VALUE).shiftRightUnsigned(64));
     }
 
     @Test
@@ -96,6 +145,9 @@ class Int256Test {
                                 Int256.bytesOf(-1L, -1L, -1L, -1L).shiftRightSigned(1));
         Assertions.assertEquals(Int256.bytesOf(-1L, -1L, -1L, -1L),
                                 Int256.bytesOf(-1L, -1L, -1L, -1L).shiftRightSigned(2));
+
+        Assertions.assertEquals(Int256.from(-1), Int256.from(-5).shiftRightSigned(64));
+        Assertions.assertEquals(Int256.from(1), Int256.from(1).shiftLeft(64).shiftRightSigned(64));
     }
 
     @Test
@@ -125,6 +177,12 @@ class Int256Test {
 
         Assertions.assertEquals(Int256.bytesOf(0, 0, 1, -1 & ~(0x1)),
                                 Int256.bytesOf(0, 0, 0, -1).multiply(Int256.from(2)));
+
+        Assertions.assertEquals(Int256.from(-6), Int256.from(-2).multiply(Int256.from(3)));
+        Assertions.assertEquals(Int256.from(6), Int256.from(-2).multiply(Int256.from(-3)));
+        Assertions.assertEquals(Int256.from(-255 * 255), Int256.from(255).multiply(Int256.from(-255)));
+
+        Assertions.assertEquals(Int256.bytesOf(0, 0, -2, 1), Int256.bytesOf(0, 0, 0, -1).multiply(Int256.bytesOf(0, 0, 0, -1)));
     }
 
     @Test
@@ -134,5 +192,65 @@ class Int256Test {
 
         Assertions.assertEquals(Int256.from(1), Int256.from(7).divide(Int256.from(5)));
         Assertions.assertEquals(Int256.from(2), Int256.from(7).remainder(Int256.from(5)));
+
+        Assertions.assertEquals(Int256.from(-3), Int256.from(7).divide(Int256.from(-2)));
+        Assertions.assertEquals(Int256.from(1), Int256.from(7).remainder(Int256.from(-2)));
+        Assertions.assertEquals(Int256.from(-1), Int256.from(-7).remainder(Int256.from(-2)));
+
+        Assertions.assertThrows(ArithmeticException.class, () -> Int256.from(1).divide(Int256.ZERO));
+    }
+
+    @Test
+    void testCompareTo() {
+        Assertions.assertEquals(0, Int256.from(5).compareTo(Int256.from(5)));
+        Assertions.assertTrue(Int256.from(-1).compareTo(Int256.from(1)) < 0);
+        Assertions.assertTrue(Int256.from(1).compareTo(Int256.from(-1)) > 0);
+        Assertions.assertTrue(Int256.from(-2).compareTo(Int256.from(-1)) < 0);
+        Assertions.assertTrue(Int256.from(Long.MAX_VALUE).compareTo(Int256.from(Long.MIN_VALUE)) > 0);
+
+        Assertions.assertTrue(Int256.MAX_VALUE.compareTo(Int256.MIN_VALUE) > 0);
+        Assertions.assertTrue(Int256.MIN_VALUE.compareTo(Int256.MAX_VALUE) < 0);
+        Assertions.assertTrue(Int256.MAX_VALUE.compareTo(Int256.from(-1)) > 0);
+        Assertions.assertTrue(Int256.MIN_VALUE.compareTo(Int256.ONE) < 0);
+    }
+
+    @Test
+    void limbBoundaries() {
+        //Every value and shift straddles the boundary between two of the limbs held in fields
+        Int256[] values = {Int256.ONE, Int256.from(-1), Int256.MIN_VALUE, Int256.MAX_VALUE,
+                           Int256.bytesOf(0, 0, 1, Long.MIN_VALUE), Int256.bytesOf(0, 1, Long.MIN_VALUE, 0),
+                           Int256.bytesOf(1, Long.MIN_VALUE, 0, -1L), Int256.bytesOf(-2, Long.MAX_VALUE, -1L, 1)};
+        int[] shifts = {0, 1, 63, 64, 65, 127, 128, 129, 191, 192, 193, 255};
+        BigInteger modulus = BigInteger.ONE.shiftLeft(256);
+        for (Int256 value : values) {
+            BigInteger big = new BigInteger(value.toString());
+            for (int shift : shifts) {
+                Assertions.assertEquals(wrap(big.shiftLeft(shift)), new BigInteger(Int256.shiftLeft(value, shift).toString()),
+                                        value + " << " + shift);
+                Assertions.assertEquals(big.shiftRight(shift), new BigInteger(Int256.shiftRightSigned(value, shift).toString()),
+                                        value + " >> " + shift);
+                Assertions.assertEquals(big.mod(modulus).shiftRight(shift),
+                                        new BigInteger(Int256.shiftRightUnsigned(value, shift).toString()).mod(modulus),
+                                        value + " >>> " + shift);
+            }
+            Assertions.assertEquals(value, Int256.parse(value.toString()));
+            Assertions.assertEquals(value, Int256.parse(big.toString(16), 16));
+            for (Int256 other : values) {
+                BigInteger otherBig = new BigInteger(other.toString());
+                Assertions.assertEquals(wrap(big.multiply(otherBig)), new BigInteger(Int256.multiply(value, other).toString()),
+                                        value + " * " + other);
+                if (!(value.equals(Int256.MIN_VALUE) && other.equals(Int256.from(-1)))) {
+                    Assertions.assertEquals(big.divide(otherBig), new BigInteger(Int256.divide(value, other).toString()),
+                                            value + " / " + other);
+                    Assertions.assertEquals(big.remainder(otherBig), new BigInteger(Int256.remainder(value, other).toString()),
+                                            value + " % " + other);
+                }
+            }
+        }
+    }
+
+    private static BigInteger wrap(BigInteger value) {
+        //Reduce to the signed 256 bit range
+        return value.add(BigInteger.ONE.shiftLeft(255)).mod(BigInteger.ONE.shiftLeft(256)).subtract(BigInteger.ONE.shiftLeft(255));
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.sergeysav.bignum;
 
 import com.sergeysav.bignum.Int512;
+import java.math.BigInteger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -17,10 +18,22 @@ class Int512Test {
                                 Int512.add(Int512.from(Long.MAX_VALUE), Int512.from(1)));
     }
 
+    @Test
+    void subtract() {
+        Assertions.assertEquals(Int512.from(-2), Int512.subtract(Int512.from(5), Int512.from(7)));
+        Assertions.assertEquals(Int512.from(2), Int512.subtract(Int512.from(-5), Int512.from(-7)));
+        Assertions.assertEquals(Int512.from(0), Int512.from(Long.MIN_VALUE).subtract(Int512.from(Long.MIN_VALUE)));
+        Assertions.assertEquals(Int512.MAX_VALUE, Int512.subtract(Int512.MIN_VALUE, Int512.ONE));
+    }
+
     @Test
     void negate() {
         Assertions.assertEquals(Int512.from(-1), Int512.from(1).negate());
         Assertions.assertEquals(Int512.from(1), Int512.from(-1).negate());
+        Assertions.assertEquals(Int512.ZERO, Int512.from(0).negate());
+        Assertions.assertEquals(Int512.MIN_VALUE, Int512.negate(Int512.MIN_VALUE));
+        Assertions.assertEquals(Int512.from(-1).shiftLeft(64), Int512.from(1).shiftLeft(64).negate());
+        Assertions.assertEquals(Int512.from(Long.MIN_VALUE).negate(), Int512.abs(Int512.from(Long.MIN_VALUE)));
     }
 
     @Test
@@ -32,6 +45,37 @@ class Int512Test {
         Assertions.assertEquals("10", Int512.from(10).toString());
         Assertions.assertEquals("19", Int512.from(19).toString());
         Assertions.assertEquals("1241240003671", Int512.from(1241240003671L).toString());
+        Assertions.assertEquals("1000000000000000000000", Int512.from(1000000000000000000L).multiply(Int512.from(1000)).toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(512 - 1).negate().toString(), Int512.MIN_VALUE.toString());
+        Assertions.assertEquals(BigInteger.ONE.shiftLeft(512 - 1).subtract(BigInteger.ONE).toString(), Int512.MAX_VALUE.toString());
+    }
+
+    @Test
+    void toStringCommasTest() {
+        Assertions.assertEquals("0", Int512.from(0).toStringCommas());
+        Assertions.assertEquals("100", Int512.from(100).toStringCommas());
+        Assertions.assertEquals("-1,000", Int512.from(-1000).toStringCommas());
+        Assertions.assertEquals("1,234,567", Int512.from(1234567).toStringCommas());
+        Assertions.assertEquals("1,000,000,000,000,000,000,000", Int512.from(1000000000000000000L).multiply(Int512.from(1000)).toStringCommas());
+    }
+
+    @Test
+    void parse() {
+        Assertions.assertEquals(Int512.from(0), Int512.parse("0"));
+        Assertions.assertEquals(Int512.from(-1241240003671L), Int512.parse("-1241240003671"));
+        Assertions.assertEquals(Int512.from(42), Int512.parse("+42"));
+        Assertions.assertEquals(Int512.from(1000000000000000000L).multiply(Int512.from(1000)), Int512.parse("1000000000000000000000"));
+        Assertions.assertEquals(Int512.from(-255), Int512.parse("-ff", 16));
+        Assertions.assertEquals(Int512.from(123), Int512.parse("id=123;", 3, 6, 10));
+        Assertions.assertEquals(Int512.MAX_VALUE, Int512.parse(Int512.MAX_VALUE.toString()));
+        Assertions.assertEquals(Int512.MIN_VALUE, Int512.parse(Int512.MIN_VALUE.toString()));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int512.parse(""));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int512.parse("-"));
+        Assertions.assertThrows(NumberFormatException.class, () -> Int512.parse("12a"));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int512.parse(BigInteger.ONE.shiftLeft(512 - 1).toString()));
+        Assertions.assertThrows(NumberFormatException.class,
+                                () -> Int512.parse(BigInteger.ONE.shiftLeft(512 - 1).add(BigInteger.ONE).negate().toString()));
     }
 
     @Test
@@ -58,6 +102,9 @@ class Int512Test {
 
         Assertions.assertEquals(Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L & ~(0x1)),
                                 Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L).shiftLeft(1));
+
+        Assertions.assertEquals(Int512.from(1), Int512.from(1).shiftLeft(64).shiftRightUnsigned(64));
+        Assertions.assertEquals(Int512.from(6), Int512.from(3).shiftLeft(64).shiftRightUnsigned(63));
     }
 
     @Test
@@ -77,6 +124,8 @@ class Int512Test {
                                 Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L).shiftRightUnsigned(1));
         Assertions.assertEquals(Int512.bytesOf(Long.MAX_VALUE >> 1, -1L, -1L, -1L, -1L, -1L, -1L, -1L),
                                 Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L).shiftRightUnsigned(2));
+
+        Assertions.assertEquals(Int512.from(0), Int512.from(Long.MAX_VALUE).shiftRightUnsigned(64));
     }
 
     @Test
@@ -96,6 +145,9 @@ class Int512Test {
                                 Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L).shiftRightSigned(1));
         Assertions.assertEquals(Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L),
                                 Int512.bytesOf(-1L, -1L, -1L, -1L, -1L, -1L, -1L, -1L).shiftRightSigned(2));
+
+        Assertions.assertEquals(Int512.from(-1), Int512.from(-5).shiftRightSigned(64));
+        Assertions.assertEquals(Int512.from(1), Int512.from(1).shiftLeft(64).shiftRightSigned(64));
     }
 
     @Test
@@ -125,6 +177,14 @@ class Int512Test {
 
         Assertions.assertEquals(Int512.bytesOf(0, 0, 0, 0, 0, 0, 1, -1 & ~(0x1)),
                                 Int512.bytesOf(0, 0, 0, 0, 0, 0, 0, -1).multiply(Int512.from(2)));
+
+        Assertions.assertEquals(Int512.from(-6), Int512.from(-2).multiply(Int512.from(3)));
+        Assertions.assertEquals(Int512.from(6), Int512.from(-2).multiply(Int512.from(-3)));
+        Assertions.assertEquals(Int512.from(-255 * 255), Int512.from(255).multiply(Int512.from(-255)));
+
+        Assertions.assertEquals(Int512.bytesOf(0, 0, 0, 0, 0, 0, -2, 1),
+                                Int512.bytesOf(0, 0, 0, 0, 0, 0, 0, -1)
+                                        .multiply(Int512.bytesOf(0, 0, 0, 0, 0, 0, 0, -1)));
     }
 
     @Test
@@ -134,5 +194,25 @@ class Int512Test {
 
         Assertions.assertEquals(Int512.from(1), Int512.from(7).divide(Int512.from(5)));
         Assertions.assertEquals(Int512.from(2), Int512.from(7).remainder(Int512.from(5)));
+
+        Assertions.assertEquals(Int512.from(-3), Int512.from(7).divide(Int512.from(-2)));
+        Assertions.assertEquals(Int512.from(1), Int512.from(7).remainder(Int512.from(-2)));
+        Assertions.assertEquals(Int512.from(-1), Int512.from(-7).remainder(Int512.from(-2)));
+
+        Assertions.assertThrows(ArithmeticException.class, () -> Int512.from(1).divide(Int512.ZERO));
+    }
+
+    @Test
+    void testCompareTo() {
+        Assertions.assertEquals(0, Int512.from(5).compareTo(Int512.from(5)));
+        Assertions.assertTrue(Int512.from(-1).compareTo(Int512.from(1)) < 0);
+        Assertions.assertTrue(Int512.from(1).compareTo(Int512.from(-1)) > 0);
+        Assertions.assertTrue(Int512.from(-2).compareTo(Int512.from(-1)) < 0);
+        Assertions.assertTrue(Int512.from(Long.MAX_VALUE).compareTo(Int512.from(Long.MIN_VALUE)) > 0);
+
+        Assertions.assertTrue(Int512.MAX_VALUE.compareTo(Int512.MIN_VALUE) > 0);
+        Assertions.assertTrue(Int512.MIN_VALUE.compareTo(Int512.MAX_VALUE) < 0);
+        Assertions.assertTrue(Int512.MAX_VALUE.compareTo(Int512.from(-1)) > 0);
+        Assertions.assertTrue(Int512.MIN_VALUE.compareTo(Int512.ONE) < 0);
     }
 }
\ No newline at end of file